@@ -26,6 +26,8 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -38,6 +40,7 @@ import org.springframework.stereotype.Component;
 import org.thingsboard.rule.engine.api.MailService;
 import org.thingsboard.rule.engine.api.RuleChainTransactionService;
 import org.thingsboard.server.actors.service.ActorService;
+import org.thingsboard.server.actors.service.TenantRuleDispatchers;
 import org.thingsboard.server.actors.tenant.DebugTbRateLimits;
 import org.thingsboard.server.common.data.DataConstants;
 import org.thingsboard.server.common.data.Event;
@@ -75,6 +78,7 @@ import org.thingsboard.server.service.executors.DbCallbackExecutorService;
 import org.thingsboard.server.service.executors.ExternalCallExecutorService;
 import org.thingsboard.server.service.executors.SharedEventLoopGroupService;
 import org.thingsboard.server.service.mail.MailExecutorService;
+import org.thingsboard.server.service.queue.RuleEngineMsgLog;
 import org.thingsboard.server.service.rpc.DeviceRpcService;
 import org.thingsboard.server.service.script.JsExecutorService;
 import org.thingsboard.server.service.script.JsInvokeService;
@@ -256,6 +260,14 @@ public class ActorSystemContext {
     @Getter
     private RuleChainTransactionService ruleChainTransactionService;
 
+    @Autowired
+    @Getter
+    private RuleEngineMsgLog ruleEngineMsgLog;
+
+    @Autowired
+    @Getter
+    private TenantRuleDispatchers tenantRuleDispatchers;
+
     @Value("${cluster.partition_id}")
     @Getter
     private long queuePartitionId;
@@ -288,6 +300,10 @@ public class ActorSystemContext {
     @Getter
     private long ruleNodeErrorPersistFrequency;
 
+    @Value("${actors.rule.chain.fusion_enabled:false}")
+    @Getter
+    private boolean ruleChainFusionEnabled;
+
     @Value("${actors.statistics.enabled}")
     @Getter
     private boolean statisticsEnabled;
@@ -303,6 +319,9 @@ public class ActorSystemContext {
     @Getter
     private final AtomicInteger jsInvokeFailuresCount = new AtomicInteger(0);
 
+    private long lastMsgDataParsedCount;
+    private long lastMsgDataReusedCount;
+
     @Scheduled(fixedDelayString = "${js.remote.stats.print_interval_ms}")
     public void printStats() {
         if (statisticsEnabled) {
@@ -310,6 +329,15 @@ public class ActorSystemContext {
                 log.info("Rule Engine JS Invoke Stats: requests [{}] responses [{}] failures [{}]",
                         jsInvokeRequestsCount.getAndSet(0), jsInvokeResponsesCount.getAndSet(0), jsInvokeFailuresCount.getAndSet(0));
             }
+            long msgDataParsedTotal = TbMsg.getJsonParsedCount();
+            long msgDataReusedTotal = TbMsg.getJsonReusedCount();
+            long msgDataParsed = msgDataParsedTotal - lastMsgDataParsedCount;
+            long msgDataReused = msgDataReusedTotal - lastMsgDataReusedCount;
+            lastMsgDataParsedCount = msgDataParsedTotal;
+            lastMsgDataReusedCount = msgDataReusedTotal;
+            if (msgDataParsed > 0 || msgDataReused > 0) {
+                log.info("Rule Engine Msg Data Stats: parsed [{}] reused [{}]", msgDataParsed, msgDataReused);
+            }
         }
     }
 
@@ -317,6 +345,14 @@ public class ActorSystemContext {
     @Getter
     private boolean tenantComponentsInitEnabled;
 
+    @Value("${actors.tenant.init_batch_size:0}")
+    @Getter
+    private int tenantActorsInitBatchSize;
+
+    @Getter
+    @Setter
+    private volatile boolean tenantActorsInitialized;
+
     @Value("${actors.rule.allow_system_mail_service}")
     @Getter
     private boolean allowSystemMailService;
@@ -368,10 +404,26 @@ public class ActorSystemContext {
     @Getter
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired
+    @Getter
+    private MeterRegistry meterRegistry;
+
     public ActorSystemContext() {
         config = ConfigFactory.parseResources(AKKA_CONF_FILE_NAME).withFallback(ConfigFactory.load());
     }
 
+    /**
+     * 规则节点onMsg的同步处理耗时，按节点类型统计
+     * @param ruleNodeType 规则节点的类名
+     */
+    public Timer getRuleNodeTimer(String ruleNodeType) {
+        return Timer.builder("tb.rule.node.processing")
+                .description("Time spent in the onMsg method of rule nodes")
+                .tag("nodeType", ruleNodeType.substring(ruleNodeType.lastIndexOf('.') + 1))
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
     public Scheduler getScheduler() {
         return actorSystem.scheduler();
     }
@@ -456,7 +508,7 @@ public class ActorSystemContext {
                 event.setEntityId(entityId);
                 event.setType(DataConstants.DEBUG_RULE_NODE);
 
-                String metadata = mapper.writeValueAsString(tbMsg.getMetaData().getData());
+                String metadata = mapper.writeValueAsString(tbMsg.getMetaData().readOnlyData());
 
                 ObjectNode node = mapper.createObjectNode()
                         .put("type", type)
@@ -34,6 +34,7 @@ import org.thingsboard.server.actors.service.ContextBasedCreator;
 import org.thingsboard.server.actors.service.DefaultActorService;
 import org.thingsboard.server.actors.shared.rulechain.SystemRuleChainManager;
 import org.thingsboard.server.actors.tenant.TenantActor;
+import org.thingsboard.server.actors.tenant.TenantActorStartedMsg;
 import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.Tenant;
 import org.thingsboard.server.common.data.id.TenantId;
@@ -51,8 +52,11 @@ import org.thingsboard.server.dao.tenant.TenantService;
 import scala.concurrent.duration.Duration;
 
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * 接收设备端发来的消息
@@ -63,12 +67,19 @@ public class AppActor extends RuleChainManagerActor {
     private static final TenantId SYSTEM_TENANT = new TenantId(ModelConstants.NULL_UUID);
     private final TenantService tenantService;
     private final BiMap<TenantId, ActorRef> tenantActors;
+    private final Set<TenantId> initializingTenants;
+    private final Map<ActorRef, TenantId> deletedTenantActors;
+    private Iterator<Tenant> tenantsToInit;
+    private int initializedTenantsCount;
+    private long tenantsInitStartTs;
     private boolean ruleChainsInitialized;
 
     private AppActor(ActorSystemContext systemContext) {
         super(systemContext, new SystemRuleChainManager(systemContext));
         this.tenantService = systemContext.getTenantService();
         this.tenantActors = HashBiMap.create();
+        this.initializingTenants = new HashSet<>();
+        this.deletedTenantActors = new HashMap<>();
     }
 
     @Override
@@ -92,6 +103,12 @@ public class AppActor extends RuleChainManagerActor {
         switch (msg.getMsgType()) {
             case APP_INIT_MSG:
                 break;
+            case TENANT_ACTOR_STARTED_MSG:
+                completeTenantActorInit(((TenantActorStartedMsg) msg).getTenantId());
+                break;
+            case COMPONENT_STARTED_MSG:
+                // system rule chains are not tracked
+                break;
             case SEND_TO_CLUSTER_MSG:
                 onPossibleClusterMsg((SendToClusterMsg) msg);
                 break;
@@ -128,12 +145,12 @@ public class AppActor extends RuleChainManagerActor {
         try {
             initRuleChains();
             if (systemContext.isTenantComponentsInitEnabled()) {
-                PageDataIterable<Tenant> tenantIterator = new PageDataIterable<>(tenantService::findTenants, ENTITY_PACK_LIMIT);
-                for (Tenant tenant : tenantIterator) {
-                    log.debug("[{}] Creating tenant actor", tenant.getId());
-                    getOrCreateTenantActor(tenant.getId());
-                    log.debug("Tenant actor created.");
-                }
+                tenantsToInit = new PageDataIterable<>(tenantService::findTenants, ENTITY_PACK_LIMIT).iterator();
+                tenantsInitStartTs = System.currentTimeMillis();
+                initNextTenantActors();
+            } else {
+                systemContext.setTenantActorsInitialized(true);
+                log.info("Tenant actors will be created on demand.");
             }
             log.info("Main system actor started.");
         } catch (Exception e) {
@@ -141,11 +158,56 @@ public class AppActor extends RuleChainManagerActor {
         }
     }
 
+    /**
+     * Creates tenant actors until the number of tenants that are still initializing their rule chains
+     * reaches {@code actors.tenant.init_batch_size}. The rest is created as soon as those tenants report start,
+     * so the app actor keeps routing messages while the tenants are initialized.
+     */
+    private void initNextTenantActors() {
+        if (tenantsToInit == null) {
+            return;
+        }
+        int batchSize = systemContext.getTenantActorsInitBatchSize();
+        try {
+            while (tenantsToInit.hasNext() && (batchSize <= 0 || initializingTenants.size() < batchSize)) {
+                TenantId tenantId = tenantsToInit.next().getId();
+                if (!tenantActors.containsKey(tenantId)) {
+                    log.debug("[{}] Creating tenant actor", tenantId);
+                    initializingTenants.add(tenantId);
+                    getOrCreateTenantActor(tenantId);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to fetch tenants, remaining tenant actors will be created on demand", e);
+            tenantsToInit = null;
+        }
+        if ((tenantsToInit == null || !tenantsToInit.hasNext()) && initializingTenants.isEmpty()) {
+            tenantsToInit = null;
+            systemContext.setTenantActorsInitialized(true);
+            log.info("Tenant actors initialized: [{}] tenants in [{}] ms.", initializedTenantsCount, System.currentTimeMillis() - tenantsInitStartTs);
+        }
+    }
+
+    private void completeTenantActorInit(TenantId tenantId) {
+        if (initializingTenants.remove(tenantId)) {
+            initializedTenantsCount++;
+            if (initializedTenantsCount % ENTITY_PACK_LIMIT == 0) {
+                log.info("Tenant actors initialization in progress: [{}] tenants started, [{}] starting, [{}] ms elapsed.",
+                        initializedTenantsCount, initializingTenants.size(), System.currentTimeMillis() - tenantsInitStartTs);
+            }
+            initNextTenantActors();
+        }
+    }
+
     private void onPossibleClusterMsg(SendToClusterMsg msg) {
         Optional<ServerAddress> address = systemContext.getRoutingService().resolveById(msg.getEntityId());
         if (address.isPresent()) {
             systemContext.getRpcService().tell(
                     systemContext.getEncodingService().convertToProtoDataMessage(address.get(), msg.getMsg()));
+            if (msg.getMsg().getMsgType() == MsgType.SERVICE_TO_RULE_ENGINE_MSG) {
+                // a replayed message is logged by the remote server, the local log is not responsible for it anymore
+                systemContext.getRuleEngineMsgLog().ack(((ServiceToRuleEngineMsg) msg.getMsg()).getTbMsg().getId());
+            }
         } else {
             self().tell(msg.getMsg(), ActorRef.noSender());
         }
@@ -174,11 +236,17 @@ public class AppActor extends RuleChainManagerActor {
             if (msg.getEntityId().getEntityType() == EntityType.TENANT
                     && msg.getEvent() == ComponentLifecycleEvent.DELETED) {
                 log.debug("[{}] Handling tenant deleted notification: {}", msg.getTenantId(), msg);
-                ActorRef tenantActor = tenantActors.remove(new TenantId(msg.getEntityId().getId()));
+                TenantId tenantId = new TenantId(msg.getEntityId().getId());
+                ActorRef tenantActor = tenantActors.remove(tenantId);
                 if (tenantActor != null) {
                     log.debug("[{}] Deleting tenant actor: {}", msg.getTenantId(), tenantActor);
                     context().stop(tenantActor);
+                    // the rule nodes may still record the CPU time until the tenant actor is terminated
+                    deletedTenantActors.put(tenantActor, tenantId);
+                } else {
+                    systemContext.getTenantRuleDispatchers().removeTenant(tenantId);
                 }
+                completeTenantActorInit(tenantId);
             } else {
                 target = getOrCreateTenantActor(msg.getTenantId());
             }
@@ -219,9 +287,14 @@ public class AppActor extends RuleChainManagerActor {
     protected void processTermination(Terminated message) {
         ActorRef terminated = message.actor();
         if (terminated instanceof LocalActorRef) {
-            boolean removed = tenantActors.inverse().remove(terminated) != null;
-            if (removed) {
+            TenantId tenantId = tenantActors.inverse().remove(terminated);
+            if (tenantId != null) {
                 log.debug("[{}] Removed actor:", terminated);
+                completeTenantActorInit(tenantId);
+            }
+            TenantId deletedTenantId = deletedTenantActors.remove(terminated);
+            if (deletedTenantId != null) {
+                systemContext.getTenantRuleDispatchers().removeTenant(deletedTenantId);
             }
         } else {
             throw new IllegalStateException("Remote actors are not supported!");
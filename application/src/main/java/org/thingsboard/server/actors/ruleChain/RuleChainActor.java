@@ -22,6 +22,7 @@ import org.thingsboard.server.actors.ActorSystemContext;
 import org.thingsboard.server.actors.device.DeviceActorToRuleEngineMsg;
 import org.thingsboard.server.actors.service.ComponentActor;
 import org.thingsboard.server.actors.service.ContextBasedCreator;
+import org.thingsboard.server.actors.shared.ComponentStartedMsg;
 import org.thingsboard.server.common.data.id.RuleChainId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.msg.TbActorMsg;
@@ -37,6 +38,12 @@ public class RuleChainActor extends ComponentActor<RuleChainId, RuleChainActorMe
                 context().parent(), context().self()));
     }
 
+    @Override
+    public void preStart() {
+        super.preStart();
+        processor.reportStartedIfReady();
+    }
+
     @Override
     protected boolean process(TbActorMsg msg) {
         switch (msg.getMsgType()) {
@@ -56,10 +63,14 @@ public class RuleChainActor extends ComponentActor<RuleChainId, RuleChainActorMe
             case RULE_CHAIN_TO_RULE_CHAIN_MSG:
                 processor.onRuleChainToRuleChainMsg((RuleChainToRuleChainMsg) msg);
                 break;
+            case COMPONENT_STARTED_MSG:
+                processor.onRuleNodeStarted(((ComponentStartedMsg) msg).getEntityId());
+                break;
             case CLUSTER_EVENT_MSG:
                 break;
             case STATS_PERSIST_TICK_MSG:
                 onStatsPersistTick(id);
+                processor.persistFusedNodesStats();
                 break;
             default:
                 return false;
@@ -20,14 +20,19 @@ import akka.actor.ActorRef;
 import akka.actor.Props;
 import akka.event.LoggingAdapter;
 import com.datastax.driver.core.utils.UUIDs;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Timer;
 
 import java.util.Optional;
 
 import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.rule.engine.api.TbNode;
+import org.thingsboard.rule.engine.api.TbNodeConfiguration;
 import org.thingsboard.server.actors.ActorSystemContext;
 import org.thingsboard.server.actors.device.DeviceActorToRuleEngineMsg;
-import org.thingsboard.server.actors.service.DefaultActorService;
 import org.thingsboard.server.actors.shared.ComponentMsgProcessor;
+import org.thingsboard.server.actors.shared.ComponentStartedMsg;
+import org.thingsboard.server.actors.stats.StatsPersistMsg;
 import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.RuleChainId;
@@ -44,13 +49,18 @@ import org.thingsboard.server.common.msg.cluster.ServerAddress;
 import org.thingsboard.server.common.msg.plugin.ComponentLifecycleMsg;
 import org.thingsboard.server.common.msg.system.ServiceToRuleEngineMsg;
 import org.thingsboard.server.dao.rule.RuleChainService;
+import org.thingsboard.server.service.queue.RuleEngineMsgLog;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -68,6 +78,12 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
     private final Map<RuleNodeId, RuleNodeCtx> nodeActors;
     private final Map<RuleNodeId, List<RuleNodeRelation>> nodeRoutes;
     private final RuleChainService service;
+    private final RuleEngineMsgLog msgLog;
+    private final Map<RuleNodeId, FusedRuleNode> fusedNodes;
+    private final Queue<Runnable> inlineQueue;
+    private volatile Thread inlineThread;
+    private final Set<EntityId> startingNodes;
+    private boolean startReported;
 
     private RuleNodeId firstId;
     private RuleNodeCtx firstNode;
@@ -82,7 +98,11 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
         this.nodeActors = new HashMap<>();
         this.nodeRoutes = new HashMap<>();
         this.service = systemContext.getRuleChainService();
+        this.msgLog = systemContext.getRuleEngineMsgLog();
         this.ruleChainName = ruleChainId.toString();
+        this.fusedNodes = new HashMap<>();
+        this.inlineQueue = new ArrayDeque<>();
+        this.startingNodes = new HashSet<>();
     }
 
     @Override
@@ -108,7 +128,10 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
                 for (RuleNode ruleNode : ruleNodeList) {
                     log.trace("[{}][{}] Creating rule node [{}]: {}", entityId, ruleNode.getId(), ruleNode.getName(), ruleNode);
                     ActorRef ruleNodeActor = createRuleNodeActor(context, ruleNode);
-                    nodeActors.put(ruleNode.getId(), new RuleNodeCtx(tenantId, self, ruleNodeActor, ruleNode));
+                    RuleNodeCtx nodeCtx = new RuleNodeCtx(tenantId, self, ruleNodeActor, ruleNode);
+                    nodeActors.put(ruleNode.getId(), nodeCtx);
+                    startingNodes.add(ruleNode.getId());
+                    updateFusedNode(nodeCtx);
                 }
                 initRoutes(ruleChain, ruleNodeList);
                 started = true;
@@ -130,10 +153,13 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
                 if (existing == null) {
                     log.trace("[{}][{}] Creating rule node [{}]: {}", entityId, ruleNode.getId(), ruleNode.getName(), ruleNode);
                     ActorRef ruleNodeActor = createRuleNodeActor(context, ruleNode);
-                    nodeActors.put(ruleNode.getId(), new RuleNodeCtx(tenantId, self, ruleNodeActor, ruleNode));
+                    RuleNodeCtx nodeCtx = new RuleNodeCtx(tenantId, self, ruleNodeActor, ruleNode);
+                    nodeActors.put(ruleNode.getId(), nodeCtx);
+                    updateFusedNode(nodeCtx);
                 } else {
                     log.trace("[{}][{}] Updating rule node [{}]: {}", entityId, ruleNode.getId(), ruleNode.getName(), ruleNode);
                     existing.setSelf(ruleNode);
+                    updateFusedNode(existing);
                     existing.getSelfActor().tell(new ComponentLifecycleMsg(tenantId, existing.getSelf().getId(), ComponentLifecycleEvent.UPDATED), self);
                 }
             }
@@ -143,10 +169,13 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
             removedRules.forEach(ruleNodeId -> {
                 log.trace("[{}][{}] Removing rule node [{}]", tenantId, entityId, ruleNodeId);
                 RuleNodeCtx removed = nodeActors.remove(ruleNodeId);
+                startingNodes.remove(ruleNodeId);
+                removeFusedNode(ruleNodeId);
                 removed.getSelfActor().tell(new ComponentLifecycleMsg(tenantId, removed.getSelf().getId(), ComponentLifecycleEvent.DELETED), self);
             });
 
             initRoutes(ruleChain, ruleNodeList);
+            reportStartedIfReady();
         }
     }
 
@@ -154,8 +183,10 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
     public void stop(ActorContext context) {
         log.trace("[{}][{}] Stopping rule chain with {} nodes", tenantId, entityId, nodeActors.size());
         nodeActors.values().stream().map(RuleNodeCtx::getSelfActor).forEach(context::stop);
+        new ArrayList<>(fusedNodes.keySet()).forEach(this::removeFusedNode);
         nodeActors.clear();
         nodeRoutes.clear();
+        startingNodes.clear();
         context.stop(self);
         started = false;
     }
@@ -165,9 +196,24 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
 
     }
 
+    void onRuleNodeStarted(EntityId ruleNodeId) {
+        if (startingNodes.remove(ruleNodeId)) {
+            reportStartedIfReady();
+        }
+    }
+
+    /**
+     * 规则节点的Actor是异步初始化的，所有节点初始化完成后才通知父Actor规则链已启动
+     */
+    void reportStartedIfReady() {
+        if (!startReported && startingNodes.isEmpty()) {
+            startReported = true;
+            parent.tell(new ComponentStartedMsg(entityId), self);
+        }
+    }
+
     private ActorRef createRuleNodeActor(ActorContext context, RuleNode ruleNode) {
-        String dispatcherName = tenantId.getId().equals(EntityId.NULL_UUID) ?
-                DefaultActorService.SYSTEM_RULE_DISPATCHER_NAME : DefaultActorService.TENANT_RULE_DISPATCHER_NAME;
+        String dispatcherName = systemContext.getTenantRuleDispatchers().getDispatcherName(tenantId);
         return context.actorOf(
                 Props.create(new RuleNodeActor.ActorCreator(systemContext, tenantId, entityId, ruleNode.getId()))
                         .withDispatcher(dispatcherName), ruleNode.getId().toString());
@@ -211,7 +257,9 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
         checkActive();
         if (firstNode != null) {
             log.trace("[{}][{}] Pushing message to first rule node", entityId, firstId);
-            pushMsgToNode(firstNode, enrichWithRuleChainId(envelope.getTbMsg()), "");
+            TbMsg msg = enrichWithRuleChainId(envelope.getTbMsg());
+            msgLog.append(tenantId, msg);
+            pushMsgToNode(firstNode, msg, "");
         }
     }
 
@@ -222,7 +270,9 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
     void onDeviceActorToRuleEngineMsg(DeviceActorToRuleEngineMsg envelope) {
         checkActive();
         if (firstNode != null) {
-            pushMsgToNode(firstNode, enrichWithRuleChainId(envelope.getTbMsg()), "");
+            TbMsg msg = enrichWithRuleChainId(envelope.getTbMsg());
+            msgLog.append(tenantId, msg);
+            pushMsgToNode(firstNode, msg, "");
         }
     }
 
@@ -231,15 +281,14 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
         if (envelope.isEnqueue()) {
             if (firstNode != null) {
                 pushMsgToNode(firstNode, enrichWithRuleChainId(envelope.getMsg()), envelope.getFromRelationType());
+            } else {
+                msgLog.ack(envelope.getMsg().getId());
             }
         } else {
             if (firstNode != null) {
                 pushMsgToNode(firstNode, envelope.getMsg(), envelope.getFromRelationType());
             } else {
-//                TODO: Ack this message in Kafka
-//                TbMsg msg = envelope.getMsg();
-//                EntityId ackId = msg.getRuleNodeId() != null ? msg.getRuleNodeId() : msg.getRuleChainId();
-//                queue.ack(tenantId, envelope.getMsg(), ackId.getId(), msg.getClusterPartition());
+                msgLog.ack(envelope.getMsg().getId());
             }
         }
     }
@@ -266,6 +315,8 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
         log.debug("Forwarding [{}] msg to remote server [{}] due to changed originator id: [{}]", msg.getId(), serverAddress, msg.getOriginator());
         envelope = new RemoteToRuleChainTellNextMsg(envelope, tenantId, entityId);
         systemContext.getRpcService().tell(systemContext.getEncodingService().convertToProtoDataMessage(serverAddress, envelope));
+        // the remote server continues the processing, the local log is not responsible for the message anymore
+        msgLog.ack(msg.getId());
     }
 
     private void onLocalTellNext(RuleNodeToRuleChainTellNextMsg envelope) {
@@ -275,13 +326,9 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
                 .filter(r -> contains(envelope.getRelationTypes(), r.getType()))
                 .collect(Collectors.toList());
         int relationsCount = relations.size();
-        EntityId ackId = msg.getRuleNodeId() != null ? msg.getRuleNodeId() : msg.getRuleChainId();
         if (relationsCount == 0) {
             log.trace("[{}][{}][{}] No outbound relations to process", tenantId, entityId, msg.getId());
-            if (ackId != null) {
-//                TODO: Ack this message in Kafka
-//                queue.ack(tenantId, msg, ackId.getId(), msg.getClusterPartition());
-            }
+            msgLog.ack(msg.getId());
         } else if (relationsCount == 1) {
             for (RuleNodeRelation relation : relations) {
                 log.trace("[{}][{}][{}] Pushing message to single target: [{}]", tenantId, entityId, msg.getId(), relation.getOut());
@@ -300,11 +347,8 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
                         break;
                 }
             }
-            //TODO: Ideally this should happen in async way when all targets confirm that the copied messages are successfully written to corresponding target queues.
-            if (ackId != null) {
-//                TODO: Ack this message in Kafka
-//                queue.ack(tenantId, msg, ackId.getId(), msg.getClusterPartition());
-            }
+            // the copies are registered in the log, so the original message is completed when all of them are acknowledged
+            msgLog.ack(msg.getId());
         }
     }
 
@@ -323,6 +367,7 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
     private void enqueueAndForwardMsgCopyToChain(TbMsg msg, EntityId target, String fromRelationType) {
         RuleChainId targetRCId = new RuleChainId(target.getId());
         TbMsg copyMsg = msg.copy(UUIDs.timeBased(), targetRCId, null, DEFAULT_CLUSTER_PARTITION);
+        msgLog.fork(msg.getId(), copyMsg.getId());
         parent.tell(new RuleChainToRuleChainMsg(new RuleChainId(target.getId()), entityId, copyMsg, fromRelationType, true), self);
     }
 
@@ -330,6 +375,7 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
         RuleNodeId targetId = new RuleNodeId(target.getId());
         RuleNodeCtx targetNodeCtx = nodeActors.get(targetId);
         TbMsg copy = msg.copy(UUIDs.timeBased(), entityId, targetId, DEFAULT_CLUSTER_PARTITION);
+        msgLog.fork(msg.getId(), copy.getId());
         pushMsgToNode(targetNodeCtx, copy, fromRelationType);
     }
 
@@ -346,7 +392,166 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
 
     private void pushMsgToNode(RuleNodeCtx nodeCtx, TbMsg msg, String fromRelationType) {
         if (nodeCtx != null) {
-            nodeCtx.getSelfActor().tell(new RuleChainToRuleNodeMsg(new DefaultTbContext(systemContext, nodeCtx), msg, fromRelationType), self);
+            FusedRuleNode fusedNode = fusedNodes.get(nodeCtx.getSelf().getId());
+            if (fusedNode != null && started && state == ComponentLifecycleState.ACTIVE) {
+                inlineQueue.add(() -> executeFusedNode(fusedNode, msg, fromRelationType));
+                runInline();
+            } else {
+                tellNodeActor(nodeCtx, msg, fromRelationType);
+            }
+        } else {
+            msgLog.ack(msg.getId());
+        }
+    }
+
+    private void tellNodeActor(RuleNodeCtx nodeCtx, TbMsg msg, String fromRelationType) {
+        nodeCtx.getSelfActor().tell(new RuleChainToRuleNodeMsg(new DefaultTbContext(systemContext, nodeCtx), msg, fromRelationType), self);
+    }
+
+    /**
+     * Executes fused nodes and routes their output in the current actor turn.
+     * The queue keeps the stack flat for long (or looped) sequences of fused nodes.
+     */
+    private void runInline() {
+        if (inlineThread != null) {
+            return;
+        }
+        inlineThread = Thread.currentThread();
+        try {
+            Runnable task;
+            while ((task = inlineQueue.poll()) != null) {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.warn("[{}][{}] Failed to process fused rule node msg", tenantId, entityId, e);
+                }
+            }
+        } finally {
+            inlineThread = null;
+        }
+    }
+
+    /**
+     * Mirrors {@link RuleNodeActorMessageProcessor#onRuleChainToRuleNodeMsg}. Errors are reported to the node actor,
+     * so they are counted in the node stats and persisted as the node error events, same as for the non fused nodes.
+     */
+    private void executeFusedNode(FusedRuleNode fusedNode, TbMsg msg, String fromRelationType) {
+        RuleNodeId ruleNodeId = fusedNode.nodeCtx.getSelf().getId();
+        if (fusedNodes.get(ruleNodeId) != fusedNode || state != ComponentLifecycleState.ACTIVE) {
+            // the node was updated, removed or stopped after the message was queued
+            RuleNodeCtx nodeCtx = nodeActors.get(ruleNodeId);
+            if (nodeCtx != null) {
+                tellNodeActor(nodeCtx, msg, fromRelationType);
+            } else {
+                msgLog.ack(msg.getId());
+            }
+            return;
+        }
+        try {
+            RuleNode ruleNode = fusedNode.nodeCtx.getSelf();
+            if (ruleNode.isDebugMode()) {
+                systemContext.persistDebugInput(tenantId, ruleNodeId, msg, fromRelationType);
+            }
+            long startTime = System.nanoTime();
+            long cpuTimeStart = systemContext.getTenantRuleDispatchers().getCpuTimeStart();
+            try {
+                fusedNode.tbNode.onMsg(fusedNode.ctx, msg);
+            } catch (Exception e) {
+                fusedNode.ctx.tellFailure(msg, e);
+                reportFusedNodeError(fusedNode, msg, e);
+            } finally {
+                fusedNode.processingTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+                systemContext.getTenantRuleDispatchers().recordCpuTime(tenantId, cpuTimeStart);
+            }
+            fusedNode.messagesProcessed++;
+        } catch (Exception e) {
+            log.debug("[{}][{}] Failed to process msg [{}] by fused rule node [{}]", tenantId, entityId, msg.getId(), ruleNodeId, e);
+            reportFusedNodeError(fusedNode, msg, e);
+        }
+    }
+
+    private void reportFusedNodeError(FusedRuleNode fusedNode, TbMsg msg, Throwable error) {
+        fusedNode.nodeCtx.getSelfActor().tell(new RuleNodeToSelfErrorMsg(msg, error), self);
+    }
+
+    private void updateFusedNode(RuleNodeCtx nodeCtx) {
+        RuleNode ruleNode = nodeCtx.getSelf();
+        FusedRuleNode existing = fusedNodes.get(ruleNode.getId());
+        if (existing != null) {
+            if (existing.type.equals(ruleNode.getType()) && existing.configuration.equals(ruleNode.getConfiguration())) {
+                return;
+            }
+            removeFusedNode(ruleNode.getId());
+        }
+        if (!systemContext.isRuleChainFusionEnabled() || !isStateless(ruleNode)) {
+            return;
+        }
+        try {
+            DefaultTbContext ctx = new DefaultTbContext(systemContext, nodeCtx) {
+                @Override
+                protected void tellChain(RuleNodeToRuleChainTellNextMsg msg) {
+                    if (Thread.currentThread() == inlineThread) {
+                        inlineQueue.add(() -> onTellNext(msg));
+                    } else {
+                        super.tellChain(msg);
+                    }
+                }
+            };
+            TbNode tbNode = (TbNode) Class.forName(ruleNode.getType()).newInstance();
+            tbNode.init(ctx, new TbNodeConfiguration(ruleNode.getConfiguration()));
+            fusedNodes.put(ruleNode.getId(), new FusedRuleNode(nodeCtx, ctx, tbNode, ruleNode.getType(), ruleNode.getConfiguration(),
+                    systemContext.getRuleNodeTimer(ruleNode.getType())));
+            log.trace("[{}][{}] Fused rule node [{}]", tenantId, entityId, ruleNode.getId());
+        } catch (Exception e) {
+            log.warn("[{}][{}] Failed to fuse rule node [{}], messages are sent to the node actor", tenantId, entityId, ruleNode.getId(), e);
+        }
+    }
+
+    private void removeFusedNode(RuleNodeId ruleNodeId) {
+        FusedRuleNode removed = fusedNodes.remove(ruleNodeId);
+        if (removed != null) {
+            removed.tbNode.destroy();
+        }
+    }
+
+    private boolean isStateless(RuleNode ruleNode) {
+        try {
+            org.thingsboard.rule.engine.api.RuleNode annotation =
+                    Class.forName(ruleNode.getType()).getAnnotation(org.thingsboard.rule.engine.api.RuleNode.class);
+            return annotation != null && annotation.stateless();
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Messages processed by the fused nodes are reported on behalf of the nodes, along with the stats of the node actors.
+     */
+    void persistFusedNodesStats() {
+        fusedNodes.forEach((ruleNodeId, fusedNode) -> {
+            if (fusedNode.messagesProcessed > 0) {
+                systemContext.getStatsActor().tell(new StatsPersistMsg(fusedNode.messagesProcessed, 0, tenantId, ruleNodeId), ActorRef.noSender());
+                fusedNode.messagesProcessed = 0;
+            }
+        });
+    }
+
+    private static final class FusedRuleNode {
+        private final RuleNodeCtx nodeCtx;
+        private final DefaultTbContext ctx;
+        private final TbNode tbNode;
+        private final String type;
+        private final JsonNode configuration;
+        private final Timer processingTimer;
+        private long messagesProcessed;
+
+        private FusedRuleNode(RuleNodeCtx nodeCtx, DefaultTbContext ctx, TbNode tbNode, String type, JsonNode configuration, Timer processingTimer) {
+            this.nodeCtx = nodeCtx;
+            this.ctx = ctx;
+            this.tbNode = tbNode;
+            this.type = type;
+            this.configuration = configuration;
+            this.processingTimer = processingTimer;
         }
     }
 
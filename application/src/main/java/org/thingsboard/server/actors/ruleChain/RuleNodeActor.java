@@ -18,6 +18,7 @@ package org.thingsboard.server.actors.ruleChain;
 import org.thingsboard.server.actors.ActorSystemContext;
 import org.thingsboard.server.actors.service.ComponentActor;
 import org.thingsboard.server.actors.service.ContextBasedCreator;
+import org.thingsboard.server.actors.shared.ComponentStartedMsg;
 import org.thingsboard.server.common.data.id.RuleChainId;
 import org.thingsboard.server.common.data.id.RuleNodeId;
 import org.thingsboard.server.common.data.id.TenantId;
@@ -35,6 +36,12 @@ public class RuleNodeActor extends ComponentActor<RuleNodeId, RuleNodeActorMessa
                 context().parent(), context().self()));
     }
 
+    @Override
+    public void preStart() {
+        super.preStart();
+        context().parent().tell(new ComponentStartedMsg(id), self());
+    }
+
     @Override
     protected boolean process(TbActorMsg msg) {
         switch (msg.getMsgType()) {
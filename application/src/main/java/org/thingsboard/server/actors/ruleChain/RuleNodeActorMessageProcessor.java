@@ -17,6 +17,7 @@ package org.thingsboard.server.actors.ruleChain;
 
 import akka.actor.ActorContext;
 import akka.actor.ActorRef;
+import io.micrometer.core.instrument.Timer;
 import org.thingsboard.rule.engine.api.TbContext;
 import org.thingsboard.rule.engine.api.TbNode;
 import org.thingsboard.rule.engine.api.TbNodeConfiguration;
@@ -30,6 +31,8 @@ import org.thingsboard.server.common.data.rule.RuleNode;
 import org.thingsboard.server.common.msg.cluster.ClusterEventMsg;
 import org.thingsboard.server.dao.rule.RuleChainService;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author Andrew Shvayka
  */
@@ -41,6 +44,7 @@ public class RuleNodeActorMessageProcessor extends ComponentMsgProcessor<RuleNod
     private RuleNode ruleNode;
     private TbNode tbNode;
     private TbContext defaultCtx;
+    private Timer processingTimer;
 
     RuleNodeActorMessageProcessor(TenantId tenantId, RuleChainId ruleChainId, RuleNodeId ruleNodeId, ActorSystemContext systemContext
             , ActorRef parent, ActorRef self) {
@@ -56,6 +60,7 @@ public class RuleNodeActorMessageProcessor extends ComponentMsgProcessor<RuleNod
     public void start(ActorContext context) throws Exception {
         tbNode = initComponent(ruleNode);
         if (tbNode != null) {
+            processingTimer = systemContext.getRuleNodeTimer(ruleNode.getType());
             state = ComponentLifecycleState.ACTIVE;
         }
     }
@@ -107,10 +112,15 @@ public class RuleNodeActorMessageProcessor extends ComponentMsgProcessor<RuleNod
         if (ruleNode.isDebugMode()) {
             systemContext.persistDebugInput(tenantId, entityId, msg.getMsg(), msg.getFromRelationType());
         }
+        long startTime = System.nanoTime();
+        long cpuTimeStart = systemContext.getTenantRuleDispatchers().getCpuTimeStart();
         try {
             tbNode.onMsg(msg.getCtx(), msg.getMsg());
         } catch (Exception e) {
             msg.getCtx().tellFailure(msg.getMsg(), e);
+        } finally {
+            processingTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            systemContext.getTenantRuleDispatchers().recordCpuTime(tenantId, cpuTimeStart);
         }
     }
 
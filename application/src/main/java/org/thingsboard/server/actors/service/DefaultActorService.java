@@ -20,6 +20,9 @@ import akka.actor.ActorSystem;
 import akka.actor.Props;
 import akka.actor.Terminated;
 import com.google.protobuf.ByteString;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -42,11 +45,13 @@ import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.plugin.ComponentLifecycleEvent;
 import org.thingsboard.server.common.msg.TbActorMsg;
+import org.thingsboard.server.common.msg.TbMsg;
 import org.thingsboard.server.common.msg.cluster.ClusterEventMsg;
 import org.thingsboard.server.common.msg.cluster.SendToClusterMsg;
 import org.thingsboard.server.common.msg.cluster.ServerAddress;
 import org.thingsboard.server.common.msg.cluster.ToAllNodesMsg;
 import org.thingsboard.server.common.msg.plugin.ComponentLifecycleMsg;
+import org.thingsboard.server.common.msg.system.ServiceToRuleEngineMsg;
 import org.thingsboard.server.gen.cluster.ClusterAPIProtos;
 import org.thingsboard.server.service.cluster.discovery.DiscoveryService;
 import org.thingsboard.server.service.cluster.discovery.ServerInstance;
@@ -59,9 +64,13 @@ import scala.concurrent.duration.Duration;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.thingsboard.server.gen.cluster.ClusterAPIProtos.MessageType.CLUSTER_ACTOR_MESSAGE;
 
@@ -89,6 +98,9 @@ public class DefaultActorService implements ActorService {
     @Autowired
     private DeviceStateService deviceStateService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private ActorSystem system;
 
     private ActorRef appActor;
@@ -104,7 +116,7 @@ public class DefaultActorService implements ActorService {
     public void initActorSystem() {
         log.info("Initializing Actor system.");
         actorContext.setActorService(this);
-        system = ActorSystem.create(ACTOR_SYSTEM_NAME, actorContext.getConfig());
+        system = ActorSystem.create(ACTOR_SYSTEM_NAME, actorContext.getTenantRuleDispatchers().withDispatchers(actorContext.getConfig()));
         actorContext.setActorSystem(system);
 
         appActor = system.actorOf(Props.create(new AppActor.ActorCreator(actorContext)).withDispatcher(APP_DISPATCHER_NAME), "appActor");
@@ -116,6 +128,22 @@ public class DefaultActorService implements ActorService {
         ActorRef statsActor = system.actorOf(Props.create(new StatsActor.ActorCreator(actorContext)).withDispatcher(CORE_DISPATCHER_NAME), "statsActor");
         actorContext.setStatsActor(statsActor);
 
+        List<String> dispatchers = new ArrayList<>(Arrays.asList(APP_DISPATCHER_NAME, CORE_DISPATCHER_NAME, SYSTEM_RULE_DISPATCHER_NAME,
+                TENANT_RULE_DISPATCHER_NAME, RPC_DISPATCHER_NAME));
+        dispatchers.addAll(actorContext.getTenantRuleDispatchers().getPoolDispatcherNames());
+        for (String dispatcher : dispatchers) {
+            Gauge.builder("tb.actors.mailbox.size", TbCountingMailbox.getPendingCounter(dispatcher), AtomicLong::get)
+                    .description("Messages waiting in the mailboxes of the actors that run on the dispatcher")
+                    .tag("dispatcher", dispatcher)
+                    .register(meterRegistry);
+        }
+        FunctionCounter.builder("tb.msg.json.parsed", TbMsg.class, msgClass -> TbMsg.getJsonParsedCount())
+                .description("Message data parse operations")
+                .register(meterRegistry);
+        FunctionCounter.builder("tb.msg.json.reused", TbMsg.class, msgClass -> TbMsg.getJsonReusedCount())
+                .description("Message data reads served by the already parsed JSON of the message or its copies")
+                .register(meterRegistry);
+
         rpcService.init(this);
         log.info("Actor system initialized.");
     }
@@ -128,6 +156,9 @@ public class DefaultActorService implements ActorService {
     public void onApplicationEvent(ApplicationReadyEvent applicationReadyEvent) {
         log.info("Received application ready event. Sending application init message to actor system");
         appActor.tell(new AppInitMsg(), ActorRef.noSender());
+        // the app actor processes the init message first, so the replayed messages find the initialized tenants
+        actorContext.getRuleEngineMsgLog().replay((tenantId, msg) ->
+                onMsg(new SendToClusterMsg(msg.getOriginator(), new ServiceToRuleEngineMsg(tenantId, msg))));
     }
 
     /**
@@ -0,0 +1,107 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.service;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.dispatch.Envelope;
+import akka.dispatch.MailboxType;
+import akka.dispatch.MessageQueue;
+import akka.dispatch.ProducesMessageQueue;
+import akka.dispatch.UnboundedMessageQueueSemantics;
+import com.typesafe.config.Config;
+import scala.Option;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 与默认的无界邮箱相同，另外按调度器统计所有Actor邮箱中待处理的消息总数
+ * 在actor-system.conf中通过调度器的mailbox-type配置
+ */
+public class TbCountingMailbox implements MailboxType, ProducesMessageQueue<TbCountingMailbox.CountingMessageQueue> {
+
+    private static final ConcurrentMap<String, AtomicLong> PENDING_MESSAGES = new ConcurrentHashMap<>();
+
+    private final AtomicLong pending;
+
+    public TbCountingMailbox(ActorSystem.Settings settings, Config config) {
+        String id = config.hasPath("id") ? config.getString("id") : "default";
+        this.pending = getPendingCounter(id);
+    }
+
+    /**
+     * @return the number of messages waiting in mailboxes of the actors that run on the dispatcher
+     */
+    public static long getPendingMessages(String dispatcherId) {
+        return getPendingCounter(dispatcherId).get();
+    }
+
+    static AtomicLong getPendingCounter(String dispatcherId) {
+        return PENDING_MESSAGES.computeIfAbsent(dispatcherId, id -> new AtomicLong());
+    }
+
+    @Override
+    public MessageQueue create(Option<ActorRef> owner, Option<ActorSystem> system) {
+        return new CountingMessageQueue(pending);
+    }
+
+    public static class CountingMessageQueue implements MessageQueue, UnboundedMessageQueueSemantics {
+
+        private final Queue<Envelope> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicLong pending;
+
+        CountingMessageQueue(AtomicLong pending) {
+            this.pending = pending;
+        }
+
+        @Override
+        public void enqueue(ActorRef receiver, Envelope handle) {
+            queue.offer(handle);
+            pending.incrementAndGet();
+        }
+
+        @Override
+        public Envelope dequeue() {
+            Envelope envelope = queue.poll();
+            if (envelope != null) {
+                pending.decrementAndGet();
+            }
+            return envelope;
+        }
+
+        @Override
+        public int numberOfMessages() {
+            return queue.size();
+        }
+
+        @Override
+        public boolean hasMessages() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public void cleanUp(ActorRef owner, MessageQueue deadLetters) {
+            Envelope envelope;
+            while ((envelope = dequeue()) != null) {
+                deadLetters.enqueue(owner, envelope);
+            }
+        }
+    }
+}
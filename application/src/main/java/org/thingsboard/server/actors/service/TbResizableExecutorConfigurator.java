@@ -0,0 +1,103 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.service;
+
+import akka.dispatch.DispatcherPrerequisites;
+import akka.dispatch.ExecutorServiceConfigurator;
+import akka.dispatch.ExecutorServiceFactory;
+import com.typesafe.config.Config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 固定大小的线程池执行器，线程数可以在运行时调整
+ * 在调度器配置中通过executor指定，初始线程数为resizable-executor.pool-size
+ */
+public class TbResizableExecutorConfigurator extends ExecutorServiceConfigurator {
+
+    private static final ConcurrentMap<String, Pool> POOLS = new ConcurrentHashMap<>();
+
+    private final int poolSize;
+
+    public TbResizableExecutorConfigurator(Config config, DispatcherPrerequisites prerequisites) {
+        super(config, prerequisites);
+        this.poolSize = config.getInt("resizable-executor.pool-size");
+    }
+
+    @Override
+    public ExecutorServiceFactory createExecutorServiceFactory(String id, ThreadFactory threadFactory) {
+        Pool pool = POOLS.computeIfAbsent(id, key -> new Pool(poolSize));
+        return new ExecutorServiceFactory() {
+            @Override
+            public ExecutorService createExecutorService() {
+                // the dispatcher creates a new executor after the previous one was shut down on idle
+                synchronized (pool) {
+                    ThreadPoolExecutor executor = new ThreadPoolExecutor(pool.size, pool.size, 60L, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(), threadFactory);
+                    pool.executor = executor;
+                    return executor;
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the number of threads of the dispatcher or -1 if the dispatcher was not created by this configurator
+     */
+    public static int getPoolSize(String dispatcherId) {
+        Pool pool = POOLS.get(dispatcherId);
+        return pool != null ? pool.size : -1;
+    }
+
+    /**
+     * Changes the number of threads of the dispatcher, running tasks are not interrupted.
+     */
+    public static void resize(String dispatcherId, int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be positive: " + poolSize);
+        }
+        // the dispatcher may be not created yet, it will start with the new size then
+        Pool pool = POOLS.computeIfAbsent(dispatcherId, key -> new Pool(poolSize));
+        synchronized (pool) {
+            pool.size = poolSize;
+            ThreadPoolExecutor executor = pool.executor;
+            if (executor != null) {
+                if (poolSize > executor.getMaximumPoolSize()) {
+                    executor.setMaximumPoolSize(poolSize);
+                    executor.setCorePoolSize(poolSize);
+                } else {
+                    executor.setCorePoolSize(poolSize);
+                    executor.setMaximumPoolSize(poolSize);
+                }
+            }
+        }
+    }
+
+    private static class Pool {
+        private volatile int size;
+        private volatile ThreadPoolExecutor executor;
+
+        private Pool(int size) {
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+import org.thingsboard.server.actors.ActorSystemContext;
+
+/**
+ * 租户Actor及其规则链初始化完成之前，健康检查(/actuator/health)返回DOWN，可用作readiness探针
+ */
+@Component
+public class TenantActorsHealthIndicator extends AbstractHealthIndicator {
+
+    @Autowired
+    private ActorSystemContext actorContext;
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        if (actorContext.isTenantActorsInitialized()) {
+            builder.up();
+        } else {
+            builder.down().withDetail("tenantActors", "initializing");
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.service;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.thingsboard.server.common.data.id.TenantId;
+
+import javax.annotation.PostConstruct;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * 规则引擎的租户隔离
+ * 1. 按配置为指定租户的规则链和规则节点Actor分配独立的调度器线程池，线程数可以在运行时调整
+ * 2. 其余租户共享rule-dispatcher调度器
+ * 3. 可选按租户统计规则节点消耗的CPU时间
+ * 注意: JS脚本在共享的jsExecutor(或远程JS执行器)中运行，其CPU时间不计入租户，JS负载较重的租户不会被隔离
+ */
+@Slf4j
+@Component
+public class TenantRuleDispatchers {
+
+    static final String POOL_DISPATCHER_PREFIX = DefaultActorService.TENANT_RULE_DISPATCHER_NAME + "-";
+    private static final Pattern POOL_NAME = Pattern.compile("[a-zA-Z0-9_]+");
+    private static final String CPU_TIME_METRIC = "tb.rule.engine.tenant.cpu.time";
+    private static final String TENANT_ID_TAG = "tenantId";
+
+    @Value("${actors.rule.isolation.pools:}")
+    private String poolsConfig;
+    @Value("${actors.rule.isolation.tenants:}")
+    private String tenantsConfig;
+    @Value("${actors.rule.isolation.cpu_accounting_enabled:false}")
+    private boolean cpuAccountingEnabled;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Integer> pools = new LinkedHashMap<>();
+    private final Map<TenantId, String> tenantPools = new HashMap<>();
+    private final ConcurrentMap<TenantId, LongAdder> cpuTime = new ConcurrentHashMap<>();
+    private ThreadMXBean threadMXBean;
+
+    @PostConstruct
+    public void init() {
+        for (String entry : StringUtils.commaDelimitedListToStringArray(poolsConfig)) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2 || !POOL_NAME.matcher(parts[0].trim()).matches()) {
+                throw new IllegalArgumentException("Invalid rule engine pool [" + entry + "], expected <name>:<threads>");
+            }
+            int size = Integer.parseInt(parts[1].trim());
+            if (size < 1) {
+                throw new IllegalArgumentException("Rule engine pool [" + parts[0] + "] must have at least one thread");
+            }
+            pools.put(parts[0].trim(), size);
+        }
+        for (String entry : StringUtils.commaDelimitedListToStringArray(tenantsConfig)) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2 || !pools.containsKey(parts[1].trim())) {
+                throw new IllegalArgumentException("Invalid rule engine tenant assignment [" + entry + "], expected <tenant id>:<pool name>");
+            }
+            tenantPools.put(new TenantId(UUID.fromString(parts[0].trim())), parts[1].trim());
+        }
+        if (cpuAccountingEnabled) {
+            threadMXBean = ManagementFactory.getThreadMXBean();
+            if (threadMXBean.isCurrentThreadCpuTimeSupported()) {
+                threadMXBean.setThreadCpuTimeEnabled(true);
+            } else {
+                log.warn("Thread CPU time is not supported by the JVM, tenant CPU accounting is disabled");
+                cpuAccountingEnabled = false;
+            }
+        }
+        if (!pools.isEmpty()) {
+            log.info("Rule engine pools {}, [{}] tenants with dedicated pools", pools, tenantPools.size());
+        }
+    }
+
+    /**
+     * @return dispatcher of the rule chain and rule node actors of the tenant
+     */
+    public String getDispatcherName(TenantId tenantId) {
+        if (tenantId == null || tenantId.isNullUid()) {
+            return DefaultActorService.SYSTEM_RULE_DISPATCHER_NAME;
+        }
+        String pool = tenantPools.get(tenantId);
+        return pool != null ? POOL_DISPATCHER_PREFIX + pool : DefaultActorService.TENANT_RULE_DISPATCHER_NAME;
+    }
+
+    /**
+     * Adds the dispatchers of the pools to the actor system config, they inherit the settings of the shared rule dispatcher.
+     */
+    public Config withDispatchers(Config config) {
+        Config base = config.getConfig(DefaultActorService.TENANT_RULE_DISPATCHER_NAME);
+        for (Map.Entry<String, Integer> pool : pools.entrySet()) {
+            Config dispatcher = ConfigFactory.parseString("executor = \"" + TbResizableExecutorConfigurator.class.getName() + "\"\n"
+                    + "resizable-executor.pool-size = " + pool.getValue()).withFallback(base);
+            config = dispatcher.atKey(POOL_DISPATCHER_PREFIX + pool.getKey()).withFallback(config);
+        }
+        return config;
+    }
+
+    public List<String> getPoolDispatcherNames() {
+        List<String> result = new ArrayList<>();
+        pools.keySet().forEach(pool -> result.add(POOL_DISPATCHER_PREFIX + pool));
+        return result;
+    }
+
+    /**
+     * @return current number of threads per pool
+     */
+    public Map<String, Integer> getPoolSizes() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        pools.forEach((pool, configured) -> {
+            int size = TbResizableExecutorConfigurator.getPoolSize(POOL_DISPATCHER_PREFIX + pool);
+            result.put(pool, size > 0 ? size : configured);
+        });
+        return result;
+    }
+
+    public void resize(String pool, int threads) {
+        if (!pools.containsKey(pool)) {
+            throw new IllegalArgumentException("Rule engine pool [" + pool + "] is not configured");
+        }
+        TbResizableExecutorConfigurator.resize(POOL_DISPATCHER_PREFIX + pool, threads);
+        log.info("Rule engine pool [{}] resized to [{}] threads", pool, threads);
+    }
+
+    /**
+     * @return CPU time of the current thread to be passed to {@link #recordCpuTime(TenantId, long)}
+     */
+    public long getCpuTimeStart() {
+        return cpuAccountingEnabled ? threadMXBean.getCurrentThreadCpuTime() : 0L;
+    }
+
+    public void recordCpuTime(TenantId tenantId, long cpuTimeStart) {
+        if (cpuAccountingEnabled) {
+            cpuTime.computeIfAbsent(tenantId, this::newCpuTimeCounter).add(threadMXBean.getCurrentThreadCpuTime() - cpuTimeStart);
+        }
+    }
+
+    /**
+     * @return CPU time in nanoseconds spent by the rule nodes of the tenants, the JS scripts are not included
+     */
+    public Map<TenantId, Long> getTenantCpuTime() {
+        Map<TenantId, Long> result = new HashMap<>();
+        cpuTime.forEach((tenantId, counter) -> result.put(tenantId, counter.sum()));
+        return result;
+    }
+
+    /**
+     * Drops the CPU time of the deleted tenant, must be called after the rule nodes of the tenant are stopped.
+     */
+    public void removeTenant(TenantId tenantId) {
+        if (cpuTime.remove(tenantId) != null && meterRegistry != null) {
+            FunctionCounter counter = meterRegistry.find(CPU_TIME_METRIC).tag(TENANT_ID_TAG, tenantId.getId().toString()).functionCounter();
+            if (counter != null) {
+                meterRegistry.remove(counter);
+            }
+        }
+    }
+
+    private LongAdder newCpuTimeCounter(TenantId tenantId) {
+        LongAdder counter = new LongAdder();
+        if (meterRegistry != null) {
+            FunctionCounter.builder(CPU_TIME_METRIC, counter, c -> c.sum() / (double) TimeUnit.SECONDS.toNanos(1))
+                    .description("CPU time spent by the rule nodes of the tenant, excluding JS scripts")
+                    .baseUnit("seconds")
+                    .tag(TENANT_ID_TAG, tenantId.getId().toString())
+                    .register(meterRegistry);
+        }
+        return counter;
+    }
+}
@@ -32,7 +32,9 @@ import org.thingsboard.server.common.data.id.UUIDBased;
 import org.thingsboard.server.common.data.page.PageDataIterable;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Created by ashvayka on 15.03.18.
@@ -80,6 +82,10 @@ public abstract class EntityActorsManager<T extends EntityId, A extends UntypedA
         actors.values().forEach(actorRef -> actorRef.tell(msg, ActorRef.noSender()));
     }
 
+    public Set<T> getActorIds() {
+        return new HashSet<>(actors.keySet());
+    }
+
     public void remove(T id) {
         actors.remove(id);
     }
@@ -17,7 +17,6 @@ package org.thingsboard.server.actors.shared.rulechain;
 
 import akka.actor.ActorContext;
 import org.thingsboard.server.actors.ActorSystemContext;
-import org.thingsboard.server.actors.service.DefaultActorService;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.page.PageDataIterable.FetchFunction;
 import org.thingsboard.server.common.data.rule.RuleChain;
@@ -43,7 +42,7 @@ public class TenantRuleChainManager extends RuleChainManager {
 
     @Override
     protected String getDispatcherName() {
-        return DefaultActorService.TENANT_RULE_DISPATCHER_NAME;
+        return systemContext.getTenantRuleDispatchers().getDispatcherName(tenantId);
     }
 
     @Override
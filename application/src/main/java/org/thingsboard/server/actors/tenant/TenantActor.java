@@ -32,9 +32,11 @@ import org.thingsboard.server.actors.device.DeviceActorToRuleEngineMsg;
 import org.thingsboard.server.actors.ruleChain.RuleChainManagerActor;
 import org.thingsboard.server.actors.service.ContextBasedCreator;
 import org.thingsboard.server.actors.service.DefaultActorService;
+import org.thingsboard.server.actors.shared.ComponentStartedMsg;
 import org.thingsboard.server.actors.shared.rulechain.TenantRuleChainManager;
 import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.RuleChainId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.plugin.ComponentLifecycleEvent;
@@ -47,17 +49,22 @@ import org.thingsboard.server.common.msg.system.ServiceToRuleEngineMsg;
 import scala.concurrent.duration.Duration;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 public class TenantActor extends RuleChainManagerActor {
 
     private final TenantId tenantId;
     private final BiMap<DeviceId, ActorRef> deviceActors;
+    private final Set<EntityId> startingRuleChains;
+    private boolean startReported;
 
     private TenantActor(ActorSystemContext systemContext, TenantId tenantId) {
         super(systemContext, new TenantRuleChainManager(systemContext, tenantId));
         this.tenantId = tenantId;
         this.deviceActors = HashBiMap.create();
+        this.startingRuleChains = new HashSet<>();
     }
 
     @Override
@@ -70,10 +77,30 @@ public class TenantActor extends RuleChainManagerActor {
         log.info("[{}] Starting tenant actor.", tenantId);
         try {
             initRuleChains();
+            startingRuleChains.addAll(ruleChainManager.getActorIds());
             log.info("[{}] Tenant actor started.", tenantId);
         } catch (Exception e) {
             log.warn("[{}] Unknown failure", tenantId, e);
         }
+        reportStartedIfReady();
+    }
+
+    /**
+     * The rule chain actors initialize their rule nodes asynchronously, so the tenant is reported as started
+     * only after all of the rule chains report that their rule nodes are initialized.
+     */
+    private void onRuleChainStarted(EntityId ruleChainId) {
+        if (startingRuleChains.remove(ruleChainId)) {
+            reportStartedIfReady();
+        }
+    }
+
+    private void reportStartedIfReady() {
+        if (!startReported && startingRuleChains.isEmpty()) {
+            startReported = true;
+            log.debug("[{}] Tenant rule chains initialized.", tenantId);
+            context().parent().tell(new TenantActorStartedMsg(tenantId), self());
+        }
     }
 
     @Override
@@ -87,6 +114,9 @@ public class TenantActor extends RuleChainManagerActor {
             case CLUSTER_EVENT_MSG:
                 broadcast(msg);
                 break;
+            case COMPONENT_STARTED_MSG:
+                onRuleChainStarted(((ComponentStartedMsg) msg).getEntityId());
+                break;
             case COMPONENT_LIFE_CYCLE_MSG:
                 onComponentLifecycleMsg((ComponentLifecycleMsg) msg);
                 break;
@@ -147,6 +177,10 @@ public class TenantActor extends RuleChainManagerActor {
                 ruleChainManager.visit(ruleChain, target);
             }
             target.tell(msg, ActorRef.noSender());
+            if (msg.getEvent() == ComponentLifecycleEvent.DELETED) {
+                // the deleted rule chain may be stopped before its rule nodes are initialized
+                onRuleChainStarted(msg.getEntityId());
+            }
         } else {
             log.debug("[{}] Invalid component lifecycle msg: {}", tenantId, msg);
         }
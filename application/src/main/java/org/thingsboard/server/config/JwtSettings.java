@@ -51,6 +51,11 @@ public class JwtSettings {
      */
     private Integer refreshTokenExpTime;
 
+    /**
+     * Max number of verified access tokens kept to skip signature verification of repeated requests.
+     */
+    private Integer parsedTokenCacheSize;
+
     public Integer getRefreshTokenExpTime() {
         return refreshTokenExpTime;
     }
@@ -81,4 +86,12 @@ public class JwtSettings {
     public void setTokenSigningKey(String tokenSigningKey) {
         this.tokenSigningKey = tokenSigningKey;
     }
+
+    public Integer getParsedTokenCacheSize() {
+        return parsedTokenCacheSize;
+    }
+
+    public void setParsedTokenCacheSize(Integer parsedTokenCacheSize) {
+        this.parsedTokenCacheSize = parsedTokenCacheSize;
+    }
 }
\ No newline at end of file
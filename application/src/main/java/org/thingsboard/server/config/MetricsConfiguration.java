@@ -0,0 +1,35 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.config;
+
+import io.micrometer.core.instrument.binder.kafka.KafkaConsumerMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 指标配置，actors、规则节点、SQL队列、Cassandra执行器和传输层的指标直接注册到MeterRegistry
+ * 这里只额外绑定Kafka消费者的lag等指标
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "transport", value = "type", havingValue = "remote")
+    public KafkaConsumerMetrics kafkaConsumerMetrics() {
+        return new KafkaConsumerMetrics();
+    }
+}
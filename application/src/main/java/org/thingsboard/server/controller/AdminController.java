@@ -21,10 +21,13 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 import org.thingsboard.rule.engine.api.MailService;
+import org.thingsboard.server.actors.service.TenantRuleDispatchers;
 import org.thingsboard.server.common.data.AdminSettings;
+import org.thingsboard.server.common.data.exception.ThingsboardErrorCode;
 import org.thingsboard.server.common.data.exception.ThingsboardException;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.dao.settings.AdminSettingsService;
@@ -35,6 +38,10 @@ import org.thingsboard.server.service.security.system.SystemSecurityService;
 import org.thingsboard.server.service.update.UpdateService;
 import org.thingsboard.server.common.data.UpdateMessage;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 @RestController
 @RequestMapping("/api/admin")
 public class AdminController extends BaseController {
@@ -51,6 +58,9 @@ public class AdminController extends BaseController {
     @Autowired
     private UpdateService updateService;
 
+    @Autowired
+    private TenantRuleDispatchers tenantRuleDispatchers;
+
     @PreAuthorize("hasAuthority('SYS_ADMIN')")
     @RequestMapping(value = "/settings/{key}", method = RequestMethod.GET)
     @ResponseBody
@@ -119,6 +129,51 @@ public class AdminController extends BaseController {
         }
     }
 
+    @PreAuthorize("hasAuthority('SYS_ADMIN')")
+    @RequestMapping(value = "/ruleEngine/pools", method = RequestMethod.GET)
+    @ResponseBody
+    public Map<String, Integer> getRuleEnginePools() throws ThingsboardException {
+        try {
+            accessControlService.checkPermission(getCurrentUser(), Resource.ADMIN_SETTINGS, Operation.READ);
+            return tenantRuleDispatchers.getPoolSizes();
+        } catch (Exception e) {
+            throw handleException(e);
+        }
+    }
+
+    @PreAuthorize("hasAuthority('SYS_ADMIN')")
+    @RequestMapping(value = "/ruleEngine/pools/{pool}", params = {"threads"}, method = RequestMethod.POST)
+    @ResponseBody
+    public Map<String, Integer> resizeRuleEnginePool(@PathVariable("pool") String pool,
+                                                     @RequestParam int threads) throws ThingsboardException {
+        try {
+            accessControlService.checkPermission(getCurrentUser(), Resource.ADMIN_SETTINGS, Operation.WRITE);
+            try {
+                tenantRuleDispatchers.resize(pool, threads);
+            } catch (IllegalArgumentException e) {
+                throw new ThingsboardException(e.getMessage(), ThingsboardErrorCode.BAD_REQUEST_PARAMS);
+            }
+            return tenantRuleDispatchers.getPoolSizes();
+        } catch (Exception e) {
+            throw handleException(e);
+        }
+    }
+
+    @PreAuthorize("hasAuthority('SYS_ADMIN')")
+    @RequestMapping(value = "/ruleEngine/tenantCpuTime", method = RequestMethod.GET)
+    @ResponseBody
+    public Map<String, Long> getRuleEngineTenantCpuTime() throws ThingsboardException {
+        try {
+            accessControlService.checkPermission(getCurrentUser(), Resource.ADMIN_SETTINGS, Operation.READ);
+            Map<String, Long> result = new HashMap<>();
+            tenantRuleDispatchers.getTenantCpuTime().forEach((tenantId, cpuTime) ->
+                    result.put(tenantId.getId().toString(), TimeUnit.NANOSECONDS.toMillis(cpuTime)));
+            return result;
+        } catch (Exception e) {
+            throw handleException(e);
+        }
+    }
+
     @PreAuthorize("hasAuthority('SYS_ADMIN')")
     @RequestMapping(value = "/updates", method = RequestMethod.GET)
     @ResponseBody
@@ -115,6 +115,7 @@ public class AuthController extends BaseController {
             }
             userCredentials.setPassword(passwordEncoder.encode(newPassword));
             userService.replaceUserCredentials(securityUser.getTenantId(), userCredentials);
+            tokenFactory.invalidateUserTokens(securityUser.getId());
         } catch (Exception e) {
             throw handleException(e);
         }
@@ -251,6 +252,7 @@ public class AuthController extends BaseController {
                 userCredentials.setPassword(encodedPassword);
                 userCredentials.setResetToken(null);
                 userCredentials = userService.replaceUserCredentials(TenantId.SYS_TENANT_ID, userCredentials);
+                tokenFactory.invalidateUserTokens(userCredentials.getUserId());
                 User user = userService.findUserById(TenantId.SYS_TENANT_ID, userCredentials.getUserId());
                 UserPrincipal principal = new UserPrincipal(UserPrincipal.Type.USER_NAME, user.getEmail());
                 SecurityUser securityUser = new SecurityUser(user, userCredentials.isEnabled(), principal);
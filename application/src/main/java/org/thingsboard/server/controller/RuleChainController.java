@@ -365,7 +365,7 @@ public class RuleChainController extends BaseController {
         if (!StringUtils.isEmpty(msg.getData())) {
             msgData.set("msg", objectMapper.readTree(msg.getData()));
         }
-        Map<String, String> metadata = msg.getMetaData().getData();
+        Map<String, String> metadata = msg.getMetaData().readOnlyData();
         msgData.set("metadata", objectMapper.valueToTree(metadata));
         msgData.put("msgType", msg.getType());
         return objectMapper.writeValueAsString(msgData);
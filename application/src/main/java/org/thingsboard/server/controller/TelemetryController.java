@@ -16,6 +16,8 @@
 package org.thingsboard.server.controller;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Function;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
@@ -25,6 +27,7 @@ import com.google.gson.JsonParser;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -77,8 +80,15 @@ import org.thingsboard.server.service.telemetry.exception.UncheckedApiException;
 import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -96,6 +106,9 @@ import java.util.stream.Collectors;
 @Slf4j
 public class TelemetryController extends BaseController {
 
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final String EXPORT_FAILED_MESSAGE = "Export failed, the data is incomplete";
+
     @Autowired
     private TimeseriesService tsService;
 
@@ -105,6 +118,9 @@ public class TelemetryController extends BaseController {
     @Value("${transport.json.max_string_value_length:0}")
     private int maxStringValueLength;
 
+    @Value("${database.ts_export_page_size:1000}")
+    private int exportPageSize;
+
     private ExecutorService executor;
 
     @PostConstruct
@@ -205,6 +221,102 @@ public class TelemetryController extends BaseController {
                 });
     }
 
+    /**
+     * Streams raw timeseries of the requested keys as NDJSON or CSV. Data is fetched page by page in ascending order
+     * and every page is written before the next one is requested, so a slow client slows down the export
+     * and memory use does not depend on the size of the range. A failure before any data is sent is returned
+     * as a regular error response, a later failure ends the stream with an error marker.
+     */
+    @PreAuthorize("hasAnyAuthority('SYS_ADMIN', 'TENANT_ADMIN', 'CUSTOMER_USER')")
+    @RequestMapping(value = "/{entityType}/{entityId}/export/timeseries", method = RequestMethod.GET, params = {"keys", "startTs", "endTs"})
+    public void exportTimeseries(
+            @PathVariable("entityType") String entityType, @PathVariable("entityId") String entityIdStr,
+            @RequestParam(name = "keys") String keys,
+            @RequestParam(name = "startTs") Long startTs,
+            @RequestParam(name = "endTs") Long endTs,
+            @RequestParam(name = "format", defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws ThingsboardException {
+        EntityId entityId;
+        List<String> keyList;
+        boolean csv;
+        try {
+            entityId = EntityIdFactory.getByTypeAndId(entityType, entityIdStr);
+            checkEntityId(entityId, Operation.READ_TELEMETRY);
+            keyList = toKeysList(keys);
+            if (keyList == null || keyList.isEmpty()) {
+                throw new IllegalArgumentException("Keys are not specified!");
+            }
+            if ("csv".equalsIgnoreCase(format)) {
+                csv = true;
+            } else if ("ndjson".equalsIgnoreCase(format)) {
+                csv = false;
+            } else {
+                throw new IllegalArgumentException("Unsupported export format: " + format);
+            }
+        } catch (Exception e) {
+            throw handleException(e);
+        }
+        TenantId tenantId = getCurrentUser().getTenantId();
+        Writer writer = null;
+        try {
+            for (String key : keyList) {
+                long pageStartTs = startTs;
+                while (true) {
+                    ReadTsKvQuery query = new BaseReadTsKvQuery(key, pageStartTs, endTs, 0, exportPageSize, Aggregation.NONE, "ASC");
+                    List<TsKvEntry> page = tsService.findAll(tenantId, entityId, Collections.singletonList(query)).get();
+                    if (writer == null) {
+                        writer = startExport(response, entityIdStr, csv);
+                    }
+                    for (TsKvEntry entry : page) {
+                        if (csv) {
+                            writeCsvRow(writer, entry);
+                        } else {
+                            writeJsonLine(writer, entry);
+                        }
+                    }
+                    writer.flush();
+                    if (page.size() < exportPageSize) {
+                        break;
+                    }
+                    pageStartTs = page.get(page.size() - 1).getTs();
+                }
+            }
+            writer.close();
+        } catch (Exception e) {
+            if (!response.isCommitted()) {
+                response.reset();
+                throw handleException(e);
+            }
+            log.warn("[{}] Failed to export timeseries {}", entityId, keyList, e);
+            writeExportError(writer, csv);
+        }
+    }
+
+    private Writer startExport(HttpServletResponse response, String entityIdStr, boolean csv) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + entityIdStr + (csv ? ".csv" : ".ndjson") + "\"");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        if (csv) {
+            writer.write("key,ts,value\n");
+        }
+        return writer;
+    }
+
+    /**
+     * The status and part of the data are already sent, so the export is terminated with a line the client can't
+     * mistake for data: an NDJSON object with the "error" field or a CSV comment line.
+     */
+    private void writeExportError(Writer writer, boolean csv) {
+        try {
+            writer.write(csv ? "# " + EXPORT_FAILED_MESSAGE + "\n" : "{\"error\":\"" + EXPORT_FAILED_MESSAGE + "\"}\n");
+            writer.close();
+        } catch (IOException e) {
+            log.debug("Failed to write export error marker", e);
+        }
+    }
+
     @PreAuthorize("hasAnyAuthority('SYS_ADMIN', 'TENANT_ADMIN', 'CUSTOMER_USER')")
     @RequestMapping(value = "/{deviceId}/{scope}", method = RequestMethod.POST)
     @ResponseBody
@@ -619,6 +731,46 @@ public class TelemetryController extends BaseController {
                 }, executor);
     }
 
+    private void writeJsonLine(Writer writer, TsKvEntry entry) throws IOException {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("key", entry.getKey());
+        node.put("ts", entry.getTs());
+        switch (entry.getDataType()) {
+            case BOOLEAN:
+                node.put("value", entry.getBooleanValue().orElse(null));
+                break;
+            case LONG:
+                node.put("value", entry.getLongValue().orElse(null));
+                break;
+            case DOUBLE:
+                node.put("value", entry.getDoubleValue().orElse(null));
+                break;
+            default:
+                node.put("value", entry.getValueAsString());
+        }
+        writer.write(mapper.writeValueAsString(node));
+        writer.write('\n');
+    }
+
+    private void writeCsvRow(Writer writer, TsKvEntry entry) throws IOException {
+        writer.write(toCsvValue(entry.getKey()));
+        writer.write(',');
+        writer.write(Long.toString(entry.getTs()));
+        writer.write(',');
+        writer.write(toCsvValue(entry.getValueAsString()));
+        writer.write('\n');
+    }
+
+    private static String toCsvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
     private List<String> toKeysList(String keys) {
         List<String> keyList = null;
         if (!StringUtils.isEmpty(keys)) {
@@ -232,6 +232,7 @@ public class UserController extends BaseController {
             UserId userId = new UserId(toUUID(strUserId));
             User user = checkUserId(userId, Operation.DELETE);
             userService.deleteUser(getCurrentUser().getTenantId(), userId);
+            tokenFactory.invalidateUserTokens(userId);
 
             logEntityAction(userId, user,
                     user.getCustomerId(),
@@ -297,6 +298,7 @@ public class UserController extends BaseController {
             User user = checkUserId(userId, Operation.WRITE);
             TenantId tenantId = getCurrentUser().getTenantId();
             userService.setUserCredentialsEnabled(tenantId, userId, userCredentialsEnabled);
+            tokenFactory.invalidateUserTokens(userId);
         } catch (Exception e) {
             throw handleException(e);
         }
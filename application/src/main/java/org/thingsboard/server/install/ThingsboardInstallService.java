@@ -145,6 +145,10 @@ public class ThingsboardInstallService {
                         systemDataLoaderService.deleteSystemWidgetBundle("entity_admin_widgets");
 
                         systemDataLoaderService.loadSystemWidgets();
+                    case "2.4.3": //NOSONAR, Need to execute gradual upgrade starting from upgradeFromVersion
+                        log.info("Upgrading ThingsBoard from version 2.4.3 to 2.5.0 ...");
+
+                        tsDatabaseSchemaService.upgradeDatabaseSchema("2.4.3");
                         break;
                     default:
                         throw new RuntimeException("Unable to upgrade ThingsBoard, unsupported fromVersion: " + upgradeFromVersion);
@@ -315,8 +315,8 @@ public class ZkDiscoveryService implements DiscoveryService, PathChildrenCacheLi
         switch (pathChildrenCacheEvent.getType()) {
             case CHILD_ADDED:
                 routingService.onServerAdded(instance);
-                tsSubService.onClusterUpdate();
-                deviceStateService.onClusterUpdate();
+                tsSubService.onClusterUpdate(routingService.getLastTopologyChange());
+                deviceStateService.onClusterUpdate(routingService.getLastTopologyChange());
                 actorService.onServerAdded(instance);
                 break;
             case CHILD_UPDATED:
@@ -325,8 +325,8 @@ public class ZkDiscoveryService implements DiscoveryService, PathChildrenCacheLi
                 break;
             case CHILD_REMOVED:
                 routingService.onServerRemoved(instance);
-                tsSubService.onClusterUpdate();
-                deviceStateService.onClusterUpdate();
+                tsSubService.onClusterUpdate(routingService.getLastTopologyChange());
+                deviceStateService.onClusterUpdate(routingService.getLastTopologyChange());
                 actorService.onServerRemoved(instance);
                 break;
             default:
@@ -32,4 +32,14 @@ public interface ClusterRoutingService extends DiscoveryServiceListener {
 
     Optional<ServerAddress> resolveById(EntityId entityId);
 
+    /**
+     * @return the server that consumes the given partition of the rule engine topic, empty if it is the current server
+     */
+    Optional<ServerAddress> resolveByPartition(int partition);
+
+    /**
+     * @return hash ranges that moved to or from the current server during the last server added/removed event
+     */
+    ClusterTopologyChange getLastTopologyChange();
+
 }
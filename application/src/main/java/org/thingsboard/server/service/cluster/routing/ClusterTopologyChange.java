@@ -0,0 +1,133 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.cluster.routing;
+
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.service.cluster.discovery.ServerInstance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.ToLongFunction;
+
+/**
+ * Delta between two states of the consistent hash ring, as seen by the current server.
+ * Every segment (previous token, token] of the merged ring is marked as affected
+ * if it moved to or from the current server, so services may rebalance only such entities.
+ */
+public final class ClusterTopologyChange {
+
+    public static final ClusterTopologyChange EMPTY = new ClusterTopologyChange(null, Collections.emptyList(), false, false);
+
+    private final ToLongFunction<EntityId> entityHash;
+    private final List<NavigableMap<Long, Boolean>> segments;
+    private final boolean gained;
+    private final boolean lost;
+
+    private ClusterTopologyChange(ToLongFunction<EntityId> entityHash, List<NavigableMap<Long, Boolean>> segments, boolean gained, boolean lost) {
+        this.entityHash = entityHash;
+        this.segments = segments;
+        this.gained = gained;
+        this.lost = lost;
+    }
+
+    static ClusterTopologyChange diff(ToLongFunction<EntityId> entityHash, ServerInstance currentServer,
+                                      NavigableMap<Long, ServerInstance> before, NavigableMap<Long, ServerInstance> after) {
+        TreeSet<Long> tokens = new TreeSet<>(before.keySet());
+        tokens.addAll(after.keySet());
+        NavigableMap<Long, Boolean> ringSegments = new TreeMap<>();
+        boolean gained = false;
+        boolean lost = false;
+        for (Long token : tokens) {
+            ServerInstance prevOwner = resolve(before, token, currentServer);
+            ServerInstance newOwner = resolve(after, token, currentServer);
+            boolean wasLocal = currentServer.equals(prevOwner);
+            boolean isLocal = currentServer.equals(newOwner);
+            gained |= !wasLocal && isLocal;
+            lost |= wasLocal && !isLocal;
+            ringSegments.put(token, !Objects.equals(prevOwner, newOwner) && (wasLocal || isLocal));
+        }
+        if (!gained && !lost) {
+            return EMPTY;
+        }
+        return new ClusterTopologyChange(entityHash, Collections.singletonList(ringSegments), gained, lost);
+    }
+
+    private static ServerInstance resolve(NavigableMap<Long, ServerInstance> circle, Long hash, ServerInstance currentServer) {
+        if (circle.isEmpty()) {
+            return currentServer;
+        }
+        Map.Entry<Long, ServerInstance> entry = circle.ceilingEntry(hash);
+        return entry != null ? entry.getValue() : circle.firstEntry().getValue();
+    }
+
+    /**
+     * @return true if the owner of the entity moved to or from the current server
+     */
+    public boolean isAffected(EntityId entityId) {
+        if (segments.isEmpty()) {
+            return false;
+        }
+        long hash = entityHash.applyAsLong(entityId);
+        for (NavigableMap<Long, Boolean> ringSegments : segments) {
+            Map.Entry<Long, Boolean> entry = ringSegments.ceilingEntry(hash);
+            if (entry == null) {
+                entry = ringSegments.firstEntry();
+            }
+            if (entry.getValue()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isEmpty() {
+        return !gained && !lost;
+    }
+
+    /**
+     * @return true if some hash ranges are now handled by the current server
+     */
+    public boolean hasGainedRanges() {
+        return gained;
+    }
+
+    /**
+     * @return true if some hash ranges are no longer handled by the current server
+     */
+    public boolean hasLostRanges() {
+        return lost;
+    }
+
+    /**
+     * Combines changes that were not yet processed, an entity is affected if any of them affects it.
+     */
+    public ClusterTopologyChange merge(ClusterTopologyChange other) {
+        if (other == null || other.isEmpty()) {
+            return this;
+        } else if (this.isEmpty()) {
+            return other;
+        }
+        List<NavigableMap<Long, Boolean>> mergedSegments = new ArrayList<>(segments);
+        mergedSegments.addAll(other.segments);
+        return new ClusterTopologyChange(entityHash, mergedSegments, gained || other.gained, lost || other.lost);
+    }
+}
@@ -22,9 +22,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
+import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.msg.cluster.ServerAddress;
 import org.thingsboard.server.common.msg.cluster.ServerType;
+import org.thingsboard.server.kafka.TbKafkaKeyPartitioner;
 import org.thingsboard.server.service.cluster.discovery.DiscoveryService;
 import org.thingsboard.server.service.cluster.discovery.DiscoveryServiceListener;
 import org.thingsboard.server.service.cluster.discovery.ServerInstance;
@@ -32,8 +34,8 @@ import org.thingsboard.server.utils.MiscUtils;
 
 import javax.annotation.PostConstruct;
 import java.util.Arrays;
+import java.util.NavigableMap;
 import java.util.Optional;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 
@@ -63,6 +65,14 @@ public class ConsistentClusterRoutingService implements ClusterRoutingService {
     private String hashFunctionName;
     @Value("${cluster.vitrual_nodes_size}")
     private Integer virtualNodesSize;
+    @Value("${transport.type:local}")
+    private String transportType;
+    @Value("${transport.remote.rule_engine.partition_affinity.enabled:false}")
+    private boolean partitionAffinityEnabled;
+    @Value("${transport.remote.rule_engine.partition_affinity.partitions:30}")
+    private int ruleEnginePartitions;
+
+    private int devicePartitions;
 
     private ServerInstance currentServer;
 
@@ -71,10 +81,13 @@ public class ConsistentClusterRoutingService implements ClusterRoutingService {
     private ConsistentHashCircle[] circles;
     private ConsistentHashCircle rootCircle;
 
+    private volatile ClusterTopologyChange lastTopologyChange = ClusterTopologyChange.EMPTY;
+
     @PostConstruct
     public void init() {
         log.info("Initializing Cluster routing service!");
         this.hashFunction = MiscUtils.forName(hashFunctionName);
+        this.devicePartitions = "remote".equals(transportType) && partitionAffinityEnabled ? ruleEnginePartitions : 0;
         this.currentServer = discoveryService.getCurrentServer();
         this.circles = new ConsistentHashCircle[ServerType.values().length];
         for (ServerType serverType : ServerType.values()) {
@@ -94,9 +107,36 @@ public class ConsistentClusterRoutingService implements ClusterRoutingService {
         return discoveryService.getCurrentServer().getServerAddress();
     }
 
+    @Override
+    public ClusterTopologyChange getLastTopologyChange() {
+        return lastTopologyChange;
+    }
+
     @Override
     public Optional<ServerAddress> resolveById(EntityId entityId) {
-        return resolveByUuid(rootCircle, entityId.getId());
+        Assert.notNull(entityId);
+        return resolveByHash(rootCircle, hash(entityId));
+    }
+
+    @Override
+    public Optional<ServerAddress> resolveByPartition(int partition) {
+        return resolveByHash(rootCircle, partitionHash(partition));
+    }
+
+    /**
+     * With the partition affinity enabled, devices are placed on the ring by the partition of the rule engine topic,
+     * so the server that consumes the partition is the one that hosts the device actors.
+     */
+    private long hash(EntityId entityId) {
+        if (devicePartitions > 0 && entityId.getEntityType() == EntityType.DEVICE) {
+            return partitionHash(TbKafkaKeyPartitioner.partition(entityId.getId().toString(), devicePartitions));
+        }
+        return hashFunction.newHasher().putLong(entityId.getId().getMostSignificantBits())
+                .putLong(entityId.getId().getLeastSignificantBits()).hash().asLong();
+    }
+
+    private long partitionHash(int partition) {
+        return hashFunction.newHasher().putInt(partition).hash().asLong();
     }
 
     /**
@@ -104,16 +144,13 @@ public class ConsistentClusterRoutingService implements ClusterRoutingService {
      * 1. 当前服务器与计算要调度的服务器不一致，返回调度服务器
      * 2. 一致，返回空
      * @param circle
-     * @param uuid
+     * @param hash
      * @return
      */
-    private Optional<ServerAddress> resolveByUuid(ConsistentHashCircle circle, UUID uuid) {
-        Assert.notNull(uuid);
+    private Optional<ServerAddress> resolveByHash(ConsistentHashCircle circle, Long hash) {
         if (circle.isEmpty()) {
             return Optional.empty();
         }
-        Long hash = hashFunction.newHasher().putLong(uuid.getMostSignificantBits())
-                .putLong(uuid.getLeastSignificantBits()).hash().asLong();
         if (!circle.containsKey(hash)) {
             ConcurrentNavigableMap<Long, ServerInstance> tailMap =
                     circle.tailMap(hash);
@@ -131,7 +168,9 @@ public class ConsistentClusterRoutingService implements ClusterRoutingService {
     @Override
     public void onServerAdded(ServerInstance server) {
         log.info("On server added event: {}", server);
+        NavigableMap<Long, ServerInstance> before = rootCircle.snapshot();
         addNode(server);
+        onTopologyChange(before);
         logCircle();
     }
 
@@ -143,10 +182,18 @@ public class ConsistentClusterRoutingService implements ClusterRoutingService {
     @Override
     public void onServerRemoved(ServerInstance server) {
         log.info("On server removed event: {}", server);
+        NavigableMap<Long, ServerInstance> before = rootCircle.snapshot();
         removeNode(server);
+        onTopologyChange(before);
         logCircle();
     }
 
+    private void onTopologyChange(NavigableMap<Long, ServerInstance> before) {
+        lastTopologyChange = ClusterTopologyChange.diff(this::hash, currentServer, before, rootCircle.snapshot());
+        log.info("Cluster topology changed, current server gained ranges: {}, lost ranges: {}",
+                lastTopologyChange.hasGainedRanges(), lastTopologyChange.hasLostRanges());
+    }
+
     private void addNode(ServerInstance instance) {
         for (int i = 0; i < virtualNodesSize; i++) {
             circles[instance.getServerAddress().getServerType().ordinal()].put(hash(instance, i).asLong(), instance);
@@ -18,6 +18,8 @@ package org.thingsboard.server.service.cluster.routing;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.server.service.cluster.discovery.ServerInstance;
 
+import java.util.NavigableMap;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 
@@ -57,6 +59,10 @@ public class ConsistentHashCircle {
         return circle.get(hash);
     }
 
+    public NavigableMap<Long, ServerInstance> snapshot() {
+        return new TreeMap<>(circle);
+    }
+
     public void log() {
         circle.entrySet().forEach((e) -> log.debug("{} -> {}", e.getKey(), e.getValue().getServerAddress()));
     }
@@ -27,4 +27,16 @@ public class CassandraTsDatabaseSchemaService extends CassandraAbstractDatabaseS
     public CassandraTsDatabaseSchemaService() {
         super("schema-ts.cql");
     }
+
+    @Override
+    public void upgradeDatabaseSchema(String fromVersion) throws Exception {
+        switch (fromVersion) {
+            case "2.4.3":
+                // the schema creates missing tables only, e.g. ts_kv_rollup_cf
+                createDatabaseSchema();
+                break;
+            default:
+                break;
+        }
+    }
 }
@@ -16,4 +16,8 @@
 package org.thingsboard.server.service.install;
 
 public interface TsDatabaseSchemaService extends DatabaseSchemaService {
+
+    default void upgradeDatabaseSchema(String fromVersion) throws Exception {
+    }
+
 }
@@ -0,0 +1,428 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.queue;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thingsboard.common.util.ThingsBoardThreadFactory;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.TbMsg;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * 基于内存映射文件的规则引擎消息日志
+ * 1. 消息追加写入当前段文件，段写满后滚动到新文件
+ * 2. 确认(ack)先缓存在内存中，由后台线程批量写入日志
+ * 3. 后台线程删除全部已确认的旧段文件，存活消息较少的旧段先把消息重写到最新段再删除
+ * 4. 压缩和刷盘(force)在追加锁之外进行，追加只在写入单条记录时持有锁
+ */
+@Slf4j
+@Service
+public class DefaultRuleEngineMsgLog implements RuleEngineMsgLog {
+
+    // msg id, tenant id and append time
+    private static final int MSG_HEADER_SIZE = 16 + 16 + 8;
+    private static final int MAX_ACKS_PER_RECORD = 4096;
+    private static final long MAX_SWEEP_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
+    @Value("${actors.queue.log.enabled:false}")
+    private boolean enabled;
+    @Value("${actors.queue.log.dir:./msg-log}")
+    private String dir;
+    @Value("${actors.queue.log.segment_size:67108864}")
+    private int segmentSize;
+    @Value("${actors.queue.log.ack_flush_interval_ms:100}")
+    private long ackFlushIntervalMs;
+    @Value("${actors.queue.log.ttl_ms:3600000}")
+    private long ttlMs;
+    @Value("${actors.queue.log.compaction_threshold:0.1}")
+    private double compactionThreshold;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<UUID, LogEntry> pending = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, UUID> copies = new ConcurrentHashMap<>();
+    private final Queue<UUID> completed = new ConcurrentLinkedQueue<>();
+    // segments that were rolled over and are not forced to disk yet
+    private final Queue<MsgLogSegment> rolled = new ConcurrentLinkedQueue<>();
+    // serializes the background flush with the flush on shutdown
+    private final Object flushLock = new Object();
+    // guarded by this
+    private final Deque<MsgLogSegment> segments = new ArrayDeque<>();
+    private MsgLogSegment active;
+    private File logDir;
+    private volatile long lastSweepTs;
+    private ScheduledExecutorService flushExecutor;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        logDir = new File(dir);
+        if (!logDir.isDirectory() && !logDir.mkdirs()) {
+            throw new IllegalStateException("Failed to create message log directory [" + logDir.getAbsolutePath() + "]");
+        }
+        File[] files = logDir.listFiles(MsgLogSegment::isSegmentFile);
+        if (files != null) {
+            Arrays.sort(files);
+            for (File file : files) {
+                MsgLogSegment segment = MsgLogSegment.open(file);
+                segments.add(segment);
+                load(segment);
+            }
+        }
+        synchronized (this) {
+            if (segments.isEmpty()) {
+                roll();
+            } else {
+                active = segments.getLast();
+            }
+        }
+        lastSweepTs = System.currentTimeMillis();
+        log.info("Opened message log [{}] with [{}] segments and [{}] unacknowledged messages", logDir.getAbsolutePath(), segments.size(), pending.size());
+
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(ThingsBoardThreadFactory.forName("msg-log-flush"));
+        flushExecutor.scheduleWithFixedDelay(this::flushSafely, ackFlushIntervalMs, ackFlushIntervalMs, TimeUnit.MILLISECONDS);
+
+        if (meterRegistry != null) {
+            Gauge.builder("tb.rule.engine.msg.log.pending", pending, Map::size).register(meterRegistry);
+            Gauge.builder("tb.rule.engine.msg.log.segments", this, DefaultRuleEngineMsgLog::getSegmentsCount).register(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+            flushSafely();
+        }
+    }
+
+    private void load(MsgLogSegment segment) {
+        segment.read((type, position, payload) -> {
+            if (type == MsgLogSegment.MSG) {
+                UUID msgId = getUuid(payload);
+                TenantId tenantId = new TenantId(getUuid(payload));
+                LogEntry entry = new LogEntry(tenantId, payload.getLong(), true);
+                entry.segment = segment;
+                entry.position = position;
+                LogEntry previous = pending.put(msgId, entry);
+                if (previous != null) {
+                    // the message was moved by the compaction
+                    previous.segment.live--;
+                }
+                segment.records++;
+                segment.live++;
+            } else if (type == MsgLogSegment.ACK) {
+                while (payload.remaining() >= 16) {
+                    LogEntry entry = pending.remove(getUuid(payload));
+                    if (entry != null) {
+                        entry.segment.live--;
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void append(TenantId tenantId, TbMsg msg) {
+        if (!enabled) {
+            return;
+        }
+        LogEntry existing = pending.get(msg.getId());
+        if (existing != null) {
+            // replayed message is already in the log
+            existing.refs.set(1);
+            return;
+        }
+        byte[] data = TbMsg.toByteArray(msg);
+        long ts = System.currentTimeMillis();
+        ByteBuffer payload = ByteBuffer.allocate(MSG_HEADER_SIZE + data.length);
+        putUuid(payload, msg.getId());
+        putUuid(payload, tenantId.getId());
+        payload.putLong(ts);
+        payload.put(data);
+        payload.flip();
+        LogEntry entry = new LogEntry(tenantId, ts, false);
+        synchronized (this) {
+            if (appendRecord(MsgLogSegment.MSG, payload, entry)) {
+                pending.put(msg.getId(), entry);
+            }
+        }
+    }
+
+    @Override
+    public void fork(UUID msgId, UUID copyId) {
+        if (!enabled) {
+            return;
+        }
+        UUID rootId = copies.getOrDefault(msgId, msgId);
+        LogEntry entry = pending.get(rootId);
+        if (entry != null) {
+            entry.refs.incrementAndGet();
+            copies.put(copyId, rootId);
+        }
+    }
+
+    @Override
+    public void ack(UUID msgId) {
+        if (!enabled) {
+            return;
+        }
+        UUID rootId = copies.remove(msgId);
+        if (rootId == null) {
+            rootId = msgId;
+        }
+        LogEntry entry = pending.get(rootId);
+        if (entry != null && entry.refs.decrementAndGet() == 0) {
+            completed.add(rootId);
+        }
+    }
+
+    @Override
+    public void replay(BiConsumer<TenantId, TbMsg> consumer) {
+        if (!enabled) {
+            return;
+        }
+        List<Map.Entry<UUID, LogEntry>> recovered = new ArrayList<>();
+        pending.entrySet().stream().filter(e -> e.getValue().recovered).forEach(recovered::add);
+        if (recovered.isEmpty()) {
+            return;
+        }
+        log.info("Replaying [{}] unacknowledged messages", recovered.size());
+        recovered.sort(Comparator.comparingLong((Map.Entry<UUID, LogEntry> e) -> e.getValue().ts));
+        for (Map.Entry<UUID, LogEntry> e : recovered) {
+            LogEntry entry = e.getValue();
+            try {
+                ByteBuffer payload;
+                synchronized (this) {
+                    if (entry.segment == null || pending.get(e.getKey()) != entry) {
+                        continue;
+                    }
+                    payload = entry.segment.readPayload(entry.position);
+                }
+                payload.position(payload.position() + MSG_HEADER_SIZE);
+                consumer.accept(entry.tenantId, TbMsg.fromBytes(payload));
+            } catch (Exception ex) {
+                log.warn("[{}][{}] Failed to replay message", entry.tenantId, e.getKey(), ex);
+                if (entry.refs.compareAndSet(1, 0)) {
+                    completed.add(e.getKey());
+                }
+            }
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Failed to flush message log", e);
+        }
+    }
+
+    void flush() {
+        synchronized (flushLock) {
+            List<UUID> acked = new ArrayList<>();
+            UUID msgId;
+            while ((msgId = completed.poll()) != null) {
+                acked.add(msgId);
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastSweepTs >= Math.min(ttlMs, MAX_SWEEP_INTERVAL_MS)) {
+                lastSweepTs = now;
+                sweep(now, acked);
+            }
+            for (int from = 0; from < acked.size(); from += MAX_ACKS_PER_RECORD) {
+                List<UUID> batch = acked.subList(from, Math.min(acked.size(), from + MAX_ACKS_PER_RECORD));
+                ByteBuffer payload = ByteBuffer.allocate(batch.size() * 16);
+                batch.forEach(id -> putUuid(payload, id));
+                payload.flip();
+                synchronized (this) {
+                    appendRecord(MsgLogSegment.ACK, payload, null);
+                    for (UUID id : batch) {
+                        LogEntry entry = pending.remove(id);
+                        if (entry != null) {
+                            entry.segment.live--;
+                        }
+                    }
+                }
+            }
+            compact();
+            MsgLogSegment segment;
+            while ((segment = rolled.poll()) != null) {
+                segment.force();
+            }
+            synchronized (this) {
+                segment = active;
+            }
+            if (segment != null) {
+                segment.force();
+            }
+        }
+    }
+
+    /**
+     * Acknowledges messages that were not completed within the ttl, for example dropped by a rule node.
+     */
+    private void sweep(long now, List<UUID> acked) {
+        int expired = 0;
+        for (Map.Entry<UUID, LogEntry> e : pending.entrySet()) {
+            if (now - e.getValue().ts > ttlMs && e.getValue().refs.getAndSet(0) > 0) {
+                acked.add(e.getKey());
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.warn("[{}] messages were not acknowledged within [{}] ms and are removed from the message log", expired, ttlMs);
+            copies.values().removeIf(rootId -> {
+                LogEntry entry = pending.get(rootId);
+                return entry == null || entry.refs.get() <= 0;
+            });
+        }
+    }
+
+    /**
+     * Runs on the flush thread without holding the append lock. The head segment is never the active one,
+     * so it's only read here, and each moved message takes the lock just like a regular append.
+     */
+    private void compact() {
+        while (true) {
+            MsgLogSegment head;
+            synchronized (this) {
+                if (segments.size() <= 1) {
+                    return;
+                }
+                head = segments.getFirst();
+            }
+            if (head.live > head.records * compactionThreshold) {
+                return;
+            }
+            if (head.live > 0) {
+                for (LogEntry entry : pending.values()) {
+                    if (entry.segment == head) {
+                        ByteBuffer payload = head.readPayload(entry.position);
+                        synchronized (this) {
+                            if (entry.segment == head && appendRecord(MsgLogSegment.MSG, payload, entry)) {
+                                head.live--;
+                            }
+                        }
+                    }
+                }
+                if (head.live > 0) {
+                    return;
+                }
+            }
+            synchronized (this) {
+                segments.removeFirst();
+            }
+            if (!head.delete()) {
+                log.warn("Failed to delete message log segment [{}]", head);
+            }
+        }
+    }
+
+    // must be called under the lock
+    private boolean appendRecord(byte type, ByteBuffer payload, LogEntry entry) {
+        try {
+            int position = active.append(type, payload.duplicate());
+            if (position < 0) {
+                if (MsgLogSegment.HEADER_SIZE + payload.remaining() + 4 > segmentSize) {
+                    log.warn("Record of [{}] bytes doesn't fit the message log segment", payload.remaining());
+                    return false;
+                }
+                roll();
+                position = active.append(type, payload);
+            }
+            if (entry != null) {
+                entry.segment = active;
+                entry.position = position;
+                active.records++;
+                active.live++;
+            }
+            return true;
+        } catch (IOException e) {
+            log.warn("Failed to append record to the message log", e);
+            return false;
+        }
+    }
+
+    private void roll() throws IOException {
+        long seq = 0;
+        if (active != null) {
+            // forced by the flush thread, outside of the append lock
+            rolled.add(active);
+            seq = active.getSeq() + 1;
+        }
+        active = MsgLogSegment.create(logDir, seq, segmentSize);
+        segments.add(active);
+    }
+
+    private synchronized int getSegmentsCount() {
+        return segments.size();
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static class LogEntry {
+        private final TenantId tenantId;
+        private final long ts;
+        private final boolean recovered;
+        private final AtomicInteger refs = new AtomicInteger(1);
+        private MsgLogSegment segment;
+        private int position;
+
+        private LogEntry(TenantId tenantId, long ts, boolean recovered) {
+            this.tenantId = tenantId;
+            this.ts = ts;
+            this.recovered = recovered;
+        }
+    }
+}
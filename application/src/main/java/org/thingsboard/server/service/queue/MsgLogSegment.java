@@ -0,0 +1,177 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.queue;
+
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Memory-mapped, preallocated file of the message log.
+ * Record layout: [int length][int crc][byte type][payload], a zero length marks the end of the written data.
+ */
+class MsgLogSegment {
+
+    static final byte MSG = 1;
+    static final byte ACK = 2;
+    static final int HEADER_SIZE = 4 + 4 + 1;
+
+    private static final String SUFFIX = ".log";
+
+    @Getter
+    private final long seq;
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private volatile boolean dirty;
+
+    /**
+     * Number of messages of the segment that are not acknowledged yet.
+     */
+    int live;
+    /**
+     * Number of messages written to the segment.
+     */
+    int records;
+
+    private MsgLogSegment(long seq, File file, MappedByteBuffer buffer) {
+        this.seq = seq;
+        this.file = file;
+        this.buffer = buffer;
+    }
+
+    static MsgLogSegment create(File dir, long seq, int size) throws IOException {
+        return map(seq, new File(dir, String.format("%020d%s", seq, SUFFIX)), size);
+    }
+
+    static MsgLogSegment open(File file) throws IOException {
+        long seq = Long.parseLong(file.getName().substring(0, file.getName().length() - SUFFIX.length()));
+        return map(seq, file, (int) file.length());
+    }
+
+    static boolean isSegmentFile(File file) {
+        return file.isFile() && file.getName().endsWith(SUFFIX);
+    }
+
+    private static MsgLogSegment map(long seq, File file, int size) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (raf.length() < size) {
+                raf.setLength(size);
+            }
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new MsgLogSegment(seq, file, buffer);
+        }
+    }
+
+    /**
+     * @return position of the record or -1 if the segment has no space left
+     */
+    int append(byte type, ByteBuffer payload) {
+        int length = payload.remaining();
+        int position = buffer.position();
+        // the end marker after the record must fit as well
+        if (position + HEADER_SIZE + length + 4 > buffer.capacity()) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload.duplicate());
+        buffer.position(position + 4);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(type);
+        buffer.put(payload);
+        // clears a torn record that may follow the end of the data after a crash
+        buffer.putInt(buffer.position(), 0);
+        // the length is written last, so a torn record is never seen as complete
+        buffer.putInt(position, length + 1);
+        dirty = true;
+        return position;
+    }
+
+    /**
+     * Reads the records from the beginning of the segment and sets the write position after the last valid one.
+     */
+    void read(RecordHandler handler) {
+        ByteBuffer reader = buffer.duplicate();
+        reader.position(0);
+        int position = 0;
+        while (position + HEADER_SIZE <= reader.capacity()) {
+            int length = reader.getInt(position);
+            if (length <= 0 || position + 8 + length > reader.capacity()) {
+                break;
+            }
+            ByteBuffer record = record(reader, position, length);
+            if (record == null) {
+                break;
+            }
+            byte type = record.get();
+            handler.onRecord(type, position, record.slice());
+            position += 8 + length;
+        }
+        buffer.position(position);
+    }
+
+    /**
+     * @return payload of the record at the position
+     */
+    ByteBuffer readPayload(int position) {
+        ByteBuffer reader = buffer.duplicate();
+        ByteBuffer record = record(reader, position, reader.getInt(position));
+        if (record == null) {
+            throw new IllegalStateException("Corrupted record [" + position + "] in " + file);
+        }
+        record.get();
+        return record.slice();
+    }
+
+    private static ByteBuffer record(ByteBuffer reader, int position, int length) {
+        int expectedCrc = reader.getInt(position + 4);
+        reader.limit(position + 8 + length).position(position + 8);
+        ByteBuffer record = reader.slice();
+        reader.limit(reader.capacity());
+        CRC32 crc = new CRC32();
+        crc.update(record.duplicate());
+        return (int) crc.getValue() == expectedCrc ? record : null;
+    }
+
+    /**
+     * Safe to call concurrently with {@link #append}, the records appended meanwhile are forced by the next call.
+     */
+    void force() {
+        if (dirty) {
+            dirty = false;
+            buffer.force();
+        }
+    }
+
+    boolean delete() {
+        return file.delete();
+    }
+
+    @Override
+    public String toString() {
+        return file.getName();
+    }
+
+    interface RecordHandler {
+        void onRecord(byte type, int position, ByteBuffer payload);
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.queue;
+
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.TbMsg;
+
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * 规则引擎消息日志
+ * 1. 进入根规则链的消息先写入本地日志
+ * 2. 消息及其所有副本处理完成后确认(ack)
+ * 3. 重启后重放未确认的消息
+ */
+public interface RuleEngineMsgLog {
+
+    void append(TenantId tenantId, TbMsg msg);
+
+    /**
+     * Registers a copy of the message, the original message is completed only when all its copies are acknowledged.
+     */
+    void fork(UUID msgId, UUID copyId);
+
+    void ack(UUID msgId);
+
+    /**
+     * Sends the messages that were not acknowledged before the restart to the consumer.
+     */
+    void replay(BiConsumer<TenantId, TbMsg> consumer);
+}
@@ -66,7 +66,7 @@ public class RuleNodeJsScriptEngine implements org.thingsboard.rule.engine.api.S
             } else {
                 args[0] = "";
             }
-            args[1] = mapper.writeValueAsString(msg.getMetaData().getData());
+            args[1] = mapper.writeValueAsString(msg.getMetaData().readOnlyData());
             args[2] = msg.getType();
             return args;
         } catch (Throwable th) {
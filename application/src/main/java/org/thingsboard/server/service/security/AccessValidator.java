@@ -20,16 +20,17 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.async.DeferredResult;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.server.common.data.Customer;
-import org.thingsboard.server.common.data.Device;
-import org.thingsboard.server.common.data.EntityView;
+import org.thingsboard.server.common.data.HasCustomerId;
+import org.thingsboard.server.common.data.HasTenantId;
 import org.thingsboard.server.common.data.Tenant;
-import org.thingsboard.server.common.data.asset.Asset;
 import org.thingsboard.server.common.data.exception.ThingsboardException;
 import org.thingsboard.server.common.data.id.AssetId;
 import org.thingsboard.server.common.data.id.CustomerId;
@@ -63,6 +64,9 @@ import javax.annotation.PreDestroy;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import static org.thingsboard.server.common.data.CacheConstants.ENTITY_OWNERSHIP_CACHE;
 
 /**
  * Created by ashvayka on 27.03.18.
@@ -102,6 +106,9 @@ public class AccessValidator {
     @Autowired
     protected AccessControlService accessControlService;
 
+    @Autowired
+    protected CacheManager cacheManager;
+
     private ExecutorService executor;
 
     @PostConstruct
@@ -185,19 +192,8 @@ public class AccessValidator {
         if (currentUser.isSystemAdmin()) {
             callback.onSuccess(ValidationResult.accessDenied(SYSTEM_ADMINISTRATOR_IS_NOT_ALLOWED_TO_PERFORM_THIS_OPERATION));
         } else {
-            ListenableFuture<Device> deviceFuture = deviceService.findDeviceByIdAsync(currentUser.getTenantId(), new DeviceId(entityId.getId()));
-            Futures.addCallback(deviceFuture, getCallback(callback, device -> {
-                if (device == null) {
-                    return ValidationResult.entityNotFound(DEVICE_WITH_REQUESTED_ID_NOT_FOUND);
-                } else {
-                    try {
-                        accessControlService.checkPermission(currentUser, Resource.DEVICE, operation, entityId, device);
-                    } catch (ThingsboardException e) {
-                        return ValidationResult.accessDenied(e.getMessage());
-                    }
-                    return ValidationResult.ok(device);
-                }
-            }), executor);
+            validateOwnership(currentUser, operation, entityId, Resource.DEVICE, DEVICE_WITH_REQUESTED_ID_NOT_FOUND,
+                    () -> deviceService.findDeviceByIdAsync(currentUser.getTenantId(), new DeviceId(entityId.getId())), callback);
         }
     }
 
@@ -205,19 +201,8 @@ public class AccessValidator {
         if (currentUser.isSystemAdmin()) {
             callback.onSuccess(ValidationResult.accessDenied(SYSTEM_ADMINISTRATOR_IS_NOT_ALLOWED_TO_PERFORM_THIS_OPERATION));
         } else {
-            ListenableFuture<Asset> assetFuture = assetService.findAssetByIdAsync(currentUser.getTenantId(), new AssetId(entityId.getId()));
-            Futures.addCallback(assetFuture, getCallback(callback, asset -> {
-                if (asset == null) {
-                    return ValidationResult.entityNotFound("Asset with requested id wasn't found!");
-                } else {
-                    try {
-                        accessControlService.checkPermission(currentUser, Resource.ASSET, operation, entityId, asset);
-                    } catch (ThingsboardException e) {
-                        return ValidationResult.accessDenied(e.getMessage());
-                    }
-                    return ValidationResult.ok(asset);
-                }
-            }), executor);
+            validateOwnership(currentUser, operation, entityId, Resource.ASSET, "Asset with requested id wasn't found!",
+                    () -> assetService.findAssetByIdAsync(currentUser.getTenantId(), new AssetId(entityId.getId())), callback);
         }
     }
 
@@ -312,22 +297,44 @@ public class AccessValidator {
         if (currentUser.isSystemAdmin()) {
             callback.onSuccess(ValidationResult.accessDenied(SYSTEM_ADMINISTRATOR_IS_NOT_ALLOWED_TO_PERFORM_THIS_OPERATION));
         } else {
-            ListenableFuture<EntityView> entityViewFuture = entityViewService.findEntityViewByIdAsync(currentUser.getTenantId(), new EntityViewId(entityId.getId()));
-            Futures.addCallback(entityViewFuture, getCallback(callback, entityView -> {
-                if (entityView == null) {
-                    return ValidationResult.entityNotFound(ENTITY_VIEW_WITH_REQUESTED_ID_NOT_FOUND);
+            validateOwnership(currentUser, operation, entityId, Resource.ENTITY_VIEW, ENTITY_VIEW_WITH_REQUESTED_ID_NOT_FOUND,
+                    () -> entityViewService.findEntityViewByIdAsync(currentUser.getTenantId(), new EntityViewId(entityId.getId())), callback);
+        }
+    }
+
+    /**
+     * Checks permissions using the cached owners of the entity, the entity is loaded only on a cache miss.
+     * The cache is evicted by the DAO services when the entity is saved (e.g. assigned to a customer) or deleted.
+     */
+    private <E extends HasTenantId & HasCustomerId> void validateOwnership(SecurityUser currentUser, Operation operation, EntityId entityId, Resource resource,
+                                                                          String notFoundMessage, Supplier<ListenableFuture<E>> entityFetcher,
+                                                                          FutureCallback<ValidationResult> callback) {
+        Cache cache = cacheManager.getCache(ENTITY_OWNERSHIP_CACHE);
+        EntityOwnership ownership = cache.get(entityId.getId(), EntityOwnership.class);
+        if (ownership != null) {
+            callback.onSuccess(checkOwnership(currentUser, operation, entityId, resource, ownership));
+        } else {
+            Futures.addCallback(entityFetcher.get(), getCallback(callback, entity -> {
+                if (entity == null) {
+                    return ValidationResult.entityNotFound(notFoundMessage);
                 } else {
-                    try {
-                        accessControlService.checkPermission(currentUser, Resource.ENTITY_VIEW, operation, entityId, entityView);
-                    } catch (ThingsboardException e) {
-                        return ValidationResult.accessDenied(e.getMessage());
-                    }
-                    return ValidationResult.ok(entityView);
+                    EntityOwnership entityOwnership = EntityOwnership.of(entity);
+                    cache.putIfAbsent(entityId.getId(), entityOwnership);
+                    return checkOwnership(currentUser, operation, entityId, resource, entityOwnership);
                 }
             }), executor);
         }
     }
 
+    private ValidationResult<EntityOwnership> checkOwnership(SecurityUser currentUser, Operation operation, EntityId entityId, Resource resource, EntityOwnership ownership) {
+        try {
+            accessControlService.checkPermission(currentUser, resource, operation, entityId, ownership);
+        } catch (ThingsboardException e) {
+            return ValidationResult.accessDenied(e.getMessage());
+        }
+        return ValidationResult.ok(ownership);
+    }
+
     private <T, V> FutureCallback<T> getCallback(FutureCallback<ValidationResult> callback, Function<T, ValidationResult<V>> transformer) {
         return new FutureCallback<T>() {
             @Override
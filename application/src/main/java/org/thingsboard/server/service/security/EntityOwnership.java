@@ -0,0 +1,40 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.security;
+
+import lombok.Data;
+import org.thingsboard.server.common.data.HasCustomerId;
+import org.thingsboard.server.common.data.HasTenantId;
+import org.thingsboard.server.common.data.id.CustomerId;
+import org.thingsboard.server.common.data.id.TenantId;
+
+import java.io.Serializable;
+
+/**
+ * Tenant and customer that own an entity, enough to check permissions without loading the entity.
+ */
+@Data
+public class EntityOwnership implements HasTenantId, HasCustomerId, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final TenantId tenantId;
+    private final CustomerId customerId;
+
+    public static <E extends HasTenantId & HasCustomerId> EntityOwnership of(E entity) {
+        return new EntityOwnership(entity.getTenantId(), entity.getCustomerId());
+    }
+}
@@ -15,27 +15,36 @@
  */
 package org.thingsboard.server.service.security.model.token;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.common.hash.Hashing;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import lombok.Data;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.thingsboard.server.common.data.id.CustomerId;
+import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.id.UserId;
 import org.thingsboard.server.common.data.security.Authority;
 import org.thingsboard.server.config.JwtSettings;
+import org.thingsboard.server.service.security.exception.JwtExpiredTokenException;
 import org.thingsboard.server.service.security.model.SecurityUser;
 import org.thingsboard.server.service.security.model.UserPrincipal;
 
+import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
@@ -51,10 +60,39 @@ public class JwtTokenFactory {
     private static final String CUSTOMER_ID = "customerId";
 
     private final JwtSettings settings;
+    private final Cache<String, ParsedAccessToken> parsedTokens;
+    private final Cache<EntityId, Long> invalidationTimes;
 
     @Autowired
     public JwtTokenFactory(JwtSettings settings) {
         this.settings = settings;
+        this.invalidationTimes = Caffeine.newBuilder()
+                .expireAfterWrite(settings.getTokenExpirationTime(), TimeUnit.SECONDS)
+                .build();
+        Integer cacheSize = settings.getParsedTokenCacheSize();
+        if (cacheSize != null && cacheSize > 0) {
+            this.parsedTokens = Caffeine.newBuilder()
+                    .maximumSize(cacheSize)
+                    .expireAfter(new Expiry<String, ParsedAccessToken>() {
+                        @Override
+                        public long expireAfterCreate(String key, ParsedAccessToken value, long currentTime) {
+                            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.getExpirationTime() - System.currentTimeMillis()));
+                        }
+
+                        @Override
+                        public long expireAfterUpdate(String key, ParsedAccessToken value, long currentTime, long currentDuration) {
+                            return expireAfterCreate(key, value, currentTime);
+                        }
+
+                        @Override
+                        public long expireAfterRead(String key, ParsedAccessToken value, long currentTime, long currentDuration) {
+                            return currentDuration;
+                        }
+                    })
+                    .build();
+        } else {
+            this.parsedTokens = null;
+        }
     }
 
     /**
@@ -96,9 +134,94 @@ public class JwtTokenFactory {
         return new AccessJwtToken(token, claims);
     }
 
+    /**
+     * Verified tokens are cached by the token hash until they expire, so repeated requests
+     * with the same token skip signature verification and claims parsing.
+     * Tokens issued before the tokens of their user, tenant or customer were invalidated are rejected as expired.
+     */
     public SecurityUser parseAccessJwtToken(RawAccessJwtToken rawAccessToken) {
-        Jws<Claims> jwsClaims = rawAccessToken.parseClaims(settings.getTokenSigningKey());
-        Claims claims = jwsClaims.getBody();
+        ParsedAccessToken parsedToken;
+        if (parsedTokens == null) {
+            parsedToken = doParseAccessJwtToken(rawAccessToken);
+        } else {
+            String tokenHash = Hashing.sha256().hashString(rawAccessToken.getToken(), StandardCharsets.UTF_8).toString();
+            parsedToken = parsedTokens.getIfPresent(tokenHash);
+            if (parsedToken == null || parsedToken.getExpirationTime() <= System.currentTimeMillis()) {
+                parsedToken = doParseAccessJwtToken(rawAccessToken);
+                if (parsedToken.getExpirationTime() < Long.MAX_VALUE) {
+                    parsedTokens.put(tokenHash, parsedToken);
+                }
+            }
+        }
+        if (isInvalidated(parsedToken)) {
+            throw new JwtExpiredTokenException(rawAccessToken, "JWT Token is invalidated", null);
+        }
+        SecurityUser cachedUser = parsedToken.getSecurityUser();
+        return new SecurityUser(cachedUser, cachedUser.isEnabled(), cachedUser.getUserPrincipal());
+    }
+
+    /**
+     * Invalidates the tokens issued so far to the user, e.g. when the user credentials are changed or disabled.
+     */
+    public void invalidateUserTokens(UserId userId) {
+        invalidateTokens(userId);
+    }
+
+    /**
+     * Invalidates the tokens issued so far to the users of the deleted tenant.
+     */
+    public void invalidateTenantTokens(TenantId tenantId) {
+        invalidateTokens(tenantId);
+    }
+
+    /**
+     * Invalidates the tokens issued so far to the users of the deleted customer.
+     */
+    public void invalidateCustomerTokens(CustomerId customerId) {
+        invalidateTokens(customerId);
+    }
+
+    /**
+     * The invalidation time is kept for the token lifetime, older tokens are expired anyway.
+     * Tokens issued within the same second as the invalidation stay valid, as the token issue time is in seconds.
+     */
+    private void invalidateTokens(EntityId entityId) {
+        invalidationTimes.put(entityId, System.currentTimeMillis());
+        if (parsedTokens != null) {
+            parsedTokens.asMap().values().removeIf(parsedToken -> {
+                SecurityUser securityUser = parsedToken.getSecurityUser();
+                return entityId.equals(securityUser.getId()) || entityId.equals(securityUser.getTenantId())
+                        || entityId.equals(securityUser.getCustomerId());
+            });
+        }
+    }
+
+    private boolean isInvalidated(ParsedAccessToken parsedToken) {
+        SecurityUser securityUser = parsedToken.getSecurityUser();
+        long issuedAt = TimeUnit.MILLISECONDS.toSeconds(parsedToken.getIssuedAt());
+        return isInvalidatedAfter(securityUser.getId(), issuedAt)
+                || isInvalidatedAfter(securityUser.getTenantId(), issuedAt)
+                || isInvalidatedAfter(securityUser.getCustomerId(), issuedAt);
+    }
+
+    private boolean isInvalidatedAfter(EntityId entityId, long issuedAt) {
+        if (entityId == null) {
+            return false;
+        }
+        Long invalidationTime = invalidationTimes.getIfPresent(entityId);
+        return invalidationTime != null && issuedAt < TimeUnit.MILLISECONDS.toSeconds(invalidationTime);
+    }
+
+    private ParsedAccessToken doParseAccessJwtToken(RawAccessJwtToken rawAccessToken) {
+        Claims claims = rawAccessToken.parseClaims(settings.getTokenSigningKey()).getBody();
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+        return new ParsedAccessToken(toSecurityUser(claims),
+                issuedAt != null ? issuedAt.getTime() : 0L,
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+    }
+
+    private SecurityUser toSecurityUser(Claims claims) {
         String subject = claims.getSubject();
         List<String> scopes = claims.get(SCOPES, List.class);
         if (scopes == null || scopes.isEmpty()) {
@@ -169,4 +292,11 @@ public class JwtTokenFactory {
         return securityUser;
     }
 
+    @Data
+    private static class ParsedAccessToken {
+        private final SecurityUser securityUser;
+        private final long issuedAt;
+        private final long expirationTime;
+    }
+
 }
@@ -37,6 +37,7 @@ import org.thingsboard.server.common.data.DataConstants;
 import org.thingsboard.server.common.data.Device;
 import org.thingsboard.server.common.data.Tenant;
 import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.kv.AttributeKvEntry;
 import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
@@ -58,6 +59,7 @@ import org.thingsboard.server.dao.tenant.TenantService;
 import org.thingsboard.server.dao.timeseries.TimeseriesService;
 import org.thingsboard.server.gen.cluster.ClusterAPIProtos;
 import org.thingsboard.server.service.cluster.routing.ClusterRoutingService;
+import org.thingsboard.server.service.cluster.routing.ClusterTopologyChange;
 import org.thingsboard.server.service.cluster.rpc.ClusterRpcService;
 import org.thingsboard.server.service.telemetry.TelemetrySubscriptionService;
 
@@ -68,8 +70,14 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import static org.thingsboard.server.common.data.DataConstants.*;
 
@@ -78,7 +86,6 @@ import static org.thingsboard.server.common.data.DataConstants.*;
  */
 @Service
 @Slf4j
-//TODO: refactor to use page links as cursor and not fetch all
 public class DefaultDeviceStateService implements DeviceStateService {
 
     private static final ObjectMapper json = new ObjectMapper();
@@ -133,7 +140,11 @@ public class DefaultDeviceStateService implements DeviceStateService {
     @Getter
     private int initFetchPackSize;
 
-    private volatile boolean clusterUpdatePending = false;
+    @Value("${state.initParallelism:4}")
+    @Getter
+    private int initParallelism;
+
+    private final AtomicReference<ClusterTopologyChange> pendingClusterUpdate = new AtomicReference<>();
 
     private ListeningScheduledExecutorService queueExecutor;
     private ConcurrentMap<TenantId, Set<DeviceId>> tenantDevices = new ConcurrentHashMap<>();
@@ -194,9 +205,8 @@ public class DefaultDeviceStateService implements DeviceStateService {
     }
 
     @Override
-    public void onClusterUpdate() {
-        if (!clusterUpdatePending) {
-            clusterUpdatePending = true;
+    public void onClusterUpdate(ClusterTopologyChange change) {
+        if (pendingClusterUpdate.getAndAccumulate(change, (prev, next) -> prev != null ? prev.merge(next) : next) == null) {
             queueExecutor.submit(this::onClusterUpdateSync);
         }
     }
@@ -226,61 +236,113 @@ public class DefaultDeviceStateService implements DeviceStateService {
     }
 
     private void onClusterUpdateSync() {
-        clusterUpdatePending = false;
-        List<Tenant> tenants = tenantService.findTenants(new TextPageLink(Integer.MAX_VALUE)).getData();
-        for (Tenant tenant : tenants) {
-            List<ListenableFuture<DeviceStateData>> fetchFutures = new ArrayList<>();
-            TextPageLink pageLink = new TextPageLink(initFetchPackSize);
-            while (pageLink != null) {
-                TextPageData<Device> page = deviceService.findDevicesByTenantId(tenant.getId(), pageLink);
-                pageLink = page.getNextPageLink();
-                for (Device device : page.getData()) {
-                    if (!routingService.resolveById(device.getId()).isPresent()) {
-                        if (!deviceStates.containsKey(device.getId())) {
-                            fetchFutures.add(fetchDeviceState(device));
-                        }
-                    } else {
-                        Set<DeviceId> tenantDeviceSet = tenantDevices.get(tenant.getId());
-                        if (tenantDeviceSet != null) {
-                            tenantDeviceSet.remove(device.getId());
-                        }
-                        deviceStates.remove(device.getId());
-                        deviceLastReportedActivity.remove(device.getId());
-                        deviceLastSavedActivity.remove(device.getId());
+        ClusterTopologyChange change = pendingClusterUpdate.getAndSet(null);
+        if (change == null || change.isEmpty()) {
+            return;
+        }
+        long startTs = System.currentTimeMillis();
+        int removed = 0;
+        if (change.hasLostRanges()) {
+            for (DeviceStateData stateData : new ArrayList<>(deviceStates.values())) {
+                DeviceId deviceId = stateData.getDeviceId();
+                if (change.isAffected(deviceId) && routingService.resolveById(deviceId).isPresent()) {
+                    Set<DeviceId> tenantDeviceSet = tenantDevices.get(stateData.getTenantId());
+                    if (tenantDeviceSet != null) {
+                        tenantDeviceSet.remove(deviceId);
                     }
-                }
-                try {
-                    Futures.successfulAsList(fetchFutures).get().forEach(this::addDeviceUsingState);
-                } catch (InterruptedException | ExecutionException e) {
-                    log.warn("Failed to init device state service from DB", e);
+                    deviceStates.remove(deviceId);
+                    deviceLastReportedActivity.remove(deviceId);
+                    deviceLastSavedActivity.remove(deviceId);
+                    removed++;
                 }
             }
         }
-    }
-
-    private void initStateFromDB() {
-        try {
-            List<Tenant> tenants = tenantService.findTenants(new TextPageLink(Integer.MAX_VALUE)).getData();
-            for (Tenant tenant : tenants) {
-                List<ListenableFuture<DeviceStateData>> fetchFutures = new ArrayList<>();
+        AtomicLong added = new AtomicLong();
+        if (change.hasGainedRanges()) {
+            forEachTenant(tenant -> {
                 TextPageLink pageLink = new TextPageLink(initFetchPackSize);
                 while (pageLink != null) {
                     TextPageData<Device> page = deviceService.findDevicesByTenantId(tenant.getId(), pageLink);
                     pageLink = page.getNextPageLink();
+                    List<Device> addedDevices = new ArrayList<>();
                     for (Device device : page.getData()) {
-                        if (!routingService.resolveById(device.getId()).isPresent()) {
-                            fetchFutures.add(fetchDeviceState(device));
+                        if (change.isAffected(device.getId()) && !deviceStates.containsKey(device.getId())
+                                && !routingService.resolveById(device.getId()).isPresent()) {
+                            addedDevices.add(device);
                         }
                     }
-                    try {
-                        Futures.successfulAsList(fetchFutures).get().forEach(this::addDeviceUsingState);
-                    } catch (InterruptedException | ExecutionException e) {
-                        log.warn("Failed to init device state service from DB", e);
-                    }
+                    added.addAndGet(addDevicesUsingState(addedDevices));
+                }
+            });
+        }
+        log.info("Rebalanced device states on cluster update: {} added, {} removed in {} ms", added.get(), removed, System.currentTimeMillis() - startTs);
+    }
+
+    private void initStateFromDB() {
+        long startTs = System.currentTimeMillis();
+        AtomicInteger tenantsCount = new AtomicInteger();
+        AtomicLong devicesCount = new AtomicLong();
+        ExecutorService initExecutor = Executors.newFixedThreadPool(Math.max(1, initParallelism), ThingsBoardThreadFactory.forName("device-state-init"));
+        try {
+            List<Future<?>> tenantFutures = new ArrayList<>();
+            forEachTenant(tenant -> tenantFutures.add(initExecutor.submit(() -> {
+                try {
+                    long tenantDevicesCount = initTenantStateFromDB(tenant.getId());
+                    long totalDevicesCount = devicesCount.addAndGet(tenantDevicesCount);
+                    log.info("[{}] Loaded {} device states, progress: {} tenants, {} devices, {} ms elapsed", tenant.getId(), tenantDevicesCount,
+                            tenantsCount.incrementAndGet(), totalDevicesCount, System.currentTimeMillis() - startTs);
+                } catch (Exception e) {
+                    log.warn("[{}] Failed to init device states from DB", tenant.getId(), e);
                 }
+            })));
+            for (Future<?> future : tenantFutures) {
+                future.get();
             }
+            log.info("Loaded {} device states of {} tenants in {} ms", devicesCount.get(), tenantsCount.get(), System.currentTimeMillis() - startTs);
         } catch (Throwable t) {
             log.warn("Failed to init device states from DB", t);
+        } finally {
+            initExecutor.shutdownNow();
+        }
+    }
+
+    private long initTenantStateFromDB(TenantId tenantId) {
+        long count = 0;
+        TextPageLink pageLink = new TextPageLink(initFetchPackSize);
+        while (pageLink != null) {
+            TextPageData<Device> page = deviceService.findDevicesByTenantId(tenantId, pageLink);
+            pageLink = page.getNextPageLink();
+            List<Device> localDevices = new ArrayList<>(page.getData().size());
+            for (Device device : page.getData()) {
+                if (!routingService.resolveById(device.getId()).isPresent()) {
+                    localDevices.add(device);
+                }
+            }
+            count += addDevicesUsingState(localDevices);
+        }
+        return count;
+    }
+
+    private void forEachTenant(Consumer<Tenant> consumer) {
+        TextPageLink pageLink = new TextPageLink(initFetchPackSize);
+        while (pageLink != null) {
+            TextPageData<Tenant> page = tenantService.findTenants(pageLink);
+            pageLink = page.getNextPageLink();
+            page.getData().forEach(consumer);
+        }
+    }
+
+    private int addDevicesUsingState(List<Device> devices) {
+        if (devices.isEmpty()) {
+            return 0;
+        }
+        try {
+            List<DeviceStateData> states = fetchDeviceStates(devices).get();
+            states.forEach(this::addDeviceUsingState);
+            return states.size();
+        } catch (InterruptedException | ExecutionException e) {
+            log.warn("Failed to init device state service from DB", e);
+            return 0;
         }
     }
 
@@ -463,6 +525,33 @@ public class DefaultDeviceStateService implements DeviceStateService {
         }
     }
 
+    private ListenableFuture<List<DeviceStateData>> fetchDeviceStates(List<Device> devices) {
+        if (persistToTelemetry) {
+            List<ListenableFuture<DeviceStateData>> fetchFutures = new ArrayList<>(devices.size());
+            devices.forEach(device -> fetchFutures.add(fetchDeviceState(device)));
+            return Futures.transform(Futures.successfulAsList(fetchFutures), states -> {
+                List<DeviceStateData> result = new ArrayList<>(states.size());
+                states.stream().filter(Objects::nonNull).forEach(result::add);
+                return result;
+            });
+        } else {
+            List<EntityId> deviceIds = new ArrayList<>(devices.size());
+            devices.forEach(device -> deviceIds.add(device.getId()));
+            ListenableFuture<Map<EntityId, List<AttributeKvEntry>>> attrData = attributesService.find(TenantId.SYS_TENANT_ID, deviceIds, DataConstants.SERVER_SCOPE, PERSISTENT_ATTRIBUTES);
+            return Futures.transform(attrData, data -> {
+                List<DeviceStateData> result = new ArrayList<>(devices.size());
+                for (Device device : devices) {
+                    try {
+                        result.add(this.<AttributeKvEntry>extractDeviceStateData(device).apply(data.get(device.getId())));
+                    } catch (Exception e) {
+                        log.debug("[{}] Skipping device with broken state data", device.getId());
+                    }
+                }
+                return result;
+            });
+        }
+    }
+
     private <T extends KvEntry> Function<List<T>, DeviceStateData> extractDeviceStateData(Device device) {
         return new Function<List<T>, DeviceStateData>() {
             @Nullable
@@ -18,6 +18,7 @@ package org.thingsboard.server.service.state;
 import org.thingsboard.server.common.data.Device;
 import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.msg.cluster.ServerAddress;
+import org.thingsboard.server.service.cluster.routing.ClusterTopologyChange;
 
 /**
  * Created by ashvayka on 01.05.18.
@@ -38,7 +39,7 @@ public interface DeviceStateService {
 
     void onDeviceInactivityTimeoutUpdate(DeviceId deviceId, long inactivityTimeout);
 
-    void onClusterUpdate();
+    void onClusterUpdate(ClusterTopologyChange change);
 
     void onRemoteMsg(ServerAddress serverAddress, byte[] bytes);
 }
@@ -44,10 +44,12 @@ import org.thingsboard.server.dao.entityview.EntityViewService;
 import org.thingsboard.server.dao.timeseries.TimeseriesService;
 import org.thingsboard.server.gen.cluster.ClusterAPIProtos;
 import org.thingsboard.server.service.cluster.routing.ClusterRoutingService;
+import org.thingsboard.server.service.cluster.routing.ClusterTopologyChange;
 import org.thingsboard.server.service.cluster.rpc.ClusterRpcService;
 import org.thingsboard.server.service.state.DefaultDeviceStateService;
 import org.thingsboard.server.service.state.DeviceStateService;
 import org.thingsboard.server.service.telemetry.sub.Subscription;
+import org.thingsboard.server.service.transport.TransportBackPressureService;
 import org.thingsboard.server.service.telemetry.sub.SubscriptionErrorCode;
 import org.thingsboard.server.service.telemetry.sub.SubscriptionState;
 import org.thingsboard.server.service.telemetry.sub.SubscriptionUpdate;
@@ -98,6 +100,9 @@ public class DefaultTelemetrySubscriptionService implements TelemetrySubscriptio
     @Autowired
     private EntityViewService entityViewService;
 
+    @Autowired
+    private TransportBackPressureService backPressureService;
+
     @Autowired
     @Lazy
     private DeviceStateService stateService;
@@ -194,14 +199,14 @@ public class DefaultTelemetrySubscriptionService implements TelemetrySubscriptio
     @Override
     public void saveAndNotify(TenantId tenantId, EntityId entityId, List<TsKvEntry> ts, long ttl, FutureCallback<Void> callback) {
         ListenableFuture<List<Void>> saveFuture = tsService.save(tenantId, entityId, ts, ttl);
-        addMainCallback(saveFuture, callback);
+        addMainCallback(tenantId, saveFuture, callback);
         addWsCallback(saveFuture, success -> onTimeseriesUpdate(entityId, ts));
     }
 
     @Override
     public void saveAndNotify(TenantId tenantId, EntityId entityId, String scope, List<AttributeKvEntry> attributes, FutureCallback<Void> callback) {
         ListenableFuture<List<Void>> saveFuture = attrService.save(tenantId, entityId, scope, attributes);
-        addMainCallback(saveFuture, callback);
+        addMainCallback(tenantId, saveFuture, callback);
         addWsCallback(saveFuture, success -> onAttributesUpdate(entityId, scope, attributes));
     }
 
@@ -321,11 +326,17 @@ public class DefaultTelemetrySubscriptionService implements TelemetrySubscriptio
     }
 
     @Override
-    public void onClusterUpdate() {
+    public void onClusterUpdate(ClusterTopologyChange change) {
         log.trace("Processing cluster onUpdate msg!");
+        if (change.isEmpty()) {
+            return;
+        }
         Iterator<Map.Entry<EntityId, Set<Subscription>>> deviceIterator = subscriptionsByEntityId.entrySet().iterator();
         while (deviceIterator.hasNext()) {
             Map.Entry<EntityId, Set<Subscription>> e = deviceIterator.next();
+            if (!change.isAffected(e.getKey())) {
+                continue;
+            }
             Set<Subscription> subscriptions = e.getValue();
             Optional<ServerAddress> newAddressOptional = routingService.resolveById(e.getKey());
             if (newAddressOptional.isPresent()) {
@@ -578,15 +589,18 @@ public class DefaultTelemetrySubscriptionService implements TelemetrySubscriptio
         }
     }
 
-    private void addMainCallback(ListenableFuture<List<Void>> saveFuture, final FutureCallback<Void> callback) {
+    private void addMainCallback(TenantId tenantId, ListenableFuture<List<Void>> saveFuture, final FutureCallback<Void> callback) {
+        backPressureService.onMsgStarted(tenantId);
         Futures.addCallback(saveFuture, new FutureCallback<List<Void>>() {
             @Override
             public void onSuccess(@Nullable List<Void> result) {
+                backPressureService.onMsgCompleted(tenantId);
                 callback.onSuccess(null);
             }
 
             @Override
             public void onFailure(Throwable t) {
+                backPressureService.onMsgCompleted(tenantId);
                 callback.onFailure(t);
             }
         }, tsCallBackExecutor);
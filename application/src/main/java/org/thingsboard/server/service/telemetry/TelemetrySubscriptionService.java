@@ -19,6 +19,7 @@ import org.thingsboard.rule.engine.api.RuleEngineTelemetryService;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.msg.cluster.ServerAddress;
+import org.thingsboard.server.service.cluster.routing.ClusterTopologyChange;
 import org.thingsboard.server.service.telemetry.sub.SubscriptionState;
 
 /**
@@ -44,5 +45,5 @@ public interface TelemetrySubscriptionService extends RuleEngineTelemetryService
 
     void onRemoteTsUpdate(ServerAddress serverAddress, byte[] bytes);
 
-    void onClusterUpdate();
+    void onClusterUpdate(ClusterTopologyChange change);
 }
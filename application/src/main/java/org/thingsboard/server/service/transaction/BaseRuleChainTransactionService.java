@@ -15,12 +15,16 @@
  */
 package org.thingsboard.server.service.transaction;
 
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.rule.engine.api.RuleChainTransactionService;
+import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.msg.TbMsg;
 import org.thingsboard.server.common.msg.cluster.ServerAddress;
@@ -31,21 +35,21 @@ import org.thingsboard.server.service.executors.DbCallbackExecutorService;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
 import java.util.Optional;
 import java.util.Queue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
+/**
+ * Keeps a FIFO queue of transactions per originator. Every queue is only accessed inside
+ * {@link ConcurrentMap#compute} of its originator, so there is no global lock and a queue
+ * is evicted as soon as its last transaction completes or expires.
+ * Transaction deadlines are tracked by a hashed wheel timer instead of a polling thread.
+ */
 @Service
 @Slf4j
 public class BaseRuleChainTransactionService implements RuleChainTransactionService {
@@ -63,48 +67,64 @@ public class BaseRuleChainTransactionService implements RuleChainTransactionServ
     private int finalQueueSize;
     @Value("${actors.rule.transaction.duration}")
     private long duration;
+    @Value("${actors.rule.transaction.timer_tick_ms:100}")
+    private long timerTickMs;
+    @Value("${actors.rule.transaction.stats.enabled:false}")
+    private boolean statsEnabled;
 
-    private final Lock transactionLock = new ReentrantLock();
-    private final ConcurrentMap<EntityId, BlockingQueue<TbTransactionTask>> transactionMap = new ConcurrentHashMap<>();
-    private final Queue<TbTransactionTask> timeoutQueue = new ConcurrentLinkedQueue<>();
+    private final ConcurrentMap<EntityId, Queue<TbTransactionTask>> transactionMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<EntityType, TbTransactionStats> statsMap = new ConcurrentHashMap<>();
 
-    private ExecutorService timeoutExecutor;
+    private HashedWheelTimer timeoutTimer;
 
     @PostConstruct
     public void init() {
-        timeoutExecutor = Executors.newSingleThreadExecutor(ThingsBoardThreadFactory.forName("rule-chain-transaction"));
-        executeOnTimeout();
+        timeoutTimer = new HashedWheelTimer(ThingsBoardThreadFactory.forName("rule-chain-transaction"), timerTickMs, TimeUnit.MILLISECONDS);
+        timeoutTimer.start();
     }
 
     @PreDestroy
     public void destroy() {
-        if (timeoutExecutor != null) {
-            timeoutExecutor.shutdownNow();
+        if (timeoutTimer != null) {
+            timeoutTimer.stop();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${actors.rule.transaction.stats.print_interval_ms:10000}")
+    public void printStats() {
+        if (statsEnabled) {
+            log.info("Transaction queues: [{}]", transactionMap.size());
+            statsMap.values().forEach(TbTransactionStats::printStats);
         }
     }
 
     @Override
     public void beginTransaction(TbMsg msg, Consumer<TbMsg> onStart, Consumer<TbMsg> onEnd, Consumer<Throwable> onFailure) {
-        transactionLock.lock();
-        try {
-            BlockingQueue<TbTransactionTask> queue = transactionMap.computeIfAbsent(msg.getTransactionData().getOriginatorId(), id ->
-                    new LinkedBlockingQueue<>(finalQueueSize));
-
-            TbTransactionTask transactionTask = new TbTransactionTask(msg, onStart, onEnd, onFailure, System.currentTimeMillis() + duration);
+        EntityId originatorId = msg.getTransactionData().getOriginatorId();
+        TbTransactionStats stats = getStats(originatorId);
+        long ts = System.currentTimeMillis();
+        TbTransactionTask transactionTask = new TbTransactionTask(msg, onStart, onEnd, onFailure, ts, ts + duration);
+        transactionMap.compute(originatorId, (id, queue) -> {
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+            }
             int queueSize = queue.size();
             if (queueSize >= finalQueueSize) {
+                stats.onReject();
                 executeOnFailure(transactionTask.getOnFailure(), "Queue has no space!");
             } else {
-                addMsgToQueues(queue, transactionTask);
+                queue.offer(transactionTask);
+                stats.onEnqueue();
+                transactionTask.setTimeout(timeoutTimer.newTimeout(t -> onTimeout(transactionTask), duration, TimeUnit.MILLISECONDS));
+                log.trace("Added msg to queue, size: [{}]", queue.size());
                 if (queueSize == 0) {
-                    executeOnSuccess(transactionTask.getOnStart(), transactionTask.getMsg());
+                    startTransaction(transactionTask, stats);
                 } else {
                     log.trace("Msg [{}][{}] is waiting to start transaction!", msg.getId(), msg.getType());
                 }
             }
-        } finally {
-            transactionLock.unlock();
-        }
+            return queue.isEmpty() ? null : queue;
+        });
     }
 
     @Override
@@ -125,23 +145,17 @@ public class BaseRuleChainTransactionService implements RuleChainTransactionServ
         });
     }
 
-    private void addMsgToQueues(BlockingQueue<TbTransactionTask> queue, TbTransactionTask transactionTask) {
-        queue.offer(transactionTask);
-        timeoutQueue.offer(transactionTask);
-        log.trace("Added msg to queue, size: [{}]", queue.size());
-    }
-
     private void endLocalTransaction(TbMsg msg, Consumer<TbMsg> onSuccess, Consumer<Throwable> onFailure) {
-        transactionLock.lock();
-        try {
-            BlockingQueue<TbTransactionTask> queue = transactionMap.computeIfAbsent(msg.getTransactionData().getOriginatorId(), id ->
-                    new LinkedBlockingQueue<>(finalQueueSize));
-
-            TbTransactionTask currentTransactionTask = queue.peek();
+        EntityId originatorId = msg.getTransactionData().getOriginatorId();
+        TbTransactionStats stats = getStats(originatorId);
+        transactionMap.compute(originatorId, (id, queue) -> {
+            TbTransactionTask currentTransactionTask = queue != null ? queue.peek() : null;
             if (currentTransactionTask != null) {
                 if (currentTransactionTask.getMsg().getTransactionData().getTransactionId().equals(msg.getTransactionData().getTransactionId())) {
-                    currentTransactionTask.setCompleted(true);
                     queue.poll();
+                    stats.onDequeue();
+                    stats.onComplete();
+                    cancelTimeout(currentTransactionTask);
                     log.trace("Removed msg from queue, size [{}]", queue.size());
 
                     executeOnSuccess(currentTransactionTask.getOnEnd(), currentTransactionTask.getMsg());
@@ -149,7 +163,7 @@ public class BaseRuleChainTransactionService implements RuleChainTransactionServ
 
                     TbTransactionTask nextTransactionTask = queue.peek();
                     if (nextTransactionTask != null) {
-                        executeOnSuccess(nextTransactionTask.getOnStart(), nextTransactionTask.getMsg());
+                        startTransaction(nextTransactionTask, stats);
                     }
                 } else {
                     log.trace("Task has expired!");
@@ -159,63 +173,47 @@ public class BaseRuleChainTransactionService implements RuleChainTransactionServ
                 log.trace("Queue is empty, previous task has expired!");
                 executeOnFailure(onFailure, "Queue is empty, previous task has expired!");
             }
-        } finally {
-            transactionLock.unlock();
-        }
+            return queue == null || queue.isEmpty() ? null : queue;
+        });
     }
 
-    private void executeOnTimeout() {
-        timeoutExecutor.submit(() -> {
-            while (true) {
-                TbTransactionTask transactionTask = timeoutQueue.peek();
-                if (transactionTask != null) {
-                    long sleepDuration = 0L;
-                    transactionLock.lock();
-                    try {
-                        if (transactionTask.isCompleted()) {
-                            timeoutQueue.poll();
-                        } else {
-                            long expIn = transactionTask.getExpirationTime() - System.currentTimeMillis();
-                            if (expIn < 0) {
-                                log.trace("Task has expired! Deleting it...[{}][{}]", transactionTask.getMsg().getId(), transactionTask.getMsg().getType());
-                                timeoutQueue.poll();
-                                executeOnFailure(transactionTask.getOnFailure(), "Task has expired!");
-
-                                BlockingQueue<TbTransactionTask> queue = transactionMap.get(transactionTask.getMsg().getTransactionData().getOriginatorId());
-                                if (queue != null) {
-                                    queue.poll();
-                                    TbTransactionTask nextTransactionTask = queue.peek();
-                                    if (nextTransactionTask != null) {
-                                        executeOnSuccess(nextTransactionTask.getOnStart(), nextTransactionTask.getMsg());
-                                    }
-                                }
-                            } else {
-                                sleepDuration = Math.min(expIn, duration);
-                            }
-                        }
-                    } finally {
-                        transactionLock.unlock();
-                    }
-                    if (sleepDuration > 0L) {
-                        try {
-                            log.trace("Task has not expired! Continue executing...[{}][{}]", transactionTask.getMsg().getId(), transactionTask.getMsg().getType());
-                            TimeUnit.MILLISECONDS.sleep(sleepDuration);
-                        } catch (InterruptedException e) {
-                            throw new IllegalStateException("Thread interrupted", e);
-                        }
-                    }
-                } else {
-                    try {
-                        log.trace("Queue is empty, waiting for tasks!");
-                        TimeUnit.SECONDS.sleep(1);
-                    } catch (InterruptedException e) {
-                        throw new IllegalStateException("Thread interrupted", e);
+    private void onTimeout(TbTransactionTask transactionTask) {
+        EntityId originatorId = transactionTask.getMsg().getTransactionData().getOriginatorId();
+        TbTransactionStats stats = getStats(originatorId);
+        transactionMap.computeIfPresent(originatorId, (id, queue) -> {
+            boolean isCurrent = queue.peek() == transactionTask;
+            if (queue.removeIf(task -> task == transactionTask)) {
+                log.trace("Task has expired! Deleting it...[{}][{}]", transactionTask.getMsg().getId(), transactionTask.getMsg().getType());
+                stats.onDequeue();
+                stats.onTimeout();
+                executeOnFailure(transactionTask.getOnFailure(), "Task has expired!");
+                if (isCurrent) {
+                    TbTransactionTask nextTransactionTask = queue.peek();
+                    if (nextTransactionTask != null) {
+                        startTransaction(nextTransactionTask, stats);
                     }
                 }
             }
+            return queue.isEmpty() ? null : queue;
         });
     }
 
+    private void startTransaction(TbTransactionTask transactionTask, TbTransactionStats stats) {
+        stats.onStart(System.currentTimeMillis() - transactionTask.getCreatedTime());
+        executeOnSuccess(transactionTask.getOnStart(), transactionTask.getMsg());
+    }
+
+    private void cancelTimeout(TbTransactionTask transactionTask) {
+        Timeout timeout = transactionTask.getTimeout();
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    private TbTransactionStats getStats(EntityId originatorId) {
+        return statsMap.computeIfAbsent(originatorId.getEntityType(), TbTransactionStats::new);
+    }
+
     private void executeOnFailure(Consumer<Throwable> onFailure, String exception) {
         executeCallback(() -> {
             onFailure.accept(new RuntimeException(exception));
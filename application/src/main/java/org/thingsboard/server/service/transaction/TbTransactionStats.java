@@ -0,0 +1,85 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.transaction;
+
+import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.server.common.data.EntityType;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transaction counters of a single originator type.
+ * Queue length is a gauge, all other counters are reset on every print.
+ */
+@Slf4j
+public class TbTransactionStats {
+
+    private final EntityType originatorType;
+
+    private final AtomicInteger queueLength = new AtomicInteger(0);
+    private final AtomicInteger startedCounter = new AtomicInteger(0);
+    private final AtomicInteger completedCounter = new AtomicInteger(0);
+    private final AtomicInteger timeoutCounter = new AtomicInteger(0);
+    private final AtomicInteger rejectedCounter = new AtomicInteger(0);
+    private final AtomicLong totalWaitTime = new AtomicLong(0);
+    private final AtomicLong maxWaitTime = new AtomicLong(0);
+
+    public TbTransactionStats(EntityType originatorType) {
+        this.originatorType = originatorType;
+    }
+
+    public void onEnqueue() {
+        queueLength.incrementAndGet();
+    }
+
+    public void onDequeue() {
+        queueLength.decrementAndGet();
+    }
+
+    public void onStart(long waitTime) {
+        startedCounter.incrementAndGet();
+        totalWaitTime.addAndGet(waitTime);
+        maxWaitTime.accumulateAndGet(waitTime, Math::max);
+    }
+
+    public void onComplete() {
+        completedCounter.incrementAndGet();
+    }
+
+    public void onTimeout() {
+        timeoutCounter.incrementAndGet();
+    }
+
+    public void onReject() {
+        rejectedCounter.incrementAndGet();
+    }
+
+    public void printStats() {
+        int queueLengthValue = queueLength.get();
+        int started = startedCounter.getAndSet(0);
+        int completed = completedCounter.getAndSet(0);
+        int timeouts = timeoutCounter.getAndSet(0);
+        int rejected = rejectedCounter.getAndSet(0);
+        long waitTime = totalWaitTime.getAndSet(0);
+        long maxWait = maxWaitTime.getAndSet(0);
+        if (queueLengthValue > 0 || started > 0 || completed > 0 || timeouts > 0 || rejected > 0) {
+            log.info("[{}] Transactions queueLength [{}] started [{}] completed [{}] timeouts [{}] rejected [{}] avgWaitTime [{}] maxWaitTime [{}]",
+                    originatorType, queueLengthValue, started, completed, timeouts, rejected,
+                    started > 0 ? waitTime / started : 0, maxWait);
+        }
+    }
+}
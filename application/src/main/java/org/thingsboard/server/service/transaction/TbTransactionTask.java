@@ -15,30 +15,30 @@
  */
 package org.thingsboard.server.service.transaction;
 
-import lombok.AllArgsConstructor;
+import io.netty.util.Timeout;
 import lombok.Data;
 import org.thingsboard.server.common.msg.TbMsg;
 
 import java.util.function.Consumer;
 
 @Data
-@AllArgsConstructor
 public final class TbTransactionTask {
 
     private final TbMsg msg;
     private final Consumer<TbMsg> onStart;
     private final Consumer<TbMsg> onEnd;
     private final Consumer<Throwable> onFailure;
+    private final long createdTime;
     private final long expirationTime;
 
-    private boolean isCompleted;
+    private volatile Timeout timeout;
 
-    public TbTransactionTask(TbMsg msg, Consumer<TbMsg> onStart, Consumer<TbMsg> onEnd, Consumer<Throwable> onFailure, long expirationTime) {
+    public TbTransactionTask(TbMsg msg, Consumer<TbMsg> onStart, Consumer<TbMsg> onEnd, Consumer<Throwable> onFailure, long createdTime, long expirationTime) {
         this.msg = msg;
         this.onStart = onStart;
         this.onEnd = onEnd;
         this.onFailure = onFailure;
+        this.createdTime = createdTime;
         this.expirationTime = expirationTime;
-        this.isCompleted = false;
     }
 }
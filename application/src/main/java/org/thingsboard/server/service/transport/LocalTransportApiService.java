@@ -41,6 +41,8 @@ import org.thingsboard.server.gen.transport.TransportProtos.TransportApiRequestM
 import org.thingsboard.server.gen.transport.TransportProtos.TransportApiResponseMsg;
 import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceCredentialsResponseMsg;
 import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceTokenRequestMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceTokensRequestMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceTokensResponseMsg;
 import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceX509CertRequestMsg;
 import org.thingsboard.server.kafka.TBKafkaConsumerTemplate;
 import org.thingsboard.server.kafka.TBKafkaProducerTemplate;
@@ -52,10 +54,15 @@ import org.thingsboard.server.service.state.DeviceStateService;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 /**
  * Created by ashvayka on 05.10.18.
@@ -93,6 +100,8 @@ public class LocalTransportApiService implements TransportApiService {
             return validateCredentials(msg.getHash(), DeviceCredentialsType.X509_CERTIFICATE);
         } else if (transportApiRequestMsg.hasGetOrCreateDeviceRequestMsg()) {
             return handle(transportApiRequestMsg.getGetOrCreateDeviceRequestMsg());
+        } else if (transportApiRequestMsg.hasValidateTokensRequestMsg()) {
+            return handle(transportApiRequestMsg.getValidateTokensRequestMsg());
         }
         return getEmptyTransportApiResponseFuture();
     }
@@ -108,6 +117,44 @@ public class LocalTransportApiService implements TransportApiService {
         }
     }
 
+    private ListenableFuture<TransportApiResponseMsg> handle(ValidateDeviceTokensRequestMsg requestMsg) {
+        List<String> tokens = requestMsg.getTokensList();
+        List<String> credentialsIds = tokens.stream().filter(token -> !StringUtils.isEmpty(token)).distinct().collect(Collectors.toList());
+        Map<String, DeviceCredentials> credentialsByToken = new HashMap<>();
+        if (!credentialsIds.isEmpty()) {
+            for (DeviceCredentials credentials : deviceCredentialsService.findDeviceCredentialsByCredentialsIds(credentialsIds)) {
+                if (credentials.getCredentialsType() == DeviceCredentialsType.ACCESS_TOKEN) {
+                    credentialsByToken.put(credentials.getCredentialsId(), credentials);
+                }
+            }
+        }
+        if (credentialsByToken.isEmpty()) {
+            return Futures.immediateFuture(getValidateTokensResponse(tokens, credentialsByToken, Collections.emptyMap()));
+        }
+        List<DeviceId> deviceIds = credentialsByToken.values().stream().map(DeviceCredentials::getDeviceId).distinct().collect(Collectors.toList());
+        return Futures.transform(deviceService.findDevicesByIdsAsync(TenantId.SYS_TENANT_ID, deviceIds), devices -> {
+            Map<DeviceId, Device> devicesById = new HashMap<>();
+            if (devices != null) {
+                devices.forEach(device -> devicesById.put(device.getId(), device));
+            }
+            return getValidateTokensResponse(tokens, credentialsByToken, devicesById);
+        }, dbCallbackExecutorService);
+    }
+
+    private TransportApiResponseMsg getValidateTokensResponse(List<String> tokens, Map<String, DeviceCredentials> credentialsByToken, Map<DeviceId, Device> devicesById) {
+        ValidateDeviceTokensResponseMsg.Builder builder = ValidateDeviceTokensResponseMsg.newBuilder();
+        for (String token : tokens) {
+            DeviceCredentials credentials = credentialsByToken.get(token);
+            Device device = credentials != null ? devicesById.get(credentials.getDeviceId()) : null;
+            if (device != null) {
+                builder.addResponses(getValidateCredentialsResponse(device, credentials));
+            } else {
+                builder.addResponses(ValidateDeviceCredentialsResponseMsg.getDefaultInstance());
+            }
+        }
+        return TransportApiResponseMsg.newBuilder().setValidateTokensResponseMsg(builder.build()).build();
+    }
+
     private ListenableFuture<TransportApiResponseMsg> handle(GetOrCreateDeviceFromGatewayRequestMsg requestMsg) {
         DeviceId gatewayId = new DeviceId(new UUID(requestMsg.getGatewayIdMSB(), requestMsg.getGatewayIdLSB()));
         ListenableFuture<Device> gatewayFuture = deviceService.findDeviceByIdAsync(TenantId.SYS_TENANT_ID, gatewayId);
@@ -143,21 +190,25 @@ public class LocalTransportApiService implements TransportApiService {
                 log.trace("[{}] Failed to lookup device by id", deviceId);
                 return getEmptyTransportApiResponse();
             }
-            try {
-                ValidateDeviceCredentialsResponseMsg.Builder builder = ValidateDeviceCredentialsResponseMsg.newBuilder();
-                builder.setDeviceInfo(getDeviceInfoProto(device));
-                if(!StringUtils.isEmpty(credentials.getCredentialsValue())){
-                    builder.setCredentialsBody(credentials.getCredentialsValue());
-                }
-                return TransportApiResponseMsg.newBuilder()
-                        .setValidateTokenResponseMsg(builder.build()).build();
-            } catch (JsonProcessingException e) {
-                log.warn("[{}] Failed to lookup device by id", deviceId, e);
-                return getEmptyTransportApiResponse();
-            }
+            return TransportApiResponseMsg.newBuilder()
+                    .setValidateTokenResponseMsg(getValidateCredentialsResponse(device, credentials)).build();
         });
     }
 
+    private ValidateDeviceCredentialsResponseMsg getValidateCredentialsResponse(Device device, DeviceCredentials credentials) {
+        try {
+            ValidateDeviceCredentialsResponseMsg.Builder builder = ValidateDeviceCredentialsResponseMsg.newBuilder();
+            builder.setDeviceInfo(getDeviceInfoProto(device));
+            if(!StringUtils.isEmpty(credentials.getCredentialsValue())){
+                builder.setCredentialsBody(credentials.getCredentialsValue());
+            }
+            return builder.build();
+        } catch (JsonProcessingException e) {
+            log.warn("[{}] Failed to lookup device by id", device.getId(), e);
+            return ValidateDeviceCredentialsResponseMsg.getDefaultInstance();
+        }
+    }
+
     private DeviceInfoProto getDeviceInfoProto(Device device) throws JsonProcessingException {
         return DeviceInfoProto.newBuilder()
                 .setTenantIdMSB(device.getTenantId().getId().getMostSignificantBits())
@@ -46,6 +46,8 @@ import org.thingsboard.server.gen.transport.TransportProtos.TransportApiRequestM
 import org.thingsboard.server.gen.transport.TransportProtos.TransportToDeviceActorMsg;
 import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceCredentialsResponseMsg;
 import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceTokenRequestMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceTokensRequestMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceTokensResponseMsg;
 import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceX509CertRequestMsg;
 import org.thingsboard.server.service.cluster.routing.ClusterRoutingService;
 import org.thingsboard.server.service.cluster.rpc.ClusterRpcService;
@@ -92,10 +94,15 @@ public class LocalTransportService extends AbstractTransportService implements R
     private DataDecodingEncodingService encodingService;
     @Autowired
     private ClaimDevicesService claimDevicesService;
+    @Autowired
+    private TransportBackPressureService backPressureService;
 
     @PostConstruct
     public void init() {
         super.init();
+        if (backPressureService.isEnabled()) {
+            backPressureService.setListener((tenantId, suspended) -> onTenantBackPressure(tenantId.getId(), suspended));
+        }
     }
 
     @PreDestroy
@@ -120,6 +127,23 @@ public class LocalTransportService extends AbstractTransportService implements R
                 getThrowableConsumer(callback), transportCallbackExecutor);
     }
 
+    /**
+     * 批量处理验证设备Token的消息
+     * @param msg
+     * @param callback
+     */
+    @Override
+    public void process(ValidateDeviceTokensRequestMsg msg, TransportServiceCallback<ValidateDeviceTokensResponseMsg> callback) {
+        DonAsynchron.withCallback(
+                transportApiService.handle(TransportApiRequestMsg.newBuilder().setValidateTokensRequestMsg(msg).build()),
+                transportApiResponseMsg -> {
+                    if (callback != null) {
+                        callback.onSuccess(transportApiResponseMsg.getValidateTokensResponseMsg());
+                    }
+                },
+                getThrowableConsumer(callback), transportCallbackExecutor);
+    }
+
     /**
      * 处理验证设备证书的消息
      * @param msg
@@ -22,9 +22,11 @@ import io.github.bucket4j.Bucket4j;
 import io.github.bucket4j.local.LocalBucket;
 import io.github.bucket4j.local.LocalBucketBuilder;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -44,6 +46,7 @@ import org.thingsboard.server.kafka.TBKafkaProducerTemplate;
 import org.thingsboard.server.kafka.TbKafkaSettings;
 import org.thingsboard.server.kafka.TbNodeIdProvider;
 import org.thingsboard.server.service.cluster.routing.ClusterRoutingService;
+import org.thingsboard.server.service.cluster.routing.ClusterTopologyChange;
 import org.thingsboard.server.service.cluster.rpc.ClusterRpcService;
 import org.thingsboard.server.service.encoding.DataDecodingEncodingService;
 import org.thingsboard.server.service.transport.msg.TransportToDeviceActorMsgWrapper;
@@ -51,10 +54,13 @@ import org.thingsboard.server.service.transport.msg.TransportToDeviceActorMsgWra
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -88,6 +94,12 @@ public class RemoteRuleEngineTransportService implements RuleEngineTransportServ
     private long pollRecordsPerMinute;
     @Value("${transport.remote.rule_engine.stats.enabled:false}")
     private boolean statsEnabled;
+    @Value("${transport.remote.rule_engine.consumer_threads:1}")
+    private int consumerThreads;
+    @Value("${transport.remote.rule_engine.partition_affinity.enabled:false}")
+    private boolean partitionAffinityEnabled;
+    @Value("${transport.remote.rule_engine.partition_affinity.partitions:30}")
+    private int ruleEnginePartitions;
 
     @Autowired
     private TbKafkaSettings kafkaSettings;
@@ -98,7 +110,6 @@ public class RemoteRuleEngineTransportService implements RuleEngineTransportServ
     @Autowired
     private ActorSystemContext actorContext;
 
-    //TODO: completely replace this routing with the Kafka routing by partition ids.
     @Autowired
     private ClusterRoutingService routingService;
     @Autowired
@@ -110,6 +121,10 @@ public class RemoteRuleEngineTransportService implements RuleEngineTransportServ
     private TBKafkaProducerTemplate<ToTransportMsg> notificationsProducer;
 
     private ExecutorService mainConsumerExecutor = Executors.newSingleThreadExecutor(ThingsBoardThreadFactory.forName("tb-main-consumer"));
+    private ExecutorService partitionsConsumerExecutor;
+
+    private ClusterTopologyChange assignedTopology;
+    private List<Integer> assignedPartitions;
 
     private volatile boolean stopped = false;
 
@@ -136,7 +151,36 @@ public class RemoteRuleEngineTransportService implements RuleEngineTransportServ
         ruleEngineConsumerBuilder.decoder(new ToRuleEngineMsgDecoder());
 
         ruleEngineConsumer = ruleEngineConsumerBuilder.build();
-        ruleEngineConsumer.subscribe();
+        if (partitionAffinityEnabled) {
+            int partitionsCount = ruleEngineConsumer.partitionsFor().size();
+            if (partitionsCount != ruleEnginePartitions) {
+                throw new IllegalStateException("Topic [" + ruleEngineTopic + "] has " + partitionsCount + " partitions, but "
+                        + ruleEnginePartitions + " partitions are configured for the partition affinity!");
+            }
+            assignLocalPartitions();
+        } else {
+            ruleEngineConsumer.subscribe();
+        }
+        if (consumerThreads > 1) {
+            partitionsConsumerExecutor = Executors.newFixedThreadPool(consumerThreads, ThingsBoardThreadFactory.forName("tb-rule-engine-consumer"));
+        }
+    }
+
+    /**
+     * Consumes the partitions that are mapped to the current server by the cluster ring,
+     * the same ring resolves the server of the device actors for the devices of those partitions.
+     */
+    private void assignLocalPartitions() {
+        assignedTopology = routingService.getLastTopologyChange();
+        List<Integer> partitions = new ArrayList<>();
+        for (int partition = 0; partition < ruleEnginePartitions; partition++) {
+            if (!routingService.resolveByPartition(partition).isPresent()) {
+                partitions.add(partition);
+            }
+        }
+        ruleEngineConsumer.assign(partitions);
+        assignedPartitions = partitions;
+        log.info("[{}] Assigned rule engine partitions: {}", ruleEngineTopic, partitions);
     }
 
     @EventListener(ApplicationReadyEvent.class)
@@ -151,6 +195,15 @@ public class RemoteRuleEngineTransportService implements RuleEngineTransportServ
         mainConsumerExecutor.execute(() -> {
             while (!stopped) {
                 try {
+                    if (partitionAffinityEnabled) {
+                        if (assignedTopology != routingService.getLastTopologyChange()) {
+                            assignLocalPartitions();
+                        }
+                        if (assignedPartitions.isEmpty()) {
+                            Thread.sleep(pollDuration);
+                            continue;
+                        }
+                    }
                     ConsumerRecords<String, byte[]> records = ruleEngineConsumer.poll(Duration.ofMillis(pollDuration));
                     int recordsCount = records.count();
                     if (recordsCount > 0) {
@@ -160,17 +213,7 @@ public class RemoteRuleEngineTransportService implements RuleEngineTransportServ
                         }
                         log.trace("Processing {} records", recordsCount);
                     }
-                    records.forEach(record -> {
-                        try {
-                            ToRuleEngineMsg toRuleEngineMsg = ruleEngineConsumer.decode(record);
-                            log.trace("Forwarding message to rule engine {}", toRuleEngineMsg);
-                            if (toRuleEngineMsg.hasToDeviceActorMsg()) {
-                                forwardToDeviceActor(toRuleEngineMsg.getToDeviceActorMsg());
-                            }
-                        } catch (Throwable e) {
-                            log.warn("Failed to process the notification.", e);
-                        }
-                    });
+                    processRecords(records);
                 } catch (Exception e) {
                     log.warn("Failed to obtain messages from queue.", e);
                     try {
@@ -183,6 +226,37 @@ public class RemoteRuleEngineTransportService implements RuleEngineTransportServ
         });
     }
 
+    /**
+     * Records of different partitions are processed in parallel, records of the same partition - in order.
+     * Waits for all partitions before the next poll, so auto commit never commits offsets of unprocessed records.
+     */
+    private void processRecords(ConsumerRecords<String, byte[]> records) throws Exception {
+        if (partitionsConsumerExecutor == null || records.partitions().size() < 2) {
+            records.forEach(this::processRecord);
+            return;
+        }
+        List<Future<?>> futures = new ArrayList<>();
+        for (TopicPartition partition : records.partitions()) {
+            List<ConsumerRecord<String, byte[]>> partitionRecords = records.records(partition);
+            futures.add(partitionsConsumerExecutor.submit(() -> partitionRecords.forEach(this::processRecord)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private void processRecord(ConsumerRecord<String, byte[]> record) {
+        try {
+            ToRuleEngineMsg toRuleEngineMsg = ruleEngineConsumer.decode(record);
+            log.trace("Forwarding message to rule engine {}", toRuleEngineMsg);
+            if (toRuleEngineMsg.hasToDeviceActorMsg()) {
+                forwardToDeviceActor(toRuleEngineMsg.getToDeviceActorMsg());
+            }
+        } catch (Throwable e) {
+            log.warn("Failed to process the notification.", e);
+        }
+    }
+
     @Scheduled(fixedDelayString = "${transport.remote.rule_engine.stats.print_interval_ms}")
     public void printStats() {
         if (statsEnabled) {
@@ -228,6 +302,9 @@ public class RemoteRuleEngineTransportService implements RuleEngineTransportServ
         if (mainConsumerExecutor != null) {
             mainConsumerExecutor.shutdownNow();
         }
+        if (partitionsConsumerExecutor != null) {
+            partitionsConsumerExecutor.shutdownNow();
+        }
     }
 
     private static class QueueCallbackAdaptor implements Callback {
@@ -0,0 +1,124 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.transport;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thingsboard.server.common.data.id.TenantId;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * 按租户统计规则引擎中尚未持久化完成的消息数（在途消息）
+ * - 超过高水位时通知传输层暂停读取该租户设备的数据
+ * - 低于低水位时通知传输层恢复读取
+ */
+@Slf4j
+@Service
+public class TransportBackPressureService {
+
+    @Value("${transport.back_pressure.enabled:false}")
+    private boolean enabled;
+    @Value("${transport.back_pressure.high_watermark:10000}")
+    private int highWatermark;
+    @Value("${transport.back_pressure.low_watermark:5000}")
+    private int lowWatermark;
+
+    private final ConcurrentMap<TenantId, TenantInFlight> tenants = new ConcurrentHashMap<>();
+
+    private volatile BiConsumer<TenantId, Boolean> listener;
+
+    @PostConstruct
+    public void init() {
+        if (enabled && lowWatermark >= highWatermark) {
+            throw new IllegalArgumentException("Back pressure low watermark [" + lowWatermark + "] must be less than the high watermark [" + highWatermark + "]");
+        }
+    }
+
+    public void setListener(BiConsumer<TenantId, Boolean> listener) {
+        this.listener = listener;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void onMsgStarted(TenantId tenantId) {
+        if (!enabled || tenantId == null) {
+            return;
+        }
+        TenantInFlight inFlight = tenants.computeIfAbsent(tenantId, id -> new TenantInFlight());
+        if (inFlight.counter.incrementAndGet() >= highWatermark && !inFlight.suspended) {
+            synchronized (inFlight) {
+                if (!inFlight.suspended && inFlight.counter.get() >= highWatermark) {
+                    inFlight.suspended = true;
+                    log.info("[{}] In-flight messages reached the high watermark [{}], suspending transport", tenantId, highWatermark);
+                    notifyListener(tenantId, true);
+                }
+            }
+        }
+    }
+
+    public void onMsgCompleted(TenantId tenantId) {
+        if (!enabled || tenantId == null) {
+            return;
+        }
+        TenantInFlight inFlight = tenants.get(tenantId);
+        if (inFlight == null) {
+            return;
+        }
+        if (inFlight.counter.decrementAndGet() <= lowWatermark && inFlight.suspended) {
+            synchronized (inFlight) {
+                if (inFlight.suspended && inFlight.counter.get() <= lowWatermark) {
+                    inFlight.suspended = false;
+                    log.info("[{}] In-flight messages dropped to the low watermark [{}], resuming transport", tenantId, lowWatermark);
+                    notifyListener(tenantId, false);
+                }
+            }
+        }
+    }
+
+    public int getInFlight(TenantId tenantId) {
+        TenantInFlight inFlight = tenants.get(tenantId);
+        return inFlight != null ? inFlight.counter.get() : 0;
+    }
+
+    public boolean isSuspended(TenantId tenantId) {
+        TenantInFlight inFlight = tenants.get(tenantId);
+        return inFlight != null && inFlight.suspended;
+    }
+
+    private void notifyListener(TenantId tenantId, boolean suspended) {
+        BiConsumer<TenantId, Boolean> currentListener = listener;
+        if (currentListener != null) {
+            try {
+                currentListener.accept(tenantId, suspended);
+            } catch (Exception e) {
+                log.warn("[{}] Failed to notify transport about back pressure", tenantId, e);
+            }
+        }
+    }
+
+    private static class TenantInFlight {
+        private final AtomicInteger counter = new AtomicInteger();
+        private volatile boolean suspended;
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.service;
+
+import akka.actor.ActorRef;
+import akka.dispatch.Envelope;
+import akka.dispatch.MessageQueue;
+import com.typesafe.config.ConfigFactory;
+import org.junit.Test;
+import scala.Option;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class TbCountingMailboxTest {
+
+    @Test
+    public void testPendingMessagesAreCountedPerDispatcher() {
+        TbCountingMailbox mailbox = new TbCountingMailbox(null, ConfigFactory.parseMap(Collections.singletonMap("id", "test-dispatcher")));
+        MessageQueue first = mailbox.create(Option.empty(), Option.empty());
+        MessageQueue second = mailbox.create(Option.empty(), Option.empty());
+
+        first.enqueue(ActorRef.noSender(), Envelope.apply("a", ActorRef.noSender(), null));
+        first.enqueue(ActorRef.noSender(), Envelope.apply("b", ActorRef.noSender(), null));
+        second.enqueue(ActorRef.noSender(), Envelope.apply("c", ActorRef.noSender(), null));
+        assertEquals(3, TbCountingMailbox.getPendingMessages("test-dispatcher"));
+        assertEquals(0, TbCountingMailbox.getPendingMessages("other-dispatcher"));
+
+        assertEquals("a", first.dequeue().message());
+        assertEquals(2, TbCountingMailbox.getPendingMessages("test-dispatcher"));
+
+        MessageQueue deadLetters = mailbox.create(Option.empty(), Option.empty());
+        first.cleanUp(ActorRef.noSender(), deadLetters);
+        assertFalse(first.hasMessages());
+        assertNull(first.dequeue());
+        assertEquals(2, TbCountingMailbox.getPendingMessages("test-dispatcher"));
+        assertEquals(1, deadLetters.numberOfMessages());
+    }
+}
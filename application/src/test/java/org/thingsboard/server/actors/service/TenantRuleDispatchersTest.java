@@ -0,0 +1,116 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.service;
+
+import akka.actor.ActorSystem;
+import com.datastax.driver.core.utils.UUIDs;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.id.TenantId;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TenantRuleDispatchersTest {
+
+    private final TenantId premiumTenant = new TenantId(UUIDs.timeBased());
+    private final TenantId regularTenant = new TenantId(UUIDs.timeBased());
+
+    @Test
+    public void testTenantsResolvedToDispatchers() {
+        TenantRuleDispatchers dispatchers = newDispatchers("premium:2", premiumTenant.getId() + ":premium", false);
+        assertEquals("rule-dispatcher-premium", dispatchers.getDispatcherName(premiumTenant));
+        assertEquals(DefaultActorService.TENANT_RULE_DISPATCHER_NAME, dispatchers.getDispatcherName(regularTenant));
+        assertEquals(DefaultActorService.SYSTEM_RULE_DISPATCHER_NAME, dispatchers.getDispatcherName(TenantId.SYS_TENANT_ID));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTenantAssignedToUnknownPool() {
+        newDispatchers("premium:2", premiumTenant.getId() + ":gold", false);
+    }
+
+    @Test
+    public void testPoolDispatcherIsResizable() throws Exception {
+        TenantRuleDispatchers dispatchers = newDispatchers("resizable:2", premiumTenant.getId() + ":resizable", false);
+        Config config = dispatchers.withDispatchers(ConfigFactory.parseResources("actor-system.conf").withFallback(ConfigFactory.load()));
+        String dispatcherName = dispatchers.getDispatcherName(premiumTenant);
+        assertEquals(config.getInt("rule-dispatcher.throughput"), config.getInt(dispatcherName + ".throughput"));
+
+        ActorSystem system = ActorSystem.create("test", config);
+        try {
+            CompletableFuture<String> threadName = new CompletableFuture<>();
+            system.dispatchers().lookup(dispatcherName).execute(() -> threadName.complete(Thread.currentThread().getName()));
+            assertTrue(threadName.get(10, TimeUnit.SECONDS).contains(dispatcherName));
+            assertEquals(Integer.valueOf(2), dispatchers.getPoolSizes().get("resizable"));
+
+            dispatchers.resize("resizable", 4);
+            assertEquals(Integer.valueOf(4), dispatchers.getPoolSizes().get("resizable"));
+        } finally {
+            system.terminate();
+        }
+    }
+
+    @Test
+    public void testCpuTimeAccountedPerTenant() {
+        TenantRuleDispatchers dispatchers = newDispatchers("", "", true);
+        long cpuTimeStart = dispatchers.getCpuTimeStart();
+        long result = 0;
+        for (int i = 0; i < 1000000; i++) {
+            result += Long.toString(i).hashCode();
+        }
+        dispatchers.recordCpuTime(premiumTenant, cpuTimeStart);
+
+        assertTrue(result != 0);
+        assertTrue(dispatchers.getTenantCpuTime().get(premiumTenant) > 0);
+        assertNull(dispatchers.getTenantCpuTime().get(regularTenant));
+    }
+
+    @Test
+    public void testCpuTimeRemovedForDeletedTenant() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TenantRuleDispatchers dispatchers = new TenantRuleDispatchers();
+        ReflectionTestUtils.setField(dispatchers, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(dispatchers, "poolsConfig", "");
+        ReflectionTestUtils.setField(dispatchers, "tenantsConfig", "");
+        ReflectionTestUtils.setField(dispatchers, "cpuAccountingEnabled", true);
+        dispatchers.init();
+
+        dispatchers.recordCpuTime(premiumTenant, dispatchers.getCpuTimeStart());
+        assertNotNull(meterRegistry.find("tb.rule.engine.tenant.cpu.time").tag("tenantId", premiumTenant.getId().toString()).functionCounter());
+
+        dispatchers.removeTenant(premiumTenant);
+
+        assertNull(dispatchers.getTenantCpuTime().get(premiumTenant));
+        assertNull(meterRegistry.find("tb.rule.engine.tenant.cpu.time").tag("tenantId", premiumTenant.getId().toString()).functionCounter());
+    }
+
+    private TenantRuleDispatchers newDispatchers(String pools, String tenants, boolean cpuAccountingEnabled) {
+        TenantRuleDispatchers dispatchers = new TenantRuleDispatchers();
+        ReflectionTestUtils.setField(dispatchers, "poolsConfig", pools);
+        ReflectionTestUtils.setField(dispatchers, "tenantsConfig", tenants);
+        ReflectionTestUtils.setField(dispatchers, "cpuAccountingEnabled", cpuAccountingEnabled);
+        dispatchers.init();
+        return dispatchers;
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.tenant;
+
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.actor.UntypedActor;
+import com.datastax.driver.core.utils.UUIDs;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.thingsboard.rule.engine.api.TbContext;
+import org.thingsboard.rule.engine.api.TbNode;
+import org.thingsboard.rule.engine.api.TbNodeConfiguration;
+import org.thingsboard.server.actors.ActorSystemContext;
+import org.thingsboard.server.actors.service.TenantRuleDispatchers;
+import org.thingsboard.server.common.data.id.RuleChainId;
+import org.thingsboard.server.common.data.id.RuleNodeId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.page.TextPageData;
+import org.thingsboard.server.common.data.page.TextPageLink;
+import org.thingsboard.server.common.data.rule.RuleChain;
+import org.thingsboard.server.common.data.rule.RuleNode;
+import org.thingsboard.server.common.msg.TbMsg;
+import org.thingsboard.server.dao.rule.RuleChainService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TenantActorStartTest {
+
+    private static final String DISPATCHER_NAME = "akka.actor.default-dispatcher";
+    private static CountDownLatch nodeInitLatch;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TenantId tenantId = new TenantId(UUIDs.timeBased());
+    private final List<RuleChain> ruleChains = new ArrayList<>();
+
+    private ActorSystem system;
+    private ActorSystemContext systemContext;
+    private RuleChainService ruleChainService;
+    private BlockingQueue<Object> parentMsgs;
+
+    @Before
+    public void before() {
+        nodeInitLatch = new CountDownLatch(1);
+        system = ActorSystem.create("test");
+        parentMsgs = new LinkedBlockingQueue<>();
+        systemContext = mock(ActorSystemContext.class);
+        ruleChainService = mock(RuleChainService.class);
+        TenantRuleDispatchers dispatchers = mock(TenantRuleDispatchers.class);
+        when(dispatchers.getDispatcherName(any(TenantId.class))).thenReturn(DISPATCHER_NAME);
+        when(systemContext.getTenantRuleDispatchers()).thenReturn(dispatchers);
+        when(systemContext.getRuleChainService()).thenReturn(ruleChainService);
+    }
+
+    @After
+    public void after() {
+        nodeInitLatch.countDown();
+        system.terminate();
+    }
+
+    @Test
+    public void testTenantStartedAfterRuleNodesInitialized() throws Exception {
+        mockRuleChain(SlowInitNode.class, SlowInitNode.class);
+        mockRuleChain(SlowInitNode.class);
+        startTenantActor();
+
+        assertNull(parentMsgs.poll(1, TimeUnit.SECONDS));
+        nodeInitLatch.countDown();
+        assertEquals(new TenantActorStartedMsg(tenantId), parentMsgs.poll(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTenantWithoutRuleChainsStarted() throws Exception {
+        startTenantActor();
+
+        assertEquals(new TenantActorStartedMsg(tenantId), parentMsgs.poll(10, TimeUnit.SECONDS));
+    }
+
+    private void mockRuleChain(Class<?>... nodeTypes) {
+        RuleChain ruleChain = new RuleChain(new RuleChainId(UUIDs.timeBased()));
+        ruleChain.setTenantId(tenantId);
+        ruleChain.setName("Rule Chain " + ruleChains.size());
+        List<RuleNode> ruleNodes = new ArrayList<>();
+        for (Class<?> nodeType : nodeTypes) {
+            RuleNode ruleNode = new RuleNode(new RuleNodeId(UUIDs.timeBased()));
+            ruleNode.setRuleChainId(ruleChain.getId());
+            ruleNode.setName(nodeType.getSimpleName());
+            ruleNode.setType(nodeType.getName());
+            ruleNode.setConfiguration(mapper.createObjectNode());
+            ruleNodes.add(ruleNode);
+            when(ruleChainService.findRuleNodeById(tenantId, ruleNode.getId())).thenReturn(ruleNode);
+            when(ruleChainService.getRuleNodeRelations(any(TenantId.class), eq(ruleNode.getId()))).thenReturn(Collections.emptyList());
+        }
+        ruleChain.setFirstRuleNodeId(ruleNodes.get(0).getId());
+        ruleChains.add(ruleChain);
+        when(ruleChainService.findRuleChainById(tenantId, ruleChain.getId())).thenReturn(ruleChain);
+        when(ruleChainService.getRuleChainNodes(tenantId, ruleChain.getId())).thenReturn(ruleNodes);
+    }
+
+    private void startTenantActor() {
+        when(ruleChainService.findTenantRuleChains(eq(tenantId), any(TextPageLink.class)))
+                .thenReturn(new TextPageData<>(ruleChains, new TextPageLink(1024)));
+        Props tenantActorProps = Props.create(new TenantActor.ActorCreator(systemContext, tenantId)).withDispatcher(DISPATCHER_NAME);
+        system.actorOf(Props.create(ParentActor.class, tenantActorProps, parentMsgs));
+    }
+
+    public static class ParentActor extends UntypedActor {
+
+        private final Props childProps;
+        private final BlockingQueue<Object> msgs;
+
+        public ParentActor(Props childProps, BlockingQueue<Object> msgs) {
+            this.childProps = childProps;
+            this.msgs = msgs;
+        }
+
+        @Override
+        public void preStart() {
+            context().actorOf(childProps);
+        }
+
+        @Override
+        public void onReceive(Object msg) {
+            msgs.add(msg);
+        }
+    }
+
+    public static class SlowInitNode implements TbNode {
+
+        @Override
+        public void init(TbContext ctx, TbNodeConfiguration configuration) {
+            try {
+                nodeInitLatch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void onMsg(TbContext ctx, TbMsg msg) {
+            ctx.tellNext(msg, "Success");
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+}
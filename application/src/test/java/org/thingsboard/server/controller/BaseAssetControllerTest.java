@@ -197,6 +197,37 @@ public abstract class BaseAssetControllerTest extends AbstractControllerTest {
         Assert.assertEquals(ModelConstants.NULL_UUID, foundAsset.getCustomerId().getId());
     }
 
+    @Test
+    public void testCustomerUserDeniedAfterAssetUnassigned() throws Exception {
+        Asset asset = new Asset();
+        asset.setName("My asset");
+        asset.setType("default");
+        Asset savedAsset = doPost("/api/asset", asset, Asset.class);
+
+        Customer customer = new Customer();
+        customer.setTitle("My customer");
+        Customer savedCustomer = doPost("/api/customer", customer, Customer.class);
+
+        doPost("/api/customer/" + savedCustomer.getId().getId().toString()
+                + "/asset/" + savedAsset.getId().getId().toString(), Asset.class);
+
+        User customerUser = new User();
+        customerUser.setAuthority(Authority.CUSTOMER_USER);
+        customerUser.setTenantId(savedTenant.getId());
+        customerUser.setCustomerId(savedCustomer.getId());
+        customerUser.setEmail("customer2@thingsboard.org");
+        createUserAndLogin(customerUser, "customer");
+
+        String keysUrl = "/api/plugins/telemetry/ASSET/" + savedAsset.getId().getId().toString() + "/keys/timeseries";
+        doGetAsync(keysUrl).andExpect(status().isOk());
+
+        login(tenantAdmin.getEmail(), "testPassword1");
+        doDelete("/api/customer/asset/" + savedAsset.getId().getId().toString(), Asset.class);
+
+        login(customerUser.getEmail(), "customer");
+        doGetAsync(keysUrl).andExpect(status().isForbidden());
+    }
+
     @Test
     public void testAssignAssetToNonExistentCustomer() throws Exception {
         Asset asset = new Asset();
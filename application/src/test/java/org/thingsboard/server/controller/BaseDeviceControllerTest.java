@@ -207,6 +207,41 @@ public abstract class BaseDeviceControllerTest extends AbstractControllerTest {
         foundDevice = doGet("/api/device/" + savedDevice.getId().getId().toString(), Device.class);
         Assert.assertEquals(ModelConstants.NULL_UUID, foundDevice.getCustomerId().getId());
     }
+
+    @Test
+    public void testCustomerUserDeniedAfterDeviceReassigned() throws Exception {
+        Device device = new Device();
+        device.setName("My device");
+        device.setType("default");
+        Device savedDevice = doPost("/api/device", device, Device.class);
+
+        Customer customer = new Customer();
+        customer.setTitle("My customer");
+        Customer savedCustomer = doPost("/api/customer", customer, Customer.class);
+        Customer otherCustomer = new Customer();
+        otherCustomer.setTitle("Other customer");
+        Customer savedOtherCustomer = doPost("/api/customer", otherCustomer, Customer.class);
+
+        doPost("/api/customer/" + savedCustomer.getId().getId().toString()
+                + "/device/" + savedDevice.getId().getId().toString(), Device.class);
+
+        User customerUser = new User();
+        customerUser.setAuthority(Authority.CUSTOMER_USER);
+        customerUser.setTenantId(savedTenant.getId());
+        customerUser.setCustomerId(savedCustomer.getId());
+        customerUser.setEmail("customer2@thingsboard.org");
+        createUserAndLogin(customerUser, "customer");
+
+        String keysUrl = "/api/plugins/telemetry/DEVICE/" + savedDevice.getId().getId().toString() + "/keys/timeseries";
+        doGetAsync(keysUrl).andExpect(status().isOk());
+
+        login(tenantAdmin.getEmail(), "testPassword1");
+        doPost("/api/customer/" + savedOtherCustomer.getId().getId().toString()
+                + "/device/" + savedDevice.getId().getId().toString(), Device.class);
+
+        login(customerUser.getEmail(), "customer");
+        doGetAsync(keysUrl).andExpect(status().isForbidden());
+    }
     
     @Test
     public void testAssignDeviceToNonExistentCustomer() throws Exception {
@@ -0,0 +1,119 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.controller;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
+import org.thingsboard.server.common.data.kv.LongDataEntry;
+import org.thingsboard.server.common.data.kv.ReadTsKvQuery;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+import org.thingsboard.server.dao.timeseries.TimeseriesService;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public abstract class BaseTelemetryControllerTest extends AbstractControllerTest {
+
+    @Autowired
+    private TelemetryController telemetryController;
+
+    private Object controller;
+    private Object tsService;
+    private TimeseriesService mockTsService;
+    private Device savedDevice;
+
+    @Before
+    public void beforeTest() throws Exception {
+        loginTenantAdmin();
+        Device device = new Device();
+        device.setName("My device");
+        device.setType("default");
+        savedDevice = doPost("/api/device", device, Device.class);
+
+        controller = AopTestUtils.getUltimateTargetObject(telemetryController);
+        tsService = ReflectionTestUtils.getField(controller, "tsService");
+        mockTsService = Mockito.mock(TimeseriesService.class);
+        ReflectionTestUtils.setField(controller, "tsService", mockTsService);
+        ReflectionTestUtils.setField(controller, "exportPageSize", 2);
+    }
+
+    @After
+    public void afterTest() throws Exception {
+        ReflectionTestUtils.setField(controller, "tsService", tsService);
+        ReflectionTestUtils.setField(controller, "exportPageSize", 1000);
+    }
+
+    @Test
+    public void testExportTimeseries() throws Exception {
+        Mockito.when(findAll())
+                .thenReturn(Futures.immediateFuture(Arrays.asList(entry(1, 10), entry(2, 20))))
+                .thenReturn(Futures.immediateFuture(Arrays.asList(entry(3, 30))));
+
+        String content = doGet(getExportUrl("csv")).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Assert.assertEquals("key,ts,value\ntemperature,1,10\ntemperature,2,20\ntemperature,3,30\n", content);
+    }
+
+    @Test
+    public void testExportTimeseriesFailureBeforeData() throws Exception {
+        Mockito.when(findAll())
+                .thenReturn(Futures.<List<TsKvEntry>>immediateFailedFuture(new RuntimeException("Storage failure")));
+
+        doGet(getExportUrl("ndjson")).andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    public void testExportTimeseriesFailureAfterData() throws Exception {
+        Mockito.when(findAll())
+                .thenReturn(Futures.immediateFuture(Arrays.asList(entry(1, 10), entry(2, 20))))
+                .thenReturn(Futures.<List<TsKvEntry>>immediateFailedFuture(new RuntimeException("Storage failure")));
+
+        String content = doGet(getExportUrl("ndjson")).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = content.split("\n");
+        Assert.assertEquals(3, lines.length);
+        Assert.assertEquals("{\"key\":\"temperature\",\"ts\":2,\"value\":20}", lines[1]);
+        Assert.assertTrue(lines[2].startsWith("{\"error\":"));
+    }
+
+    private ListenableFuture<List<TsKvEntry>> findAll() {
+        return mockTsService.findAll(Matchers.any(TenantId.class), Matchers.any(EntityId.class), Matchers.anyListOf(ReadTsKvQuery.class));
+    }
+
+    private String getExportUrl(String format) {
+        return "/api/plugins/telemetry/DEVICE/" + savedDevice.getId().getId().toString()
+                + "/export/timeseries?keys=temperature&startTs=0&endTs=100&format=" + format;
+    }
+
+    private static TsKvEntry entry(long ts, long value) {
+        return new BasicTsKvEntry(ts, new LongDataEntry("temperature", value));
+    }
+}
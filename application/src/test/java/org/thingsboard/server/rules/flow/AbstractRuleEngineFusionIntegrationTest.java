@@ -0,0 +1,217 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.rules.flow;
+
+import com.datastax.driver.core.utils.UUIDs;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.test.context.TestPropertySource;
+import org.thingsboard.rule.engine.filter.TbMsgTypeFilterNode;
+import org.thingsboard.rule.engine.filter.TbMsgTypeFilterNodeConfiguration;
+import org.thingsboard.rule.engine.filter.TbMsgTypeSwitchNode;
+import org.thingsboard.rule.engine.metadata.TbGetAttributesNode;
+import org.thingsboard.rule.engine.metadata.TbGetAttributesNodeConfiguration;
+import org.thingsboard.server.common.data.DataConstants;
+import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.Event;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.RuleNodeId;
+import org.thingsboard.server.common.data.kv.BaseAttributeKvEntry;
+import org.thingsboard.server.common.data.kv.StringDataEntry;
+import org.thingsboard.server.common.data.page.TimePageData;
+import org.thingsboard.server.common.data.page.TimePageLink;
+import org.thingsboard.server.common.data.rule.RuleChain;
+import org.thingsboard.server.common.data.rule.RuleChainMetaData;
+import org.thingsboard.server.common.data.rule.RuleNode;
+import org.thingsboard.server.common.msg.TbMsg;
+import org.thingsboard.server.common.msg.TbMsgMetaData;
+import org.thingsboard.server.common.msg.cluster.SendToClusterMsg;
+import org.thingsboard.server.common.msg.session.SessionMsgType;
+import org.thingsboard.server.common.msg.system.ServiceToRuleEngineMsg;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the rule engine flows with the stateless rule nodes fused into the rule chain actor.
+ */
+@TestPropertySource(properties = "actors.rule.chain.fusion_enabled=true")
+public abstract class AbstractRuleEngineFusionIntegrationTest extends AbstractRuleEngineFlowIntegrationTest {
+
+    @Test
+    public void testFusedNodesRouting() throws Exception {
+        RuleChain ruleChain = saveRootRuleChain();
+
+        RuleChainMetaData metaData = new RuleChainMetaData();
+        metaData.setRuleChainId(ruleChain.getId());
+        metaData.setNodes(Arrays.asList(
+                msgTypeFilterNode("Filter Node", Collections.singletonList("CUSTOM")),
+                debugNode("Switch Node", TbMsgTypeSwitchNode.class.getName(), mapper.createObjectNode()),
+                getAttributesNode()));
+        metaData.setFirstNodeIndex(0);
+        metaData.addConnectionInfo(0, 1, "True");
+        metaData.addConnectionInfo(1, 2, "Other");
+        metaData = saveRuleChainMetaData(metaData);
+
+        Device device = saveDevice();
+        pushCustomMsg(device);
+
+        Event filterOut = getOutEvent(metaData.getNodes().get(0).getId());
+        Assert.assertEquals("True", filterOut.getBody().get("relationType").asText());
+        Event switchOut = getOutEvent(metaData.getNodes().get(1).getId());
+        Assert.assertEquals("Other", switchOut.getBody().get("relationType").asText());
+        Event attributesOut = getOutEvent(metaData.getNodes().get(2).getId());
+        Assert.assertEquals(device.getId().getId().toString(), attributesOut.getBody().get("entityId").asText());
+        Assert.assertEquals("serverAttributeValue1", getMetadata(attributesOut).get("ss_serverAttributeKey1").asText());
+    }
+
+    @Test
+    public void testFusedNodeFailure() throws Exception {
+        RuleChain ruleChain = saveRootRuleChain();
+
+        RuleChainMetaData metaData = new RuleChainMetaData();
+        metaData.setRuleChainId(ruleChain.getId());
+        // the message types are not configured, so the filter fails on every message
+        metaData.setNodes(Arrays.asList(
+                debugNode("Filter Node", TbMsgTypeFilterNode.class.getName(), mapper.createObjectNode()),
+                getAttributesNode()));
+        metaData.setFirstNodeIndex(0);
+        metaData.addConnectionInfo(0, 1, "Failure");
+        metaData = saveRuleChainMetaData(metaData);
+
+        Device device = saveDevice();
+        pushCustomMsg(device);
+
+        RuleNodeId filterNodeId = metaData.getNodes().get(0).getId();
+        Event filterOut = getOutEvent(filterNodeId);
+        Assert.assertEquals("Failure", filterOut.getBody().get("relationType").asText());
+        Assert.assertTrue(filterOut.getBody().has("error"));
+
+        Event attributesOut = getOutEvent(metaData.getNodes().get(1).getId());
+        Assert.assertEquals("serverAttributeValue1", getMetadata(attributesOut).get("ss_serverAttributeKey1").asText());
+
+        List<Event> errors = getErrorEvents(filterNodeId).getData();
+        Assert.assertEquals(1, errors.size());
+        Assert.assertEquals("onRuleMsg", errors.get(0).getBody().get("method").asText());
+    }
+
+    @Test
+    public void testFusedNodeUpdate() throws Exception {
+        RuleChain ruleChain = saveRootRuleChain();
+
+        RuleChainMetaData metaData = new RuleChainMetaData();
+        metaData.setRuleChainId(ruleChain.getId());
+        metaData.setNodes(Arrays.asList(
+                msgTypeFilterNode("Filter Node", Collections.singletonList(SessionMsgType.POST_TELEMETRY_REQUEST.name())),
+                getAttributesNode()));
+        metaData.setFirstNodeIndex(0);
+        metaData.addConnectionInfo(0, 1, "True");
+        metaData = saveRuleChainMetaData(metaData);
+        RuleNodeId filterNodeId = metaData.getNodes().get(0).getId();
+        RuleNodeId attributesNodeId = metaData.getNodes().get(1).getId();
+
+        Device device = saveDevice();
+        pushCustomMsg(device);
+
+        Assert.assertEquals("False", getOutEvent(filterNodeId).getBody().get("relationType").asText());
+        Assert.assertTrue(getCustomEvents(attributesNodeId).isEmpty());
+
+        metaData = getRuleChainMetaData(ruleChain.getId());
+        TbMsgTypeFilterNodeConfiguration configuration = new TbMsgTypeFilterNodeConfiguration();
+        configuration.setMessageTypes(Collections.singletonList("CUSTOM"));
+        metaData.getNodes().get(0).setConfiguration(mapper.valueToTree(configuration));
+        saveRuleChainMetaData(metaData);
+
+        Thread.sleep(1000);
+        pushCustomMsg(device);
+
+        List<Event> filterEvents = getCustomEvents(filterNodeId);
+        Assert.assertEquals(4, filterEvents.size());
+        Assert.assertTrue(filterEvents.stream().anyMatch(e -> e.getBody().get("relationType").asText().equals("True")));
+        Event attributesOut = getOutEvent(attributesNodeId);
+        Assert.assertEquals("serverAttributeValue1", getMetadata(attributesOut).get("ss_serverAttributeKey1").asText());
+    }
+
+    private RuleChain saveRootRuleChain() throws Exception {
+        RuleChain ruleChain = new RuleChain();
+        ruleChain.setName("Fused Rule Chain");
+        ruleChain.setTenantId(savedTenant.getId());
+        ruleChain.setRoot(true);
+        ruleChain.setDebugMode(true);
+        return saveRuleChain(ruleChain);
+    }
+
+    private RuleNode msgTypeFilterNode(String name, List<String> messageTypes) {
+        TbMsgTypeFilterNodeConfiguration configuration = new TbMsgTypeFilterNodeConfiguration();
+        configuration.setMessageTypes(messageTypes);
+        return debugNode(name, TbMsgTypeFilterNode.class.getName(), mapper.valueToTree(configuration));
+    }
+
+    private RuleNode getAttributesNode() {
+        TbGetAttributesNodeConfiguration configuration = new TbGetAttributesNodeConfiguration();
+        configuration.setServerAttributeNames(Collections.singletonList("serverAttributeKey1"));
+        return debugNode("Attributes Node", TbGetAttributesNode.class.getName(), mapper.valueToTree(configuration));
+    }
+
+    private RuleNode debugNode(String name, String type, JsonNode configuration) {
+        RuleNode ruleNode = new RuleNode();
+        ruleNode.setName(name);
+        ruleNode.setType(type);
+        ruleNode.setDebugMode(true);
+        ruleNode.setConfiguration(configuration);
+        return ruleNode;
+    }
+
+    private Device saveDevice() throws Exception {
+        Device device = new Device();
+        device.setName("My device");
+        device.setType("default");
+        device = doPost("/api/device", device, Device.class);
+        attributesService.save(device.getTenantId(), device.getId(), DataConstants.SERVER_SCOPE,
+                Collections.singletonList(new BaseAttributeKvEntry(new StringDataEntry("serverAttributeKey1", "serverAttributeValue1"), System.currentTimeMillis())));
+        Thread.sleep(1000);
+        return device;
+    }
+
+    private void pushCustomMsg(Device device) throws Exception {
+        TbMsg tbMsg = new TbMsg(UUIDs.timeBased(), "CUSTOM", device.getId(), new TbMsgMetaData(), "{}", null, null, 0L);
+        actorService.onMsg(new SendToClusterMsg(device.getId(), new ServiceToRuleEngineMsg(savedTenant.getId(), tbMsg)));
+        Thread.sleep(3000);
+    }
+
+    private List<Event> getCustomEvents(RuleNodeId ruleNodeId) throws Exception {
+        return getDebugEvents(savedTenant.getId(), ruleNodeId, 1000).getData().stream()
+                .filter(filterByCustomEvent()).collect(Collectors.toList());
+    }
+
+    private Event getOutEvent(RuleNodeId ruleNodeId) throws Exception {
+        List<Event> events = getCustomEvents(ruleNodeId);
+        Assert.assertTrue(events.stream().anyMatch(e -> e.getBody().get("type").asText().equals(DataConstants.IN)));
+        // the events are returned newest first
+        return events.stream().filter(e -> e.getBody().get("type").asText().equals(DataConstants.OUT)).findFirst().get();
+    }
+
+    private TimePageData<Event> getErrorEvents(EntityId entityId) throws Exception {
+        return doGetTypedWithTimePageLink("/api/events/{entityType}/{entityId}/{eventType}?tenantId={tenantId}&",
+                new TypeReference<TimePageData<Event>>() {
+                }, new TimePageLink(1000), entityId.getEntityType(), entityId.getId(), DataConstants.ERROR, savedTenant.getId().getId());
+    }
+
+}
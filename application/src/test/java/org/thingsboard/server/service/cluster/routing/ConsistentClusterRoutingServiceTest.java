@@ -17,6 +17,7 @@ package org.thingsboard.server.service.cluster.routing;
 
 import com.datastax.driver.core.utils.UUIDs;
 import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -28,6 +29,7 @@ import org.thingsboard.server.common.data.UUIDConverter;
 import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.msg.cluster.ServerAddress;
 import org.thingsboard.server.common.msg.cluster.ServerType;
+import org.thingsboard.server.kafka.TbKafkaKeyPartitioner;
 import org.thingsboard.server.service.cluster.discovery.DiscoveryService;
 import org.thingsboard.server.service.cluster.discovery.ServerInstance;
 
@@ -39,6 +41,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -84,6 +87,54 @@ public class ConsistentClusterRoutingServiceTest {
         testDevicesDispersion(devices);
     }
 
+    @Test
+    public void testTopologyChangeOnServerAddedAndRemoved() {
+        List<DeviceId> devices = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            devices.add(new DeviceId(UUIDs.timeBased()));
+        }
+        ServerInstance newServer = new ServerInstance(new ServerAddress(" 100.96.100.100", 9001, ServerType.CORE));
+
+        Map<DeviceId, Optional<ServerAddress>> before = resolveAll(devices);
+        clusterRoutingService.onServerAdded(newServer);
+        checkTopologyChange(devices, before, resolveAll(devices));
+        Assert.assertFalse(clusterRoutingService.getLastTopologyChange().hasGainedRanges());
+
+        before = resolveAll(devices);
+        clusterRoutingService.onServerRemoved(newServer);
+        checkTopologyChange(devices, before, resolveAll(devices));
+        Assert.assertFalse(clusterRoutingService.getLastTopologyChange().hasLostRanges());
+    }
+
+    @Test
+    public void testDevicesResolvedByRuleEnginePartition() {
+        int partitions = 30;
+        ReflectionTestUtils.setField(clusterRoutingService, "transportType", "remote");
+        ReflectionTestUtils.setField(clusterRoutingService, "partitionAffinityEnabled", true);
+        ReflectionTestUtils.setField(clusterRoutingService, "ruleEnginePartitions", partitions);
+        clusterRoutingService.init();
+
+        for (int i = 0; i < 10000; i++) {
+            DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+            int partition = TbKafkaKeyPartitioner.partition(deviceId.getId().toString(), partitions);
+            Assert.assertEquals(clusterRoutingService.resolveByPartition(partition), clusterRoutingService.resolveById(deviceId));
+        }
+    }
+
+    private Map<DeviceId, Optional<ServerAddress>> resolveAll(List<DeviceId> devices) {
+        Map<DeviceId, Optional<ServerAddress>> result = new HashMap<>();
+        devices.forEach(deviceId -> result.put(deviceId, clusterRoutingService.resolveById(deviceId)));
+        return result;
+    }
+
+    private void checkTopologyChange(List<DeviceId> devices, Map<DeviceId, Optional<ServerAddress>> before, Map<DeviceId, Optional<ServerAddress>> after) {
+        ClusterTopologyChange change = clusterRoutingService.getLastTopologyChange();
+        for (DeviceId deviceId : devices) {
+            boolean movedFromOrToCurrent = before.get(deviceId).isPresent() != after.get(deviceId).isPresent();
+            Assert.assertEquals(movedFromOrToCurrent, change.isAffected(deviceId));
+        }
+    }
+
     private void testDevicesDispersion(List<DeviceId> devices) {
         long start = System.currentTimeMillis();
         Map<ServerAddress, Integer> map = new HashMap<>();
@@ -0,0 +1,202 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.queue;
+
+import com.datastax.driver.core.utils.UUIDs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.TbMsg;
+import org.thingsboard.server.common.msg.TbMsgMetaData;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DefaultRuleEngineMsgLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final TenantId tenantId = new TenantId(UUIDs.timeBased());
+    private final DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+
+    private DefaultRuleEngineMsgLog msgLog;
+
+    @Before
+    public void before() throws Exception {
+        msgLog = newLog(1024 * 1024);
+    }
+
+    @After
+    public void after() {
+        msgLog.destroy();
+    }
+
+    @Test
+    public void testUnackedMessagesReplayedAfterRestart() throws Exception {
+        TbMsg acked = newMsg();
+        TbMsg unacked = newMsg();
+        msgLog.append(tenantId, acked);
+        msgLog.append(tenantId, unacked);
+        msgLog.ack(acked.getId());
+        msgLog.flush();
+
+        List<TbMsg> replayed = restartAndReplay(1024 * 1024);
+        assertEquals(1, replayed.size());
+        assertEquals(unacked.getId(), replayed.get(0).getId());
+        assertEquals(unacked.getData(), replayed.get(0).getData());
+        assertEquals(unacked.getMetaData(), replayed.get(0).getMetaData());
+    }
+
+    @Test
+    public void testMessageCompletedWhenAllCopiesAcked() throws Exception {
+        TbMsg msg = newMsg();
+        msgLog.append(tenantId, msg);
+        msgLog.fork(msg.getId(), UUIDs.timeBased());
+        TbMsg copy = msg.copy(UUIDs.timeBased(), null, null, 0L);
+        msgLog.fork(msg.getId(), copy.getId());
+        TbMsg copyOfCopy = copy.copy(UUIDs.timeBased(), null, null, 0L);
+        msgLog.fork(copy.getId(), copyOfCopy.getId());
+        msgLog.ack(msg.getId());
+        msgLog.ack(copy.getId());
+        msgLog.ack(copyOfCopy.getId());
+        msgLog.flush();
+
+        assertEquals(Collections.singletonList(msg.getId()), ids(restartAndReplay(1024 * 1024)));
+    }
+
+    @Test
+    public void testReplayedMessageIsNotAppendedTwice() throws Exception {
+        TbMsg msg = newMsg();
+        msgLog.append(tenantId, msg);
+        msgLog.flush();
+
+        List<TbMsg> replayed = restartAndReplay(1024 * 1024);
+        assertEquals(1, replayed.size());
+        msgLog.append(tenantId, replayed.get(0));
+        msgLog.ack(msg.getId());
+        msgLog.flush();
+
+        assertTrue(restartAndReplay(1024 * 1024).isEmpty());
+    }
+
+    @Test
+    public void testAcknowledgedSegmentsAreDeleted() throws Exception {
+        msgLog.destroy();
+        msgLog = newLog(4096);
+        List<TbMsg> msgs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            TbMsg msg = newMsg();
+            msgs.add(msg);
+            msgLog.append(tenantId, msg);
+        }
+        assertTrue(segmentFiles().length > 2);
+
+        // the only live message of the oldest segment is moved to the newest one
+        msgs.subList(1, msgs.size()).forEach(msg -> msgLog.ack(msg.getId()));
+        msgLog.flush();
+        assertEquals(1, segmentFiles().length);
+
+        assertEquals(Collections.singletonList(msgs.get(0).getId()), ids(restartAndReplay(4096)));
+    }
+
+    @Test
+    public void testAppendsDuringCompaction() throws Exception {
+        msgLog.destroy();
+        msgLog = newLog(4096);
+        List<TbMsg> live = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            TbMsg msg = newMsg();
+            msgLog.append(tenantId, msg);
+            if (i % 20 == 0) {
+                live.add(msg);
+            } else {
+                msgLog.ack(msg.getId());
+            }
+        }
+
+        List<TbMsg> appended = Collections.synchronizedList(new ArrayList<>());
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 100; i++) {
+                TbMsg msg = newMsg();
+                msgLog.append(tenantId, msg);
+                appended.add(msg);
+            }
+        });
+        producer.start();
+        msgLog.flush();
+        producer.join();
+        msgLog.flush();
+
+        List<UUID> expected = new ArrayList<>(ids(live));
+        expected.addAll(ids(appended));
+        List<UUID> replayed = ids(restartAndReplay(4096));
+        assertEquals(expected.size(), replayed.size());
+        assertTrue(replayed.containsAll(expected));
+    }
+
+    private List<TbMsg> restartAndReplay(int segmentSize) throws Exception {
+        msgLog.destroy();
+        msgLog = newLog(segmentSize);
+        List<TbMsg> replayed = new ArrayList<>();
+        msgLog.replay((msgTenantId, msg) -> {
+            assertEquals(tenantId, msgTenantId);
+            replayed.add(msg);
+        });
+        return replayed;
+    }
+
+    private static List<UUID> ids(List<TbMsg> msgs) {
+        return msgs.stream().map(TbMsg::getId).collect(Collectors.toList());
+    }
+
+    private DefaultRuleEngineMsgLog newLog(int segmentSize) throws Exception {
+        DefaultRuleEngineMsgLog msgLog = new DefaultRuleEngineMsgLog();
+        ReflectionTestUtils.setField(msgLog, "enabled", true);
+        ReflectionTestUtils.setField(msgLog, "dir", folder.getRoot().getAbsolutePath());
+        ReflectionTestUtils.setField(msgLog, "segmentSize", segmentSize);
+        ReflectionTestUtils.setField(msgLog, "ackFlushIntervalMs", 60000L);
+        ReflectionTestUtils.setField(msgLog, "ttlMs", 3600000L);
+        ReflectionTestUtils.setField(msgLog, "compactionThreshold", 0.1);
+        msgLog.init();
+        return msgLog;
+    }
+
+    private File[] segmentFiles() {
+        File[] files = folder.getRoot().listFiles(MsgLogSegment::isSegmentFile);
+        Arrays.sort(files);
+        return files;
+    }
+
+    private TbMsg newMsg() {
+        TbMsgMetaData metaData = new TbMsgMetaData();
+        metaData.putValue("deviceName", "Thermostat");
+        return new TbMsg(UUIDs.timeBased(), "POST_TELEMETRY_REQUEST", deviceId, metaData, "{\"temperature\":42}", null, null, 0L);
+    }
+}
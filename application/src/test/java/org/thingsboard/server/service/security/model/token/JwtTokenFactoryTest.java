@@ -0,0 +1,140 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.security.model.token;
+
+import com.datastax.driver.core.utils.UUIDs;
+import org.junit.Before;
+import org.junit.Test;
+import org.thingsboard.server.common.data.id.CustomerId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.id.UserId;
+import org.thingsboard.server.common.data.security.Authority;
+import org.thingsboard.server.config.JwtSettings;
+import org.thingsboard.server.service.security.exception.JwtExpiredTokenException;
+import org.thingsboard.server.service.security.model.SecurityUser;
+import org.thingsboard.server.service.security.model.UserPrincipal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class JwtTokenFactoryTest {
+
+    private JwtSettings settings;
+    private JwtTokenFactory tokenFactory;
+    private SecurityUser securityUser;
+
+    @Before
+    public void before() {
+        settings = new JwtSettings();
+        settings.setTokenExpirationTime(60);
+        settings.setTokenIssuer("thingsboard.io");
+        settings.setTokenSigningKey("thingsboardTestSigningKey");
+        settings.setParsedTokenCacheSize(100);
+        tokenFactory = new JwtTokenFactory(settings);
+
+        securityUser = new SecurityUser(new UserId(UUIDs.timeBased()));
+        securityUser.setEmail("tenant@thingsboard.org");
+        securityUser.setAuthority(Authority.TENANT_ADMIN);
+        securityUser.setTenantId(new TenantId(UUIDs.timeBased()));
+        securityUser.setCustomerId(new CustomerId(EntityId.NULL_UUID));
+        securityUser.setEnabled(true);
+        securityUser.setUserPrincipal(new UserPrincipal(UserPrincipal.Type.USER_NAME, securityUser.getEmail()));
+    }
+
+    @Test
+    public void testCachedTokenReturnsSameUser() {
+        RawAccessJwtToken rawToken = spy(new RawAccessJwtToken(tokenFactory.createAccessJwtToken(securityUser).getToken()));
+
+        SecurityUser parsed = tokenFactory.parseAccessJwtToken(rawToken);
+        SecurityUser cached = tokenFactory.parseAccessJwtToken(rawToken);
+
+        verify(rawToken, times(1)).parseClaims(anyString());
+        assertSameUser(parsed, cached);
+        assertSameUser(securityUser, cached);
+    }
+
+    @Test(expected = JwtExpiredTokenException.class)
+    public void testExpiredTokenIsRejectedWhenCached() throws Exception {
+        settings.setTokenExpirationTime(1);
+        tokenFactory = new JwtTokenFactory(settings);
+        RawAccessJwtToken rawToken = new RawAccessJwtToken(tokenFactory.createAccessJwtToken(securityUser).getToken());
+        assertNotNull(tokenFactory.parseAccessJwtToken(rawToken));
+
+        Thread.sleep(2000);
+        tokenFactory.parseAccessJwtToken(rawToken);
+    }
+
+    @Test
+    public void testTokenIsRejectedAfterPasswordChange() throws Exception {
+        RawAccessJwtToken rawToken = new RawAccessJwtToken(tokenFactory.createAccessJwtToken(securityUser).getToken());
+        assertNotNull(tokenFactory.parseAccessJwtToken(rawToken));
+
+        Thread.sleep(1000);
+        tokenFactory.invalidateUserTokens(securityUser.getId());
+        assertRejected(rawToken);
+
+        RawAccessJwtToken newToken = new RawAccessJwtToken(tokenFactory.createAccessJwtToken(securityUser).getToken());
+        assertSameUser(securityUser, tokenFactory.parseAccessJwtToken(newToken));
+    }
+
+    @Test
+    public void testTokenIsRejectedAfterTenantDeletion() throws Exception {
+        RawAccessJwtToken rawToken = new RawAccessJwtToken(tokenFactory.createAccessJwtToken(securityUser).getToken());
+        assertNotNull(tokenFactory.parseAccessJwtToken(rawToken));
+
+        Thread.sleep(1000);
+        tokenFactory.invalidateTenantTokens(securityUser.getTenantId());
+        assertRejected(rawToken);
+    }
+
+    @Test
+    public void testTokenIsRejectedWithoutCache() throws Exception {
+        settings.setParsedTokenCacheSize(0);
+        tokenFactory = new JwtTokenFactory(settings);
+        RawAccessJwtToken rawToken = new RawAccessJwtToken(tokenFactory.createAccessJwtToken(securityUser).getToken());
+        assertNotNull(tokenFactory.parseAccessJwtToken(rawToken));
+
+        Thread.sleep(1000);
+        tokenFactory.invalidateUserTokens(securityUser.getId());
+        assertRejected(rawToken);
+    }
+
+    private void assertRejected(RawAccessJwtToken rawToken) {
+        try {
+            tokenFactory.parseAccessJwtToken(rawToken);
+            throw new AssertionError("Invalidated token is accepted");
+        } catch (JwtExpiredTokenException e) {
+            assertEquals(rawToken.getToken(), e.getToken());
+        }
+    }
+
+    private void assertSameUser(SecurityUser expected, SecurityUser actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getEmail(), actual.getEmail());
+        assertEquals(expected.getAuthority(), actual.getAuthority());
+        assertEquals(expected.getTenantId(), actual.getTenantId());
+        assertEquals(expected.getCustomerId(), actual.getCustomerId());
+        assertEquals(expected.isEnabled(), actual.isEnabled());
+        assertEquals(expected.getUserPrincipal().getType(), actual.getUserPrincipal().getType());
+        assertEquals(expected.getUserPrincipal().getValue(), actual.getUserPrincipal().getValue());
+    }
+
+}
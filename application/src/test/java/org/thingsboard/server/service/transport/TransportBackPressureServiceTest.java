@@ -0,0 +1,80 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.transport;
+
+import com.datastax.driver.core.utils.UUIDs;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.id.TenantId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TransportBackPressureServiceTest {
+
+    private final TenantId noisyTenant = new TenantId(UUIDs.timeBased());
+    private final TenantId quietTenant = new TenantId(UUIDs.timeBased());
+
+    private TransportBackPressureService service;
+    private List<Boolean> notifications;
+
+    @Before
+    public void before() {
+        service = new TransportBackPressureService();
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "highWatermark", 4);
+        ReflectionTestUtils.setField(service, "lowWatermark", 2);
+        notifications = new ArrayList<>();
+        service.setListener((tenantId, suspended) -> {
+            assertEquals(noisyTenant, tenantId);
+            notifications.add(suspended);
+        });
+    }
+
+    @Test
+    public void testSuspendAndResumeWithHysteresis() {
+        for (int i = 0; i < 5; i++) {
+            service.onMsgStarted(noisyTenant);
+        }
+        service.onMsgStarted(quietTenant);
+        assertTrue(service.isSuspended(noisyTenant));
+        assertFalse(service.isSuspended(quietTenant));
+
+        service.onMsgCompleted(noisyTenant);
+        service.onMsgCompleted(noisyTenant);
+        assertTrue(service.isSuspended(noisyTenant));
+        service.onMsgCompleted(noisyTenant);
+        assertFalse(service.isSuspended(noisyTenant));
+        assertEquals(2, service.getInFlight(noisyTenant));
+        assertEquals(Arrays.asList(true, false), notifications);
+    }
+
+    @Test
+    public void testDisabledServiceDoesNotCount() {
+        ReflectionTestUtils.setField(service, "enabled", false);
+        for (int i = 0; i < 10; i++) {
+            service.onMsgStarted(noisyTenant);
+        }
+        assertEquals(0, service.getInFlight(noisyTenant));
+        assertTrue(notifications.isEmpty());
+    }
+}
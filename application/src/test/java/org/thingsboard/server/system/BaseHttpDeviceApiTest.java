@@ -15,8 +15,10 @@
  */
 package org.thingsboard.server.system;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.thingsboard.server.common.data.Device;
@@ -24,10 +26,14 @@ import org.thingsboard.server.common.data.security.DeviceCredentials;
 import org.thingsboard.server.controller.AbstractControllerTest;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -68,6 +74,67 @@ public abstract class BaseHttpDeviceApiTest extends AbstractControllerTest {
         doGetAsync("/api/v1/" + deviceCredentials.getCredentialsId() + "/attributes?clientKeys=keyA,keyB,keyC").andExpect(status().isOk());
     }
 
+    @Test
+    public void testPostBulkTelemetry() throws Exception {
+        Device secondDevice = saveDevice("My second device");
+        DeviceCredentials secondDeviceCredentials = getDeviceCredentials(secondDevice);
+        Device thirdDevice = saveDevice("My third device");
+        DeviceCredentials thirdDeviceCredentials = getDeviceCredentials(thirdDevice);
+
+        String payload = "{\"" + deviceCredentials.getCredentialsId() + "\": {\"temperature\": 25}," +
+                "\"" + secondDeviceCredentials.getCredentialsId() + "\": [{\"humidity\": 70}]," +
+                "\"" + thirdDeviceCredentials.getCredentialsId() + "\": \"not a telemetry\"," +
+                "\"WRONG_TOKEN\": {\"temperature\": 30}}";
+        Map<String, String> results = readResponse(doPostBulkTelemetry(payload).andExpect(status().isOk()),
+                new TypeReference<Map<String, String>>() {});
+
+        Map<String, String> expectedResults = new HashMap<>();
+        expectedResults.put(deviceCredentials.getCredentialsId(), "OK");
+        expectedResults.put(secondDeviceCredentials.getCredentialsId(), "OK");
+        expectedResults.put(thirdDeviceCredentials.getCredentialsId(), "BAD_REQUEST");
+        expectedResults.put("WRONG_TOKEN", "UNAUTHORIZED");
+        assertEquals(expectedResults, results);
+
+        Thread.sleep(2000);
+        assertEquals("25", getLatestValue(device, "temperature"));
+        assertNull(getLatestValue(device, "humidity"));
+        assertEquals("70", getLatestValue(secondDevice, "humidity"));
+        assertNull(getLatestValue(secondDevice, "temperature"));
+        assertNull(getLatestValue(thirdDevice, "temperature"));
+    }
+
+    @Test
+    public void testPostBulkTelemetryWithoutDevices() throws Exception {
+        Map<String, String> results = readResponse(doPostBulkTelemetry("{}").andExpect(status().isOk()),
+                new TypeReference<Map<String, String>>() {});
+        assertTrue(results.isEmpty());
+        doPostBulkTelemetry("[]").andExpect(status().isBadRequest());
+    }
+
+    private Device saveDevice(String name) throws Exception {
+        Device device = new Device();
+        device.setName(name);
+        device.setType("default");
+        return doPost("/api/device", device, Device.class);
+    }
+
+    private DeviceCredentials getDeviceCredentials(Device device) throws Exception {
+        return doGet("/api/device/" + device.getId().getId().toString() + "/credentials", DeviceCredentials.class);
+    }
+
+    private Object getLatestValue(Device device, String key) throws Exception {
+        Map<String, List<Map<String, Object>>> timeseries = readResponse(
+                doGetAsync("/api/plugins/telemetry/DEVICE/" + device.getId().getId().toString() + "/values/timeseries?keys=" + key)
+                        .andExpect(status().isOk()), new TypeReference<Map<String, List<Map<String, Object>>>>() {});
+        List<Map<String, Object>> values = timeseries.get(key);
+        return values == null || values.isEmpty() ? null : values.get(0).get("value");
+    }
+
+    private ResultActions doPostBulkTelemetry(String payload) throws Exception {
+        MockHttpServletRequestBuilder postRequest = post("/api/v1/telemetry").contentType(MediaType.APPLICATION_JSON).content(payload);
+        return mockMvc.perform(asyncDispatch(mockMvc.perform(postRequest).andExpect(request().asyncStarted()).andReturn()));
+    }
+
     protected ResultActions doGetAsync(String urlTemplate, Object... urlVariables) throws Exception {
         MockHttpServletRequestBuilder getRequest;
         getRequest = get(urlTemplate, urlVariables);
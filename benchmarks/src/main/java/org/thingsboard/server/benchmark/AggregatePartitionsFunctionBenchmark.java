@@ -0,0 +1,112 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.benchmark;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thingsboard.server.common.data.kv.Aggregation;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+import org.thingsboard.server.dao.timeseries.AggregatePartitionsFunction;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merge of the per-partition aggregates of a Cassandra timeseries query, with and without rollup rows.
+ * Rows and result sets are array backed proxies, so the figures include a small constant reflection overhead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AggregatePartitionsFunctionBenchmark {
+
+    @Param({"AVG", "MAX"})
+    private Aggregation aggregation;
+
+    @Param({"1", "12"})
+    private int partitions;
+
+    private AggregatePartitionsFunction function;
+    private List<ResultSet> resultSets;
+    private List<Row> rollupRows;
+
+    @Setup
+    public void setup() {
+        function = new AggregatePartitionsFunction(aggregation, "temperature", System.currentTimeMillis());
+        resultSets = new ArrayList<>(partitions);
+        rollupRows = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            // long_cnt, dbl_cnt, bool_cnt, str_cnt, long_value, dbl_value, bool_value, str_value
+            Row row = row(0L, 100L, 0L, 0L, null, 21.5 + i, null, null);
+            resultSets.add(resultSet(Collections.singletonList(row)));
+            // long_cnt, dbl_cnt, long_sum, dbl_sum, long_min, dbl_min, long_max, dbl_max
+            rollupRows.add(row(0L, 3600L, null, 3600 * 21.5, null, 18.0 + i, null, 25.0 + i));
+        }
+    }
+
+    @Benchmark
+    public Optional<TsKvEntry> aggregatePartitions() {
+        return function.apply(resultSets);
+    }
+
+    @Benchmark
+    public Optional<TsKvEntry> aggregatePartitionsWithRollups() {
+        return function.apply(resultSets, rollupRows);
+    }
+
+    private static Row row(Object... values) {
+        return (Row) Proxy.newProxyInstance(Row.class.getClassLoader(), new Class<?>[]{Row.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getLong":
+                case "getDouble":
+                case "getBool":
+                case "getString":
+                    return values[(Integer) args[0]];
+                case "isNull":
+                    return values[(Integer) args[0]] == null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static ResultSet resultSet(List<Row> rows) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+            if ("all".equals(method.getName())) {
+                return rows;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.benchmark;
+
+import com.datastax.driver.core.utils.UUIDs;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.RuleChainId;
+import org.thingsboard.server.common.data.id.RuleNodeId;
+import org.thingsboard.server.common.msg.TbMsg;
+import org.thingsboard.server.common.msg.TbMsgMetaData;
+
+/**
+ * Sample payloads shared by the benchmarks, shaped like a device telemetry upload.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static String telemetryJson(int keys) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < keys; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("\"key").append(i).append("\":");
+            switch (i % 4) {
+                case 0:
+                    sb.append(i * 100);
+                    break;
+                case 1:
+                    sb.append(i * 1.5);
+                    break;
+                case 2:
+                    sb.append(i % 8 == 2);
+                    break;
+                default:
+                    sb.append("\"value").append(i).append('"');
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    static TbMsg telemetryMsg(int keys) {
+        TbMsgMetaData metaData = new TbMsgMetaData();
+        metaData.putValue("deviceName", "Thermostat A");
+        metaData.putValue("deviceType", "thermostat");
+        metaData.putValue("ts", Long.toString(System.currentTimeMillis()));
+        return new TbMsg(UUIDs.timeBased(), "POST_TELEMETRY_REQUEST", new DeviceId(UUIDs.timeBased()), metaData, telemetryJson(keys),
+                new RuleChainId(UUIDs.timeBased()), new RuleNodeId(UUIDs.timeBased()), 0L);
+    }
+}
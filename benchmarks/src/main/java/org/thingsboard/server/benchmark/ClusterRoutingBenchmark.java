@@ -0,0 +1,122 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.benchmark;
+
+import com.datastax.driver.core.utils.UUIDs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.msg.cluster.ServerAddress;
+import org.thingsboard.server.common.msg.cluster.ServerType;
+import org.thingsboard.server.service.cluster.discovery.DiscoveryService;
+import org.thingsboard.server.service.cluster.discovery.ServerInstance;
+import org.thingsboard.server.service.cluster.routing.ConsistentClusterRoutingService;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consistent hash ring lookup done for every message routed to a device actor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClusterRoutingBenchmark {
+
+    private static final int DEVICES = 1024;
+
+    @Param({"3", "30"})
+    private int servers;
+
+    private ConsistentClusterRoutingService routingService;
+    private DeviceId[] deviceIds;
+    private int idx;
+
+    @Setup
+    public void setup() throws Exception {
+        ServerInstance currentServer = new ServerInstance(new ServerAddress("10.0.0.1", 9001, ServerType.CORE));
+        List<ServerInstance> otherServers = new ArrayList<>();
+        for (int i = 2; i <= servers; i++) {
+            otherServers.add(new ServerInstance(new ServerAddress("10.0.0." + i, 9001, ServerType.CORE)));
+        }
+        routingService = new ConsistentClusterRoutingService();
+        setField(routingService, "discoveryService", new StaticDiscoveryService(currentServer, otherServers));
+        setField(routingService, "hashFunctionName", "murmur3_128");
+        setField(routingService, "virtualNodesSize", 16);
+        setField(routingService, "transportType", "local");
+        routingService.init();
+        deviceIds = new DeviceId[DEVICES];
+        for (int i = 0; i < DEVICES; i++) {
+            deviceIds[i] = new DeviceId(UUIDs.timeBased());
+        }
+    }
+
+    @Benchmark
+    public Optional<ServerAddress> resolveById() {
+        idx = (idx + 1) & (DEVICES - 1);
+        return routingService.resolveById(deviceIds[idx]);
+    }
+
+    private static void setField(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private static class StaticDiscoveryService implements DiscoveryService {
+
+        private final ServerInstance currentServer;
+        private final List<ServerInstance> otherServers;
+
+        StaticDiscoveryService(ServerInstance currentServer, List<ServerInstance> otherServers) {
+            this.currentServer = currentServer;
+            this.otherServers = otherServers;
+        }
+
+        @Override
+        public void publishCurrentServer() {
+        }
+
+        @Override
+        public void unpublishCurrentServer() {
+        }
+
+        @Override
+        public ServerInstance getCurrentServer() {
+            return currentServer;
+        }
+
+        @Override
+        public List<ServerInstance> getOtherServers() {
+            return otherServers;
+        }
+    }
+}
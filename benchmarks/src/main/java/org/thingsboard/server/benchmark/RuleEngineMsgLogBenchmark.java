@@ -0,0 +1,107 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.benchmark;
+
+import com.datastax.driver.core.utils.UUIDs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.TbMsg;
+import org.thingsboard.server.service.queue.DefaultRuleEngineMsgLog;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Message log work done for every message entering a root rule chain: append on entry and ack on completion.
+ * Several threads append concurrently while the background thread writes the acks, compacts and forces the log,
+ * so the figure includes the contention with the flush. Compare "true" with "false" (the log is disabled) and with
+ * the per-message cost of the other benchmarks to see the overhead of the log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class RuleEngineMsgLogBenchmark {
+
+    @Param({"false", "true"})
+    private boolean logEnabled;
+
+    @Param({"5", "50"})
+    private int dataKeys;
+
+    private final TenantId tenantId = new TenantId(UUIDs.timeBased());
+
+    private DefaultRuleEngineMsgLog msgLog;
+    private TbMsg msg;
+    private File dir;
+
+    @Setup
+    public void setup() throws Exception {
+        dir = Files.createTempDirectory("msg-log-benchmark").toFile();
+        msg = BenchmarkData.telemetryMsg(dataKeys);
+        msgLog = new DefaultRuleEngineMsgLog();
+        setField(msgLog, "enabled", logEnabled);
+        setField(msgLog, "dir", dir.getAbsolutePath());
+        setField(msgLog, "segmentSize", 64 * 1024 * 1024);
+        setField(msgLog, "ackFlushIntervalMs", 100L);
+        setField(msgLog, "ttlMs", TimeUnit.HOURS.toMillis(1));
+        setField(msgLog, "compactionThreshold", 0.1);
+        msgLog.init();
+    }
+
+    @TearDown
+    public void tearDown() {
+        msgLog.destroy();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Benchmark
+    public TbMsg appendAndAck() {
+        TbMsg copy = msg.copy(UUIDs.timeBased(), msg.getRuleChainId(), msg.getRuleNodeId(), 0L);
+        msgLog.append(tenantId, copy);
+        msgLog.ack(copy.getId());
+        return copy;
+    }
+
+    private static void setField(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.thingsboard.server.common.msg.TbMsgMetaData;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation of metadata copies on the rule chain hops: copy only (forwarding to the next node),
+ * copy and read (filter nodes) and copy and write (enrichment nodes).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TbMsgMetaDataBenchmark {
+
+    @Param({"5", "20"})
+    private int size;
+
+    private TbMsgMetaData metaData;
+
+    @Setup
+    public void setup() {
+        metaData = new TbMsgMetaData();
+        for (int i = 0; i < size; i++) {
+            metaData.putValue("key" + i, "value" + i);
+        }
+    }
+
+    @Benchmark
+    public TbMsgMetaData copy() {
+        return metaData.copy();
+    }
+
+    @Benchmark
+    public void copyAndRead(Blackhole blackhole) {
+        TbMsgMetaData copy = metaData.copy();
+        blackhole.consume(copy.getValue("key0"));
+    }
+
+    @Benchmark
+    public TbMsgMetaData copyAndWrite() {
+        TbMsgMetaData copy = metaData.copy();
+        copy.putValue("deviceName", "Device A");
+        return copy;
+    }
+}
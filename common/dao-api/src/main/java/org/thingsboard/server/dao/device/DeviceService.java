@@ -51,6 +51,8 @@ public interface DeviceService {
 
     ListenableFuture<List<Device>> findDevicesByTenantIdAndIdsAsync(TenantId tenantId, List<DeviceId> deviceIds);
 
+    ListenableFuture<List<Device>> findDevicesByIdsAsync(TenantId tenantId, List<DeviceId> deviceIds);
+
     void deleteDevicesByTenantId(TenantId tenantId);
 
     TextPageData<Device> findDevicesByTenantIdAndCustomerId(TenantId tenantId, CustomerId customerId, TextPageLink pageLink);
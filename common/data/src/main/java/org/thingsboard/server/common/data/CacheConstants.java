@@ -24,4 +24,6 @@ public class CacheConstants {
     public static final String ENTITY_VIEW_CACHE = "entityViews";
     public static final String CLAIM_DEVICES_CACHE = "claimDevices";
     public static final String SECURITY_SETTINGS_CACHE = "securitySettings";
+    public static final String ALARM_SEVERITY_CACHE = "alarmSeverities";
+    public static final String ENTITY_OWNERSHIP_CACHE = "entityOwnerships";
 }
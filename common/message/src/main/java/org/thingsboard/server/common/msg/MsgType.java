@@ -30,6 +30,17 @@ public enum MsgType {
 
     APP_INIT_MSG,
 
+    /**
+     * Message that is sent by TenantActor to AppActor once the rule chains of the tenant are initialized.
+     */
+    TENANT_ACTOR_STARTED_MSG,
+
+    /**
+     * Message that is sent by RuleNodeActor or RuleChainActor to the parent actor once the component is initialized.
+     * The rule chain actor reports itself only after all of its rule nodes are initialized.
+     */
+    COMPONENT_STARTED_MSG,
+
     /**
      * All messages, could be send  to cluster
     */
@@ -15,9 +15,14 @@
  */
 package org.thingsboard.server.common.msg;
 
+import com.google.gson.JsonElement;
+import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.EntityIdFactory;
 import org.thingsboard.server.common.data.id.RuleChainId;
@@ -32,7 +37,7 @@ import java.util.UUID;
  * Created by ashvayka on 13.01.18.
  */
 @Data
-@AllArgsConstructor
+@ToString(exclude = "jsonData")
 public final class TbMsg implements Serializable {
 
     private final UUID id;
@@ -48,18 +53,34 @@ public final class TbMsg implements Serializable {
     private final RuleNodeId ruleNodeId;
     private final long clusterPartition;
 
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient TbMsgJsonData jsonData;
+
     public TbMsg(UUID id, String type, EntityId originator, TbMsgMetaData metaData, String data,
                  RuleChainId ruleChainId, RuleNodeId ruleNodeId, long clusterPartition) {
+        this(id, type, originator, metaData, TbMsgDataType.JSON, data, new TbMsgTransactionData(id, originator), ruleChainId, ruleNodeId, clusterPartition);
+    }
+
+    public TbMsg(UUID id, String type, EntityId originator, TbMsgMetaData metaData, TbMsgDataType dataType, String data,
+                 TbMsgTransactionData transactionData, RuleChainId ruleChainId, RuleNodeId ruleNodeId, long clusterPartition) {
+        this(id, type, originator, metaData, dataType, data, transactionData, ruleChainId, ruleNodeId, clusterPartition, null);
+    }
+
+    private TbMsg(UUID id, String type, EntityId originator, TbMsgMetaData metaData, TbMsgDataType dataType, String data,
+                  TbMsgTransactionData transactionData, RuleChainId ruleChainId, RuleNodeId ruleNodeId, long clusterPartition,
+                  TbMsgJsonData jsonData) {
         this.id = id;
         this.type = type;
         this.originator = originator;
         this.metaData = metaData;
+        this.dataType = dataType;
         this.data = data;
-        this.dataType = TbMsgDataType.JSON;
-        this.transactionData = new TbMsgTransactionData(id, originator);
+        this.transactionData = transactionData;
         this.ruleChainId = ruleChainId;
         this.ruleNodeId = ruleNodeId;
         this.clusterPartition = clusterPartition;
+        this.jsonData = jsonData;
     }
 
     public TbMsg(UUID id, String type, EntityId originator, TbMsgMetaData metaData, TbMsgDataType dataType, String data,
@@ -67,9 +88,43 @@ public final class TbMsg implements Serializable {
         this(id, type, originator, metaData, dataType, data, new TbMsgTransactionData(id, originator), ruleChainId, ruleNodeId, clusterPartition);
     }
 
+    /**
+     * Current wire format: uuids as msb/lsb pairs and data as utf-8 bytes.
+     */
+    static final int WIRE_FORMAT_V2 = 2;
+
+    private static volatile boolean legacyWireFormat;
+
+    /**
+     * Makes {@link #toByteArray(TbMsg)} write the v1 format, which nodes of the previous versions are able to read.
+     * Both formats are always readable.
+     */
+    public static void setLegacyWireFormat(boolean legacyWireFormat) {
+        TbMsg.legacyWireFormat = legacyWireFormat;
+    }
+
     public static byte[] toByteArray(TbMsg msg) {
+        return toProto(msg).toByteArray();
+    }
+
+    public static ByteString toByteString(TbMsg msg) {
+        return toProto(msg).toByteString();
+    }
+
+    public static ByteBuffer toBytes(TbMsg msg) {
+        return ByteBuffer.wrap(toByteArray(msg));
+    }
+
+    private static MsgProtos.TbMsgProto toProto(TbMsg msg) {
+        boolean v1 = legacyWireFormat;
         MsgProtos.TbMsgProto.Builder builder = MsgProtos.TbMsgProto.newBuilder();
-        builder.setId(msg.getId().toString());
+        if (v1) {
+            builder.setId(msg.getId().toString());
+        } else {
+            builder.setVersion(WIRE_FORMAT_V2);
+            builder.setIdMSB(msg.getId().getMostSignificantBits());
+            builder.setIdLSB(msg.getId().getLeastSignificantBits());
+        }
         builder.setType(msg.getType());
         builder.setEntityType(msg.getOriginator().getEntityType().name());
         builder.setEntityIdMSB(msg.getOriginator().getId().getMostSignificantBits());
@@ -84,15 +139,21 @@ public final class TbMsg implements Serializable {
             builder.setRuleNodeIdMSB(msg.getRuleNodeId().getId().getMostSignificantBits());
             builder.setRuleNodeIdLSB(msg.getRuleNodeId().getId().getLeastSignificantBits());
         }
+        builder.setClusterPartition(msg.getClusterPartition());
 
         if (msg.getMetaData() != null) {
-            builder.setMetaData(MsgProtos.TbMsgMetaDataProto.newBuilder().putAllData(msg.getMetaData().getData()).build());
+            builder.setMetaData(MsgProtos.TbMsgMetaDataProto.newBuilder().putAllData(msg.getMetaData().readOnlyData()).build());
         }
 
         TbMsgTransactionData transactionData = msg.getTransactionData();
         if (transactionData != null) {
             MsgProtos.TbMsgTransactionDataProto.Builder transactionBuilder = MsgProtos.TbMsgTransactionDataProto.newBuilder();
-            transactionBuilder.setId(transactionData.getTransactionId().toString());
+            if (v1) {
+                transactionBuilder.setId(transactionData.getTransactionId().toString());
+            } else {
+                transactionBuilder.setIdMSB(transactionData.getTransactionId().getMostSignificantBits());
+                transactionBuilder.setIdLSB(transactionData.getTransactionId().getLeastSignificantBits());
+            }
             transactionBuilder.setEntityType(transactionData.getOriginatorId().getEntityType().name());
             transactionBuilder.setEntityIdMSB(transactionData.getOriginatorId().getId().getMostSignificantBits());
             transactionBuilder.setEntityIdLSB(transactionData.getOriginatorId().getId().getLeastSignificantBits());
@@ -100,41 +161,106 @@ public final class TbMsg implements Serializable {
         }
 
         builder.setDataType(msg.getDataType().ordinal());
-        builder.setData(msg.getData());
-        return builder.build().toByteArray();
-
-    }
-
-    public static ByteBuffer toBytes(TbMsg msg) {
-        return ByteBuffer.wrap(toByteArray(msg));
+        if (v1) {
+            builder.setData(msg.getData());
+        } else {
+            builder.setDataBytes(ByteString.copyFromUtf8(msg.getData()));
+        }
+        return builder.build();
     }
 
     public static TbMsg fromBytes(byte[] data) {
-        return fromBytes(ByteBuffer.wrap(data));
+        try {
+            return fromProto(MsgProtos.TbMsgProto.parseFrom(data));
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Could not parse protobuf for TbMsg", e);
+        }
     }
 
+    /**
+     * Reads the remaining bytes of the buffer, heap and direct buffers are parsed in place.
+     */
     public static TbMsg fromBytes(ByteBuffer buffer) {
         try {
-            MsgProtos.TbMsgProto proto = MsgProtos.TbMsgProto.parseFrom(buffer.array());
-            TbMsgMetaData metaData = new TbMsgMetaData(proto.getMetaData().getDataMap());
-            EntityId transactionEntityId = EntityIdFactory.getByTypeAndUuid(proto.getTransactionData().getEntityType(),
-                    new UUID(proto.getTransactionData().getEntityIdMSB(), proto.getTransactionData().getEntityIdLSB()));
-            TbMsgTransactionData transactionData = new TbMsgTransactionData(UUID.fromString(proto.getTransactionData().getId()), transactionEntityId);
-            EntityId entityId = EntityIdFactory.getByTypeAndUuid(proto.getEntityType(), new UUID(proto.getEntityIdMSB(), proto.getEntityIdLSB()));
-            RuleChainId ruleChainId = new RuleChainId(new UUID(proto.getRuleChainIdMSB(), proto.getRuleChainIdLSB()));
-            RuleNodeId ruleNodeId = null;
-            if (proto.getRuleNodeIdMSB() != 0L && proto.getRuleNodeIdLSB() != 0L) {
-                ruleNodeId = new RuleNodeId(new UUID(proto.getRuleNodeIdMSB(), proto.getRuleNodeIdLSB()));
-            }
-            TbMsgDataType dataType = TbMsgDataType.values()[proto.getDataType()];
-            return new TbMsg(UUID.fromString(proto.getId()), proto.getType(), entityId, metaData, dataType, proto.getData(), transactionData, ruleChainId, ruleNodeId, proto.getClusterPartition());
+            return fromProto(MsgProtos.TbMsgProto.parseFrom(buffer.slice()));
         } catch (InvalidProtocolBufferException e) {
             throw new IllegalStateException("Could not parse protobuf for TbMsg", e);
         }
     }
 
+    public static TbMsg fromBytes(ByteString data) {
+        try {
+            return fromProto(MsgProtos.TbMsgProto.parseFrom(data));
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Could not parse protobuf for TbMsg", e);
+        }
+    }
+
+    private static TbMsg fromProto(MsgProtos.TbMsgProto proto) {
+        boolean v1 = proto.getVersion() < WIRE_FORMAT_V2;
+        // the proto map is immutable, so it is shared by the metadata until the first write
+        TbMsgMetaData metaData = TbMsgMetaData.wrap(proto.getMetaData().getDataMap());
+        TbMsgTransactionData transactionData = null;
+        if (proto.hasTransactionData()) {
+            MsgProtos.TbMsgTransactionDataProto transactionProto = proto.getTransactionData();
+            EntityId transactionEntityId = EntityIdFactory.getByTypeAndUuid(transactionProto.getEntityType(),
+                    new UUID(transactionProto.getEntityIdMSB(), transactionProto.getEntityIdLSB()));
+            UUID transactionId = v1 ? UUID.fromString(transactionProto.getId()) : new UUID(transactionProto.getIdMSB(), transactionProto.getIdLSB());
+            transactionData = new TbMsgTransactionData(transactionId, transactionEntityId);
+        }
+        EntityId entityId = EntityIdFactory.getByTypeAndUuid(proto.getEntityType(), new UUID(proto.getEntityIdMSB(), proto.getEntityIdLSB()));
+        RuleChainId ruleChainId = new RuleChainId(new UUID(proto.getRuleChainIdMSB(), proto.getRuleChainIdLSB()));
+        RuleNodeId ruleNodeId = null;
+        if (proto.getRuleNodeIdMSB() != 0L && proto.getRuleNodeIdLSB() != 0L) {
+            ruleNodeId = new RuleNodeId(new UUID(proto.getRuleNodeIdMSB(), proto.getRuleNodeIdLSB()));
+        }
+        TbMsgDataType dataType = TbMsgDataType.values()[proto.getDataType()];
+        UUID id = v1 ? UUID.fromString(proto.getId()) : new UUID(proto.getIdMSB(), proto.getIdLSB());
+        String data = v1 ? proto.getData() : proto.getDataBytes().toStringUtf8();
+        return new TbMsg(id, proto.getType(), entityId, metaData, dataType, data, transactionData, ruleChainId, ruleNodeId, proto.getClusterPartition());
+    }
+
     public TbMsg copy(UUID newId, RuleChainId ruleChainId, RuleNodeId ruleNodeId, long clusterPartition) {
-        return new TbMsg(newId, type, originator, metaData.copy(), dataType, data, transactionData, ruleChainId, ruleNodeId, clusterPartition);
+        return new TbMsg(newId, type, originator, metaData.copy(), dataType, data, transactionData, ruleChainId, ruleNodeId, clusterPartition, getJsonDataHolder());
+    }
+
+    /**
+     * Creates a message with the same id, transaction and rule node. The parsed data is shared if the data is not changed.
+     */
+    public TbMsg transform(String type, EntityId originator, TbMsgMetaData metaData, String data, long clusterPartition) {
+        TbMsgJsonData holder = getJsonDataHolder();
+        return new TbMsg(id, type, originator, metaData, dataType, data, transactionData, ruleChainId, ruleNodeId, clusterPartition,
+                holder.hasData(data) ? holder : null);
+    }
+
+    /**
+     * Returns the data parsed once per message and its copies. The result is shared, so it must not be modified.
+     */
+    public JsonElement getJsonData() {
+        return getJsonDataHolder().get();
+    }
+
+    private TbMsgJsonData getJsonDataHolder() {
+        TbMsgJsonData holder = jsonData;
+        if (holder == null) {
+            holder = new TbMsgJsonData(data);
+            jsonData = holder;
+        }
+        return holder;
+    }
+
+    /**
+     * @return total number of message data parse operations, never reset
+     */
+    public static long getJsonParsedCount() {
+        return TbMsgJsonData.getParsedCount();
+    }
+
+    /**
+     * @return total number of times the already parsed message data was reused, never reset
+     */
+    public static long getJsonReusedCount() {
+        return TbMsgJsonData.getReusedCount();
     }
 
 }
@@ -0,0 +1,61 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.msg;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lazily parsed JSON tree of the message data, shared by the copies of the message that have the same data.
+ */
+final class TbMsgJsonData {
+
+    private static final LongAdder parsedCount = new LongAdder();
+    private static final LongAdder reusedCount = new LongAdder();
+
+    private final String data;
+    private volatile JsonElement json;
+
+    TbMsgJsonData(String data) {
+        this.data = data;
+    }
+
+    boolean hasData(String data) {
+        return this.data == null ? data == null : this.data.equals(data);
+    }
+
+    JsonElement get() {
+        JsonElement result = json;
+        if (result == null) {
+            result = new JsonParser().parse(data);
+            json = result;
+            parsedCount.increment();
+        } else {
+            reusedCount.increment();
+        }
+        return result;
+    }
+
+    static long getParsedCount() {
+        return parsedCount.sum();
+    }
+
+    static long getReusedCount() {
+        return reusedCount.sum();
+    }
+}
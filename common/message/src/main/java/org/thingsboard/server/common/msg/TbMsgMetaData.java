@@ -15,26 +15,63 @@
  */
 package org.thingsboard.server.common.msg;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by ashvayka on 13.01.18.
+ *
+ * Metadata copies share the backing map until the first write to the copy or to the original,
+ * so forwarding a message to the next rule nodes doesn't allocate a new map per hop.
+ * Once written, each instance owns a {@link ConcurrentHashMap}, so async callbacks may write concurrently.
+ * After {@link #getData()} exposed the live map, copies are taken eagerly as the map may be modified directly.
  */
-@Data
-@NoArgsConstructor
-public final class TbMsgMetaData implements Serializable {
+public class TbMsgMetaData implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
-    private final Map<String, String> data = new ConcurrentHashMap<>();
+    private volatile Map<String, String> data;
+    private volatile boolean shared;
+    private volatile boolean exposed;
+
+    public TbMsgMetaData() {
+        this.data = new ConcurrentHashMap<>();
+    }
 
     public TbMsgMetaData(Map<String, String> data) {
-        data.forEach((key, val) -> putValue(key, val));
+        this.data = new ConcurrentHashMap<>(Math.max(16, (int) (data.size() / 0.75f) + 1));
+        data.forEach(this::putValue);
+    }
+
+    private TbMsgMetaData(Map<String, String> data, boolean shared) {
+        this.data = data;
+        this.shared = shared;
+    }
+
+    /**
+     * Uses the map as is until the first write, so the map must not be modified by the caller afterwards.
+     */
+    static TbMsgMetaData wrap(Map<String, String> data) {
+        return new TbMsgMetaData(data, true);
+    }
+
+    /**
+     * @return live map of the metadata, prefer {@link #getValue(String)} and {@link #putValue(String, String)}
+     * as this takes a private copy of a shared map and disables sharing it with the further copies
+     */
+    public Map<String, String> getData() {
+        exposed = true;
+        return ownData();
+    }
+
+    /**
+     * @return read-only view of the metadata that keeps the map shared with the copies
+     */
+    public Map<String, String> readOnlyData() {
+        return Collections.unmodifiableMap(data);
     }
 
     public String getValue(String key) {
@@ -43,7 +80,7 @@ public final class TbMsgMetaData implements Serializable {
 
     public void putValue(String key, String value) {
         if (key != null && value != null) {
-            data.put(key, value);
+            ownData().put(key, value);
         }
     }
 
@@ -52,6 +89,42 @@ public final class TbMsgMetaData implements Serializable {
     }
 
     public TbMsgMetaData copy() {
-        return new TbMsgMetaData(new ConcurrentHashMap<>(data));
+        if (exposed) {
+            return new TbMsgMetaData(new ConcurrentHashMap<>(data), false);
+        }
+        shared = true;
+        return new TbMsgMetaData(data, true);
+    }
+
+    private Map<String, String> ownData() {
+        if (shared) {
+            synchronized (this) {
+                if (shared) {
+                    data = new ConcurrentHashMap<>(data);
+                    shared = false;
+                }
+            }
+        }
+        return data;
+    }
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return data.equals(((TbMsgMetaData) o).data);
+    }
+
+    @Override
+    public int hashCode() {
+        return data.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "TbMsgMetaData(data=" + data + ")";
     }
 }
@@ -0,0 +1,73 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.msg;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TbMsgMetaDataTest {
+
+    @Test
+    public void testCopyIsIndependentFromOriginal() {
+        TbMsgMetaData original = new TbMsgMetaData(Collections.singletonMap("deviceName", "A"));
+        TbMsgMetaData copy = original.copy();
+        assertEquals(original, copy);
+
+        copy.putValue("deviceType", "thermostat");
+        original.putValue("deviceName", "B");
+
+        assertEquals("A", copy.getValue("deviceName"));
+        assertEquals("thermostat", copy.getValue("deviceType"));
+        assertEquals("B", original.getValue("deviceName"));
+        assertNull(original.getValue("deviceType"));
+    }
+
+    @Test
+    public void testNullValuesAreIgnored() {
+        TbMsgMetaData metaData = new TbMsgMetaData();
+        metaData.putValue("key", null);
+        metaData.putValue(null, "value");
+        assertEquals(0, metaData.getData().size());
+    }
+
+    @Test
+    public void testDataIsWritable() {
+        TbMsgMetaData original = new TbMsgMetaData(Collections.singletonMap("deviceName", "A"));
+        TbMsgMetaData copy = original.copy();
+
+        copy.getData().put("deviceType", "thermostat");
+
+        assertEquals("thermostat", copy.getValue("deviceType"));
+        assertNull(original.getValue("deviceType"));
+    }
+
+    @Test
+    public void testCopyOfExposedDataIsIndependent() {
+        TbMsgMetaData original = new TbMsgMetaData(Collections.singletonMap("deviceName", "A"));
+        Map<String, String> data = original.getData();
+        TbMsgMetaData copy = original.copy();
+
+        data.put("deviceName", "B");
+
+        assertEquals("B", original.getValue("deviceName"));
+        assertEquals("A", copy.getValue("deviceName"));
+    }
+}
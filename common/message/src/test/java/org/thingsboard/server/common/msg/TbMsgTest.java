@@ -0,0 +1,145 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.msg;
+
+import org.junit.After;
+import org.junit.Test;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.RuleChainId;
+import org.thingsboard.server.common.data.id.RuleNodeId;
+import org.thingsboard.server.common.msg.gen.MsgProtos;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TbMsgTest {
+
+    private final DeviceId deviceId = new DeviceId(UUID.randomUUID());
+
+    @After
+    public void after() {
+        TbMsg.setLegacyWireFormat(false);
+    }
+
+    @Test
+    public void testParsedDataSharedByCopies() {
+        TbMsg msg = new TbMsg(UUID.randomUUID(), "POST_TELEMETRY_REQUEST", deviceId, new TbMsgMetaData(), "{\"temperature\":42}", null, null, 0L);
+        TbMsg copy = msg.copy(UUID.randomUUID(), null, null, 0L);
+        TbMsg transformed = msg.transform("CUSTOM", deviceId, new TbMsgMetaData(), msg.getData(), 0L);
+
+        assertEquals(42, msg.getJsonData().getAsJsonObject().get("temperature").getAsInt());
+        assertSame(msg.getJsonData(), copy.getJsonData());
+        assertSame(msg.getJsonData(), transformed.getJsonData());
+    }
+
+    @Test
+    public void testParseCountsAreMonotonic() {
+        long parsed = TbMsg.getJsonParsedCount();
+        long reused = TbMsg.getJsonReusedCount();
+        TbMsg msg = new TbMsg(UUID.randomUUID(), "POST_TELEMETRY_REQUEST", deviceId, new TbMsgMetaData(), "{\"temperature\":42}", null, null, 0L);
+        msg.getJsonData();
+        msg.copy(UUID.randomUUID(), null, null, 0L).getJsonData();
+
+        assertTrue(TbMsg.getJsonParsedCount() >= parsed + 1);
+        assertTrue(TbMsg.getJsonReusedCount() >= reused + 1);
+    }
+
+    @Test
+    public void testParsedDataNotSharedIfDataChanged() {
+        TbMsg msg = new TbMsg(UUID.randomUUID(), "POST_TELEMETRY_REQUEST", deviceId, new TbMsgMetaData(), "{\"temperature\":42}", null, null, 0L);
+        TbMsg transformed = msg.transform(msg.getType(), deviceId, new TbMsgMetaData(), "{\"temperature\":43}", 0L);
+
+        assertNotSame(msg.getJsonData(), transformed.getJsonData());
+        assertEquals(43, transformed.getJsonData().getAsJsonObject().get("temperature").getAsInt());
+    }
+
+    @Test
+    public void testParsedDataIsNotPartOfEquality() {
+        TbMsg msg = new TbMsg(UUID.randomUUID(), "POST_TELEMETRY_REQUEST", deviceId, new TbMsgMetaData(), "{}", null, null, 0L);
+        TbMsg other = new TbMsg(msg.getId(), msg.getType(), deviceId, new TbMsgMetaData(), "{}", null, null, 0L);
+        msg.getJsonData();
+        assertEquals(msg, other);
+    }
+
+    @Test
+    public void testV2RoundTrip() {
+        TbMsg msg = newMsg();
+        byte[] bytes = TbMsg.toByteArray(msg);
+
+        MsgProtos.TbMsgProto proto = parse(bytes);
+        assertEquals(TbMsg.WIRE_FORMAT_V2, proto.getVersion());
+        assertTrue(proto.getId().isEmpty());
+        assertTrue(proto.getData().isEmpty());
+        assertEquals(msg.getId(), new UUID(proto.getIdMSB(), proto.getIdLSB()));
+
+        assertEquals(msg, TbMsg.fromBytes(bytes));
+        assertEquals(msg, TbMsg.fromBytes(TbMsg.toByteString(msg)));
+    }
+
+    @Test
+    public void testLegacyFormatIsReadable() {
+        TbMsg msg = newMsg();
+        TbMsg.setLegacyWireFormat(true);
+        byte[] bytes = TbMsg.toByteArray(msg);
+
+        MsgProtos.TbMsgProto proto = parse(bytes);
+        assertEquals(0, proto.getVersion());
+        assertEquals(msg.getId().toString(), proto.getId());
+        assertEquals(msg.getData(), proto.getData());
+
+        TbMsg.setLegacyWireFormat(false);
+        assertEquals(msg, TbMsg.fromBytes(bytes));
+    }
+
+    @Test
+    public void testDecodeFromDirectBuffer() {
+        TbMsg msg = newMsg();
+        byte[] bytes = TbMsg.toByteArray(msg);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 4);
+        buffer.putInt(42).put(bytes).flip();
+        buffer.position(4);
+
+        assertEquals(msg, TbMsg.fromBytes(buffer));
+    }
+
+    @Test
+    public void testDecodedMetaDataIsWritable() {
+        TbMsg msg = TbMsg.fromBytes(TbMsg.toByteArray(newMsg()));
+        msg.getMetaData().putValue("deviceName", "other");
+        assertEquals("other", msg.getMetaData().getValue("deviceName"));
+    }
+
+    private TbMsg newMsg() {
+        TbMsgMetaData metaData = new TbMsgMetaData();
+        metaData.putValue("deviceName", "Thermostat \u00e9");
+        return new TbMsg(UUID.randomUUID(), "POST_TELEMETRY_REQUEST", deviceId, metaData, TbMsgDataType.JSON,
+                "{\"temperature\":42,\"note\":\"\u00fcber\"}", new TbMsgTransactionData(UUID.randomUUID(), deviceId),
+                new RuleChainId(UUID.randomUUID()), new RuleNodeId(UUID.randomUUID()), 7L);
+    }
+
+    private static MsgProtos.TbMsgProto parse(byte[] bytes) {
+        try {
+            return MsgProtos.TbMsgProto.parseFrom(bytes);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
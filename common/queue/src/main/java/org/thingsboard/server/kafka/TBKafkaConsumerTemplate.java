@@ -21,12 +21,17 @@ import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Created by ashvayka on 24.09.18.
@@ -70,6 +75,14 @@ public class TBKafkaConsumerTemplate<T> {
         consumer.subscribe(Collections.singletonList(topic));
     }
 
+    public void assign(Collection<Integer> partitions) {
+        consumer.assign(partitions.stream().map(partition -> new TopicPartition(topic, partition)).collect(Collectors.toList()));
+    }
+
+    public List<PartitionInfo> partitionsFor() {
+        return consumer.partitionsFor(topic);
+    }
+
     public void unsubscribe() {
         consumer.unsubscribe();
     }
@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.transport.http;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import lombok.extern.slf4j.Slf4j;
@@ -40,6 +41,7 @@ import org.thingsboard.server.gen.transport.TransportProtos.AttributeUpdateNotif
 import org.thingsboard.server.gen.transport.TransportProtos.DeviceInfoProto;
 import org.thingsboard.server.gen.transport.TransportProtos.GetAttributeRequestMsg;
 import org.thingsboard.server.gen.transport.TransportProtos.GetAttributeResponseMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.PostTelemetryMsg;
 import org.thingsboard.server.gen.transport.TransportProtos.SessionCloseNotificationProto;
 import org.thingsboard.server.gen.transport.TransportProtos.SessionInfoProto;
 import org.thingsboard.server.gen.transport.TransportProtos.SubscribeToAttributeUpdatesMsg;
@@ -50,11 +52,16 @@ import org.thingsboard.server.gen.transport.TransportProtos.ToServerRpcRequestMs
 import org.thingsboard.server.gen.transport.TransportProtos.ToServerRpcResponseMsg;
 import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceCredentialsResponseMsg;
 import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceTokenRequestMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceTokensRequestMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceTokensResponseMsg;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 /**
@@ -119,6 +126,75 @@ public class DeviceApiController {
         return responseWriter;
     }
 
+    /**
+     * Accepts telemetry of many devices in one request: {"deviceToken1": {telemetry}, "deviceToken2": [{telemetry}]}.
+     * All tokens are validated with a single transport API call and the result of every device is
+     * returned in a JSON object keyed by the device token.
+     */
+    @RequestMapping(value = "/telemetry", method = RequestMethod.POST, produces = "application/json")
+    public DeferredResult<ResponseEntity> postBulkTelemetry(@RequestBody String json, HttpServletRequest request) {
+        DeferredResult<ResponseEntity> responseWriter = new DeferredResult<>();
+        JsonElement payload;
+        try {
+            payload = new JsonParser().parse(json);
+        } catch (Exception e) {
+            responseWriter.setResult(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+            return responseWriter;
+        }
+        if (!payload.isJsonObject()) {
+            responseWriter.setResult(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+            return responseWriter;
+        }
+        List<Map.Entry<String, JsonElement>> devices = new ArrayList<>(payload.getAsJsonObject().entrySet());
+        if (devices.isEmpty()) {
+            responseWriter.setResult(new ResponseEntity<>(new JsonObject().toString(), HttpStatus.OK));
+            return responseWriter;
+        }
+        ValidateDeviceTokensRequestMsg.Builder validateRequest = ValidateDeviceTokensRequestMsg.newBuilder();
+        devices.forEach(device -> validateRequest.addTokens(device.getKey()));
+        TransportService transportService = transportContext.getTransportService();
+        transportService.process(validateRequest.build(), new TransportServiceCallback<ValidateDeviceTokensResponseMsg>() {
+            @Override
+            public void onSuccess(ValidateDeviceTokensResponseMsg msg) {
+                BulkResponse bulkResponse = new BulkResponse(responseWriter, devices.size());
+                for (int i = 0; i < devices.size(); i++) {
+                    String token = devices.get(i).getKey();
+                    ValidateDeviceCredentialsResponseMsg credentials = i < msg.getResponsesCount() ? msg.getResponses(i) : null;
+                    if (credentials == null || !credentials.hasDeviceInfo()) {
+                        bulkResponse.onResult(token, HttpStatus.UNAUTHORIZED);
+                        continue;
+                    }
+                    PostTelemetryMsg telemetryMsg;
+                    try {
+                        telemetryMsg = JsonConverter.convertToTelemetryProto(devices.get(i).getValue());
+                    } catch (Exception e) {
+                        log.debug("[{}] Failed to convert telemetry", token, e);
+                        bulkResponse.onResult(token, HttpStatus.BAD_REQUEST);
+                        continue;
+                    }
+                    transportService.process(toSessionInfo(transportContext, credentials.getDeviceInfo()), telemetryMsg, new TransportServiceCallback<Void>() {
+                        @Override
+                        public void onSuccess(Void result) {
+                            bulkResponse.onResult(token, HttpStatus.OK);
+                        }
+
+                        @Override
+                        public void onError(Throwable e) {
+                            bulkResponse.onResult(token, HttpStatus.INTERNAL_SERVER_ERROR);
+                        }
+                    });
+                }
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                log.warn("Failed to process request", e);
+                responseWriter.setResult(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+            }
+        });
+        return responseWriter;
+    }
+
     @RequestMapping(value = "/{deviceToken}/claim", method = RequestMethod.POST)
     public DeferredResult<ResponseEntity> claimDevice(@PathVariable("deviceToken") String deviceToken,
                                                       @RequestBody(required = false) String json, HttpServletRequest request) {
@@ -211,18 +287,7 @@ public class DeviceApiController {
         @Override
         public void onSuccess(ValidateDeviceCredentialsResponseMsg msg) {
             if (msg.hasDeviceInfo()) {
-                UUID sessionId = UUID.randomUUID();
-                DeviceInfoProto deviceInfoProto = msg.getDeviceInfo();
-                SessionInfoProto sessionInfo = SessionInfoProto.newBuilder()
-                        .setNodeId(transportContext.getNodeId())
-                        .setTenantIdMSB(deviceInfoProto.getTenantIdMSB())
-                        .setTenantIdLSB(deviceInfoProto.getTenantIdLSB())
-                        .setDeviceIdMSB(deviceInfoProto.getDeviceIdMSB())
-                        .setDeviceIdLSB(deviceInfoProto.getDeviceIdLSB())
-                        .setSessionIdMSB(sessionId.getMostSignificantBits())
-                        .setSessionIdLSB(sessionId.getLeastSignificantBits())
-                        .build();
-                onSuccess.accept(sessionInfo);
+                onSuccess.accept(toSessionInfo(transportContext, msg.getDeviceInfo()));
             } else {
                 responseWriter.setResult(new ResponseEntity<>(HttpStatus.UNAUTHORIZED));
             }
@@ -235,6 +300,41 @@ public class DeviceApiController {
         }
     }
 
+    private static SessionInfoProto toSessionInfo(TransportContext transportContext, DeviceInfoProto deviceInfoProto) {
+        UUID sessionId = UUID.randomUUID();
+        return SessionInfoProto.newBuilder()
+                .setNodeId(transportContext.getNodeId())
+                .setTenantIdMSB(deviceInfoProto.getTenantIdMSB())
+                .setTenantIdLSB(deviceInfoProto.getTenantIdLSB())
+                .setDeviceIdMSB(deviceInfoProto.getDeviceIdMSB())
+                .setDeviceIdLSB(deviceInfoProto.getDeviceIdLSB())
+                .setSessionIdMSB(sessionId.getMostSignificantBits())
+                .setSessionIdLSB(sessionId.getLeastSignificantBits())
+                .build();
+    }
+
+    private static class BulkResponse {
+        private final DeferredResult<ResponseEntity> responseWriter;
+        private final JsonObject results = new JsonObject();
+        private final AtomicInteger remaining;
+
+        BulkResponse(DeferredResult<ResponseEntity> responseWriter, int size) {
+            this.responseWriter = responseWriter;
+            this.remaining = new AtomicInteger(size);
+        }
+
+        void onResult(String token, HttpStatus status) {
+            synchronized (results) {
+                results.addProperty(token, status.name());
+            }
+            if (remaining.decrementAndGet() == 0) {
+                synchronized (results) {
+                    responseWriter.setResult(new ResponseEntity<>(results.toString(), HttpStatus.OK));
+                }
+            }
+        }
+    }
+
     private static class SessionCloseOnErrorCallback implements TransportServiceCallback<Void> {
         private final TransportService transportService;
         private final SessionInfoProto sessionInfo;
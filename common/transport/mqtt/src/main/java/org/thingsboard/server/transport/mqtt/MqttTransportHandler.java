@@ -627,4 +627,17 @@ public class MqttTransportHandler extends ChannelInboundHandlerAdapter implement
             log.trace("[{}] Failed to convert device RPC commandto MQTT msg", sessionId, e);
         }
     }
+
+    /**
+     * 租户积压的消息过多时暂停读取该连接的数据，TCP缓冲区写满后由客户端自行降速
+     * @param suspended
+     */
+    @Override
+    public void onBackPressure(boolean suspended) {
+        ChannelHandlerContext ctx = deviceSessionCtx.getChannel();
+        if (ctx != null) {
+            log.debug("[{}] {} reading from the channel", sessionId, suspended ? "Suspending" : "Resuming");
+            ctx.channel().config().setAutoRead(!suspended);
+        }
+    }
 }
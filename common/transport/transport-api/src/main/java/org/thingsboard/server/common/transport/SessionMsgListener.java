@@ -35,4 +35,11 @@ public interface SessionMsgListener {
     void onToDeviceRpcRequest(ToDeviceRpcRequestMsg toDeviceRequest);
 
     void onToServerRpcResponse(ToServerRpcResponseMsg toServerResponse);
+
+    /**
+     * Called when the tenant of the session crosses the in-flight high watermark (suspended = true)
+     * or drops back under the low watermark (suspended = false). Transports may stop reading from the device meanwhile.
+     */
+    default void onBackPressure(boolean suspended) {
+    }
 }
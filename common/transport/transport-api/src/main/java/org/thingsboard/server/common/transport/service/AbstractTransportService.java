@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.common.transport.service;
 
+import io.micrometer.core.instrument.Metrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
@@ -29,6 +30,7 @@ import org.thingsboard.server.common.transport.TransportServiceCallback;
 import org.thingsboard.server.gen.transport.TransportProtos;
 
 import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.*;
 
@@ -54,6 +56,8 @@ public abstract class AbstractTransportService implements TransportService {
     protected ExecutorService transportCallbackExecutor;
 
     private ConcurrentMap<UUID, SessionMetaData> sessions = new ConcurrentHashMap<>();
+    // 因积压消息过多而暂停读取的租户
+    private final Set<UUID> suspendedTenants = ConcurrentHashMap.newKeySet();
 
     //TODO: Implement cleanup of this maps.
     private ConcurrentMap<TenantId, TbRateLimits> perTenantLimits = new ConcurrentHashMap<>();
@@ -68,6 +72,39 @@ public abstract class AbstractTransportService implements TransportService {
     @Override
     public void registerAsyncSession(TransportProtos.SessionInfoProto sessionInfo, SessionMsgListener listener) {
         sessions.putIfAbsent(toId(sessionInfo), new SessionMetaData(sessionInfo, TransportProtos.SessionType.ASYNC, listener));
+        if (!suspendedTenants.isEmpty()) {
+            synchronized (suspendedTenants) {
+                if (suspendedTenants.contains(toTenantId(sessionInfo))) {
+                    listener.onBackPressure(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * 租户的在途消息超过高水位时暂停、低于低水位时恢复该租户所有异步会话的读取
+     * @param tenantId
+     * @param suspended
+     */
+    protected void onTenantBackPressure(UUID tenantId, boolean suspended) {
+        synchronized (suspendedTenants) {
+            boolean changed = suspended ? suspendedTenants.add(tenantId) : suspendedTenants.remove(tenantId);
+            if (!changed) {
+                return;
+            }
+            int count = 0;
+            for (SessionMetaData md : sessions.values()) {
+                if (md.getSessionType() == TransportProtos.SessionType.ASYNC && tenantId.equals(toTenantId(md.getSessionInfo()))) {
+                    try {
+                        md.getListener().onBackPressure(suspended);
+                        count++;
+                    } catch (Exception e) {
+                        log.warn("[{}] Failed to notify session about back pressure", toId(md.getSessionInfo()), e);
+                    }
+                }
+            }
+            log.info("[{}] {} reading for {} sessions", tenantId, suspended ? "Suspended" : "Resumed", count);
+        }
     }
 
     /**
@@ -332,6 +369,10 @@ public abstract class AbstractTransportService implements TransportService {
         return new UUID(sessionInfo.getSessionIdMSB(), sessionInfo.getSessionIdLSB());
     }
 
+    private UUID toTenantId(TransportProtos.SessionInfoProto sessionInfo) {
+        return new UUID(sessionInfo.getTenantIdMSB(), sessionInfo.getTenantIdLSB());
+    }
+
     protected String getRoutingKey(TransportProtos.SessionInfoProto sessionInfo) {
         return new UUID(sessionInfo.getDeviceIdMSB(), sessionInfo.getDeviceIdLSB()).toString();
     }
@@ -344,6 +385,8 @@ public abstract class AbstractTransportService implements TransportService {
         }
         this.schedulerExecutor = Executors.newSingleThreadScheduledExecutor(ThingsBoardThreadFactory.forName("transport-scheduler"));
         this.transportCallbackExecutor = Executors.newWorkStealingPool(20);
+        Metrics.gauge("tb.transport.sessions", sessions, ConcurrentMap::size);
+        Metrics.gauge("tb.transport.suspended.tenants", suspendedTenants, Set::size);
         this.schedulerExecutor.scheduleAtFixedRate(this::checkInactivityAndReportActivity, new Random().nextInt((int) sessionReportTimeout), sessionReportTimeout, TimeUnit.MILLISECONDS);
     }
 
@@ -352,6 +395,7 @@ public abstract class AbstractTransportService implements TransportService {
             perTenantLimits.clear();
             perDeviceLimits.clear();
         }
+        suspendedTenants.clear();
         if (schedulerExecutor != null) {
             schedulerExecutor.shutdownNow();
         }
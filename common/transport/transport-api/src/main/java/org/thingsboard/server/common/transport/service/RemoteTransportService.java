@@ -47,11 +47,14 @@ import org.thingsboard.server.gen.transport.TransportProtos.TransportApiResponse
 import org.thingsboard.server.gen.transport.TransportProtos.TransportToDeviceActorMsg;
 import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceCredentialsResponseMsg;
 import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceTokenRequestMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceTokensRequestMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceTokensResponseMsg;
 import org.thingsboard.server.gen.transport.TransportProtos.ValidateDeviceX509CertRequestMsg;
 import org.thingsboard.server.kafka.AsyncCallbackTemplate;
 import org.thingsboard.server.kafka.TBKafkaAdmin;
 import org.thingsboard.server.kafka.TBKafkaConsumerTemplate;
 import org.thingsboard.server.kafka.TBKafkaProducerTemplate;
+import org.thingsboard.server.kafka.TbKafkaKeyPartitioner;
 import org.thingsboard.server.kafka.TbKafkaRequestTemplate;
 import org.thingsboard.server.kafka.TbKafkaSettings;
 import org.thingsboard.server.kafka.TbNodeIdProvider;
@@ -59,6 +62,7 @@ import org.thingsboard.server.kafka.TbNodeIdProvider;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.time.Duration;
+import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -139,6 +143,7 @@ public class RemoteTransportService extends AbstractTransportService {
         ruleEngineProducerBuilder.clientId("producer-rule-engine-request-" + nodeIdProvider.getNodeId());
         ruleEngineProducerBuilder.defaultTopic(ruleEngineTopic);
         ruleEngineProducerBuilder.encoder(new ToRuleEngineMsgEncoder());
+        ruleEngineProducerBuilder.partitioner(new TbKafkaKeyPartitioner<>());
         ruleEngineProducer = ruleEngineProducerBuilder.build();
         ruleEngineProducer.init();
 
@@ -212,6 +217,15 @@ public class RemoteTransportService extends AbstractTransportService {
                 response -> callback.onSuccess(response.getValidateTokenResponseMsg()), callback::onError, transportCallbackExecutor);
     }
 
+    @Override
+    public void process(ValidateDeviceTokensRequestMsg msg, TransportServiceCallback<ValidateDeviceTokensResponseMsg> callback) {
+        log.trace("Processing msg: {}", msg);
+        String key = msg.getTokensCount() > 0 ? msg.getTokens(0) : UUID.randomUUID().toString();
+        AsyncCallbackTemplate.withCallback(transportApiTemplate.post(key,
+                TransportApiRequestMsg.newBuilder().setValidateTokensRequestMsg(msg).build()),
+                response -> callback.onSuccess(response.getValidateTokensResponseMsg()), callback::onError, transportCallbackExecutor);
+    }
+
     @Override
     public void process(ValidateDeviceX509CertRequestMsg msg, TransportServiceCallback<ValidateDeviceCredentialsResponseMsg> callback) {
         log.trace("Processing msg: {}", msg);
@@ -18,10 +18,14 @@ package org.thingsboard.server.dao.alarm;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.Function;
+import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Striped;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
@@ -55,14 +59,17 @@ import javax.annotation.PreDestroy;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static org.thingsboard.server.common.data.CacheConstants.ALARM_SEVERITY_CACHE;
 import static org.thingsboard.server.dao.service.Validator.validateId;
 
 @Service
@@ -80,6 +87,11 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
     @Autowired
     private EntityService entityService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final Striped<Lock> severityCountsLocks = Striped.lock(256);
+
     protected ExecutorService readResultsProcessingExecutor;
 
     @PostConstruct
@@ -109,7 +121,7 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
                 if (existing == null || existing.getStatus().isCleared()) {
                     return createAlarm(alarm);
                 } else {
-                    return updateAlarm(existing, alarm);
+                    return updateAlarm(existing, alarm).get();
                 }
             } else {
                 return updateAlarm(alarm).get();
@@ -131,8 +143,11 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
             if (alarm == null) {
                 return false;
             }
+            Set<EntityId> alarmEntities = getAlarmEntities(alarm);
             deleteEntityRelations(tenantId, alarm.getId());
-            return alarmDao.deleteAlarm(tenantId, alarm);
+            boolean deleted = alarmDao.deleteAlarm(tenantId, alarm);
+            evictSeverityCounts(alarmEntities);
+            return deleted;
         } catch (ExecutionException | InterruptedException e) {
             throw new RuntimeException(e);
         }
@@ -141,18 +156,22 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
     private Alarm createAlarm(Alarm alarm) throws InterruptedException, ExecutionException {
         log.debug("New Alarm : {}", alarm);
         Alarm saved = alarmDao.save(alarm.getTenantId(), alarm);
-        createAlarmRelations(saved);
+        evictSeverityCounts(createAlarmRelations(saved));
         return saved;
     }
 
-    private void createAlarmRelations(Alarm alarm) throws InterruptedException, ExecutionException {
+    private Set<EntityId> createAlarmRelations(Alarm alarm) throws InterruptedException, ExecutionException {
+        Set<EntityId> alarmEntities = new LinkedHashSet<>();
         if (alarm.isPropagate()) {
             List<EntityId> parentEntities = getParentEntities(alarm);
             for (EntityId parentId : parentEntities) {
                 createAlarmRelation(alarm.getTenantId(), parentId, alarm.getId(), alarm.getStatus(), true);
+                alarmEntities.add(parentId);
             }
         }
         createAlarmRelation(alarm.getTenantId(), alarm.getOriginator(), alarm.getId(), alarm.getStatus(), true);
+        alarmEntities.add(alarm.getOriginator());
+        return alarmEntities;
     }
 
     private List<EntityId> getParentEntities(Alarm alarm) throws InterruptedException, ExecutionException {
@@ -169,12 +188,11 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
 
     private ListenableFuture<Alarm> updateAlarm(Alarm update) {
         alarmDataValidator.validate(update, Alarm::getTenantId);
-        return getAndUpdate(update.getTenantId(), update.getId(), new Function<Alarm, Alarm>() {
-            @Nullable
+        return getAndUpdate(update.getTenantId(), update.getId(), new AsyncFunction<Alarm, Alarm>() {
             @Override
-            public Alarm apply(@Nullable Alarm alarm) {
+            public ListenableFuture<Alarm> apply(@Nullable Alarm alarm) {
                 if (alarm == null) {
-                    return null;
+                    return Futures.immediateFuture(null);
                 } else {
                     return updateAlarm(alarm, update);
                 }
@@ -182,33 +200,40 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
         });
     }
 
-    private Alarm updateAlarm(Alarm oldAlarm, Alarm newAlarm) {
+    private ListenableFuture<Alarm> updateAlarm(Alarm oldAlarm, Alarm newAlarm) {
         AlarmStatus oldStatus = oldAlarm.getStatus();
         AlarmStatus newStatus = newAlarm.getStatus();
+        AlarmSeverity oldSeverity = oldAlarm.getSeverity();
+        AlarmSeverity newSeverity = newAlarm.getSeverity();
         boolean oldPropagate = oldAlarm.isPropagate();
         boolean newPropagate = newAlarm.isPropagate();
         Alarm result = alarmDao.save(newAlarm.getTenantId(), merge(oldAlarm, newAlarm));
         if (!oldPropagate && newPropagate) {
             try {
-                createAlarmRelations(result);
+                // the alarm was related to its originator only, which is one of the created relations
+                evictSeverityCounts(createAlarmRelations(result));
             } catch (InterruptedException | ExecutionException e) {
                 log.warn("Failed to update alarm relations [{}]", result, e);
                 throw new RuntimeException(e);
             }
-        } else if (oldStatus != newStatus) {
-            updateRelations(oldAlarm, oldStatus, newStatus);
+        } else {
+            if (oldStatus != newStatus) {
+                updateRelations(oldAlarm, oldStatus, newStatus);
+            }
+            if (oldStatus != newStatus || oldSeverity != newSeverity) {
+                return evictSeverityCounts(result, result);
+            }
         }
-        return result;
+        return Futures.immediateFuture(result);
     }
 
     @Override
     public ListenableFuture<Boolean> ackAlarm(TenantId tenantId, AlarmId alarmId, long ackTime) {
-        return getAndUpdate(tenantId, alarmId, new Function<Alarm, Boolean>() {
-            @Nullable
+        return getAndUpdate(tenantId, alarmId, new AsyncFunction<Alarm, Boolean>() {
             @Override
-            public Boolean apply(@Nullable Alarm alarm) {
+            public ListenableFuture<Boolean> apply(@Nullable Alarm alarm) {
                 if (alarm == null || alarm.getStatus().isAck()) {
-                    return false;
+                    return Futures.immediateFuture(false);
                 } else {
                     AlarmStatus oldStatus = alarm.getStatus();
                     AlarmStatus newStatus = oldStatus.isCleared() ? AlarmStatus.CLEARED_ACK : AlarmStatus.ACTIVE_ACK;
@@ -216,7 +241,7 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
                     alarm.setAckTs(ackTime);
                     alarmDao.save(alarm.getTenantId(), alarm);
                     updateRelations(alarm, oldStatus, newStatus);
-                    return true;
+                    return evictSeverityCounts(alarm, true);
                 }
             }
         });
@@ -224,12 +249,11 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
 
     @Override
     public ListenableFuture<Boolean> clearAlarm(TenantId tenantId, AlarmId alarmId, JsonNode details, long clearTime) {
-        return getAndUpdate(tenantId, alarmId, new Function<Alarm, Boolean>() {
-            @Nullable
+        return getAndUpdate(tenantId, alarmId, new AsyncFunction<Alarm, Boolean>() {
             @Override
-            public Boolean apply(@Nullable Alarm alarm) {
+            public ListenableFuture<Boolean> apply(@Nullable Alarm alarm) {
                 if (alarm == null || alarm.getStatus().isCleared()) {
-                    return false;
+                    return Futures.immediateFuture(false);
                 } else {
                     AlarmStatus oldStatus = alarm.getStatus();
                     AlarmStatus newStatus = oldStatus.isAck() ? AlarmStatus.CLEARED_ACK : AlarmStatus.CLEARED_UNACK;
@@ -240,7 +264,7 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
                     }
                     alarmDao.save(alarm.getTenantId(), alarm);
                     updateRelations(alarm, oldStatus, newStatus);
-                    return true;
+                    return evictSeverityCounts(alarm, true);
                 }
             }
         });
@@ -301,6 +325,101 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
     @Override
     public AlarmSeverity findHighestAlarmSeverity(TenantId tenantId, EntityId entityId, AlarmSearchStatus alarmSearchStatus,
                                                   AlarmStatus alarmStatus) {
+        Cache cache = cacheManager.getCache(ALARM_SEVERITY_CACHE);
+        if (cache == null) {
+            return findHighestAlarmSeverityInDb(tenantId, entityId, alarmSearchStatus, alarmStatus);
+        }
+        EntityAlarmSeverityCounts counts = cache.get(entityId, EntityAlarmSeverityCounts.class);
+        if (counts == null) {
+            Lock lock = severityCountsLocks.get(entityId);
+            lock.lock();
+            try {
+                counts = cache.get(entityId, EntityAlarmSeverityCounts.class);
+                if (counts == null) {
+                    counts = loadSeverityCounts(tenantId, entityId);
+                    cache.put(entityId, counts);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return counts.getHighestSeverity(alarmSearchStatus, alarmStatus);
+    }
+
+    private EntityAlarmSeverityCounts loadSeverityCounts(TenantId tenantId, EntityId entityId) {
+        EntityAlarmSeverityCounts counts = new EntityAlarmSeverityCounts();
+        TimePageLink nextPageLink = new TimePageLink(100);
+        boolean hasNext = true;
+        while (hasNext) {
+            AlarmQuery query = new AlarmQuery(entityId, nextPageLink, AlarmSearchStatus.ANY, null, false);
+            List<AlarmInfo> alarms;
+            try {
+                alarms = alarmDao.findAlarms(tenantId, query).get();
+            } catch (ExecutionException | InterruptedException e) {
+                log.warn("Failed to load alarm severity counts. EntityId: [{}]", entityId);
+                throw new RuntimeException(e);
+            }
+            hasNext = alarms.size() == nextPageLink.getLimit();
+            if (hasNext) {
+                nextPageLink = new TimePageData<>(alarms, nextPageLink).getNextPageLink();
+            }
+            for (AlarmInfo alarm : alarms) {
+                if (alarm != null) {
+                    counts.increment(alarm.getStatus(), alarm.getSeverity());
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Evicts the cached severity counts of the entities, they are recounted from the database on the next lookup.
+     * Must be called after the alarm change is written, so a concurrent lookup can't cache the previous state.
+     * The eviction waits for a load in progress on this node; loads on other nodes are bounded by the cache ttl.
+     */
+    private void evictSeverityCounts(Set<EntityId> entityIds) {
+        Cache cache = cacheManager.getCache(ALARM_SEVERITY_CACHE);
+        if (cache == null) {
+            return;
+        }
+        for (EntityId entityId : entityIds) {
+            Lock lock = severityCountsLocks.get(entityId);
+            lock.lock();
+            try {
+                cache.evict(entityId);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Looks up the entities related to the saved alarm without blocking and evicts their severity counts.
+     * The returned future completes with the given result once the counts are evicted.
+     */
+    private <T> ListenableFuture<T> evictSeverityCounts(Alarm alarm, T result) {
+        ListenableFuture<List<EntityRelation>> relations = relationService.findByToAsync(alarm.getTenantId(), alarm.getId(), RelationTypeGroup.ALARM);
+        return Futures.transform(relations, alarmRelations -> {
+            evictSeverityCounts(toAlarmEntities(alarmRelations));
+            return result;
+        }, readResultsProcessingExecutor);
+    }
+
+    private Set<EntityId> getAlarmEntities(Alarm alarm) {
+        try {
+            return toAlarmEntities(relationService.findByToAsync(alarm.getTenantId(), alarm.getId(), RelationTypeGroup.ALARM).get());
+        } catch (ExecutionException | InterruptedException e) {
+            log.warn("[{}] Failed to find alarm relations", alarm.getId());
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Set<EntityId> toAlarmEntities(List<EntityRelation> relations) {
+        return relations.stream().map(EntityRelation::getFrom).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private AlarmSeverity findHighestAlarmSeverityInDb(TenantId tenantId, EntityId entityId, AlarmSearchStatus alarmSearchStatus,
+                                                       AlarmStatus alarmStatus) {
         TimePageLink nextPageLink = new TimePageLink(100);
         boolean hasNext = true;
         AlarmSeverity highestSeverity = null;
@@ -422,10 +541,10 @@ public class BaseAlarmService extends AbstractEntityService implements AlarmServ
         createAlarmRelation(tenantId, entityId, alarmId, newStatus, false);
     }
 
-    private <T> ListenableFuture<T> getAndUpdate(TenantId tenantId, AlarmId alarmId, Function<Alarm, T> function) {
+    private <T> ListenableFuture<T> getAndUpdate(TenantId tenantId, AlarmId alarmId, AsyncFunction<Alarm, T> function) {
         validateId(alarmId, "Alarm id should be specified!");
         ListenableFuture<Alarm> entity = alarmDao.findAlarmByIdAsync(tenantId, alarmId.getId());
-        return Futures.transform(entity, function, readResultsProcessingExecutor);
+        return Futures.transformAsync(entity, function, readResultsProcessingExecutor);
     }
 
     private DataValidator<Alarm> alarmDataValidator =
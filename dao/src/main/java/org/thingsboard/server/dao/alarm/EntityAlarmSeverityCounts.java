@@ -0,0 +1,76 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.alarm;
+
+import org.thingsboard.server.common.data.alarm.AlarmSearchStatus;
+import org.thingsboard.server.common.data.alarm.AlarmSeverity;
+import org.thingsboard.server.common.data.alarm.AlarmStatus;
+
+import java.io.Serializable;
+
+/**
+ * Number of alarms related to a single entity (originator or propagation parent)
+ * grouped by alarm status and severity.
+ */
+public class EntityAlarmSeverityCounts implements Serializable {
+
+    private static final long serialVersionUID = 6195184353129573185L;
+
+    private static final AlarmStatus[] STATUSES = AlarmStatus.values();
+    private static final AlarmSeverity[] SEVERITIES = AlarmSeverity.values();
+
+    private final long[][] counts = new long[STATUSES.length][SEVERITIES.length];
+
+    public void increment(AlarmStatus status, AlarmSeverity severity) {
+        counts[status.ordinal()][severity.ordinal()]++;
+    }
+
+    /**
+     * Severities are declared from the highest to the lowest one, so the first severity
+     * with a non-zero count among the matching statuses is the highest.
+     */
+    public AlarmSeverity getHighestSeverity(AlarmSearchStatus searchStatus, AlarmStatus status) {
+        for (AlarmSeverity severity : SEVERITIES) {
+            for (AlarmStatus alarmStatus : STATUSES) {
+                if (counts[alarmStatus.ordinal()][severity.ordinal()] > 0 && matches(alarmStatus, searchStatus, status)) {
+                    return severity;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(AlarmStatus alarmStatus, AlarmSearchStatus searchStatus, AlarmStatus status) {
+        if (searchStatus == null && status != null) {
+            return alarmStatus == status;
+        }
+        if (searchStatus == null) {
+            return true;
+        }
+        switch (searchStatus) {
+            case ACTIVE:
+                return !alarmStatus.isCleared();
+            case CLEARED:
+                return alarmStatus.isCleared();
+            case ACK:
+                return alarmStatus.isAck();
+            case UNACK:
+                return !alarmStatus.isAck();
+            default:
+                return true;
+        }
+    }
+}
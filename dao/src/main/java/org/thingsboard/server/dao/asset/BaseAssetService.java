@@ -60,6 +60,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 import static org.thingsboard.server.common.data.CacheConstants.ASSET_CACHE;
+import static org.thingsboard.server.common.data.CacheConstants.ENTITY_OWNERSHIP_CACHE;
 import static org.thingsboard.server.dao.DaoUtil.toUUIDs;
 import static org.thingsboard.server.dao.model.ModelConstants.NULL_UUID;
 import static org.thingsboard.server.dao.service.Validator.*;
@@ -130,6 +131,9 @@ public class BaseAssetService extends AbstractEntityService implements AssetServ
                 }
             }
         }
+        if (asset.getId() != null) {
+            cacheManager.getCache(ENTITY_OWNERSHIP_CACHE).evict(asset.getId().getId());
+        }
         return savedAsset;
     }
 
@@ -171,6 +175,7 @@ public class BaseAssetService extends AbstractEntityService implements AssetServ
         cache.evict(list);
 
         assetDao.removeById(tenantId, assetId.getId());
+        cacheManager.getCache(ENTITY_OWNERSHIP_CACHE).evict(assetId.getId());
     }
 
     @Override
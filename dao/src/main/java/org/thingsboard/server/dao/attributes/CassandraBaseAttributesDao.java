@@ -40,7 +40,9 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -97,6 +99,18 @@ public class CassandraBaseAttributesDao extends CassandraAbstractAsyncDao implem
         }, readResultsProcessingExecutor);
     }
 
+    @Override
+    public ListenableFuture<Map<EntityId, List<AttributeKvEntry>>> find(TenantId tenantId, List<EntityId> entityIds, String attributeType, Collection<String> attributeKeys) {
+        List<ListenableFuture<List<AttributeKvEntry>>> entries = new ArrayList<>(entityIds.size());
+        entityIds.forEach(entityId -> entries.add(find(tenantId, entityId, attributeType, attributeKeys)));
+        return Futures.transform(Futures.allAsList(entries), input -> {
+            Map<EntityId, List<AttributeKvEntry>> result = new HashMap<>();
+            for (int i = 0; i < entityIds.size(); i++) {
+                result.put(entityIds.get(i), input.get(i));
+            }
+            return result;
+        }, readResultsProcessingExecutor);
+    }
 
     @Override
     public ListenableFuture<List<AttributeKvEntry>> findAll(TenantId tenantId, EntityId entityId, String attributeType) {
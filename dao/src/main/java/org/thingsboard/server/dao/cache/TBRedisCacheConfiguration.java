@@ -34,6 +34,13 @@ import org.springframework.util.Assert;
 import org.thingsboard.server.common.data.id.EntityId;
 import redis.clients.jedis.JedisPoolConfig;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.thingsboard.server.common.data.CacheConstants.ALARM_SEVERITY_CACHE;
+import static org.thingsboard.server.common.data.CacheConstants.ENTITY_OWNERSHIP_CACHE;
+
 @Configuration
 @ConditionalOnProperty(prefix = "cache", value = "type", havingValue = "redis", matchIfMissing = false)
 @EnableCaching
@@ -73,6 +80,12 @@ public abstract class TBRedisCacheConfiguration {
     @Value("${redis.pool_config.blockWhenExhausted}")
     private boolean blockWhenExhausted;
 
+    @Value("${redis.ttl.alarmSeverities:60}")
+    private long alarmSeveritiesTtlSeconds;
+
+    @Value("${redis.ttl.entityOwnerships:60}")
+    private long entityOwnershipsTtlSeconds;
+
     @Bean
     public RedisConnectionFactory redisConnectionFactory() {
         return loadFactory();
@@ -86,7 +99,10 @@ public abstract class TBRedisCacheConfiguration {
         RedisCacheConfiguration.registerDefaultConverters(redisConversionService);
         registerDefaultConverters(redisConversionService);
         RedisCacheConfiguration configuration = RedisCacheConfiguration.defaultCacheConfig().withConversionService(redisConversionService);
-        return RedisCacheManager.builder(cf).cacheDefaults(configuration).build();
+        Map<String, RedisCacheConfiguration> expiringCaches = new HashMap<>();
+        expiringCaches.put(ALARM_SEVERITY_CACHE, configuration.entryTtl(Duration.ofSeconds(alarmSeveritiesTtlSeconds)));
+        expiringCaches.put(ENTITY_OWNERSHIP_CACHE, configuration.entryTtl(Duration.ofSeconds(entityOwnershipsTtlSeconds)));
+        return RedisCacheManager.builder(cf).cacheDefaults(configuration).withInitialCacheConfigurations(expiringCaches).build();
     }
 
     @Bean
@@ -26,9 +26,11 @@ import org.thingsboard.server.dao.model.nosql.DeviceCredentialsEntity;
 import org.thingsboard.server.dao.nosql.CassandraAbstractModelDao;
 import org.thingsboard.server.dao.util.NoSqlDao;
 
+import java.util.List;
 import java.util.UUID;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.in;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
 
 @Component
@@ -67,4 +69,13 @@ public class CassandraDeviceCredentialsDao extends CassandraAbstractModelDao<Dev
         log.trace("Found device credentials [{}] by credentialsId [{}]", deviceCredentialsEntity, credentialsId);
         return DaoUtil.getData(deviceCredentialsEntity);
     }
+
+    @Override
+    public List<DeviceCredentials> findByCredentialsIdIn(TenantId tenantId, List<String> credentialsIds) {
+        log.debug("Try to find device credentials by credentialsIds [{}] ", credentialsIds);
+        Where query = select().from(ModelConstants.DEVICE_CREDENTIALS_BY_CREDENTIALS_ID_COLUMN_FAMILY_NAME)
+                .where(in(ModelConstants.DEVICE_CREDENTIALS_CREDENTIALS_ID_PROPERTY, credentialsIds));
+        log.trace("Execute query {}", query);
+        return DaoUtil.convertDataList(findListByStatement(tenantId, query));
+    }
 }
@@ -117,6 +117,13 @@ public class CassandraDeviceDao extends CassandraAbstractSearchTextDao<DeviceEnt
         return findListByStatementAsync(new TenantId(tenantId), query);
     }
 
+    @Override
+    public ListenableFuture<List<Device>> findDevicesByIdsAsync(List<UUID> deviceIds) {
+        log.debug("Try to find devices by device Ids [{}]", deviceIds);
+        Select.Where query = select().from(getColumnFamilyName()).where(in(ID_PROPERTY, deviceIds));
+        return findListByStatementAsync(TenantId.SYS_TENANT_ID, query);
+    }
+
     @Override
     public List<Device> findDevicesByTenantIdAndCustomerId(UUID tenantId, UUID customerId, TextPageLink pageLink) {
         log.debug("Try to find devices by tenantId [{}], customerId[{}] and pageLink [{}]", tenantId, customerId, pageLink);
@@ -19,6 +19,7 @@ import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.security.DeviceCredentials;
 import org.thingsboard.server.dao.Dao;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -51,4 +52,12 @@ public interface DeviceCredentialsDao extends Dao<DeviceCredentials> {
      */
     DeviceCredentials findByCredentialsId(TenantId tenantId, String credentialsId);
 
+    /**
+     * Find device credentials by credentials ids.
+     *
+     * @param credentialsIds the credentials ids
+     * @return the list of device credentials objects, unknown credentials ids are skipped
+     */
+    List<DeviceCredentials> findByCredentialsIdIn(TenantId tenantId, List<String> credentialsIds);
+
 }
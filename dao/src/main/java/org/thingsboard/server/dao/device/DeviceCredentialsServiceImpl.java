@@ -34,6 +34,8 @@ import org.thingsboard.server.dao.entity.AbstractEntityService;
 import org.thingsboard.server.dao.exception.DataValidationException;
 import org.thingsboard.server.dao.service.DataValidator;
 
+import java.util.List;
+
 import static org.thingsboard.server.common.data.CacheConstants.DEVICE_CREDENTIALS_CACHE;
 import static org.thingsboard.server.dao.service.Validator.validateId;
 import static org.thingsboard.server.dao.service.Validator.validateString;
@@ -63,6 +65,13 @@ public class DeviceCredentialsServiceImpl extends AbstractEntityService implemen
         return deviceCredentialsDao.findByCredentialsId(new TenantId(EntityId.NULL_UUID), credentialsId);
     }
 
+    @Override
+    public List<DeviceCredentials> findDeviceCredentialsByCredentialsIds(List<String> credentialsIds) {
+        log.trace("Executing findDeviceCredentialsByCredentialsIds [{}]", credentialsIds);
+        credentialsIds.forEach(credentialsId -> validateString(credentialsId, "Incorrect credentialsId " + credentialsId));
+        return deviceCredentialsDao.findByCredentialsIdIn(new TenantId(EntityId.NULL_UUID), credentialsIds);
+    }
+
     @Override
     @CacheEvict(cacheNames = DEVICE_CREDENTIALS_CACHE, keyGenerator = "previousDeviceCredentialsId", beforeInvocation = true)
     public DeviceCredentials updateDeviceCredentials(TenantId tenantId, DeviceCredentials deviceCredentials) {
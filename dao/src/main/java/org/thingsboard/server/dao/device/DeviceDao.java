@@ -68,6 +68,14 @@ public interface DeviceDao extends Dao<Device> {
      */
     ListenableFuture<List<Device>> findDevicesByTenantIdAndIdsAsync(UUID tenantId, List<UUID> deviceIds);
 
+    /**
+     * Find devices of any tenant by devices Ids.
+     *
+     * @param deviceIds the device Ids
+     * @return the list of device objects
+     */
+    ListenableFuture<List<Device>> findDevicesByIdsAsync(List<UUID> deviceIds);
+
     /**
      * Find devices by tenantId, customerId and page link.
      *
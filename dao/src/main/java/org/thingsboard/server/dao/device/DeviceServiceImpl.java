@@ -63,6 +63,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 import static org.thingsboard.server.common.data.CacheConstants.DEVICE_CACHE;
+import static org.thingsboard.server.common.data.CacheConstants.ENTITY_OWNERSHIP_CACHE;
 import static org.thingsboard.server.dao.DaoUtil.toUUIDs;
 import static org.thingsboard.server.dao.model.ModelConstants.NULL_UUID;
 import static org.thingsboard.server.dao.service.Validator.validateId;
@@ -149,7 +150,9 @@ public class DeviceServiceImpl extends AbstractEntityService implements DeviceSe
                 }
             }
         }
-        if (device.getId() == null) {
+        if (device.getId() != null) {
+            cacheManager.getCache(ENTITY_OWNERSHIP_CACHE).evict(device.getId().getId());
+        } else {
             DeviceCredentials deviceCredentials = new DeviceCredentials();
             deviceCredentials.setDeviceId(new DeviceId(savedDevice.getUuidId()));
             deviceCredentials.setCredentialsType(DeviceCredentialsType.ACCESS_TOKEN);
@@ -202,6 +205,7 @@ public class DeviceServiceImpl extends AbstractEntityService implements DeviceSe
         cache.evict(list);
 
         deviceDao.removeById(tenantId, deviceId.getId());
+        cacheManager.getCache(ENTITY_OWNERSHIP_CACHE).evict(deviceId.getId());
     }
 
     @Override
@@ -231,6 +235,13 @@ public class DeviceServiceImpl extends AbstractEntityService implements DeviceSe
         return deviceDao.findDevicesByTenantIdAndIdsAsync(tenantId.getId(), toUUIDs(deviceIds));
     }
 
+    @Override
+    public ListenableFuture<List<Device>> findDevicesByIdsAsync(TenantId tenantId, List<DeviceId> deviceIds) {
+        log.trace("Executing findDevicesByIdsAsync, deviceIds [{}]", deviceIds);
+        validateIds(deviceIds, "Incorrect deviceIds " + deviceIds);
+        return deviceDao.findDevicesByIdsAsync(toUUIDs(deviceIds));
+    }
+
 
     @Override
     public void deleteDevicesByTenantId(TenantId tenantId) {
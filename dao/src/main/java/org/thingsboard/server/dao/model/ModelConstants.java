@@ -356,6 +356,7 @@ public class ModelConstants {
     public static final String TS_KV_CF = "ts_kv_cf";
     public static final String TS_KV_PARTITIONS_CF = "ts_kv_partitions_cf";
     public static final String TS_KV_LATEST_CF = "ts_kv_latest_cf";
+    public static final String TS_KV_ROLLUP_CF = "ts_kv_rollup_cf";
 
     public static final String PARTITION_COLUMN = "partition";
     public static final String KEY_COLUMN = "key";
@@ -369,6 +370,22 @@ public class ModelConstants {
     public static final String LONG_VALUE_COLUMN = "long_v";
     public static final String DOUBLE_VALUE_COLUMN = "dbl_v";
 
+    /**
+     * Cassandra timeseries rollup constants.
+     */
+    public static final String ROLLUP_INTERVAL_COLUMN = "rollup_interval";
+    public static final String ROLLUP_UID_COLUMN = "uid";
+    public static final String ROLLUP_LONG_COUNT_COLUMN = "long_cnt";
+    public static final String ROLLUP_DOUBLE_COUNT_COLUMN = "dbl_cnt";
+    public static final String ROLLUP_BOOLEAN_COUNT_COLUMN = "bool_cnt";
+    public static final String ROLLUP_STRING_COUNT_COLUMN = "str_cnt";
+    public static final String ROLLUP_LONG_SUM_COLUMN = "long_sum";
+    public static final String ROLLUP_DOUBLE_SUM_COLUMN = "dbl_sum";
+    public static final String ROLLUP_LONG_MIN_COLUMN = "long_min";
+    public static final String ROLLUP_DOUBLE_MIN_COLUMN = "dbl_min";
+    public static final String ROLLUP_LONG_MAX_COLUMN = "long_max";
+    public static final String ROLLUP_DOUBLE_MAX_COLUMN = "dbl_max";
+
     protected static final String[] NONE_AGGREGATION_COLUMNS = new String[]{LONG_VALUE_COLUMN, DOUBLE_VALUE_COLUMN, BOOLEAN_VALUE_COLUMN, STRING_VALUE_COLUMN, KEY_COLUMN, TS_COLUMN};
 
     protected static final String[] COUNT_AGGREGATION_COLUMNS = new String[]{count(LONG_VALUE_COLUMN), count(DOUBLE_VALUE_COLUMN), count(BOOLEAN_VALUE_COLUMN), count(STRING_VALUE_COLUMN)};
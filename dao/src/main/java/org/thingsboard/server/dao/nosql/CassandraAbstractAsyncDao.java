@@ -17,6 +17,7 @@ package org.thingsboard.server.dao.nosql;
 
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Row;
 import com.google.common.base.Function;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -25,6 +26,8 @@ import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -56,4 +59,24 @@ public abstract class CassandraAbstractAsyncDao extends CassandraAbstractDao {
             }
         }, readResultsProcessingExecutor);
     }
+
+    /**
+     * Converts rows page by page, requesting the next page asynchronously instead of blocking in {@link ResultSet#all()}.
+     */
+    protected <T> ListenableFuture<List<T>> getAllPagesFuture(ListenableFuture<ResultSet> future, java.util.function.Function<Row, T> mapper) {
+        return Futures.transformAsync(future, rs -> fetchPages(rs, mapper, new ArrayList<>()), readResultsProcessingExecutor);
+    }
+
+    private <T> ListenableFuture<List<T>> fetchPages(ResultSet rs, java.util.function.Function<Row, T> mapper, List<T> result) {
+        if (rs == null) {
+            return Futures.immediateFuture(result);
+        }
+        for (int available = rs.getAvailableWithoutFetching(); available > 0; available--) {
+            result.add(mapper.apply(rs.one()));
+        }
+        if (rs.isFullyFetched()) {
+            return Futures.immediateFuture(result);
+        }
+        return Futures.transformAsync(rs.fetchMoreResults(), next -> fetchPages(next, mapper, result), readResultsProcessingExecutor);
+    }
 }
@@ -28,6 +28,7 @@ import org.thingsboard.server.dao.entity.EntityService;
 import org.thingsboard.server.dao.util.AbstractBufferedRateExecutor;
 import org.thingsboard.server.dao.util.AsyncTaskContext;
 import org.thingsboard.server.dao.util.NoSqlAnyDao;
+import org.thingsboard.server.dao.util.TenantWaitStats;
 
 import javax.annotation.PreDestroy;
 import java.util.HashMap;
@@ -41,6 +42,8 @@ import java.util.Map;
 @NoSqlAnyDao
 public class CassandraBufferedRateExecutor extends AbstractBufferedRateExecutor<CassandraStatementTask, ResultSetFuture, ResultSet> {
 
+    private static final int TENANT_STATS_TOP_SIZE = 10;
+
     @Autowired
     private EntityService entityService;
     private Map<TenantId, String> tenantNamesCache = new HashMap<>();
@@ -53,12 +56,12 @@ public class CassandraBufferedRateExecutor extends AbstractBufferedRateExecutor<
             @Value("${cassandra.query.permit_max_wait_time}") long maxWaitTime,
             @Value("${cassandra.query.dispatcher_threads:2}") int dispatcherThreads,
             @Value("${cassandra.query.callback_threads:4}") int callbackThreads,
-            @Value("${cassandra.query.poll_ms:50}") long pollMs,
+            @Value("${cassandra.query.tenant_quantum:16}") int tenantQuantum,
             @Value("${cassandra.query.tenant_rate_limits.enabled}") boolean tenantRateLimitsEnabled,
             @Value("${cassandra.query.tenant_rate_limits.configuration}") String tenantRateLimitsConfiguration,
             @Value("${cassandra.query.tenant_rate_limits.print_tenant_names}") boolean printTenantNames,
             @Value("${cassandra.query.print_queries_freq:0}") int printQueriesFreq) {
-        super(queueLimit, concurrencyLimit, maxWaitTime, dispatcherThreads, callbackThreads, pollMs, tenantRateLimitsEnabled, tenantRateLimitsConfiguration, printQueriesFreq);
+        super(queueLimit, concurrencyLimit, maxWaitTime, dispatcherThreads, callbackThreads, tenantQuantum, tenantRateLimitsEnabled, tenantRateLimitsConfiguration, printQueriesFreq);
         this.printTenantNames = printTenantNames;
     }
 
@@ -99,6 +102,14 @@ public class CassandraBufferedRateExecutor extends AbstractBufferedRateExecutor<
             }
         }));
         rateLimitedTenants.clear();
+
+        Map<TenantId, Integer> tenantQueueSizes = getTenantQueueSizes();
+        Map<TenantId, TenantWaitStats> waitStats = new HashMap<>(tenantWaitStats);
+        tenantWaitStats.clear();
+        waitStats.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().getMaxWaitMs(), a.getValue().getMaxWaitMs()))
+                .limit(TENANT_STATS_TOP_SIZE)
+                .forEach(e -> log.info("[{}] Permits tenant queueSize [{}] wait {}", e.getKey(), tenantQueueSizes.getOrDefault(e.getKey(), 0), e.getValue()));
     }
 
     @PreDestroy
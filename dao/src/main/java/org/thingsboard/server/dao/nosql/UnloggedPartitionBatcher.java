@@ -0,0 +1,91 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.nosql;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.Statement;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups statements by the partition they write to and packs statements of the same partition
+ * into unlogged batches, limited by the number of statements and by the estimated size.
+ * Such batches are applied by the replicas of a single partition, without the batch log.
+ */
+public class UnloggedPartitionBatcher {
+
+    private final int maxStatements;
+    private final int maxSizeBytes;
+    private final Map<Object, List<Statement>> statements = new LinkedHashMap<>();
+    private final Map<Object, List<Integer>> sizes = new LinkedHashMap<>();
+    private int count;
+
+    public UnloggedPartitionBatcher(int maxStatements, int maxSizeBytes) {
+        this.maxStatements = Math.max(1, maxStatements);
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    public void add(Object partitionKey, Statement statement, int estimatedSizeBytes) {
+        statements.computeIfAbsent(partitionKey, k -> new ArrayList<>()).add(statement);
+        sizes.computeIfAbsent(partitionKey, k -> new ArrayList<>()).add(estimatedSizeBytes);
+        count++;
+    }
+
+    /**
+     * @return number of statements added to the batcher
+     */
+    public int getStatementsCount() {
+        return count;
+    }
+
+    /**
+     * @return statements to execute, either single statements or unlogged batches
+     */
+    public List<Statement> build() {
+        List<Statement> result = new ArrayList<>();
+        statements.forEach((partitionKey, partitionStatements) -> {
+            List<Integer> partitionSizes = sizes.get(partitionKey);
+            List<Statement> chunk = new ArrayList<>();
+            int chunkSize = 0;
+            for (int i = 0; i < partitionStatements.size(); i++) {
+                int size = partitionSizes.get(i);
+                if (!chunk.isEmpty() && (chunk.size() >= maxStatements || chunkSize + size > maxSizeBytes)) {
+                    result.add(toStatement(chunk));
+                    chunk = new ArrayList<>();
+                    chunkSize = 0;
+                }
+                chunk.add(partitionStatements.get(i));
+                chunkSize += size;
+            }
+            if (!chunk.isEmpty()) {
+                result.add(toStatement(chunk));
+            }
+        });
+        return result;
+    }
+
+    private static Statement toStatement(List<Statement> chunk) {
+        if (chunk.size() == 1) {
+            return chunk.get(0);
+        }
+        BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+        batch.addAll(chunk);
+        return batch;
+    }
+}
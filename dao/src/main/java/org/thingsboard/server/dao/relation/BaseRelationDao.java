@@ -23,6 +23,7 @@ import com.datastax.driver.core.Row;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.core.querybuilder.Select;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -92,6 +93,13 @@ public class BaseRelationDao extends CassandraAbstractAsyncDao implements Relati
         return executeAsyncRead(tenantId, from, stmt);
     }
 
+    @Override
+    public ListenableFuture<List<EntityRelation>> findAllByFromIn(TenantId tenantId, List<EntityId> from, RelationTypeGroup typeGroup) {
+        List<ListenableFuture<List<EntityRelation>>> futures = new ArrayList<>(from.size());
+        from.forEach(entityId -> futures.add(findAllByFrom(tenantId, entityId, typeGroup)));
+        return mergeRelations(futures);
+    }
+
     @Override
     public ListenableFuture<List<EntityRelation>> findAllByFromAndType(TenantId tenantId, EntityId from, String relationType, RelationTypeGroup typeGroup) {
         BoundStatement stmt = getFindAllByFromAndTypeStmt().bind()
@@ -111,6 +119,21 @@ public class BaseRelationDao extends CassandraAbstractAsyncDao implements Relati
         return executeAsyncRead(tenantId, to, stmt);
     }
 
+    @Override
+    public ListenableFuture<List<EntityRelation>> findAllByToIn(TenantId tenantId, List<EntityId> to, RelationTypeGroup typeGroup) {
+        List<ListenableFuture<List<EntityRelation>>> futures = new ArrayList<>(to.size());
+        to.forEach(entityId -> futures.add(findAllByTo(tenantId, entityId, typeGroup)));
+        return mergeRelations(futures);
+    }
+
+    private ListenableFuture<List<EntityRelation>> mergeRelations(List<ListenableFuture<List<EntityRelation>>> futures) {
+        return Futures.transform(Futures.allAsList(futures), relationLists -> {
+            List<EntityRelation> relations = new ArrayList<>();
+            relationLists.forEach(relations::addAll);
+            return relations;
+        });
+    }
+
     @Override
     public ListenableFuture<List<EntityRelation>> findAllByToAndType(TenantId tenantId, EntityId to, String relationType, RelationTypeGroup typeGroup) {
         BoundStatement stmt = getFindAllByToAndTypeStmt().bind()
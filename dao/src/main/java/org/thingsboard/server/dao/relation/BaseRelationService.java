@@ -41,8 +41,10 @@ import org.thingsboard.server.dao.exception.DataValidationException;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
@@ -571,52 +573,88 @@ public class BaseRelationService implements RelationService {
 
     private ListenableFuture<Set<EntityRelation>> findRelationsRecursively(final TenantId tenantId, final EntityId rootId, final EntitySearchDirection direction,
                                                                            RelationTypeGroup relationTypeGroup, int lvl, boolean fetchLastLevelOnly,
-                                                                           final ConcurrentHashMap<EntityId, Boolean> uniqueMap) throws Exception {
-        if (lvl == 0) {
-            return Futures.immediateFuture(Collections.emptySet());
+                                                                           final ConcurrentHashMap<EntityId, Boolean> uniqueMap) {
+        if (relationTypeGroup == null) {
+            relationTypeGroup = RelationTypeGroup.COMMON;
         }
-        lvl--;
-        //TODO: try to remove this blocking operation
-        Set<EntityRelation> children = new HashSet<>(findRelations(tenantId, rootId, direction, relationTypeGroup).get());
-        Set<EntityId> childrenIds = new HashSet<>();
-        for (EntityRelation childRelation : children) {
-            log.trace("Found Relation: {}", childRelation);
-            EntityId childId;
-            if (direction == EntitySearchDirection.FROM) {
-                childId = childRelation.getTo();
-            } else {
-                childId = childRelation.getFrom();
-            }
-            if (uniqueMap.putIfAbsent(childId, Boolean.TRUE) == null) {
-                log.trace("Adding Relation: {}", childId);
-                if (childrenIds.add(childId)) {
-                    log.trace("Added Relation: {}", childId);
+        return findRelationsByLevel(tenantId, Collections.singletonList(rootId), direction, relationTypeGroup, lvl, fetchLastLevelOnly, uniqueMap, new HashSet<>());
+    }
+
+    /**
+     * Breadth-first traversal that fetches relations of the whole level at once,
+     * so the number of DAO queries depends on the depth of the tree and not on its size.
+     */
+    private ListenableFuture<Set<EntityRelation>> findRelationsByLevel(final TenantId tenantId, final List<EntityId> parentIds, final EntitySearchDirection direction,
+                                                                       final RelationTypeGroup relationTypeGroup, int lvl, boolean fetchLastLevelOnly,
+                                                                       final ConcurrentHashMap<EntityId, Boolean> uniqueMap, final Set<EntityRelation> result) {
+        if (lvl == 0 || parentIds.isEmpty()) {
+            return Futures.immediateFuture(result);
+        }
+        final int nextLvl = lvl - 1;
+        return Futures.transformAsync(findRelations(tenantId, parentIds, direction, relationTypeGroup), children -> {
+            List<EntityId> childrenIds = new ArrayList<>();
+            for (EntityRelation childRelation : children) {
+                log.trace("Found Relation: {}", childRelation);
+                EntityId childId;
+                if (direction == EntitySearchDirection.FROM) {
+                    childId = childRelation.getTo();
+                } else {
+                    childId = childRelation.getFrom();
+                }
+                if (uniqueMap.putIfAbsent(childId, Boolean.TRUE) == null) {
+                    log.trace("Adding Relation: {}", childId);
+                    childrenIds.add(childId);
                 }
             }
-        }
-        List<ListenableFuture<Set<EntityRelation>>> futures = new ArrayList<>();
-        for (EntityId entityId : childrenIds) {
-            futures.add(findRelationsRecursively(tenantId, entityId, direction, relationTypeGroup, lvl, fetchLastLevelOnly, uniqueMap));
-        }
-        //TODO: try to remove this blocking operation
-        List<Set<EntityRelation>> relations = Futures.successfulAsList(futures).get();
-        if (fetchLastLevelOnly && lvl > 0){
-            children.clear();
-        }
-        relations.forEach(r -> r.forEach(children::add));
-        return Futures.immediateFuture(children);
+            if (!fetchLastLevelOnly || nextLvl == 0) {
+                result.addAll(children);
+            }
+            return findRelationsByLevel(tenantId, childrenIds, direction, relationTypeGroup, nextLvl, fetchLastLevelOnly, uniqueMap, result);
+        });
     }
 
-    private ListenableFuture<List<EntityRelation>> findRelations(final TenantId tenantId, final EntityId rootId, final EntitySearchDirection direction, RelationTypeGroup relationTypeGroup) {
-        ListenableFuture<List<EntityRelation>> relations;
-        if (relationTypeGroup == null) {
-            relationTypeGroup = RelationTypeGroup.COMMON;
+    private ListenableFuture<List<EntityRelation>> findRelations(final TenantId tenantId, final List<EntityId> rootIds, final EntitySearchDirection direction, RelationTypeGroup relationTypeGroup) {
+        Cache cache = cacheManager.getCache(RELATIONS_CACHE);
+        List<EntityRelation> relations = new ArrayList<>();
+        List<EntityId> notCachedIds = new ArrayList<>();
+        for (EntityId rootId : rootIds) {
+            List<EntityRelation> fromCache = cache.get(getRelationsCacheKey(rootId, relationTypeGroup, direction), List.class);
+            if (fromCache != null) {
+                relations.addAll(fromCache);
+            } else {
+                notCachedIds.add(rootId);
+            }
+        }
+        if (notCachedIds.isEmpty()) {
+            return Futures.immediateFuture(relations);
         }
+        ListenableFuture<List<EntityRelation>> relationsFuture;
         if (direction == EntitySearchDirection.FROM) {
-            relations = findByFromAsync(tenantId, rootId, relationTypeGroup);
+            relationsFuture = relationDao.findAllByFromIn(tenantId, notCachedIds, relationTypeGroup);
         } else {
-            relations = findByToAsync(tenantId, rootId, relationTypeGroup);
+            relationsFuture = relationDao.findAllByToIn(tenantId, notCachedIds, relationTypeGroup);
         }
-        return relations;
+        return Futures.transform(relationsFuture, fetched -> {
+            Map<EntityId, List<EntityRelation>> relationsByEntity = new HashMap<>();
+            notCachedIds.forEach(id -> relationsByEntity.put(id, new ArrayList<>()));
+            for (EntityRelation relation : fetched) {
+                EntityId rootId = direction == EntitySearchDirection.FROM ? relation.getFrom() : relation.getTo();
+                List<EntityRelation> entityRelations = relationsByEntity.get(rootId);
+                if (entityRelations != null) {
+                    entityRelations.add(relation);
+                }
+            }
+            relationsByEntity.forEach((id, entityRelations) -> cache.putIfAbsent(getRelationsCacheKey(id, relationTypeGroup, direction), entityRelations));
+            relations.addAll(fetched);
+            return relations;
+        });
+    }
+
+    private List<Object> getRelationsCacheKey(EntityId entityId, RelationTypeGroup typeGroup, EntitySearchDirection direction) {
+        List<Object> key = new ArrayList<>();
+        key.add(entityId);
+        key.add(typeGroup);
+        key.add(direction.name());
+        return key;
     }
 }
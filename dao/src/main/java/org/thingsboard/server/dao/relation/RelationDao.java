@@ -32,10 +32,14 @@ public interface RelationDao {
 
     ListenableFuture<List<EntityRelation>> findAllByFrom(TenantId tenantId, EntityId from, RelationTypeGroup typeGroup);
 
+    ListenableFuture<List<EntityRelation>> findAllByFromIn(TenantId tenantId, List<EntityId> from, RelationTypeGroup typeGroup);
+
     ListenableFuture<List<EntityRelation>> findAllByFromAndType(TenantId tenantId, EntityId from, String relationType, RelationTypeGroup typeGroup);
 
     ListenableFuture<List<EntityRelation>> findAllByTo(TenantId tenantId, EntityId to, RelationTypeGroup typeGroup);
 
+    ListenableFuture<List<EntityRelation>> findAllByToIn(TenantId tenantId, List<EntityId> to, RelationTypeGroup typeGroup);
+
     ListenableFuture<List<EntityRelation>> findAllByToAndType(TenantId tenantId, EntityId to, String relationType, RelationTypeGroup typeGroup);
 
     ListenableFuture<Boolean> checkRelation(TenantId tenantId, EntityId from, EntityId to, String relationType, RelationTypeGroup typeGroup);
@@ -17,6 +17,10 @@ package org.thingsboard.server.dao.sql;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
 
@@ -60,6 +64,12 @@ public class TbSqlBlockingQueue<E> implements TbSqlQueue<E> {
     @Override
     public void init(ScheduledLogExecutorComponent logExecutor, Consumer<List<E>> saveFunction) {
         this.logExecutor = logExecutor;
+        // 注册到全局指标库，应用启用Prometheus时可通过/actuator/prometheus查看
+        Tags tags = Tags.of("queue", params.getLogName());
+        Metrics.gauge("tb.sql.queue.size", tags, queue, BlockingQueue::size);
+        Counter savedCounter = Metrics.counter("tb.sql.queue.saved", tags);
+        Counter failedCounter = Metrics.counter("tb.sql.queue.failed", tags);
+        Timer saveTimer = Metrics.timer("tb.sql.queue.save", tags);
         executor = Executors.newSingleThreadExecutor(ThingsBoardThreadFactory.forName("sql-queue-" + params.getLogName().toLowerCase()));
         executor.submit(() -> {
             String logName = params.getLogName();
@@ -81,11 +91,14 @@ public class TbSqlBlockingQueue<E> implements TbSqlQueue<E> {
                     boolean fullPack = entities.size() == batchSize;
                     log.debug("[{}] Going to save {} entities", logName, entities.size());
                     // 保存实体类（时序数据），把List<Entity>作为参数传过去批处理保存，保存方法在{@code JpaTimeserisDao}中实现
+                    long saveStart = System.nanoTime();
                     saveFunction.accept(entities.stream().map(TbSqlQueueElement::getEntity).collect(Collectors.toList()));
+                    saveTimer.record(System.nanoTime() - saveStart, TimeUnit.NANOSECONDS);
                     // 设置entities的Future返回值为null
                     entities.forEach(v -> v.getFuture().set(null));
                     // 记录保存成功的实体数量
                     savedCount.addAndGet(entities.size());
+                    savedCounter.increment(entities.size());
                     // 控制每个批次保存时间在maxDelay以内
                     if (!fullPack) {
                         long remainingDelay = maxDelay - (System.currentTimeMillis() - currentTs);
@@ -95,6 +108,7 @@ public class TbSqlBlockingQueue<E> implements TbSqlQueue<E> {
                     }
                 } catch (Exception e) {
                     failedCount.addAndGet(entities.size());
+                    failedCounter.increment(entities.size());
                     // 设置entity执行失败的异常
                     entities.forEach(entityFutureWrapper -> entityFutureWrapper.getFuture().setException(e));
                     if (e instanceof InterruptedException) {
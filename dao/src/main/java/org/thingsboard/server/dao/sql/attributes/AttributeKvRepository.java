@@ -23,6 +23,7 @@ import org.thingsboard.server.dao.model.sql.AttributeKvCompositeKey;
 import org.thingsboard.server.dao.model.sql.AttributeKvEntity;
 import org.thingsboard.server.dao.util.SqlDao;
 
+import java.util.Collection;
 import java.util.List;
 
 @SqlDao
@@ -34,5 +35,14 @@ public interface AttributeKvRepository extends CrudRepository<AttributeKvEntity,
     List<AttributeKvEntity> findAllByEntityTypeAndEntityIdAndAttributeType(@Param("entityType") EntityType entityType,
                                                                            @Param("entityId") String entityId,
                                                                            @Param("attributeType") String attributeType);
+
+    @Query("SELECT a FROM AttributeKvEntity a WHERE a.id.entityType = :entityType " +
+            "AND a.id.entityId IN :entityIds " +
+            "AND a.id.attributeType = :attributeType " +
+            "AND a.id.attributeKey IN :attributeKeys")
+    List<AttributeKvEntity> findAllByEntityTypeAndEntityIdInAndAttributeTypeAndAttributeKeyIn(@Param("entityType") EntityType entityType,
+                                                                                              @Param("entityIds") Collection<String> entityIds,
+                                                                                              @Param("attributeType") String attributeType,
+                                                                                              @Param("attributeKeys") Collection<String> attributeKeys);
 }
 
@@ -22,6 +22,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.UUIDConverter;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
@@ -38,8 +39,11 @@ import org.thingsboard.server.dao.util.SqlDao;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -50,6 +54,8 @@ import static org.thingsboard.server.common.data.UUIDConverter.fromTimeUUID;
 @SqlDao
 public class JpaAttributeDao extends JpaAbstractDaoListeningExecutorService implements AttributesDao {
 
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
     @Autowired
     ScheduledLogExecutorComponent logExecutor;
 
@@ -109,6 +115,26 @@ public class JpaAttributeDao extends JpaAbstractDaoListeningExecutorService impl
                 DaoUtil.convertDataList(Lists.newArrayList(attributeKvRepository.findAllById(compositeKeys))));
     }
 
+    @Override
+    public ListenableFuture<Map<EntityId, List<AttributeKvEntry>>> find(TenantId tenantId, List<EntityId> entityIds, String attributeType, Collection<String> attributeKeys) {
+        Map<EntityType, Map<String, EntityId>> idsByType = new HashMap<>();
+        for (EntityId entityId : entityIds) {
+            idsByType.computeIfAbsent(entityId.getEntityType(), type -> new HashMap<>()).put(fromTimeUUID(entityId.getId()), entityId);
+        }
+        Map<EntityId, List<AttributeKvEntry>> result = new HashMap<>();
+        entityIds.forEach(entityId -> result.put(entityId, new ArrayList<>()));
+        idsByType.forEach((entityType, ids) -> {
+            for (List<String> partition : Lists.partition(new ArrayList<>(ids.keySet()), MAX_IN_CLAUSE_SIZE)) {
+                List<AttributeKvEntity> entities = attributeKvRepository.findAllByEntityTypeAndEntityIdInAndAttributeTypeAndAttributeKeyIn(
+                        entityType, partition, attributeType, attributeKeys);
+                for (AttributeKvEntity entity : entities) {
+                    result.get(ids.get(entity.getId().getEntityId())).add(entity.toData());
+                }
+            }
+        });
+        return Futures.immediateFuture(result);
+    }
+
     @Override
     public ListenableFuture<List<AttributeKvEntry>> findAll(TenantId tenantId, EntityId entityId, String attributeType) {
         return Futures.immediateFuture(
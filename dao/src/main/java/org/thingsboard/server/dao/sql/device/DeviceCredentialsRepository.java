@@ -19,6 +19,8 @@ import org.springframework.data.repository.CrudRepository;
 import org.thingsboard.server.dao.model.sql.DeviceCredentialsEntity;
 import org.thingsboard.server.dao.util.SqlDao;
 
+import java.util.List;
+
 /**
  * Created by Valerii Sosliuk on 5/6/2017.
  */
@@ -28,4 +30,6 @@ public interface DeviceCredentialsRepository extends CrudRepository<DeviceCreden
     DeviceCredentialsEntity findByDeviceId(String deviceId);
 
     DeviceCredentialsEntity findByCredentialsId(String credentialsId);
+
+    List<DeviceCredentialsEntity> findByCredentialsIdIn(List<String> credentialsIds);
 }
@@ -27,6 +27,7 @@ import org.thingsboard.server.dao.model.sql.DeviceCredentialsEntity;
 import org.thingsboard.server.dao.sql.JpaAbstractDao;
 import org.thingsboard.server.dao.util.SqlDao;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -58,4 +59,9 @@ public class JpaDeviceCredentialsDao extends JpaAbstractDao<DeviceCredentialsEnt
     public DeviceCredentials findByCredentialsId(TenantId tenantId, String credentialsId) {
         return DaoUtil.getData(deviceCredentialsRepository.findByCredentialsId(credentialsId));
     }
+
+    @Override
+    public List<DeviceCredentials> findByCredentialsIdIn(TenantId tenantId, List<String> credentialsIds) {
+        return DaoUtil.convertDataList(deviceCredentialsRepository.findByCredentialsIdIn(credentialsIds));
+    }
 }
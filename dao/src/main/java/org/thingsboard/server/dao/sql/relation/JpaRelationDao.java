@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.dao.sql.relation;
 
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.ListenableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,7 +41,12 @@ import org.thingsboard.server.dao.util.SqlDao;
 
 import javax.persistence.criteria.Predicate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.springframework.data.jpa.domain.Specifications.where;
 import static org.thingsboard.server.common.data.UUIDConverter.fromTimeUUID;
@@ -53,6 +59,8 @@ import static org.thingsboard.server.common.data.UUIDConverter.fromTimeUUID;
 @SqlDao
 public class JpaRelationDao extends JpaAbstractDaoListeningExecutorService implements RelationDao {
 
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
     @Autowired
     private RelationRepository relationRepository;
 
@@ -65,6 +73,12 @@ public class JpaRelationDao extends JpaAbstractDaoListeningExecutorService imple
                         typeGroup.name())));
     }
 
+    @Override
+    public ListenableFuture<List<EntityRelation>> findAllByFromIn(TenantId tenantId, List<EntityId> from, RelationTypeGroup typeGroup) {
+        return service.submit(() -> findAllByEntityIdsIn(from, typeGroup,
+                relationRepository::findAllByFromIdInAndRelationTypeGroup, EntityRelation::getFrom));
+    }
+
     @Override
     public ListenableFuture<List<EntityRelation>> findAllByFromAndType(TenantId tenantId, EntityId from, String relationType, RelationTypeGroup typeGroup) {
         return service.submit(() -> DaoUtil.convertDataList(
@@ -84,6 +98,28 @@ public class JpaRelationDao extends JpaAbstractDaoListeningExecutorService imple
                         typeGroup.name())));
     }
 
+    @Override
+    public ListenableFuture<List<EntityRelation>> findAllByToIn(TenantId tenantId, List<EntityId> to, RelationTypeGroup typeGroup) {
+        return service.submit(() -> findAllByEntityIdsIn(to, typeGroup,
+                relationRepository::findAllByToIdInAndRelationTypeGroup, EntityRelation::getTo));
+    }
+
+    private List<EntityRelation> findAllByEntityIdsIn(List<EntityId> entityIds, RelationTypeGroup typeGroup,
+                                                      BiFunction<List<String>, String, List<RelationEntity>> query,
+                                                      Function<EntityRelation, EntityId> entityIdMapper) {
+        Set<EntityId> entityIdSet = new HashSet<>(entityIds);
+        List<EntityRelation> relations = new ArrayList<>();
+        for (List<EntityId> partition : Lists.partition(entityIds, MAX_IN_CLAUSE_SIZE)) {
+            List<String> ids = partition.stream().map(id -> UUIDConverter.fromTimeUUID(id.getId())).collect(Collectors.toList());
+            for (EntityRelation relation : DaoUtil.convertDataList(query.apply(ids, typeGroup.name()))) {
+                if (entityIdSet.contains(entityIdMapper.apply(relation))) {
+                    relations.add(relation);
+                }
+            }
+        }
+        return relations;
+    }
+
     @Override
     public ListenableFuture<List<EntityRelation>> findAllByToAndType(TenantId tenantId, EntityId to, String relationType, RelationTypeGroup typeGroup) {
         return service.submit(() -> DaoUtil.convertDataList(
@@ -32,6 +32,9 @@ public interface RelationRepository
                                                                         String fromType,
                                                                         String relationTypeGroup);
 
+    List<RelationEntity> findAllByFromIdInAndRelationTypeGroup(List<String> fromIds,
+                                                               String relationTypeGroup);
+
     List<RelationEntity> findAllByFromIdAndFromTypeAndRelationTypeAndRelationTypeGroup(String fromId,
                                                                                        String fromType,
                                                                                        String relationType,
@@ -41,6 +44,9 @@ public interface RelationRepository
                                                                     String toType,
                                                                     String relationTypeGroup);
 
+    List<RelationEntity> findAllByToIdInAndRelationTypeGroup(List<String> toIds,
+                                                             String relationTypeGroup);
+
     List<RelationEntity> findAllByToIdAndToTypeAndRelationTypeAndRelationTypeGroup(String toId,
                                                                                    String toType,
                                                                                    String relationType,
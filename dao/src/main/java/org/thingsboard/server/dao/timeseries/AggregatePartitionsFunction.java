@@ -28,6 +28,7 @@ import org.thingsboard.server.common.data.kv.StringDataEntry;
 import org.thingsboard.server.common.data.kv.TsKvEntry;
 
 import javax.annotation.Nullable;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -46,6 +47,15 @@ public class AggregatePartitionsFunction implements com.google.common.base.Funct
     private static final int BOOL_POS = 6;
     private static final int STR_POS = 7;
 
+    private static final int ROLLUP_LONG_CNT_POS = 0;
+    private static final int ROLLUP_DOUBLE_CNT_POS = 1;
+    private static final int ROLLUP_LONG_SUM_POS = 2;
+    private static final int ROLLUP_DOUBLE_SUM_POS = 3;
+    private static final int ROLLUP_LONG_MIN_POS = 4;
+    private static final int ROLLUP_DOUBLE_MIN_POS = 5;
+    private static final int ROLLUP_LONG_MAX_POS = 6;
+    private static final int ROLLUP_DOUBLE_MAX_POS = 7;
+
     private final Aggregation aggregation;
     private final String key;
     private final long ts;
@@ -58,19 +68,33 @@ public class AggregatePartitionsFunction implements com.google.common.base.Funct
 
     @Override
     public Optional<TsKvEntry> apply(@Nullable List<ResultSet> rsList) {
+        return apply(rsList, Collections.emptyList());
+    }
+
+    /**
+     * Aggregates raw data chunks together with rows of the rollup table
+     * (long_cnt, dbl_cnt, long_sum, dbl_sum, long_min, dbl_min, long_max, dbl_max).
+     * Rollup rows must belong to buckets without boolean and string values, those are read from raw data.
+     */
+    public Optional<TsKvEntry> apply(@Nullable List<ResultSet> rsList, List<Row> rollupRows) {
         try {
             log.trace("[{}][{}][{}] Going to aggregate data", key, ts, aggregation);
-            if (rsList == null || rsList.isEmpty()) {
+            if ((rsList == null || rsList.isEmpty()) && rollupRows.isEmpty()) {
                 return Optional.empty();
             }
 
             AggregationResult aggResult = new AggregationResult();
 
-            for (ResultSet rs : rsList) {
-                for (Row row : rs.all()) {
-                    processResultSetRow(row, aggResult);
+            if (rsList != null) {
+                for (ResultSet rs : rsList) {
+                    for (Row row : rs.all()) {
+                        processResultSetRow(row, aggResult);
+                    }
                 }
             }
+            for (Row row : rollupRows) {
+                processRollupRow(row, aggResult);
+            }
             return processAggregationResult(aggResult);
         }catch (Exception e){
             log.error("[{}][{}][{}] Failed to aggregate data", key, ts, aggregation, e);
@@ -115,6 +139,34 @@ public class AggregatePartitionsFunction implements com.google.common.base.Funct
             return;
         }
 
+        processValues(aggResult, curCount, curLValue, curDValue, curBValue, curSValue);
+    }
+
+    private void processRollupRow(Row row, AggregationResult aggResult) {
+        long curCount = 0L;
+        Long curLValue = null;
+        Double curDValue = null;
+
+        long longCount = row.getLong(ROLLUP_LONG_CNT_POS);
+        long doubleCount = row.getLong(ROLLUP_DOUBLE_CNT_POS);
+
+        if (longCount > 0) {
+            aggResult.dataType = DataType.LONG;
+            curCount += longCount;
+            curLValue = getRollupLongValue(row);
+        }
+        if (doubleCount > 0) {
+            aggResult.hasDouble = true;
+            aggResult.dataType = DataType.DOUBLE;
+            curCount += doubleCount;
+            curDValue = getRollupDoubleValue(row);
+        }
+        if (curCount > 0) {
+            processValues(aggResult, curCount, curLValue, curDValue, null, null);
+        }
+    }
+
+    private void processValues(AggregationResult aggResult, long curCount, Long curLValue, Double curDValue, Boolean curBValue, String curSValue) {
         if (aggregation == Aggregation.COUNT) {
             aggResult.count += curCount;
         } else if (aggregation == Aggregation.AVG || aggregation == Aggregation.SUM) {
@@ -200,6 +252,34 @@ public class AggregatePartitionsFunction implements com.google.common.base.Funct
         }
     }
 
+    private Long getRollupLongValue(Row row) {
+        switch (aggregation) {
+            case SUM:
+            case AVG:
+                return row.getLong(ROLLUP_LONG_SUM_POS);
+            case MIN:
+                return row.getLong(ROLLUP_LONG_MIN_POS);
+            case MAX:
+                return row.getLong(ROLLUP_LONG_MAX_POS);
+            default:
+                return null;
+        }
+    }
+
+    private Double getRollupDoubleValue(Row row) {
+        switch (aggregation) {
+            case SUM:
+            case AVG:
+                return row.getDouble(ROLLUP_DOUBLE_SUM_POS);
+            case MIN:
+                return row.getDouble(ROLLUP_DOUBLE_MIN_POS);
+            case MAX:
+                return row.getDouble(ROLLUP_DOUBLE_MAX_POS);
+            default:
+                return null;
+        }
+    }
+
     private Optional<TsKvEntry> processAggregationResult(AggregationResult aggResult) {
         Optional<TsKvEntry> result;
         if (aggResult.dataType == null) {
@@ -23,16 +23,21 @@ import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.core.querybuilder.Select;
+import com.datastax.driver.core.utils.UUIDs;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.base.Function;
 import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
+import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.kv.Aggregation;
@@ -49,6 +54,7 @@ import org.thingsboard.server.common.data.kv.StringDataEntry;
 import org.thingsboard.server.common.data.kv.TsKvEntry;
 import org.thingsboard.server.dao.model.ModelConstants;
 import org.thingsboard.server.dao.nosql.CassandraAbstractAsyncDao;
+import org.thingsboard.server.dao.nosql.UnloggedPartitionBatcher;
 import org.thingsboard.server.dao.util.NoSqlTsDao;
 
 import javax.annotation.Nullable;
@@ -58,12 +64,21 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
@@ -77,6 +92,11 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
 public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implements TimeseriesDao {
 
     private static final int MIN_AGGREGATION_STEP_MS = 1000;
+    private static final int STATEMENT_OVERHEAD_BYTES = 64;
+    // counts of the non-numeric values and the bucket ts follow the aggregated columns of the rollup fetch statement
+    private static final int ROLLUP_BOOLEAN_CNT_POS = 8;
+    private static final int ROLLUP_STRING_CNT_POS = 9;
+    private static final int ROLLUP_TS_POS = 10;
     public static final String INSERT_INTO = "INSERT INTO ";
     public static final String GENERATED_QUERY_FOR_ENTITY_TYPE_AND_ENTITY_ID = "Generated query [{}] for entityType {} and entityId {}";
     public static final String SELECT_PREFIX = "SELECT ";
@@ -97,8 +117,41 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
     @Value("${cassandra.query.set_null_values_enabled}")
     private boolean setNullValuesEnabled;
 
+    @Value("${cassandra.query.ts_read_ahead_partitions:4}")
+    private int readAheadPartitions;
+
+    @Value("${cassandra.query.ts_rollups.enabled:false}")
+    private boolean rollupsEnabled;
+
+    @Value("${cassandra.query.ts_rollups.intervals:60000,3600000,86400000}")
+    private String rollupIntervalsStr;
+
+    @Value("${cassandra.query.ts_rollups.flush_interval_ms:10000}")
+    private long rollupFlushIntervalMs;
+
+    @Value("${cassandra.query.ts_rollups.max_unflushed_ms:300000}")
+    private long rollupMaxUnflushedMs;
+
+    @Value("${cassandra.query.ts_batch_max_statements:50}")
+    private int batchMaxStatements;
+
+    @Value("${cassandra.query.ts_batch_max_size_bytes:4096}")
+    private int batchMaxSizeBytes;
+
+    @Value("${cassandra.query.ts_kv_partitions_cache_size:100000}")
+    private long partitionsCacheSize;
+
+    @Value("${cassandra.query.ts_kv_partitions_cache_ttl_sec:300}")
+    private long partitionsCacheTtlSec;
+
     private TsPartitionDate tsFormat;
 
+    private Cache<String, Boolean> savedPartitions;
+
+    private long[] rollupIntervals;
+    private TsRollupBuffer rollupBuffer;
+    private ScheduledExecutorService rollupFlushExecutor;
+
     private PreparedStatement partitionInsertStmt;
     private PreparedStatement partitionInsertTtlStmt;
     private PreparedStatement latestInsertStmt;
@@ -110,6 +163,9 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
     private PreparedStatement findAllLatestStmt;
     private PreparedStatement deleteStmt;
     private PreparedStatement deletePartitionStmt;
+    private PreparedStatement rollupInsertStmt;
+    private PreparedStatement rollupFetchStmt;
+    private PreparedStatement rollupDeleteStmt;
 
     private boolean isInstall() {
         return environment.acceptsProfiles("install");
@@ -127,11 +183,31 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
                 log.warn("Incorrect configuration of partitioning {}", partitioning);
                 throw new RuntimeException("Failed to parse partitioning property: " + partitioning + "!");
             }
+            if (partitionsCacheSize > 0) {
+                // partitions removed by other nodes are re-inserted at the latest after the cache entry expires
+                long cacheTtlSec = systemTtl > 0 ? Math.min(partitionsCacheTtlSec, systemTtl / 2) : partitionsCacheTtlSec;
+                savedPartitions = Caffeine.newBuilder()
+                        .maximumSize(partitionsCacheSize)
+                        .expireAfterWrite(cacheTtlSec, TimeUnit.SECONDS)
+                        .build();
+            }
+            if (rollupsEnabled) {
+                rollupIntervals = Arrays.stream(rollupIntervalsStr.split(",")).map(String::trim)
+                        .mapToLong(Long::parseLong).filter(interval -> interval >= MIN_AGGREGATION_STEP_MS).sorted().distinct().toArray();
+                rollupBuffer = new TsRollupBuffer(rollupIntervals);
+                rollupFlushExecutor = Executors.newSingleThreadScheduledExecutor(ThingsBoardThreadFactory.forName("ts-rollup-flush"));
+                rollupFlushExecutor.scheduleWithFixedDelay(() -> flushRollups(false), rollupFlushIntervalMs, rollupFlushIntervalMs, TimeUnit.MILLISECONDS);
+                log.info("Timeseries rollups enabled for intervals {}", Arrays.toString(rollupIntervals));
+            }
         }
     }
 
     @PreDestroy
     public void stop() {
+        if (rollupFlushExecutor != null) {
+            rollupFlushExecutor.shutdownNow();
+            flushRollups(true);
+        }
         super.stopExecutor();
     }
 
@@ -159,12 +235,17 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
         } else {
             long step = Math.max(query.getInterval(), MIN_AGGREGATION_STEP_MS);
             long stepTs = query.getStartTs();
+            long rollupInterval = getRollupInterval(query.getStartTs(), step);
             List<ListenableFuture<Optional<TsKvEntry>>> futures = new ArrayList<>();
             while (stepTs < query.getEndTs()) {
                 long startTs = stepTs;
                 long endTs = stepTs + step;
                 ReadTsKvQuery subQuery = new BaseReadTsKvQuery(query.getKey(), startTs, endTs, step, 1, query.getAggregation(), query.getOrderBy());
-                futures.add(findAndAggregateAsync(tenantId, entityId, subQuery, toPartitionTs(startTs), toPartitionTs(endTs)));
+                if (rollupInterval > 0) {
+                    futures.add(findAndAggregateWithRollupsAsync(tenantId, entityId, subQuery, rollupInterval));
+                } else {
+                    futures.add(findAndAggregateAsync(tenantId, entityId, subQuery, toPartitionTs(startTs), toPartitionTs(endTs)));
+                }
                 stepTs = endTs;
             }
             ListenableFuture<List<Optional<TsKvEntry>>> future = Futures.allAsList(futures);
@@ -200,12 +281,13 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
             @Override
             public void onSuccess(@Nullable List<Long> partitions) {
                 TsKvQueryCursor cursor = new TsKvQueryCursor(entityId.getEntityType().name(), entityId.getId(), query, partitions);
-                findAllAsyncSequentiallyWithLimit(tenantId, cursor, resultFuture);
+                findAllAsyncWithReadAhead(tenantId, cursor, new ArrayDeque<>(), resultFuture);
             }
 
             @Override
             public void onFailure(Throwable t) {
                 log.error("[{}][{}] Failed to fetch partitions for interval {}-{}", entityId.getEntityType().name(), entityId.getId(), toPartitionTs(query.getStartTs()), toPartitionTs(query.getEndTs()), t);
+                resultFuture.setException(t);
             }
         }, readResultsProcessingExecutor);
 
@@ -217,35 +299,51 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
         return tsFormat.truncatedTo(time).toInstant(ZoneOffset.UTC).toEpochMilli();
     }
 
-    private void findAllAsyncSequentiallyWithLimit(TenantId tenantId, final TsKvQueryCursor cursor, final SimpleListenableFuture<List<TsKvEntry>> resultFuture) {
-        if (cursor.isFull() || !cursor.hasNextPartition()) {
+    /**
+     * Keeps up to readAheadPartitions partition queries in flight, consumes their results in the partitions order
+     * and stops as soon as the query limit is reached.
+     */
+    private void findAllAsyncWithReadAhead(TenantId tenantId, final TsKvQueryCursor cursor, final Queue<ListenableFuture<List<TsKvEntry>>> inFlight,
+                                           final SimpleListenableFuture<List<TsKvEntry>> resultFuture) {
+        if (!cursor.isFull()) {
+            while (inFlight.size() < Math.max(1, readAheadPartitions) && cursor.hasNextPartition()) {
+                inFlight.add(fetchPartitionAsync(tenantId, cursor, cursor.getNextPartition()));
+            }
+        }
+        if (cursor.isFull() || inFlight.isEmpty()) {
+            inFlight.forEach(future -> future.cancel(false));
             resultFuture.set(cursor.getData());
         } else {
-            PreparedStatement proto = getFetchStmt(Aggregation.NONE, cursor.getOrderBy());
-            BoundStatement stmt = proto.bind();
-            stmt.setString(0, cursor.getEntityType());
-            stmt.setUUID(1, cursor.getEntityId());
-            stmt.setString(2, cursor.getKey());
-            stmt.setLong(3, cursor.getNextPartition());
-            stmt.setLong(4, cursor.getStartTs());
-            stmt.setLong(5, cursor.getEndTs());
-            stmt.setInt(6, cursor.getCurrentLimit());
-
-            Futures.addCallback(executeAsyncRead(tenantId, stmt), new FutureCallback<ResultSet>() {
+            Futures.addCallback(inFlight.poll(), new FutureCallback<List<TsKvEntry>>() {
                 @Override
-                public void onSuccess(@Nullable ResultSet result) {
-                    cursor.addData(convertResultToTsKvEntryList(result == null ? Collections.emptyList() : result.all()));
-                    findAllAsyncSequentiallyWithLimit(tenantId, cursor, resultFuture);
+                public void onSuccess(@Nullable List<TsKvEntry> result) {
+                    cursor.addData(result == null ? Collections.emptyList() : result);
+                    findAllAsyncWithReadAhead(tenantId, cursor, inFlight, resultFuture);
                 }
 
                 @Override
                 public void onFailure(Throwable t) {
-                    log.error("[{}][{}] Failed to fetch data for query {}-{}", stmt, t);
+                    log.error("[{}][{}] Failed to fetch data for key {}", cursor.getEntityType(), cursor.getEntityId(), cursor.getKey(), t);
+                    inFlight.forEach(future -> future.cancel(false));
+                    resultFuture.setException(t);
                 }
             }, readResultsProcessingExecutor);
         }
     }
 
+    private ListenableFuture<List<TsKvEntry>> fetchPartitionAsync(TenantId tenantId, TsKvQueryCursor cursor, long partition) {
+        PreparedStatement proto = getFetchStmt(Aggregation.NONE, cursor.getOrderBy());
+        BoundStatement stmt = proto.bind();
+        stmt.setString(0, cursor.getEntityType());
+        stmt.setUUID(1, cursor.getEntityId());
+        stmt.setString(2, cursor.getKey());
+        stmt.setLong(3, partition);
+        stmt.setLong(4, cursor.getStartTs());
+        stmt.setLong(5, cursor.getEndTs());
+        stmt.setInt(6, cursor.getCurrentLimit());
+        return getAllPagesFuture(executeAsyncRead(tenantId, stmt), this::convertResultToTsKvEntry);
+    }
+
     private ListenableFuture<Optional<TsKvEntry>> findAndAggregateAsync(TenantId tenantId, EntityId entityId, ReadTsKvQuery query, long minPartition, long maxPartition) {
         final Aggregation aggregation = query.getAggregation();
         final String key = query.getKey();
@@ -259,6 +357,185 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
         return Futures.transform(aggregationChunks, new AggregatePartitionsFunction(aggregation, key, ts), readResultsProcessingExecutor);
     }
 
+    /**
+     * Picks the coarsest rollup interval that divides the aggregation step and is aligned with the query start,
+     * otherwise the finest interval that divides the step (unaligned edges of every step are then read from raw data).
+     */
+    private long getRollupInterval(long startTs, long step) {
+        long result = 0;
+        if (rollupBuffer != null) {
+            for (long interval : rollupIntervals) {
+                if (step % interval == 0 && (result == 0 || startTs % interval == 0)) {
+                    result = interval;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Aggregates settled rollup buckets of the step and reads raw data for everything else: unaligned edges,
+     * buckets without rollup rows (data saved before rollups were enabled, rollups lost on a crash or removed
+     * by a partial delete), open buckets that may still have unflushed data and buckets with boolean or string
+     * values, as those are aggregated with the raw data semantic.
+     */
+    private ListenableFuture<Optional<TsKvEntry>> findAndAggregateWithRollupsAsync(TenantId tenantId, EntityId entityId, ReadTsKvQuery query, long rollupInterval) {
+        final long startTs = query.getStartTs();
+        final long endTs = query.getEndTs();
+        final long rollupStartTs = Math.floorDiv(startTs + rollupInterval - 1, rollupInterval) * rollupInterval;
+        final long rollupEndTs = Math.floorDiv(endTs, rollupInterval) * rollupInterval;
+        if (rollupStartTs >= rollupEndTs) {
+            return findAndAggregateAsync(tenantId, entityId, query, toPartitionTs(startTs), toPartitionTs(endTs));
+        }
+        ListenableFuture<List<Row>> rollupRowsFuture = fetchRollupRows(tenantId, entityId, query.getKey(), rollupInterval, rollupStartTs, rollupEndTs);
+        return Futures.transformAsync(rollupRowsFuture, rollupRows -> {
+            long settledTs = System.currentTimeMillis() - 2 * rollupFlushIntervalMs;
+            Set<Long> nonNumericBuckets = new HashSet<>();
+            for (Row row : rollupRows) {
+                if (row.getLong(ROLLUP_BOOLEAN_CNT_POS) > 0 || row.getLong(ROLLUP_STRING_CNT_POS) > 0) {
+                    nonNumericBuckets.add(row.getLong(ROLLUP_TS_POS));
+                }
+            }
+            Set<Long> settledBuckets = new HashSet<>();
+            List<Row> settledRows = new ArrayList<>();
+            for (Row row : rollupRows) {
+                long bucketTs = row.getLong(ROLLUP_TS_POS);
+                if (!nonNumericBuckets.contains(bucketTs) && isSettledBucket(entityId, query.getKey(), rollupInterval, bucketTs, settledTs)) {
+                    settledBuckets.add(bucketTs);
+                    settledRows.add(row);
+                }
+            }
+            List<ListenableFuture<List<ResultSet>>> rawChunks = new ArrayList<>();
+            long rawStartTs = startTs;
+            for (long bucketTs = rollupStartTs; bucketTs < rollupEndTs; bucketTs += rollupInterval) {
+                if (settledBuckets.contains(bucketTs)) {
+                    if (rawStartTs < bucketTs) {
+                        rawChunks.add(fetchAggregationChunks(tenantId, entityId, query, rawStartTs, bucketTs));
+                    }
+                    rawStartTs = bucketTs + rollupInterval;
+                }
+            }
+            if (rawStartTs < endTs) {
+                rawChunks.add(fetchAggregationChunks(tenantId, entityId, query, rawStartTs, endTs));
+            }
+            AggregatePartitionsFunction aggregateFunction = new AggregatePartitionsFunction(query.getAggregation(), query.getKey(), startTs + (endTs - startTs) / 2);
+            return Futures.transform(Futures.allAsList(rawChunks), chunks -> {
+                List<ResultSet> rsList = new ArrayList<>();
+                chunks.forEach(rsList::addAll);
+                return aggregateFunction.apply(rsList, settledRows);
+            }, readResultsProcessingExecutor);
+        }, readResultsProcessingExecutor);
+    }
+
+    /**
+     * Closed buckets are drained on the next flush, so a bucket closed for two flush intervals and not accumulated
+     * in the local buffer (late data) has all its rollup rows persisted.
+     */
+    private boolean isSettledBucket(EntityId entityId, String key, long interval, long bucketTs, long settledTs) {
+        return bucketTs + interval <= settledTs
+                && !rollupBuffer.contains(new TsRollupKey(entityId.getEntityType().name(), entityId.getId(), key, interval, bucketTs));
+    }
+
+    private ListenableFuture<List<ResultSet>> fetchAggregationChunks(TenantId tenantId, EntityId entityId, ReadTsKvQuery query, long startTs, long endTs) {
+        ListenableFuture<List<Long>> partitionsListFuture = getPartitionsFuture(tenantId, query, entityId, toPartitionTs(startTs), toPartitionTs(endTs));
+        return Futures.transformAsync(partitionsListFuture,
+                getFetchChunksAsyncFunction(tenantId, entityId, query.getKey(), query.getAggregation(), startTs, endTs), readResultsProcessingExecutor);
+    }
+
+    private ListenableFuture<List<Row>> fetchRollupRows(TenantId tenantId, EntityId entityId, String key, long interval, long startTs, long endTs) {
+        List<ListenableFuture<List<Row>>> futures = new ArrayList<>();
+        long lastPartition = TsRollupBuffer.toPartition(endTs - interval, interval);
+        for (long partition = TsRollupBuffer.toPartition(startTs, interval); partition <= lastPartition; partition += TsRollupBuffer.getPartitionSize(interval)) {
+            BoundStatement stmt = getRollupFetchStmt().bind()
+                    .setString(0, entityId.getEntityType().name())
+                    .setUUID(1, entityId.getId())
+                    .setString(2, key)
+                    .setLong(3, interval)
+                    .setLong(4, partition)
+                    .setLong(5, startTs)
+                    .setLong(6, endTs);
+            futures.add(getAllPagesFuture(executeAsyncRead(tenantId, stmt), row -> row));
+        }
+        return Futures.transform(Futures.allAsList(futures), partitions -> {
+            List<Row> rows = new ArrayList<>();
+            partitions.forEach(rows::addAll);
+            return rows;
+        }, readResultsProcessingExecutor);
+    }
+
+    /**
+     * Persists drained rollup buckets, the returned future completes once all of them are written.
+     */
+    ListenableFuture<List<ResultSet>> flushRollups(boolean force) {
+        List<ListenableFuture<ResultSet>> futures = new ArrayList<>();
+        try {
+            long now = System.currentTimeMillis();
+            int flushed = rollupBuffer.drain(now, rollupMaxUnflushedMs, force, (key, value) -> {
+                BoundStatement stmt = getRollupInsertStmt().bind()
+                        .setString(0, key.getEntityType())
+                        .setUUID(1, key.getEntityId())
+                        .setString(2, key.getKey())
+                        .setLong(3, key.getInterval())
+                        .setLong(4, TsRollupBuffer.toPartition(key.getTs(), key.getInterval()))
+                        .setLong(5, key.getTs())
+                        .setUUID(6, UUIDs.timeBased())
+                        .setLong(7, value.getLongCount())
+                        .setLong(8, value.getDoubleCount())
+                        .setLong(9, value.getLongSum())
+                        .setDouble(10, value.getDoubleSum())
+                        .setLong(11, value.getLongMin())
+                        .setLong(12, value.getLongMax())
+                        .setDouble(13, value.getDoubleMin())
+                        .setDouble(14, value.getDoubleMax())
+                        .setLong(15, value.getBooleanCount())
+                        .setLong(16, value.getStringCount())
+                        // the rollup expires with the raw data of the bucket, TTL 0 means no expiration
+                        .setInt(17, value.getTtl(now));
+                ResultSetFuture future = executeAsyncWrite(value.getTenantId(), stmt);
+                futures.add(future);
+                Futures.addCallback(future, new FutureCallback<ResultSet>() {
+                    @Override
+                    public void onSuccess(@Nullable ResultSet result) {
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        log.warn("[{}][{}] Failed to save rollup {}", key.getEntityId(), key.getKey(), key, t);
+                    }
+                }, readResultsProcessingExecutor);
+            });
+            if (flushed > 0) {
+                log.debug("Flushed {} timeseries rollups, {} rollups are still accumulated", flushed, rollupBuffer.size());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to flush timeseries rollups", e);
+        }
+        return Futures.successfulAsList(futures);
+    }
+
+    private ListenableFuture<Void> removeRollups(TenantId tenantId, EntityId entityId, DeleteTsKvQuery query) {
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (long interval : rollupIntervals) {
+            // partially covered buckets are removed too, so that reads aggregate the remaining raw data
+            long startTs = Math.floorDiv(query.getStartTs(), interval) * interval;
+            long endTs = Math.floorDiv(query.getEndTs() + interval - 1, interval) * interval;
+            rollupBuffer.remove(entityId.getEntityType().name(), entityId.getId(), query.getKey(), interval, startTs, endTs);
+            long lastPartition = TsRollupBuffer.toPartition(endTs - interval, interval);
+            for (long partition = TsRollupBuffer.toPartition(startTs, interval); partition <= lastPartition; partition += TsRollupBuffer.getPartitionSize(interval)) {
+                BoundStatement stmt = getRollupDeleteStmt().bind()
+                        .setString(0, entityId.getEntityType().name())
+                        .setUUID(1, entityId.getId())
+                        .setString(2, query.getKey())
+                        .setLong(3, interval)
+                        .setLong(4, partition)
+                        .setLong(5, startTs)
+                        .setLong(6, endTs);
+                futures.add(getFuture(executeAsyncWrite(tenantId, stmt), rs -> null));
+            }
+        }
+        return Futures.transform(Futures.allAsList(futures), result -> null, readResultsProcessingExecutor);
+    }
+
     private Function<ResultSet, List<Long>> getPartitionsArrayFunction() {
         return rows -> rows.all().stream()
                 .map(row -> row.getLong(ModelConstants.PARTITION_COLUMN)).collect(Collectors.toList());
@@ -317,7 +594,72 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
         if (setNullValuesEnabled) {
             processSetNullValues(tenantId, entityId, tsKvEntry, ttl, futures, partition, type);
         }
-        BoundStatement stmt = (ttl == 0 ? getSaveStmt(type) : getSaveTtlStmt(type)).bind();
+        BoundStatement stmt = getSaveStmt(entityId, tsKvEntry, ttl, partition);
+        futures.add(getFuture(executeAsyncWrite(tenantId, stmt), rs -> null));
+        if (rollupBuffer != null) {
+            rollupBuffer.add(tenantId, entityId, tsKvEntry, ttl);
+        }
+        return Futures.transform(Futures.allAsList(futures), result -> null);
+    }
+
+    @Override
+    public ListenableFuture<List<Void>> saveAll(TenantId tenantId, EntityId entityId, List<TsKvEntry> tsKvEntries, long ttl) {
+        final long computedTtl = computeTtl(ttl);
+        UnloggedPartitionBatcher batcher = new UnloggedPartitionBatcher(batchMaxStatements, batchMaxSizeBytes);
+        Map<String, TsKvEntry> latestEntries = new LinkedHashMap<>();
+        List<String> newPartitions = new ArrayList<>();
+        for (TsKvEntry tsKvEntry : tsKvEntries) {
+            long partition = toPartitionTs(tsKvEntry.getTs());
+            int size = estimateSize(tsKvEntry);
+            String tsPartitionKey = tsKvEntry.getKey() + "_" + partition;
+            if (setNullValuesEnabled) {
+                for (DataType nullType : DataType.values()) {
+                    if (nullType != tsKvEntry.getDataType()) {
+                        batcher.add(tsPartitionKey, getSaveNullStmt(entityId, tsKvEntry, computedTtl, partition, nullType), size);
+                    }
+                }
+            }
+            batcher.add(tsPartitionKey, getSaveStmt(entityId, tsKvEntry, computedTtl, partition), size);
+            if (!isFixedPartitioning()) {
+                String partitionCacheKey = getPartitionCacheKey(entityId, tsKvEntry.getKey(), partition);
+                if (computedTtl > 0 || savedPartitions == null || savedPartitions.getIfPresent(partitionCacheKey) == null) {
+                    batcher.add(tsKvEntry.getKey(), getPartitionStmt(entityId, tsKvEntry.getKey(), partition, computedTtl), size);
+                    if (computedTtl == 0 && savedPartitions != null && !newPartitions.contains(partitionCacheKey)) {
+                        newPartitions.add(partitionCacheKey);
+                    }
+                }
+            }
+            latestEntries.merge(tsKvEntry.getKey(), tsKvEntry, (prev, cur) -> cur.getTs() >= prev.getTs() ? cur : prev);
+            if (rollupBuffer != null) {
+                rollupBuffer.add(tenantId, entityId, tsKvEntry, computedTtl);
+            }
+        }
+        // all latest values of the entity share the same partition
+        latestEntries.values().forEach(entry -> batcher.add(entityId, getLatestStmt(entityId, entry), estimateSize(entry)));
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (Statement stmt : batcher.build()) {
+            futures.add(getFuture(executeAsyncWrite(tenantId, stmt), rs -> null));
+        }
+        log.trace("[{}][{}] Saving {} entries using {} statements in {} requests", entityId.getEntityType(), entityId.getId(),
+                tsKvEntries.size(), batcher.getStatementsCount(), futures.size());
+        ListenableFuture<List<Void>> result = Futures.allAsList(futures);
+        if (!newPartitions.isEmpty()) {
+            Futures.addCallback(result, new FutureCallback<List<Void>>() {
+                @Override
+                public void onSuccess(@Nullable List<Void> saved) {
+                    newPartitions.forEach(key -> savedPartitions.put(key, Boolean.TRUE));
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                }
+            }, MoreExecutors.directExecutor());
+        }
+        return result;
+    }
+
+    private BoundStatement getSaveStmt(EntityId entityId, TsKvEntry tsKvEntry, long ttl, long partition) {
+        BoundStatement stmt = (ttl == 0 ? getSaveStmt(tsKvEntry.getDataType()) : getSaveTtlStmt(tsKvEntry.getDataType())).bind();
         stmt.setString(0, entityId.getEntityType().name())
                 .setUUID(1, entityId.getId())
                 .setString(2, tsKvEntry.getKey())
@@ -327,8 +669,59 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
         if (ttl > 0) {
             stmt.setInt(6, (int) ttl);
         }
-        futures.add(getFuture(executeAsyncWrite(tenantId, stmt), rs -> null));
-        return Futures.transform(Futures.allAsList(futures), result -> null);
+        return stmt;
+    }
+
+    private BoundStatement getSaveNullStmt(EntityId entityId, TsKvEntry tsKvEntry, long ttl, long partition, DataType type) {
+        BoundStatement stmt = (ttl == 0 ? getSaveStmt(type) : getSaveTtlStmt(type)).bind();
+        stmt.setString(0, entityId.getEntityType().name())
+                .setUUID(1, entityId.getId())
+                .setString(2, tsKvEntry.getKey())
+                .setLong(3, partition)
+                .setLong(4, tsKvEntry.getTs());
+        stmt.setToNull(getColumnName(type));
+        if (ttl > 0) {
+            stmt.setInt(6, (int) ttl);
+        }
+        return stmt;
+    }
+
+    private BoundStatement getPartitionStmt(EntityId entityId, String key, long partition, long ttl) {
+        BoundStatement stmt = (ttl == 0 ? getPartitionInsertStmt() : getPartitionInsertTtlStmt()).bind();
+        stmt.setString(0, entityId.getEntityType().name())
+                .setUUID(1, entityId.getId())
+                .setLong(2, partition)
+                .setString(3, key);
+        if (ttl > 0) {
+            stmt.setInt(4, (int) ttl);
+        }
+        return stmt;
+    }
+
+    private BoundStatement getLatestStmt(EntityId entityId, TsKvEntry tsKvEntry) {
+        return getLatestStmt().bind()
+                .setString(0, entityId.getEntityType().name())
+                .setUUID(1, entityId.getId())
+                .setString(2, tsKvEntry.getKey())
+                .setLong(3, tsKvEntry.getTs())
+                .set(4, tsKvEntry.getBooleanValue().orElse(null), Boolean.class)
+                .set(5, tsKvEntry.getStrValue().orElse(null), String.class)
+                .set(6, tsKvEntry.getLongValue().orElse(null), Long.class)
+                .set(7, tsKvEntry.getDoubleValue().orElse(null), Double.class);
+    }
+
+    private static int estimateSize(TsKvEntry tsKvEntry) {
+        return STATEMENT_OVERHEAD_BYTES + tsKvEntry.getKey().length() + tsKvEntry.getStrValue().map(String::length).orElse(Long.BYTES);
+    }
+
+    private void invalidatePartitions(EntityId entityId, String key, List<Long> partitions) {
+        if (savedPartitions != null && partitions != null) {
+            partitions.forEach(partition -> savedPartitions.invalidate(getPartitionCacheKey(entityId, key, partition)));
+        }
+    }
+
+    private static String getPartitionCacheKey(EntityId entityId, String key, long partition) {
+        return entityId.getId() + "_" + key + "_" + partition;
     }
 
     private void processSetNullValues(TenantId tenantId, EntityId entityId, TsKvEntry tsKvEntry, long ttl, List<ListenableFuture<Void>> futures, long partition, DataType type) {
@@ -357,16 +750,7 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
     }
 
     private ListenableFuture<Void> saveNull(TenantId tenantId, EntityId entityId, TsKvEntry tsKvEntry, long ttl, long partition, DataType type) {
-        BoundStatement stmt = (ttl == 0 ? getSaveStmt(type) : getSaveTtlStmt(type)).bind();
-        stmt.setString(0, entityId.getEntityType().name())
-                .setUUID(1, entityId.getId())
-                .setString(2, tsKvEntry.getKey())
-                .setLong(3, partition)
-                .setLong(4, tsKvEntry.getTs());
-        stmt.setToNull(getColumnName(type));
-        if (ttl > 0) {
-            stmt.setInt(6, (int) ttl);
-        }
+        BoundStatement stmt = getSaveNullStmt(entityId, tsKvEntry, ttl, partition, type);
         return getFuture(executeAsyncWrite(tenantId, stmt), rs -> null);
     }
 
@@ -378,14 +762,7 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
         ttl = computeTtl(ttl);
         long partition = toPartitionTs(tsKvEntryTs);
         log.debug("Saving partition {} for the entity [{}-{}] and key {}", partition, entityId.getEntityType(), entityId.getId(), key);
-        BoundStatement stmt = (ttl == 0 ? getPartitionInsertStmt() : getPartitionInsertTtlStmt()).bind();
-        stmt = stmt.setString(0, entityId.getEntityType().name())
-                .setUUID(1, entityId.getId())
-                .setLong(2, partition)
-                .setString(3, key);
-        if (ttl > 0) {
-            stmt.setInt(4, (int) ttl);
-        }
+        BoundStatement stmt = getPartitionStmt(entityId, key, partition, ttl);
         return getFuture(executeAsyncWrite(tenantId, stmt), rs -> null);
     }
 
@@ -402,15 +779,7 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
 
     @Override
     public ListenableFuture<Void> saveLatest(TenantId tenantId, EntityId entityId, TsKvEntry tsKvEntry) {
-        BoundStatement stmt = getLatestStmt().bind()
-                .setString(0, entityId.getEntityType().name())
-                .setUUID(1, entityId.getId())
-                .setString(2, tsKvEntry.getKey())
-                .setLong(3, tsKvEntry.getTs())
-                .set(4, tsKvEntry.getBooleanValue().orElse(null), Boolean.class)
-                .set(5, tsKvEntry.getStrValue().orElse(null), String.class)
-                .set(6, tsKvEntry.getLongValue().orElse(null), Long.class)
-                .set(7, tsKvEntry.getDoubleValue().orElse(null), Double.class);
+        BoundStatement stmt = getLatestStmt(entityId, tsKvEntry);
         return getFuture(executeAsyncWrite(tenantId, stmt), rs -> null);
     }
 
@@ -427,6 +796,7 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
         Futures.addCallback(partitionsListFuture, new FutureCallback<List<Long>>() {
             @Override
             public void onSuccess(@Nullable List<Long> partitions) {
+                invalidatePartitions(entityId, query.getKey(), partitions);
                 QueryCursor cursor = new QueryCursor(entityId.getEntityType().name(), entityId.getId(), query, partitions);
                 deleteAsync(tenantId, cursor, resultFuture);
             }
@@ -436,6 +806,9 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
                 log.error("[{}][{}] Failed to fetch partitions for interval {}-{}", entityId.getEntityType().name(), entityId.getId(), minPartition, maxPartition, t);
             }
         }, readResultsProcessingExecutor);
+        if (rollupBuffer != null) {
+            return Futures.transform(Futures.allAsList(resultFuture, removeRollups(tenantId, entityId, query)), result -> null, readResultsProcessingExecutor);
+        }
         return resultFuture;
     }
 
@@ -579,8 +952,11 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
                     for (int i = index; i < partitions.size() - 1; i++) {
                         partitionsToDelete.add(partitions.get(i));
                     }
+                    invalidatePartitions(entityId, query.getKey(), partitionsToDelete);
                     QueryCursor cursor = new QueryCursor(entityId.getEntityType().name(), entityId.getId(), query, partitionsToDelete);
                     deletePartitionAsync(tenantId, cursor, resultFuture);
+                    // partitions cached by concurrent saves while the delete was in flight
+                    resultFuture.addListener(() -> invalidatePartitions(entityId, query.getKey(), partitionsToDelete), MoreExecutors.directExecutor());
                 }
 
                 @Override
@@ -628,6 +1004,72 @@ public class CassandraBaseTimeseriesDao extends CassandraAbstractAsyncDao implem
         return deletePartitionStmt;
     }
 
+    private PreparedStatement getRollupInsertStmt() {
+        if (rollupInsertStmt == null) {
+            rollupInsertStmt = prepare(INSERT_INTO + ModelConstants.TS_KV_ROLLUP_CF +
+                    "(" + ModelConstants.ENTITY_TYPE_COLUMN +
+                    "," + ModelConstants.ENTITY_ID_COLUMN +
+                    "," + ModelConstants.KEY_COLUMN +
+                    "," + ModelConstants.ROLLUP_INTERVAL_COLUMN +
+                    "," + ModelConstants.PARTITION_COLUMN +
+                    "," + ModelConstants.TS_COLUMN +
+                    "," + ModelConstants.ROLLUP_UID_COLUMN +
+                    "," + ModelConstants.ROLLUP_LONG_COUNT_COLUMN +
+                    "," + ModelConstants.ROLLUP_DOUBLE_COUNT_COLUMN +
+                    "," + ModelConstants.ROLLUP_LONG_SUM_COLUMN +
+                    "," + ModelConstants.ROLLUP_DOUBLE_SUM_COLUMN +
+                    "," + ModelConstants.ROLLUP_LONG_MIN_COLUMN +
+                    "," + ModelConstants.ROLLUP_LONG_MAX_COLUMN +
+                    "," + ModelConstants.ROLLUP_DOUBLE_MIN_COLUMN +
+                    "," + ModelConstants.ROLLUP_DOUBLE_MAX_COLUMN +
+                    "," + ModelConstants.ROLLUP_BOOLEAN_COUNT_COLUMN +
+                    "," + ModelConstants.ROLLUP_STRING_COUNT_COLUMN + ")" +
+                    " VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)" +
+                    " USING TTL ?");
+        }
+        return rollupInsertStmt;
+    }
+
+    private PreparedStatement getRollupFetchStmt() {
+        if (rollupFetchStmt == null) {
+            rollupFetchStmt = prepare(SELECT_PREFIX +
+                    ModelConstants.ROLLUP_LONG_COUNT_COLUMN + ", " +
+                    ModelConstants.ROLLUP_DOUBLE_COUNT_COLUMN + ", " +
+                    ModelConstants.ROLLUP_LONG_SUM_COLUMN + ", " +
+                    ModelConstants.ROLLUP_DOUBLE_SUM_COLUMN + ", " +
+                    ModelConstants.ROLLUP_LONG_MIN_COLUMN + ", " +
+                    ModelConstants.ROLLUP_DOUBLE_MIN_COLUMN + ", " +
+                    ModelConstants.ROLLUP_LONG_MAX_COLUMN + ", " +
+                    ModelConstants.ROLLUP_DOUBLE_MAX_COLUMN + ", " +
+                    ModelConstants.ROLLUP_BOOLEAN_COUNT_COLUMN + ", " +
+                    ModelConstants.ROLLUP_STRING_COUNT_COLUMN + ", " +
+                    ModelConstants.TS_COLUMN +
+                    " FROM " + ModelConstants.TS_KV_ROLLUP_CF +
+                    " WHERE " + ModelConstants.ENTITY_TYPE_COLUMN + EQUALS_PARAM
+                    + "AND " + ModelConstants.ENTITY_ID_COLUMN + EQUALS_PARAM
+                    + "AND " + ModelConstants.KEY_COLUMN + EQUALS_PARAM
+                    + "AND " + ModelConstants.ROLLUP_INTERVAL_COLUMN + EQUALS_PARAM
+                    + "AND " + ModelConstants.PARTITION_COLUMN + EQUALS_PARAM
+                    + "AND " + ModelConstants.TS_COLUMN + " >= ? "
+                    + "AND " + ModelConstants.TS_COLUMN + " < ?");
+        }
+        return rollupFetchStmt;
+    }
+
+    private PreparedStatement getRollupDeleteStmt() {
+        if (rollupDeleteStmt == null) {
+            rollupDeleteStmt = prepare("DELETE FROM " + ModelConstants.TS_KV_ROLLUP_CF +
+                    " WHERE " + ModelConstants.ENTITY_TYPE_COLUMN + EQUALS_PARAM
+                    + "AND " + ModelConstants.ENTITY_ID_COLUMN + EQUALS_PARAM
+                    + "AND " + ModelConstants.KEY_COLUMN + EQUALS_PARAM
+                    + "AND " + ModelConstants.ROLLUP_INTERVAL_COLUMN + EQUALS_PARAM
+                    + "AND " + ModelConstants.PARTITION_COLUMN + EQUALS_PARAM
+                    + "AND " + ModelConstants.TS_COLUMN + " >= ? "
+                    + "AND " + ModelConstants.TS_COLUMN + " < ?");
+        }
+        return rollupDeleteStmt;
+    }
+
     private List<TsKvEntry> convertResultToTsKvEntryList(List<Row> rows) {
         List<TsKvEntry> entries = new ArrayList<>(rows.size());
         if (!rows.isEmpty()) {
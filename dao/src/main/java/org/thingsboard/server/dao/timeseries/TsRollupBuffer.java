@@ -0,0 +1,112 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.timeseries;
+
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Accumulates timeseries values into rollup buckets of the configured intervals until they are flushed.
+ * Bucket (ts, ts + interval] matches the (startTs, endTs] semantic of the raw timeseries queries.
+ */
+public class TsRollupBuffer {
+
+    /**
+     * Number of buckets stored in one rollup partition, e.g. one week of 1-minute buckets.
+     */
+    static final long PARTITION_BUCKETS = 10080;
+
+    private final long[] intervals;
+    private final ConcurrentMap<TsRollupKey, TsRollupValue> buffer = new ConcurrentHashMap<>();
+
+    public TsRollupBuffer(long[] intervals) {
+        this.intervals = intervals;
+    }
+
+    public static long toBucketTs(long ts, long interval) {
+        return Math.floorDiv(ts - 1, interval) * interval;
+    }
+
+    public static long toPartition(long bucketTs, long interval) {
+        return bucketTs - Math.floorMod(bucketTs, interval * PARTITION_BUCKETS);
+    }
+
+    public static long getPartitionSize(long interval) {
+        return interval * PARTITION_BUCKETS;
+    }
+
+    /**
+     * @param ttl TTL of the saved value in seconds, 0 if the value never expires
+     */
+    public void add(TenantId tenantId, EntityId entityId, TsKvEntry entry, long ttl) {
+        long now = System.currentTimeMillis();
+        for (long interval : intervals) {
+            TsRollupKey key = new TsRollupKey(entityId.getEntityType().name(), entityId.getId(), entry.getKey(), interval, toBucketTs(entry.getTs(), interval));
+            buffer.compute(key, (k, value) -> {
+                if (value == null) {
+                    value = new TsRollupValue(tenantId, now);
+                }
+                value.add(entry, ttl, now);
+                return value;
+            });
+        }
+    }
+
+    /**
+     * Removes closed buckets and buckets accumulated longer than maxUnflushedMs (or all of them if forced)
+     * and passes them to the consumer.
+     */
+    public int drain(long now, long maxUnflushedMs, boolean force, BiConsumer<TsRollupKey, TsRollupValue> consumer) {
+        List<Map.Entry<TsRollupKey, TsRollupValue>> drained = new ArrayList<>();
+        for (TsRollupKey key : buffer.keySet()) {
+            buffer.computeIfPresent(key, (k, value) -> {
+                if (force || now > k.getTs() + k.getInterval() || now - value.getCreatedTime() > maxUnflushedMs) {
+                    drained.add(new AbstractMap.SimpleEntry<>(k, value));
+                    return null;
+                }
+                return value;
+            });
+        }
+        drained.forEach(e -> consumer.accept(e.getKey(), e.getValue()));
+        return drained.size();
+    }
+
+    public boolean contains(TsRollupKey key) {
+        return buffer.containsKey(key);
+    }
+
+    /**
+     * Drops accumulated buckets of the key with bucket ts in [startTs, endTs), e.g. when the timeseries are removed.
+     */
+    public void remove(String entityType, UUID entityId, String key, long interval, long startTs, long endTs) {
+        buffer.keySet().removeIf(k -> k.getInterval() == interval && k.getTs() >= startTs && k.getTs() < endTs
+                && k.getKey().equals(key) && k.getEntityId().equals(entityId) && k.getEntityType().equals(entityType));
+    }
+
+    public int size() {
+        return buffer.size();
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.timeseries;
+
+import lombok.Getter;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Partial aggregate of the numeric values that fall into a rollup bucket. Boolean and string values are only counted,
+ * so that reads can detect buckets that must be aggregated from raw data.
+ * Not thread safe, updated under {@link java.util.concurrent.ConcurrentHashMap#compute}.
+ */
+@Getter
+public class TsRollupValue {
+
+    private final TenantId tenantId;
+    private final long createdTime;
+    private long longCount;
+    private long longSum;
+    private long longMin;
+    private long longMax;
+    private long doubleCount;
+    private double doubleSum;
+    private double doubleMin;
+    private double doubleMax;
+    private long booleanCount;
+    private long stringCount;
+    private long expirationTime;
+
+    public TsRollupValue(TenantId tenantId, long createdTime) {
+        this.tenantId = tenantId;
+        this.createdTime = createdTime;
+    }
+
+    /**
+     * @param ttl TTL of the raw value in seconds, 0 if the value never expires
+     */
+    public void add(TsKvEntry entry, long ttl, long now) {
+        long entryExpirationTime = ttl > 0 ? now + TimeUnit.SECONDS.toMillis(ttl) : Long.MAX_VALUE;
+        expirationTime = Math.max(expirationTime, entryExpirationTime);
+        switch (entry.getDataType()) {
+            case LONG:
+                long lValue = entry.getLongValue().orElse(0L);
+                longMin = longCount == 0 ? lValue : Math.min(longMin, lValue);
+                longMax = longCount == 0 ? lValue : Math.max(longMax, lValue);
+                longSum += lValue;
+                longCount++;
+                break;
+            case DOUBLE:
+                double dValue = entry.getDoubleValue().orElse(0.0);
+                doubleMin = doubleCount == 0 ? dValue : Math.min(doubleMin, dValue);
+                doubleMax = doubleCount == 0 ? dValue : Math.max(doubleMax, dValue);
+                doubleSum += dValue;
+                doubleCount++;
+                break;
+            case BOOLEAN:
+                booleanCount++;
+                break;
+            default:
+                stringCount++;
+                break;
+        }
+    }
+
+    /**
+     * @return TTL in seconds that expires the rollup together with the latest expiring raw value of the bucket,
+     * 0 if some raw value never expires
+     */
+    public int getTtl(long now) {
+        if (expirationTime == Long.MAX_VALUE) {
+            return 0;
+        }
+        return (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(expirationTime - now + 999));
+    }
+}
@@ -20,6 +20,8 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.server.common.data.id.TenantId;
@@ -27,6 +29,7 @@ import org.thingsboard.server.common.msg.tools.TbRateLimits;
 import org.thingsboard.server.dao.nosql.CassandraStatementTask;
 
 import javax.annotation.Nullable;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -39,17 +42,17 @@ import java.util.regex.Matcher;
 public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extends ListenableFuture<V>, V> implements BufferedRateExecutor<T, F> {
 
     private final long maxWaitTime;
-    private final long pollMs;
-    private final BlockingQueue<AsyncTaskContext<T, V>> queue;
+    private final TenantFairQueue<AsyncTaskContext<T, V>> queue;
+    private final Semaphore permits;
     private final ExecutorService dispatcherExecutor;
     private final ExecutorService callbackExecutor;
     private final ScheduledExecutorService timeoutExecutor;
-    private final int concurrencyLimit;
     private final int printQueriesFreq;
     private final boolean perTenantLimitsEnabled;
     private final String perTenantLimitsConfiguration;
     private final ConcurrentMap<TenantId, TbRateLimits> perTenantLimits = new ConcurrentHashMap<>();
     protected final ConcurrentMap<TenantId, AtomicInteger> rateLimitedTenants = new ConcurrentHashMap<>();
+    protected final ConcurrentMap<TenantId, TenantWaitStats> tenantWaitStats = new ConcurrentHashMap<>();
 
     protected final AtomicInteger concurrencyLevel = new AtomicInteger();
     protected final AtomicInteger totalAdded = new AtomicInteger();
@@ -61,13 +64,14 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
     protected final AtomicInteger totalRateLimited = new AtomicInteger();
     protected final AtomicInteger printQueriesIdx = new AtomicInteger();
 
-    public AbstractBufferedRateExecutor(int queueLimit, int concurrencyLimit, long maxWaitTime, int dispatcherThreads, int callbackThreads, long pollMs,
+    private final Timer queueWaitTimer = Metrics.timer("tb.nosql.queue.wait");
+
+    public AbstractBufferedRateExecutor(int queueLimit, int concurrencyLimit, long maxWaitTime, int dispatcherThreads, int callbackThreads, int tenantQuantum,
                                         boolean perTenantLimitsEnabled, String perTenantLimitsConfiguration, int printQueriesFreq) {
         this.maxWaitTime = maxWaitTime;
-        this.pollMs = pollMs;
-        this.concurrencyLimit = concurrencyLimit;
         this.printQueriesFreq = printQueriesFreq;
-        this.queue = new LinkedBlockingDeque<>(queueLimit);
+        this.queue = new TenantFairQueue<>(queueLimit, tenantQuantum);
+        this.permits = new Semaphore(concurrencyLimit);
         this.dispatcherExecutor = Executors.newFixedThreadPool(dispatcherThreads, ThingsBoardThreadFactory.forName("nosql-dispatcher"));
         this.callbackExecutor = Executors.newWorkStealingPool(callbackThreads);
         this.timeoutExecutor = Executors.newSingleThreadScheduledExecutor(ThingsBoardThreadFactory.forName("nosql-timeout"));
@@ -76,6 +80,8 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
         for (int i = 0; i < dispatcherThreads; i++) {
             dispatcherExecutor.submit(this::dispatch);
         }
+        Metrics.gauge("tb.nosql.queue.size", queue, TenantFairQueue::size);
+        Metrics.gauge("tb.nosql.concurrency", concurrencyLevel);
     }
 
     @Override
@@ -97,12 +103,10 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
             }
         }
         if (!perTenantLimitReached) {
-            try {
-                totalAdded.incrementAndGet();
-                queue.add(new AsyncTaskContext<>(UUID.randomUUID(), task, settableFuture, System.currentTimeMillis()));
-            } catch (IllegalStateException e) {
+            totalAdded.incrementAndGet();
+            if (!queue.offer(task.getTenantId(), new AsyncTaskContext<>(UUID.randomUUID(), task, settableFuture, System.currentTimeMillis()))) {
                 totalRejected.incrementAndGet();
-                settableFuture.setException(e);
+                settableFuture.setException(new IllegalStateException("Queue full"));
             }
         }
         return result;
@@ -129,56 +133,58 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
     private void dispatch() {
         log.info("Buffered rate executor thread started");
         while (!Thread.interrupted()) {
-            int curLvl = concurrencyLevel.get();
             AsyncTaskContext<T, V> taskCtx = null;
+            boolean permitAcquired = false;
             try {
-                if (curLvl <= concurrencyLimit) {
-                    taskCtx = queue.take();
-                    final AsyncTaskContext<T, V> finalTaskCtx = taskCtx;
-                    if (printQueriesFreq > 0) {
-                        if (printQueriesIdx.incrementAndGet() >= printQueriesFreq) {
-                            printQueriesIdx.set(0);
-                            String query = queryToString(finalTaskCtx);
-                            log.info("[{}] Cassandra query: {}", taskCtx.getId(), query);
-                        }
+                permits.acquire();
+                permitAcquired = true;
+                taskCtx = queue.take();
+                final AsyncTaskContext<T, V> finalTaskCtx = taskCtx;
+                if (printQueriesFreq > 0) {
+                    if (printQueriesIdx.incrementAndGet() >= printQueriesFreq) {
+                        printQueriesIdx.set(0);
+                        String query = queryToString(finalTaskCtx);
+                        log.info("[{}] Cassandra query: {}", taskCtx.getId(), query);
                     }
-                    logTask("Processing", finalTaskCtx);
-                    concurrencyLevel.incrementAndGet();
-                    long timeout = finalTaskCtx.getCreateTime() + maxWaitTime - System.currentTimeMillis();
-                    if (timeout > 0) {
-                        totalLaunched.incrementAndGet();
-                        ListenableFuture<V> result = execute(finalTaskCtx);
-                        result = Futures.withTimeout(result, timeout, TimeUnit.MILLISECONDS, timeoutExecutor);
-                        Futures.addCallback(result, new FutureCallback<V>() {
-                            @Override
-                            public void onSuccess(@Nullable V result) {
-                                logTask("Releasing", finalTaskCtx);
-                                totalReleased.incrementAndGet();
-                                concurrencyLevel.decrementAndGet();
-                                finalTaskCtx.getFuture().set(result);
-                            }
+                }
+                logTask("Processing", finalTaskCtx);
+                concurrencyLevel.incrementAndGet();
+                long waitTime = System.currentTimeMillis() - finalTaskCtx.getCreateTime();
+                TenantId tenantId = finalTaskCtx.getTask().getTenantId();
+                tenantWaitStats.computeIfAbsent(tenantId != null ? tenantId : TenantId.SYS_TENANT_ID, id -> new TenantWaitStats()).record(waitTime);
+                queueWaitTimer.record(waitTime, TimeUnit.MILLISECONDS);
+                long timeout = maxWaitTime - waitTime;
+                if (timeout > 0) {
+                    totalLaunched.incrementAndGet();
+                    ListenableFuture<V> result = execute(finalTaskCtx);
+                    result = Futures.withTimeout(result, timeout, TimeUnit.MILLISECONDS, timeoutExecutor);
+                    Futures.addCallback(result, new FutureCallback<V>() {
+                        @Override
+                        public void onSuccess(@Nullable V result) {
+                            logTask("Releasing", finalTaskCtx);
+                            totalReleased.incrementAndGet();
+                            release();
+                            finalTaskCtx.getFuture().set(result);
+                        }
 
-                            @Override
-                            public void onFailure(Throwable t) {
-                                if (t instanceof TimeoutException) {
-                                    logTask("Expired During Execution", finalTaskCtx);
-                                } else {
-                                    logTask("Failed", finalTaskCtx);
-                                }
-                                totalFailed.incrementAndGet();
-                                concurrencyLevel.decrementAndGet();
-                                finalTaskCtx.getFuture().setException(t);
-                                log.debug("[{}] Failed to execute task: {}", finalTaskCtx.getId(), finalTaskCtx.getTask(), t);
+                        @Override
+                        public void onFailure(Throwable t) {
+                            if (t instanceof TimeoutException) {
+                                logTask("Expired During Execution", finalTaskCtx);
+                            } else {
+                                logTask("Failed", finalTaskCtx);
                             }
-                        }, callbackExecutor);
-                    } else {
-                        logTask("Expired Before Execution", finalTaskCtx);
-                        totalExpired.incrementAndGet();
-                        concurrencyLevel.decrementAndGet();
-                        taskCtx.getFuture().setException(new TimeoutException());
-                    }
+                            totalFailed.incrementAndGet();
+                            release();
+                            finalTaskCtx.getFuture().setException(t);
+                            log.debug("[{}] Failed to execute task: {}", finalTaskCtx.getId(), finalTaskCtx.getTask(), t);
+                        }
+                    }, callbackExecutor);
                 } else {
-                    Thread.sleep(pollMs);
+                    logTask("Expired Before Execution", finalTaskCtx);
+                    totalExpired.incrementAndGet();
+                    release();
+                    taskCtx.getFuture().setException(new TimeoutException());
                 }
             } catch (InterruptedException e) {
                 break;
@@ -186,8 +192,11 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
                 if (taskCtx != null) {
                     log.debug("[{}] Failed to execute task: {}", taskCtx.getId(), taskCtx, e);
                     totalFailed.incrementAndGet();
-                    concurrencyLevel.decrementAndGet();
+                    release();
                 } else {
+                    if (permitAcquired) {
+                        permits.release();
+                    }
                     log.debug("Failed to queue task:", e);
                 }
             }
@@ -195,6 +204,11 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
         log.info("Buffered rate executor thread stopped");
     }
 
+    private void release() {
+        concurrencyLevel.decrementAndGet();
+        permits.release();
+    }
+
     private void logTask(String action, AsyncTaskContext<T, V> taskCtx) {
         if (log.isTraceEnabled()) {
             if (taskCtx.getTask() instanceof CassandraStatementTask) {
@@ -246,4 +260,8 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
     protected int getQueueSize() {
         return queue.size();
     }
+
+    protected Map<TenantId, Integer> getTenantQueueSizes() {
+        return queue.getTenantQueueSizes();
+    }
 }
@@ -0,0 +1,113 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.util;
+
+import org.thingsboard.server.common.data.id.TenantId;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded queue with a FIFO sub-queue per tenant. Tenants that have queued elements are served
+ * in round-robin order, up to {@code quantum} elements per turn, so one tenant can't delay others.
+ */
+public class TenantFairQueue<E> {
+
+    private final int capacity;
+    private final int quantum;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Map<TenantId, Queue<E>> queues = new HashMap<>();
+    private final Queue<TenantId> activeTenants = new ArrayDeque<>();
+    private int servedInTurn;
+    private int size;
+
+    public TenantFairQueue(int capacity, int quantum) {
+        this.capacity = capacity;
+        this.quantum = Math.max(1, quantum);
+    }
+
+    public boolean offer(TenantId tenantId, E element) {
+        TenantId key = tenantId != null ? tenantId : TenantId.SYS_TENANT_ID;
+        lock.lock();
+        try {
+            if (size >= capacity) {
+                return false;
+            }
+            Queue<E> queue = queues.get(key);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                queues.put(key, queue);
+                activeTenants.add(key);
+            }
+            queue.add(element);
+            size++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public E take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            TenantId tenantId = activeTenants.peek();
+            Queue<E> queue = queues.get(tenantId);
+            E element = queue.poll();
+            size--;
+            servedInTurn++;
+            if (queue.isEmpty()) {
+                queues.remove(tenantId);
+                activeTenants.poll();
+                servedInTurn = 0;
+            } else if (servedInTurn >= quantum) {
+                activeTenants.add(activeTenants.poll());
+                servedInTurn = 0;
+            }
+            return element;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<TenantId, Integer> getTenantQueueSizes() {
+        lock.lock();
+        try {
+            Map<TenantId, Integer> result = new HashMap<>();
+            queues.forEach((tenantId, queue) -> result.put(tenantId, queue.size()));
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of the time tasks of a single tenant spent in the buffered rate executor queue.
+ */
+public class TenantWaitStats {
+
+    private static final long[] BUCKETS_MS = {10, 50, 100, 500, 1000, 5000};
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS_MS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalWaitMs = new AtomicLong();
+    private final AtomicLong maxWaitMs = new AtomicLong();
+
+    public void record(long waitMs) {
+        int idx = 0;
+        while (idx < BUCKETS_MS.length && waitMs > BUCKETS_MS[idx]) {
+            idx++;
+        }
+        buckets.incrementAndGet(idx);
+        count.incrementAndGet();
+        totalWaitMs.addAndGet(waitMs);
+        maxWaitMs.accumulateAndGet(waitMs, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMaxWaitMs() {
+        return maxWaitMs.get();
+    }
+
+    @Override
+    public String toString() {
+        long countValue = count.get();
+        StringBuilder sb = new StringBuilder();
+        sb.append("count [").append(countValue).append("] avgWait [").append(countValue > 0 ? totalWaitMs.get() / countValue : 0)
+                .append("] maxWait [").append(maxWaitMs.get()).append("] histogram [");
+        for (int i = 0; i < buckets.length(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(i < BUCKETS_MS.length ? "<=" + BUCKETS_MS[i] : ">" + BUCKETS_MS[BUCKETS_MS.length - 1]).append("ms: ").append(buckets.get(i));
+        }
+        return sb.append("]").toString();
+    }
+}
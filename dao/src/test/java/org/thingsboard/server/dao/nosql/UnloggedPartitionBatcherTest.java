@@ -0,0 +1,62 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.nosql;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UnloggedPartitionBatcherTest {
+
+    @Test
+    public void testStatementsGroupedByPartition() {
+        UnloggedPartitionBatcher batcher = new UnloggedPartitionBatcher(10, 1024);
+        batcher.add("a", new SimpleStatement("a1"), 10);
+        batcher.add("b", new SimpleStatement("b1"), 10);
+        batcher.add("a", new SimpleStatement("a2"), 10);
+
+        List<Statement> result = batcher.build();
+        assertEquals(3, batcher.getStatementsCount());
+        assertEquals(2, result.size());
+        assertTrue(result.get(0) instanceof BatchStatement);
+        assertEquals(2, ((BatchStatement) result.get(0)).size());
+        assertTrue(result.get(1) instanceof SimpleStatement);
+    }
+
+    @Test
+    public void testBatchLimits() {
+        UnloggedPartitionBatcher batcher = new UnloggedPartitionBatcher(2, 100);
+        for (int i = 0; i < 5; i++) {
+            batcher.add("a", new SimpleStatement("a" + i), 10);
+        }
+        batcher.add("b", new SimpleStatement("b0"), 60);
+        batcher.add("b", new SimpleStatement("b1"), 60);
+
+        List<Statement> result = batcher.build();
+        assertEquals(5, result.size());
+        assertEquals(2, ((BatchStatement) result.get(0)).size());
+        assertEquals(2, ((BatchStatement) result.get(1)).size());
+        assertTrue(result.get(2) instanceof SimpleStatement);
+        assertTrue(result.get(3) instanceof SimpleStatement);
+        assertTrue(result.get(4) instanceof SimpleStatement);
+    }
+}
@@ -20,10 +20,15 @@ import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.thingsboard.server.common.data.CacheConstants;
 import org.thingsboard.server.common.data.Tenant;
 import org.thingsboard.server.common.data.alarm.Alarm;
 import org.thingsboard.server.common.data.alarm.AlarmInfo;
 import org.thingsboard.server.common.data.alarm.AlarmQuery;
+import org.thingsboard.server.common.data.alarm.AlarmSearchStatus;
 import org.thingsboard.server.common.data.alarm.AlarmSeverity;
 import org.thingsboard.server.common.data.alarm.AlarmStatus;
 import org.thingsboard.server.common.data.id.AssetId;
@@ -39,6 +44,10 @@ import java.util.concurrent.ExecutionException;
 public abstract class BaseAlarmServiceTest extends AbstractServiceTest {
 
     public static final String TEST_ALARM = "TEST_ALARM";
+
+    @Autowired
+    private CacheManager cacheManager;
+
     private TenantId tenantId;
 
     @Before
@@ -187,6 +196,71 @@ public abstract class BaseAlarmServiceTest extends AbstractServiceTest {
         Assert.assertEquals(created, alarms.getData().get(0));
     }
 
+    @Test
+    public void testFindHighestAlarmSeverity() throws ExecutionException, InterruptedException {
+        AssetId parentId = new AssetId(UUIDs.timeBased());
+        AssetId childId = new AssetId(UUIDs.timeBased());
+
+        EntityRelation relation = new EntityRelation(parentId, childId, EntityRelation.CONTAINS_TYPE);
+
+        Assert.assertTrue(relationService.saveRelationAsync(tenantId, relation).get());
+
+        long ts = System.currentTimeMillis();
+        Alarm majorAlarm = alarmService.createOrUpdateAlarm(Alarm.builder().tenantId(tenantId).originator(childId)
+                .type(TEST_ALARM)
+                .propagate(true)
+                .severity(AlarmSeverity.MAJOR).status(AlarmStatus.ACTIVE_UNACK)
+                .startTs(ts).build());
+
+        Assert.assertEquals(AlarmSeverity.MAJOR, alarmService.findHighestAlarmSeverity(tenantId, parentId, AlarmSearchStatus.ANY, null));
+        Assert.assertEquals(AlarmSeverity.MAJOR, alarmService.findHighestAlarmSeverity(tenantId, childId, AlarmSearchStatus.ACTIVE, null));
+
+        Alarm criticalAlarm = alarmService.createOrUpdateAlarm(Alarm.builder().tenantId(tenantId).originator(childId)
+                .type(TEST_ALARM + "_2")
+                .propagate(true)
+                .severity(AlarmSeverity.CRITICAL).status(AlarmStatus.ACTIVE_UNACK)
+                .startTs(ts).build());
+
+        Assert.assertEquals(AlarmSeverity.CRITICAL, alarmService.findHighestAlarmSeverity(tenantId, parentId, AlarmSearchStatus.ACTIVE, null));
+
+        alarmService.clearAlarm(tenantId, criticalAlarm.getId(), null, System.currentTimeMillis()).get();
+
+        Assert.assertEquals(AlarmSeverity.MAJOR, alarmService.findHighestAlarmSeverity(tenantId, parentId, AlarmSearchStatus.ACTIVE, null));
+        Assert.assertEquals(AlarmSeverity.CRITICAL, alarmService.findHighestAlarmSeverity(tenantId, parentId, AlarmSearchStatus.ANY, null));
+        Assert.assertEquals(AlarmSeverity.CRITICAL, alarmService.findHighestAlarmSeverity(tenantId, childId, null, AlarmStatus.CLEARED_UNACK));
+
+        alarmService.ackAlarm(tenantId, majorAlarm.getId(), System.currentTimeMillis()).get();
+
+        Assert.assertNull(alarmService.findHighestAlarmSeverity(tenantId, childId, null, AlarmStatus.ACTIVE_UNACK));
+        Assert.assertEquals(AlarmSeverity.MAJOR, alarmService.findHighestAlarmSeverity(tenantId, childId, AlarmSearchStatus.ACK, null));
+
+        Assert.assertTrue(alarmService.deleteAlarm(tenantId, criticalAlarm.getId()));
+
+        Assert.assertEquals(AlarmSeverity.MAJOR, alarmService.findHighestAlarmSeverity(tenantId, parentId, AlarmSearchStatus.ANY, null));
+    }
+
+    @Test
+    public void testSeverityCountsRecountedAfterAlarmChange() throws ExecutionException, InterruptedException {
+        AssetId originatorId = new AssetId(UUIDs.timeBased());
+        Cache cache = cacheManager.getCache(CacheConstants.ALARM_SEVERITY_CACHE);
+
+        Assert.assertNull(alarmService.findHighestAlarmSeverity(tenantId, originatorId, AlarmSearchStatus.ACTIVE, null));
+        Assert.assertNotNull(cache.get(originatorId));
+
+        Alarm alarm = alarmService.createOrUpdateAlarm(Alarm.builder().tenantId(tenantId).originator(originatorId)
+                .type(TEST_ALARM)
+                .severity(AlarmSeverity.MINOR).status(AlarmStatus.ACTIVE_UNACK)
+                .startTs(System.currentTimeMillis()).build());
+        Assert.assertNull(cache.get(originatorId));
+
+        Assert.assertEquals(AlarmSeverity.MINOR, alarmService.findHighestAlarmSeverity(tenantId, originatorId, AlarmSearchStatus.ACTIVE, null));
+        alarmService.clearAlarm(tenantId, alarm.getId(), null, System.currentTimeMillis()).get();
+        Assert.assertNull(alarmService.findHighestAlarmSeverity(tenantId, originatorId, AlarmSearchStatus.ACTIVE, null));
+
+        Assert.assertTrue(alarmService.deleteAlarm(tenantId, alarm.getId()));
+        Assert.assertNull(alarmService.findHighestAlarmSeverity(tenantId, originatorId, AlarmSearchStatus.ANY, null));
+    }
+
     @Test
     public void testDeleteAlarm() throws ExecutionException, InterruptedException {
         AssetId parentId = new AssetId(UUIDs.timeBased());
@@ -29,6 +29,10 @@ import org.thingsboard.server.common.data.security.DeviceCredentials;
 import org.thingsboard.server.common.data.security.DeviceCredentialsType;
 import org.thingsboard.server.dao.exception.DataValidationException;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 public abstract class BaseDeviceCredentialsServiceTest extends AbstractServiceTest {
 
     private TenantId tenantId;
@@ -167,6 +171,20 @@ public abstract class BaseDeviceCredentialsServiceTest extends AbstractServiceTe
         Assert.assertNull(foundDeviceCredentials);
     }
 
+    @Test
+    public void testFindDeviceCredentialsByCredentialsIds() {
+        Device device = new Device();
+        device.setTenantId(tenantId);
+        device.setName("My device");
+        device.setType("default");
+        Device savedDevice = deviceService.saveDevice(device);
+        DeviceCredentials deviceCredentials = deviceCredentialsService.findDeviceCredentialsByDeviceId(tenantId, savedDevice.getId());
+        List<DeviceCredentials> foundDeviceCredentials = deviceCredentialsService.findDeviceCredentialsByCredentialsIds(
+                Arrays.asList(deviceCredentials.getCredentialsId(), "unknown_access_token"));
+        Assert.assertEquals(Collections.singletonList(deviceCredentials), foundDeviceCredentials);
+        deviceService.deleteDevice(tenantId, savedDevice.getId());
+    }
+
     @Test
     public void testSaveDeviceCredentials() {
         Device device = new Device();
@@ -31,6 +31,7 @@ import org.thingsboard.server.common.data.relation.RelationTypeGroup;
 import org.thingsboard.server.common.data.relation.RelationsSearchParameters;
 import org.thingsboard.server.dao.exception.DataValidationException;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -269,6 +270,45 @@ public abstract class BaseRelationServiceTest extends AbstractServiceTest {
     }
 
 
+    @Test
+    public void testRecursiveRelationWithMaxLevelAndLastLevelOnly() throws ExecutionException, InterruptedException {
+        // A -> [B,C], B -> D, C -> E, D -> F
+        AssetId assetA = new AssetId(UUIDs.timeBased());
+        AssetId assetB = new AssetId(UUIDs.timeBased());
+        AssetId assetC = new AssetId(UUIDs.timeBased());
+        AssetId assetD = new AssetId(UUIDs.timeBased());
+        AssetId assetE = new AssetId(UUIDs.timeBased());
+        AssetId assetF = new AssetId(UUIDs.timeBased());
+
+        EntityRelation relationAB = new EntityRelation(assetA, assetB, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationAC = new EntityRelation(assetA, assetC, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationBD = new EntityRelation(assetB, assetD, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationCE = new EntityRelation(assetC, assetE, EntityRelation.CONTAINS_TYPE);
+        EntityRelation relationDF = new EntityRelation(assetD, assetF, EntityRelation.CONTAINS_TYPE);
+
+        saveRelation(relationAB);
+        saveRelation(relationAC);
+        saveRelation(relationBD);
+        saveRelation(relationCE);
+        saveRelation(relationDF);
+
+        EntityRelationsQuery query = new EntityRelationsQuery();
+        query.setParameters(new RelationsSearchParameters(assetA, EntitySearchDirection.FROM, 2, false));
+        List<EntityRelation> relations = relationService.findByQuery(SYSTEM_TENANT_ID, query).get();
+        Assert.assertEquals(4, relations.size());
+        Assert.assertTrue(relations.containsAll(Arrays.asList(relationAB, relationAC, relationBD, relationCE)));
+
+        query.setParameters(new RelationsSearchParameters(assetA, EntitySearchDirection.FROM, 2, true));
+        relations = relationService.findByQuery(SYSTEM_TENANT_ID, query).get();
+        Assert.assertEquals(2, relations.size());
+        Assert.assertTrue(relations.containsAll(Arrays.asList(relationBD, relationCE)));
+
+        query.setParameters(new RelationsSearchParameters(assetF, EntitySearchDirection.TO, -1, false));
+        relations = relationService.findByQuery(SYSTEM_TENANT_ID, query).get();
+        Assert.assertEquals(3, relations.size());
+        Assert.assertTrue(relations.containsAll(Arrays.asList(relationDF, relationBD, relationAB)));
+    }
+
     @Test(expected = DataValidationException.class)
     public void testSaveRelationWithEmptyFrom() throws ExecutionException, InterruptedException {
         EntityRelation relation = new EntityRelation();
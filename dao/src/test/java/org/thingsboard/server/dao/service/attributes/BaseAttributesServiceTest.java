@@ -22,6 +22,7 @@ import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.thingsboard.server.common.data.DataConstants;
 import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.kv.AttributeKvEntry;
 import org.thingsboard.server.common.data.kv.BaseAttributeKvEntry;
 import org.thingsboard.server.common.data.kv.KvEntry;
@@ -29,8 +30,10 @@ import org.thingsboard.server.common.data.kv.StringDataEntry;
 import org.thingsboard.server.dao.attributes.AttributesService;
 import org.thingsboard.server.dao.service.AbstractServiceTest;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -100,4 +103,26 @@ public abstract class BaseAttributesServiceTest extends AbstractServiceTest {
         Assert.assertEquals(attrBNew, saved.get(1));
     }
 
+    @Test
+    public void findForMultipleEntities() throws Exception {
+        DeviceId deviceIdA = new DeviceId(UUIDs.timeBased());
+        DeviceId deviceIdB = new DeviceId(UUIDs.timeBased());
+        DeviceId deviceIdC = new DeviceId(UUIDs.timeBased());
+
+        AttributeKvEntry attrA = new BaseAttributeKvEntry(new StringDataEntry("A", "value1"), 42L);
+        AttributeKvEntry attrB = new BaseAttributeKvEntry(new StringDataEntry("B", "value2"), 42L);
+        AttributeKvEntry attrC = new BaseAttributeKvEntry(new StringDataEntry("C", "value3"), 42L);
+
+        attributesService.save(SYSTEM_TENANT_ID, deviceIdA, DataConstants.SERVER_SCOPE, Arrays.asList(attrA, attrC)).get();
+        attributesService.save(SYSTEM_TENANT_ID, deviceIdB, DataConstants.SERVER_SCOPE, Collections.singletonList(attrB)).get();
+
+        Map<EntityId, List<AttributeKvEntry>> saved = attributesService.find(SYSTEM_TENANT_ID, Arrays.asList(deviceIdA, deviceIdB, deviceIdC),
+                DataConstants.SERVER_SCOPE, Arrays.asList("A", "B")).get();
+
+        Assert.assertEquals(3, saved.size());
+        Assert.assertEquals(Collections.singletonList(attrA), saved.get(deviceIdA));
+        Assert.assertEquals(Collections.singletonList(attrB), saved.get(deviceIdB));
+        Assert.assertTrue(saved.get(deviceIdC).isEmpty());
+    }
+
 }
@@ -42,6 +42,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -221,6 +222,25 @@ public abstract class BaseTimeseriesServiceTest extends AbstractServiceTest {
         Assert.assertEquals(20000, latest.get(0).getTs());
     }
 
+    @Test
+    public void testSaveToRemovedPartition() throws Exception {
+        DeviceId deviceId = new DeviceId(UUIDs.timeBased());
+        long hour = TimeUnit.HOURS.toMillis(1);
+
+        tsService.save(tenantId, deviceId, toTsEntry(2 * hour + 10, stringKvEntry)).get();
+        tsService.save(tenantId, deviceId, toTsEntry(4 * hour + 10, stringKvEntry)).get();
+
+        tsService.remove(tenantId, deviceId, Collections.singletonList(
+                new BaseDeleteTsKvQuery(STRING_KEY, 2 * hour, 4 * hour))).get();
+        tsService.save(tenantId, deviceId, toTsEntry(2 * hour + 20, stringKvEntry)).get();
+
+        List<TsKvEntry> list = tsService.findAll(tenantId, deviceId, Collections.singletonList(
+                new BaseReadTsKvQuery(STRING_KEY, 0, 5 * hour, 5 * hour, 10, Aggregation.NONE))).get();
+        Assert.assertEquals(2, list.size());
+        Assert.assertEquals(4 * hour + 10, list.get(0).getTs());
+        Assert.assertEquals(2 * hour + 20, list.get(1).getTs());
+    }
+
     @Test
     public void testFindDeviceTsData() throws Exception {
         DeviceId deviceId = new DeviceId(UUIDs.timeBased());
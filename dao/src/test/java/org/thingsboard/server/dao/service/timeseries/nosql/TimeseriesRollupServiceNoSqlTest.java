@@ -0,0 +1,185 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.service.timeseries.nosql;
+
+import com.datastax.driver.core.utils.UUIDs;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.Tenant;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.kv.Aggregation;
+import org.thingsboard.server.common.data.kv.BaseDeleteTsKvQuery;
+import org.thingsboard.server.common.data.kv.BaseReadTsKvQuery;
+import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
+import org.thingsboard.server.common.data.kv.BooleanDataEntry;
+import org.thingsboard.server.common.data.kv.LongDataEntry;
+import org.thingsboard.server.common.data.kv.StringDataEntry;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+import org.thingsboard.server.dao.service.AbstractServiceTest;
+import org.thingsboard.server.dao.service.DaoNoSqlTest;
+import org.thingsboard.server.dao.timeseries.TimeseriesDao;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@DaoNoSqlTest
+@TestPropertySource(properties = {
+        "cassandra.query.ts_rollups.enabled=true",
+        "cassandra.query.ts_rollups.intervals=60000",
+        "cassandra.query.ts_rollups.flush_interval_ms=3600000"
+})
+public class TimeseriesRollupServiceNoSqlTest extends AbstractServiceTest {
+
+    private static final String KEY = "rollupKey";
+    private static final long MINUTE = 60000;
+    private static final long BASE_TS = 25000000 * MINUTE;
+
+    @Autowired
+    private TimeseriesDao timeseriesDao;
+
+    private TenantId tenantId;
+    private DeviceId deviceId;
+
+    @Before
+    public void before() {
+        Tenant tenant = new Tenant();
+        tenant.setTitle("My tenant");
+        Tenant savedTenant = tenantService.saveTenant(tenant);
+        Assert.assertNotNull(savedTenant);
+        tenantId = savedTenant.getId();
+        deviceId = new DeviceId(UUIDs.timeBased());
+    }
+
+    @After
+    public void after() {
+        tenantService.deleteTenant(tenantId);
+    }
+
+    @Test
+    public void testAggregateBucketsWithoutRollups() throws Exception {
+        Object rollupBuffer = ReflectionTestUtils.getField(getDao(), "rollupBuffer");
+        ReflectionTestUtils.setField(getDao(), "rollupBuffer", null);
+        try {
+            // saved before rollups were enabled
+            save(BASE_TS + 10000, 1);
+            save(BASE_TS + 20000, 2);
+        } finally {
+            ReflectionTestUtils.setField(getDao(), "rollupBuffer", rollupBuffer);
+        }
+        save(BASE_TS + MINUTE + 10000, 3);
+        save(BASE_TS + MINUTE + 40000, 4);
+        save(BASE_TS + 2 * MINUTE + 10000, 5);
+        flushRollups();
+
+        assertEquals(15L, aggregate(BASE_TS, BASE_TS + 3 * MINUTE, Aggregation.SUM));
+        assertEquals(5L, aggregate(BASE_TS, BASE_TS + 3 * MINUTE, Aggregation.COUNT));
+        assertEquals(1L, aggregate(BASE_TS, BASE_TS + 3 * MINUTE, Aggregation.MIN));
+    }
+
+    @Test
+    public void testAggregateAfterPartialRemove() throws Exception {
+        save(BASE_TS + 10000, 1);
+        save(BASE_TS + MINUTE + 10000, 3);
+        save(BASE_TS + MINUTE + 40000, 4);
+        flushRollups();
+
+        tsService.remove(tenantId, deviceId, Collections.singletonList(
+                new BaseDeleteTsKvQuery(KEY, BASE_TS + MINUTE, BASE_TS + MINUTE + 20000))).get();
+
+        assertEquals(5L, aggregate(BASE_TS, BASE_TS + 2 * MINUTE, Aggregation.SUM));
+        assertEquals(2L, aggregate(BASE_TS, BASE_TS + 2 * MINUTE, Aggregation.COUNT));
+    }
+
+    @Test
+    public void testAggregateOpenBucket() throws Exception {
+        long bucketTs = System.currentTimeMillis() / MINUTE * MINUTE;
+        save(bucketTs + 1, 7);
+        // partial rollup of the open bucket is persisted, the rest is still accumulated
+        flushRollups();
+        save(bucketTs + 2, 8);
+
+        assertEquals(15L, aggregate(bucketTs, bucketTs + MINUTE, Aggregation.SUM));
+    }
+
+    @Test
+    public void testRollupsExpireWithRawData() throws Exception {
+        tsService.save(tenantId, deviceId, Collections.singletonList(new BasicTsKvEntry(BASE_TS + 10000, new LongDataEntry(KEY, 1L))), 2).get();
+        flushRollups();
+        assertEquals(1L, aggregate(BASE_TS, BASE_TS + MINUTE, Aggregation.SUM));
+
+        Thread.sleep(3000);
+
+        assertTrue(findAggregated(BASE_TS, BASE_TS + MINUTE, Aggregation.SUM).isEmpty());
+    }
+
+    @Test
+    public void testAggregateBucketWithNonNumericValues() throws Exception {
+        save(BASE_TS + 10000, 1);
+        save(BASE_TS + MINUTE + 10000, 3);
+        tsService.save(tenantId, deviceId, Arrays.asList(
+                new BasicTsKvEntry(BASE_TS + MINUTE + 20000, new BooleanDataEntry(KEY, true)),
+                new BasicTsKvEntry(BASE_TS + MINUTE + 30000, new StringDataEntry(KEY, "on"))), 0).get();
+        flushRollups();
+
+        for (Aggregation aggregation : Arrays.asList(Aggregation.COUNT, Aggregation.MIN, Aggregation.MAX, Aggregation.SUM)) {
+            List<TsKvEntry> withRollups = findAggregated(BASE_TS, BASE_TS + 2 * MINUTE, aggregation);
+            Object rollupBuffer = ReflectionTestUtils.getField(getDao(), "rollupBuffer");
+            ReflectionTestUtils.setField(getDao(), "rollupBuffer", null);
+            try {
+                assertEquals(findAggregated(BASE_TS, BASE_TS + 2 * MINUTE, aggregation), withRollups);
+            } finally {
+                ReflectionTestUtils.setField(getDao(), "rollupBuffer", rollupBuffer);
+            }
+        }
+    }
+
+    private void save(long ts, long value) throws Exception {
+        TsKvEntry entry = new BasicTsKvEntry(ts, new LongDataEntry(KEY, value));
+        tsService.save(tenantId, deviceId, Collections.singletonList(entry), 0).get();
+    }
+
+    private long aggregate(long startTs, long endTs, Aggregation aggregation) throws Exception {
+        List<TsKvEntry> result = findAggregated(startTs, endTs, aggregation);
+        assertEquals(1, result.size());
+        return result.get(0).getLongValue().orElseThrow(IllegalStateException::new);
+    }
+
+    private List<TsKvEntry> findAggregated(long startTs, long endTs, Aggregation aggregation) throws Exception {
+        return tsService.findAll(tenantId, deviceId, Arrays.asList(
+                new BaseReadTsKvQuery(KEY, startTs, endTs, endTs - startTs, 1, aggregation))).get();
+    }
+
+    private void flushRollups() throws Exception {
+        ListenableFuture<?> future = ReflectionTestUtils.invokeMethod(getDao(), "flushRollups", true);
+        future.get();
+    }
+
+    private Object getDao() {
+        return AopTestUtils.getUltimateTargetObject(timeseriesDao);
+    }
+}
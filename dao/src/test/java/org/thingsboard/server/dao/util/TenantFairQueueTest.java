@@ -0,0 +1,62 @@
+/**
+ * Copyright © 2016-2020 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.util;
+
+import com.datastax.driver.core.utils.UUIDs;
+import org.junit.Test;
+import org.thingsboard.server.common.data.id.TenantId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TenantFairQueueTest {
+
+    private final TenantId noisyTenant = new TenantId(UUIDs.timeBased());
+    private final TenantId quietTenant = new TenantId(UUIDs.timeBased());
+
+    @Test
+    public void testTenantsServedInRoundRobin() throws Exception {
+        TenantFairQueue<String> queue = new TenantFairQueue<>(100, 2);
+        for (int i = 0; i < 6; i++) {
+            assertTrue(queue.offer(noisyTenant, "noisy" + i));
+        }
+        assertTrue(queue.offer(quietTenant, "quiet0"));
+        assertTrue(queue.offer(quietTenant, "quiet1"));
+        assertTrue(queue.offer(quietTenant, "quiet2"));
+
+        List<String> result = new ArrayList<>();
+        while (queue.size() > 0) {
+            result.add(queue.take());
+        }
+        assertEquals(Arrays.asList("noisy0", "noisy1", "quiet0", "quiet1", "noisy2", "noisy3", "quiet2", "noisy4", "noisy5"), result);
+        assertTrue(queue.getTenantQueueSizes().isEmpty());
+    }
+
+    @Test
+    public void testCapacityIsSharedByTenants() {
+        TenantFairQueue<String> queue = new TenantFairQueue<>(2, 1);
+        assertTrue(queue.offer(noisyTenant, "noisy0"));
+        assertTrue(queue.offer(quietTenant, "quiet0"));
+        assertFalse(queue.offer(quietTenant, "quiet1"));
+        assertEquals(2, queue.size());
+        assertEquals(Integer.valueOf(1), queue.getTenantQueueSizes().get(quietTenant));
+    }
+}
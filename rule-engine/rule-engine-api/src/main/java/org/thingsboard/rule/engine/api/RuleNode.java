@@ -57,4 +57,10 @@ public @interface RuleNode {
 
     boolean customRelations() default false;
 
+    /**
+     * Node processes messages synchronously, in the calling thread, and keeps no state between messages,
+     * so the rule chain may execute it in-line instead of sending the message to the node actor.
+     */
+    boolean stateless() default false;
+
 }
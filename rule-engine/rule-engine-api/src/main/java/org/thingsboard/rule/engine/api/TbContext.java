@@ -63,6 +63,11 @@ public interface TbContext {
 
     void tellFailure(TbMsg msg, Throwable th);
 
+    /**
+     * Acknowledges the message that is consumed by the node without passing it to the next nodes.
+     */
+    void ack(TbMsg msg);
+
     void updateSelf(RuleNode self);
 
     void sendTbMsgToRuleEngine(TbMsg msg);
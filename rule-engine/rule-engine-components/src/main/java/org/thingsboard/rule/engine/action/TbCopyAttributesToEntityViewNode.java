@@ -18,7 +18,6 @@ package org.thingsboard.rule.engine.action;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.rule.engine.api.EmptyNodeConfiguration;
@@ -73,7 +72,7 @@ public class TbCopyAttributesToEntityViewNode implements TbNode {
                 DataConstants.ATTRIBUTES_DELETED.equals(msg.getType()) ||
                 DataConstants.ACTIVITY_EVENT.equals(msg.getType()) ||
                 SessionMsgType.POST_ATTRIBUTES_REQUEST.name().equals(msg.getType())) {
-            if (!msg.getMetaData().getData().isEmpty()) {
+            if (!msg.getMetaData().readOnlyData().isEmpty()) {
                 long now = System.currentTimeMillis();
                 String scope = msg.getType().equals(SessionMsgType.POST_ATTRIBUTES_REQUEST.name()) ?
                         DataConstants.CLIENT_SCOPE : msg.getMetaData().getValue("scope");
@@ -90,7 +89,7 @@ public class TbCopyAttributesToEntityViewNode implements TbNode {
                                     if (DataConstants.ATTRIBUTES_UPDATED.equals(msg.getType()) ||
                                             DataConstants.ACTIVITY_EVENT.equals(msg.getType()) ||
                                             SessionMsgType.POST_ATTRIBUTES_REQUEST.name().equals(msg.getType()) ) {
-                                        Set<AttributeKvEntry> attributes = JsonConverter.convertToAttributes(new JsonParser().parse(msg.getData()));
+                                        Set<AttributeKvEntry> attributes = JsonConverter.convertToAttributes(msg.getJsonData());
                                         List<AttributeKvEntry> filteredAttributes =
                                                 attributes.stream().filter(attr -> attributeContainsInEntityView(scope, attr.getKey(), entityView)).collect(Collectors.toList());
                                         ctx.getTelemetryService().saveAndNotify(ctx.getTenantId(), entityView.getId(), scope, filteredAttributes,
@@ -107,7 +106,7 @@ public class TbCopyAttributesToEntityViewNode implements TbNode {
                                                 });
                                     } else if (DataConstants.ATTRIBUTES_DELETED.equals(msg.getType())) {
                                         List<String> attributes = new ArrayList<>();
-                                        for (JsonElement element : new JsonParser().parse(msg.getData()).getAsJsonObject().get("attributes").getAsJsonArray()) {
+                                        for (JsonElement element : msg.getJsonData().getAsJsonObject().get("attributes").getAsJsonArray()) {
                                             if (element.isJsonPrimitive()) {
                                                 JsonPrimitive value = element.getAsJsonPrimitive();
                                                 if (value.isString()) {
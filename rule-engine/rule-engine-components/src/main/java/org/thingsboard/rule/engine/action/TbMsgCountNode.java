@@ -81,6 +81,7 @@ public class TbMsgCountNode implements TbNode {
         } else {
             messagesProcessed.incrementAndGet();
         }
+        ctx.ack(msg);
     }
 
     private void scheduleTickMsg(TbContext ctx) {
@@ -15,10 +15,12 @@
  */
 package org.thingsboard.rule.engine.action;
 
+import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.CodecRegistry;
 import com.datastax.driver.core.ConsistencyLevel;
 import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ProtocolVersion;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Session;
@@ -28,9 +30,9 @@ import com.datastax.driver.core.exceptions.CodecNotFoundException;
 import com.google.common.base.Function;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.rule.engine.api.RuleNode;
@@ -41,6 +43,7 @@ import org.thingsboard.rule.engine.api.TbNodeException;
 import org.thingsboard.rule.engine.api.util.TbNodeUtils;
 import org.thingsboard.server.common.data.plugin.ComponentType;
 import org.thingsboard.server.common.msg.TbMsg;
+import org.thingsboard.server.common.msg.TbMsgMetaData;
 import org.thingsboard.server.dao.cassandra.CassandraCluster;
 import org.thingsboard.server.dao.model.type.AuthorityCodec;
 import org.thingsboard.server.dao.model.type.ComponentLifecycleStateCodec;
@@ -52,13 +55,17 @@ import org.thingsboard.server.dao.model.type.JsonCodec;
 import org.thingsboard.server.dao.nosql.CassandraStatementTask;
 
 import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.thingsboard.rule.engine.api.TbRelationTypes.SUCCESS;
 import static org.thingsboard.common.util.DonAsynchron.withCallback;
@@ -74,15 +81,18 @@ import static org.thingsboard.common.util.DonAsynchron.withCallback;
                 "Administrator can configure the mapping between the Message field names and Table columns name.<br>" +
                 "<b>Note:</b>If the mapping key is <b>$entity_id</b>, that is identified by the Message Originator, then to the appropriate column name(mapping value) will be write the message originator id.<br><br>" +
                 "If specified message field does not exist or is not a JSON Primitive, the outbound message will be routed via <b>failure</b> chain," +
-                " otherwise, the message will be routed via <b>success</b> chain.",
+                " otherwise, the message will be routed via <b>success</b> chain.<br><br>" +
+                "If batching is enabled, rows that share the same partition key are written as a single unlogged batch " +
+                "once <b>batchMaxSize</b> rows are collected or <b>batchMaxDelayMs</b> elapses.",
         uiResources = {"static/rulenode/rulenode-core-config.js"},
         configDirective = "tbActionNodeCustomTableConfig",
         icon = "file_upload")
 public class TbSaveToCustomCassandraTableNode implements TbNode {
 
     private static final String TABLE_PREFIX = "cs_tb_";
-    private static final JsonParser parser = new JsonParser();
     private static final String ENTITY_ID = "$entityId";
+    private static final String TB_MSG_CUSTOM_TABLE_FLUSH_MSG = "TbMsgCustomTableFlushMsg";
+    private static final long STATS_PRINT_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
 
     private TbSaveToCustomCassandraTableNodeConfiguration config;
     private Session session;
@@ -91,6 +101,16 @@ public class TbSaveToCustomCassandraTableNode implements TbNode {
     private PreparedStatement saveStmt;
     private ExecutorService readResultsProcessingExecutor;
     private Map<String, String> fieldsMap;
+    private ProtocolVersion protocolVersion;
+
+    private Map<ByteBuffer, List<PendingWrite>> pendingBatches;
+    private int pendingCount;
+    private boolean flushScheduled;
+
+    private final AtomicLong writtenRows = new AtomicLong();
+    private final AtomicLong writtenStatements = new AtomicLong();
+    private final AtomicLong failedRows = new AtomicLong();
+    private long lastStatsPrintTs;
 
     @Override
     public void init(TbContext ctx, TbNodeConfiguration configuration) throws TbNodeException {
@@ -101,18 +121,32 @@ public class TbSaveToCustomCassandraTableNode implements TbNode {
         } else {
             startExecutor();
             saveStmt = getSaveStmt();
+            protocolVersion = getSession().getCluster().getConfiguration().getProtocolOptions().getProtocolVersion();
+            pendingBatches = new HashMap<>();
+            lastStatsPrintTs = System.currentTimeMillis();
         }
     }
 
     @Override
     public void onMsg(TbContext ctx, TbMsg msg) throws ExecutionException, InterruptedException, TbNodeException {
-        withCallback(save(msg, ctx), aVoid -> {
-            ctx.tellNext(msg, SUCCESS);
-        }, e -> ctx.tellFailure(msg, e), ctx.getDbCallbackExecutor());
+        if (msg.getType().equals(TB_MSG_CUSTOM_TABLE_FLUSH_MSG)) {
+            flushScheduled = false;
+            flushAll(ctx);
+        } else {
+            withCallback(save(msg, ctx), aVoid -> {
+                ctx.tellNext(msg, SUCCESS);
+            }, e -> ctx.tellFailure(msg, e), ctx.getDbCallbackExecutor());
+        }
+        printStats(ctx);
     }
 
     @Override
     public void destroy() {
+        if (pendingBatches != null) {
+            pendingBatches.values().forEach(batch -> batch.forEach(write -> write.future.setException(new RuntimeException("Rule node is stopped!"))));
+            pendingBatches.clear();
+            pendingCount = 0;
+        }
         stopExecutor();
         saveStmt = null;
     }
@@ -196,7 +230,7 @@ public class TbSaveToCustomCassandraTableNode implements TbNode {
     }
 
     private ListenableFuture<Void> save(TbMsg msg, TbContext ctx) {
-        JsonElement data = parser.parse(msg.getData());
+        JsonElement data = msg.getJsonData();
         if (!data.isJsonObject()) {
             throw new IllegalStateException("Invalid message structure, it is not a JSON Object:" + data);
         } else {
@@ -226,7 +260,77 @@ public class TbSaveToCustomCassandraTableNode implements TbNode {
                 }
                 i.getAndIncrement();
             });
-            return getFuture(executeAsyncWrite(ctx, stmt), rs -> null);
+            if (config.isBatchEnabled()) {
+                return addToBatch(ctx, stmt);
+            } else {
+                return write(ctx, stmt, 1);
+            }
+        }
+    }
+
+    private ListenableFuture<Void> addToBatch(TbContext ctx, BoundStatement stmt) {
+        ByteBuffer partitionKey = stmt.getRoutingKey(protocolVersion, getSession().getCluster().getConfiguration().getCodecRegistry());
+        if (partitionKey == null) {
+            return write(ctx, stmt, 1);
+        }
+        SettableFuture<Void> future = SettableFuture.create();
+        List<PendingWrite> batch = pendingBatches.computeIfAbsent(partitionKey, key -> new ArrayList<>());
+        batch.add(new PendingWrite(stmt, future));
+        pendingCount++;
+        if (batch.size() >= Math.max(1, config.getBatchMaxSize())) {
+            pendingBatches.remove(partitionKey);
+            flush(ctx, batch);
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+            TbMsg flushMsg = ctx.newMsg(TB_MSG_CUSTOM_TABLE_FLUSH_MSG, ctx.getSelfId(), new TbMsgMetaData(), "");
+            ctx.tellSelf(flushMsg, Math.max(0, config.getBatchMaxDelayMs()));
+        }
+        return future;
+    }
+
+    private void flushAll(TbContext ctx) {
+        pendingBatches.values().forEach(batch -> flush(ctx, batch));
+        pendingBatches.clear();
+    }
+
+    private void flush(TbContext ctx, List<PendingWrite> batch) {
+        pendingCount -= batch.size();
+        Statement statement;
+        if (batch.size() == 1) {
+            statement = batch.get(0).stmt;
+        } else {
+            BatchStatement batchStatement = new BatchStatement(BatchStatement.Type.UNLOGGED);
+            batch.forEach(write -> batchStatement.add(write.stmt));
+            statement = batchStatement;
+        }
+        ListenableFuture<Void> future = write(ctx, statement, batch.size());
+        withCallback(future,
+                aVoid -> batch.forEach(write -> write.future.set(null)),
+                e -> batch.forEach(write -> write.future.setException(e)), readResultsProcessingExecutor);
+    }
+
+    private ListenableFuture<Void> write(TbContext ctx, Statement statement, int rows) {
+        ListenableFuture<Void> future = getFuture(executeAsyncWrite(ctx, statement), rs -> null);
+        withCallback(future, aVoid -> {
+            writtenRows.addAndGet(rows);
+            writtenStatements.incrementAndGet();
+        }, e -> failedRows.addAndGet(rows), readResultsProcessingExecutor);
+        return future;
+    }
+
+    private void printStats(TbContext ctx) {
+        long ts = System.currentTimeMillis();
+        long elapsed = ts - lastStatsPrintTs;
+        if (elapsed >= STATS_PRINT_INTERVAL_MS) {
+            lastStatsPrintTs = ts;
+            long rows = writtenRows.getAndSet(0);
+            long statements = writtenStatements.getAndSet(0);
+            long failed = failedRows.getAndSet(0);
+            if (rows > 0 || failed > 0) {
+                log.info("[{}][{}{}] Custom table writes: rows [{}] statements [{}] failed [{}] pending [{}] rows/sec [{}]",
+                        ctx.getSelfId(), TABLE_PREFIX, config.getTableName(), rows, statements, failed, pendingCount,
+                        rows * 1000 / elapsed);
+            }
         }
     }
 
@@ -262,4 +366,14 @@ public class TbSaveToCustomCassandraTableNode implements TbNode {
         }, readResultsProcessingExecutor);
     }
 
+    private static class PendingWrite {
+        private final BoundStatement stmt;
+        private final SettableFuture<Void> future;
+
+        private PendingWrite(BoundStatement stmt, SettableFuture<Void> future) {
+            this.stmt = stmt;
+            this.future = future;
+        }
+    }
+
 }
\ No newline at end of file
@@ -27,7 +27,9 @@ public class TbSaveToCustomCassandraTableNodeConfiguration implements NodeConfig
 
     private String tableName;
     private Map<String, String> fieldsMapping;
-
+    private boolean batchEnabled;
+    private int batchMaxSize;
+    private int batchMaxDelayMs;
 
     @Override
     public TbSaveToCustomCassandraTableNodeConfiguration defaultConfiguration() {
@@ -36,6 +38,9 @@ public class TbSaveToCustomCassandraTableNodeConfiguration implements NodeConfig
         Map<String, String> map = new HashMap<>();
         map.put("", "");
         configuration.setFieldsMapping(map);
+        configuration.setBatchEnabled(false);
+        configuration.setBatchMaxSize(20);
+        configuration.setBatchMaxDelayMs(50);
         return configuration;
     }
 }
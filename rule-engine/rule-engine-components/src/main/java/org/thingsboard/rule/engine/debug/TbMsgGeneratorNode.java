@@ -108,6 +108,8 @@ public class TbMsgGeneratorNode implements TbNode {
                             scheduleTickMsg(ctx);
                         }
                     });
+        } else {
+            ctx.ack(msg);
         }
     }
 
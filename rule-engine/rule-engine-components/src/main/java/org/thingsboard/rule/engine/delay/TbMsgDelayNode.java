@@ -67,6 +67,7 @@ public class TbMsgDelayNode implements TbNode {
             if (pendingMsg != null) {
                 ctx.tellNext(pendingMsg, SUCCESS);
             }
+            ctx.ack(msg);
         } else {
             if(pendingMsgs.size() < config.getMaxPendingMsgs()) {
                 pendingMsgs.put(msg.getId(), msg);
@@ -98,6 +99,7 @@ public class TbMsgDelayNode implements TbNode {
 
     @Override
     public void destroy() {
+        // the delayed messages are not acknowledged, so they are replayed after a restart
         pendingMsgs.clear();
     }
 }
@@ -29,6 +29,7 @@ import org.thingsboard.server.common.msg.TbMsg;
         type = ComponentType.FILTER,
         name = "message type",
         configClazz = TbMsgTypeFilterNodeConfiguration.class,
+        stateless = true,
         relationTypes = {"True", "False"},
         nodeDescription = "Filter incoming messages by Message Type",
         nodeDetails = "If incoming MessageType is expected - send Message via <b>True</b> chain, otherwise <b>False</b> chain is used.",
@@ -48,6 +48,7 @@ import java.util.List;
         type = ComponentType.FILTER,
         name = "gps geofencing filter",
         configClazz = TbGpsGeofencingFilterNodeConfiguration.class,
+        stateless = true,
         relationTypes = {"True", "False"},
         nodeDescription = "Filter incoming messages by GPS based geofencing",
         nodeDetails = "Extracts latitude and longitude parameters from incoming message and returns 'True' if they are inside configured perimeters, 'False' otherwise.",
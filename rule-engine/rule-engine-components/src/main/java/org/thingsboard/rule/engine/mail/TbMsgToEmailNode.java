@@ -35,6 +35,7 @@ import static org.thingsboard.rule.engine.mail.TbSendEmailNode.SEND_EMAIL_TYPE;
         type = ComponentType.TRANSFORMATION,
         name = "to email",
         configClazz = TbMsgToEmailNodeConfiguration.class,
+        stateless = true,
         nodeDescription = "Transforms message to email message",
         nodeDetails = "Transforms message to email message by populating email fields using values derived from message metadata. " +
                       "Set 'SEND_EMAIL' output message type.",
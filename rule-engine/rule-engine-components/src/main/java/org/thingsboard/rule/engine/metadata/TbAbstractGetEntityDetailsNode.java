@@ -73,7 +73,7 @@ public abstract class TbAbstractGetEntityDetailsNode<C extends TbAbstractGetEnti
 
     protected MessageData getDataAsJson(TbMsg msg) {
         if (this.config.isAddToMetadata()) {
-            return new MessageData(gson.toJsonTree(msg.getMetaData().getData(), TYPE), "metadata");
+            return new MessageData(gson.toJsonTree(msg.getMetaData().readOnlyData(), TYPE), "metadata");
         } else {
             return new MessageData(jsonParser.parse(msg.getData()), "data");
         }
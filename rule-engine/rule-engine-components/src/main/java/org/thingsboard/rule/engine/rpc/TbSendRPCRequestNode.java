@@ -21,7 +21,6 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.StringUtils;
 import org.thingsboard.rule.engine.api.util.TbNodeUtils;
@@ -59,7 +58,6 @@ public class TbSendRPCRequestNode implements TbNode {
 
     private Random random = new Random();
     private Gson gson = new Gson();
-    private JsonParser jsonParser = new JsonParser();
     private TbSendRpcRequestNodeConfiguration config;
 
     @Override
@@ -69,7 +67,7 @@ public class TbSendRPCRequestNode implements TbNode {
 
     @Override
     public void onMsg(TbContext ctx, TbMsg msg) {
-        JsonObject json = jsonParser.parse(msg.getData()).getAsJsonObject();
+        JsonObject json = msg.getJsonData().getAsJsonObject();
         String tmp;
         if (msg.getOriginator().getEntityType() != EntityType.DEVICE) {
             ctx.tellFailure(msg, new RuntimeException("Message originator is not a device entity!"));
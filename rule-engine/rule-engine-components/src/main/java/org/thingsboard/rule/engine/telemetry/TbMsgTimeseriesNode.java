@@ -15,7 +15,6 @@
  */
 package org.thingsboard.rule.engine.telemetry;
 
-import com.google.gson.JsonParser;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.StringUtils;
 import org.thingsboard.rule.engine.api.util.TbNodeUtils;
@@ -73,7 +72,7 @@ public class TbMsgTimeseriesNode implements TbNode {
             ts = System.currentTimeMillis();
         }
         String src = msg.getData();
-        Map<Long, List<KvEntry>> tsKvMap = JsonConverter.convertToTelemetry(new JsonParser().parse(src), ts);
+        Map<Long, List<KvEntry>> tsKvMap = JsonConverter.convertToTelemetry(msg.getJsonData(), ts);
         if (tsKvMap == null) {
             ctx.tellFailure(msg, new IllegalArgumentException("Msg body is empty: " + src));
             return;